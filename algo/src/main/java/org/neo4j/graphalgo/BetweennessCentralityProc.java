@@ -19,9 +19,13 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.MemoryRecommendation;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.*;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.Translators;
 import org.neo4j.graphalgo.impl.betweenness.*;
@@ -85,6 +89,13 @@ public class BetweennessCentralityProc {
             return Stream.empty();
         }
 
+        if (graph instanceof HugeGraph) {
+            final HugeBetweennessCentrality algo = hugeBetweenness((HugeGraph) graph, configuration, strategy(configuration, graph))
+                    .compute();
+            graph.release();
+            return algo.resultStream();
+        }
+
         final RABrandesBetweennessCentrality algo =
                 new RABrandesBetweennessCentrality(graph, Pools.DEFAULT, configuration.getConcurrency(), strategy(configuration, graph))
                         .withTerminationFlag(TerminationFlag.wrap(transaction))
@@ -123,6 +134,13 @@ public class BetweennessCentralityProc {
             return Stream.empty();
         }
 
+        if (graph instanceof HugeGraph) {
+            final HugeBetweennessCentrality algo = hugeBetweenness((HugeGraph) graph, configuration, null)
+                    .compute();
+            graph.release();
+            return algo.resultStream();
+        }
+
         final int concurrency = configuration.getConcurrency();
         if (concurrency > 1) {
             final ParallelBetweennessCentrality algo =
@@ -193,8 +211,13 @@ public class BetweennessCentralityProc {
                     .load(configuration.getGraphImpl());
         }
 
-        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
         final RABrandesBetweennessCentrality.SelectionStrategy strategy = strategy(configuration, graph);
+        if (graph instanceof HugeGraph) {
+            builder.withNodeCount(strategy.size());
+            return computeBetweennessHuge((HugeGraph) graph, configuration, strategy, builder);
+        }
+
+        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
         final RABrandesBetweennessCentrality bc =
                 new RABrandesBetweennessCentrality(graph, Pools.DEFAULT, configuration.getConcurrency(), strategy)
                         .withProgressLogger(ProgressLogger.wrap(log, "Randomized Approximate Brandes: BetweennessCentrality(parallel)"))
@@ -251,6 +274,10 @@ public class BetweennessCentralityProc {
             return Stream.of(builder.build());
         }
 
+        if (graph instanceof HugeGraph) {
+            return computeBetweennessHuge((HugeGraph) graph, configuration, null, builder);
+        }
+
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
         final BetweennessCentrality bc = new BetweennessCentrality(graph)
                 .withTerminationFlag(terminationFlag)
@@ -311,6 +338,10 @@ public class BetweennessCentralityProc {
             return Stream.of(builder.build());
         }
 
+        if (graph instanceof HugeGraph) {
+            return computeBetweennessHuge((HugeGraph) graph, configuration, null, builder);
+        }
+
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
         final ParallelBetweennessCentrality bc =
                 new ParallelBetweennessCentrality(graph, Pools.DEFAULT, configuration.getConcurrency())
@@ -342,6 +373,67 @@ public class BetweennessCentralityProc {
         return Stream.of(builder.build());
     }
 
+    private Stream<BetweennessCentralityProcResult> computeBetweennessHuge(
+            HugeGraph graph,
+            ProcedureConfiguration configuration,
+            RABrandesBetweennessCentrality.SelectionStrategy strategy,
+            BetweennessCentralityProcResult.Builder builder) {
+
+        final HugeBetweennessCentrality bc = hugeBetweenness(graph, configuration, strategy);
+
+        builder.timeEval(() -> {
+            bc.compute();
+            if (configuration.isStatsFlag()) {
+                computeStats(builder, bc.getCentrality(), graph.nodeCount());
+            }
+        });
+
+        graph.release();
+        if (configuration.isWriteFlag()) {
+            builder.timeWrite(() -> {
+                final DoubleArray centrality = bc.getCentrality();
+                final String writeProperty = configuration.getWriteProperty(DEFAULT_TARGET_PROPERTY);
+                Exporter.of(api, graph)
+                        .withLog(log)
+                        .parallel(Pools.DEFAULT, configuration.getConcurrency(), TerminationFlag.wrap(transaction))
+                        .build()
+                        .write(writeProperty, centrality, DoubleArray.Translator.INSTANCE);
+            });
+        }
+        bc.release();
+
+        return Stream.of(builder.build());
+    }
+
+    private HugeBetweennessCentrality hugeBetweenness(
+            HugeGraph graph,
+            ProcedureConfiguration configuration,
+            RABrandesBetweennessCentrality.SelectionStrategy strategy) {
+        final String name = strategy == null ? "BetweennessCentrality(huge)" : "Randomized Approximate Brandes: BetweennessCentrality(huge)";
+        final int batchSize = configuration.getNumber("batchSize", HugeBetweennessCentrality.MAX_BATCH_SIZE).intValue();
+        final HugeBetweennessCentrality algo = new HugeBetweennessCentrality(
+                graph,
+                Pools.DEFAULT,
+                configuration.getConcurrency(),
+                strategy,
+                AllocationTracker.create())
+                .withProgressLogger(ProgressLogger.wrap(log, name))
+                .withTerminationFlag(TerminationFlag.wrap(transaction))
+                .withDirection(configuration.getDirection(DEFAULT_DIRECTION))
+                .withMaxDepth(configuration.getNumber("maxDepth", Integer.MAX_VALUE).intValue())
+                .withBatchSize(batchSize);
+
+        // every thread keeps the path counts of a batch for all nodes, refuse to start if they can't fit
+        MemoryRecommendation
+                .ofLoadedGraph(graph.nodeCount(), HugeBetweennessCentrality.memoryEstimation(
+                        graph.nodeCount(),
+                        algo.sourceCount(),
+                        configuration.getConcurrency(),
+                        batchSize))
+                .assertFitsInHeap(name, log);
+        return algo;
+    }
+
     private void computeStats(BetweennessCentralityProcResult.Builder builder, double[] centrality) {
         double min = Double.MAX_VALUE;
         double max = Double.MIN_VALUE;
@@ -380,6 +472,25 @@ public class BetweennessCentralityProc {
                 .withCentralitySum(sum);
     }
 
+    private void computeStats(BetweennessCentralityProcResult.Builder builder, DoubleArray centrality, long nodeCount) {
+        double min = Double.MAX_VALUE;
+        double max = Double.MIN_VALUE;
+        double sum = 0.0;
+        for (long i = nodeCount - 1; i >= 0; i--) {
+            final double c = centrality.get(i);
+            if (c < min) {
+                min = c;
+            }
+            if (c > max) {
+                max = c;
+            }
+            sum += c;
+        }
+        builder.withCentralityMax(max)
+                .withCentralityMin(min)
+                .withCentralitySum(sum);
+    }
+
     private RABrandesBetweennessCentrality.SelectionStrategy strategy(ProcedureConfiguration configuration, Graph graph) {
 
         switch (configuration.getString("strategy", "random")) {
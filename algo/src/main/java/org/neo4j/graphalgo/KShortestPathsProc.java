@@ -124,7 +124,6 @@ public class KShortestPathsProc {
                 new WeightedPathExporter(api,
                         Pools.DEFAULT,
                         graph,
-                        graph,
                         configuration.getString(PREFIX_IDENTIFIER, DEFAULT_TARGET_PROPERTY),
                         configuration.getString(REL_TYPE_PROPERTY_IDENTIFIER, DEFAULT_RELATIONSHIP_PROPERTY))
                         .export(algorithm.getPaths());
@@ -200,8 +199,7 @@ public class KShortestPathsProc {
             count.set(0);
 
             double[] costs = new double[weightedPath.size()-1];
-            weightedPath.forEachEdge((sourceNode, targetNode) -> {
-                double cost = graph.weightOf(sourceNode, targetNode);
+            weightedPath.forEachEdge((sourceNode, targetNode, cost) -> {
                 costs[count.getAndIncrement()] = cost;
             });
 
@@ -116,7 +116,7 @@ public class KSpanningTreeProc {
 
         final int root = graph.toMappedNodeId(startNode);
 
-        final KSpanningTree kSpanningTree = new KSpanningTree(graph, graph, graph)
+        final KSpanningTree kSpanningTree = new KSpanningTree(graph, graph)
                 .withProgressLogger(ProgressLogger.wrap(log, "KSpanningTrees"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction));
 
@@ -18,7 +18,9 @@
  */
 package org.neo4j.graphalgo;
 
+import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
@@ -27,9 +29,10 @@ import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
-import org.neo4j.graphalgo.core.write.Translators;
 import org.neo4j.graphalgo.impl.LabelPropagation;
+import org.neo4j.graphalgo.impl.LabelPropagationAlgorithm;
 import org.neo4j.graphalgo.results.LabelPropagationStats;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -44,6 +47,7 @@ import org.neo4j.procedure.Procedure;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public final class LabelPropagationProc {
@@ -101,14 +105,14 @@ public final class LabelPropagationProc {
             graphLoader.withDirection(direction);
         }
 
-        HeavyGraph graph = load(graphLoader, configuration, stats);
+        Graph graph = load(graphLoader, configuration, stats);
 
         if(graph.nodeCount() == 0) {
             graph.release();
             return Stream.of(stats.build());
         }
 
-        int[] labels = compute(direction, iterations, batchSize, concurrency, graph, stats);
+        LabelPropagationAlgorithm.Labels labels = compute(direction, iterations, batchSize, concurrency, graph, stats);
         if (configuration.isWriteFlag(DEFAULT_WRITE) && partitionProperty != null) {
             write(concurrency, partitionProperty, graph, labels, stats);
         }
@@ -145,7 +149,7 @@ public final class LabelPropagationProc {
             graphLoader.withDirection(direction);
         }
         LabelPropagationStats.Builder stats = new LabelPropagationStats.Builder();
-        HeavyGraph graph = load(graphLoader, configuration, stats);
+        Graph graph = load(graphLoader, configuration, stats);
 
 
         if(graph.nodeCount() == 0) {
@@ -153,12 +157,18 @@ public final class LabelPropagationProc {
             return Stream.empty();
         }
 
-        int[] result = compute(direction, iterations, batchSize, concurrency, graph, stats, propertyMappings);
+        LabelPropagationAlgorithm.Labels result = compute(direction, iterations, batchSize, concurrency, graph, stats, propertyMappings);
 
         graph.release();
 
-        return IntStream.range(0, result.length)
-                .mapToObj(i -> new LabelPropagation.StreamResult(graph.toOriginalNodeId(i), result[i]));
+        if (graph instanceof HugeGraph) {
+            HugeGraph hugeGraph = (HugeGraph) graph;
+            return LongStream.range(0L, result.size())
+                    .mapToObj(i -> new LabelPropagation.StreamResult(hugeGraph.toOriginalNodeId(i), result.labelFor(i)));
+        }
+
+        return IntStream.range(0, Math.toIntExact(result.size()))
+                .mapToObj(i -> new LabelPropagation.StreamResult(graph.toOriginalNodeId(i), result.labelFor(i)));
     }
 
     private PropertyMapping[] createPropertyMappings(String partitionProperty, String weightProperty) {
@@ -168,11 +178,11 @@ public final class LabelPropagationProc {
             };
     }
 
-    private HeavyGraph load(GraphLoader graphLoader, ProcedureConfiguration config, LabelPropagationStats.Builder stats) {
+    private Graph load(GraphLoader graphLoader, ProcedureConfiguration config, LabelPropagationStats.Builder stats) {
         Class<? extends GraphFactory> graphImpl = config.getGraphImpl(
-                HeavyGraph.TYPE, HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE);
+                HeavyGraph.TYPE, HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE, HugeGraph.TYPE);
         try (ProgressTimer timer = stats.timeLoad()) {
-            return (HeavyGraph) graphLoader.load(graphImpl);
+            return graphLoader.load(graphImpl);
         }
     }
 
@@ -185,29 +195,34 @@ public final class LabelPropagationProc {
                 .withOptionalNodeProperty(partitionProperty, 0.0d);
     }
 
-    private int[] compute(
+    private LabelPropagationAlgorithm.Labels compute(
             Direction direction,
             int iterations,
             int batchSize,
             int concurrency,
-            HeavyGraph graph,
+            Graph graph,
             LabelPropagationStats.Builder stats,
             PropertyMapping... propertyMappings) {
         try (ProgressTimer timer = stats.timeEval()) {
             ExecutorService pool = batchSize > 0 ? Pools.DEFAULT : null;
             batchSize = Math.max(1, batchSize);
-            final LabelPropagation labelPropagation = new LabelPropagation(graph, batchSize, concurrency, pool);
-            labelPropagation
+            final LabelPropagationAlgorithm labelPropagation = LabelPropagationAlgorithm.of(
+                    graph,
+                    batchSize,
+                    concurrency,
+                    pool,
+                    AllocationTracker.create());
+            labelPropagation.algorithm()
                     .withProgressLogger(ProgressLogger.wrap(log, "LabelPropagation"))
-                    .withTerminationFlag(TerminationFlag.wrap(transaction))
-                    .compute(direction, iterations);
-            final int[] result = labelPropagation.labels();
+                    .withTerminationFlag(TerminationFlag.wrap(transaction));
+            labelPropagation.compute(direction, iterations);
+            final LabelPropagationAlgorithm.Labels result = labelPropagation.result();
 
             stats.iterations(labelPropagation.ranIterations());
             stats.didConverge(labelPropagation.didConverge());
-            stats.nodes(result.length);
+            stats.nodes(result.size());
 
-            labelPropagation.release();
+            labelPropagation.algorithm().release();
             graph.release();
             return result;
         }
@@ -216,20 +231,16 @@ public final class LabelPropagationProc {
     private void write(
             int concurrency,
             String partitionKey,
-            HeavyGraph graph,
-            int[] labels,
+            Graph graph,
+            LabelPropagationAlgorithm.Labels labels,
             LabelPropagationStats.Builder stats) {
         stats.write(true);
         try (ProgressTimer timer = stats.timeWrite()) {
-            Exporter.of(dbAPI, graph)
+            Exporter exporter = Exporter.of(dbAPI, graph)
                     .withLog(log)
                     .parallel(Pools.DEFAULT, concurrency, TerminationFlag.wrap(transaction))
-                    .build()
-                    .write(
-                            partitionKey,
-                            labels,
-                            Translators.INT_ARRAY_TRANSLATOR
-                );
+                    .build();
+            labels.export(partitionKey, exporter);
         }
     }
 }
@@ -23,10 +23,15 @@ import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.ProcedureConstants;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphImpl;
+import org.neo4j.graphalgo.core.loading.HugeGraphSync;
 import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
+import org.neo4j.graphalgo.core.utils.GraphFileDirectory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
 import org.neo4j.graphalgo.impl.LabelPropagation;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -34,11 +39,14 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
 
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.stream.Stream;
 
 public final class LoadGraphProc {
 
+    private static final long DEFAULT_MERGE_THRESHOLD = 100_000L;
+
     @Context
     public GraphDatabaseAPI dbAPI;
 
@@ -51,8 +59,8 @@ public final class LoadGraphProc {
     @Procedure(name = "algo.graph.load")
     @Description("CALL algo.graph.load(" +
             "name:String, label:String, relationship:String" +
-            "{direction:'OUT/IN/BOTH', undirected:true/false, sorted:true/false, nodeProperty:'value', nodeWeight:'weight', relationshipWeight: 'weight', graph:'heavy/huge/cypher'}) " +
-            "YIELD nodes, relationships, loadMillis, computeMillis, writeMillis, write, nodeProperty, nodeWeight, relationshipWeight - " +
+            "{direction:'OUT/IN/BOTH', undirected:true/false, sorted:true/false, nodeProperty:'value', nodeWeight:'weight', relationshipWeight: 'weight', graph:'heavy/huge/cypher', sync:false, mergeThreshold:100000}) " +
+            "YIELD nodes, relationships, loadMillis, computeMillis, writeMillis, write, nodeProperty, nodeWeight, relationshipWeight, sync - " +
             "load named graph")
     public Stream<LoadGraphStats> load(
             @Name(value = "name", defaultValue = "") String name,
@@ -80,6 +88,7 @@ public final class LoadGraphProc {
         stats.nodeWeight = nodeWeight;
         stats.nodeProperty = nodeProperty;
         stats.relationshipWeight = relationshipWeight;
+        stats.sync = configuration.get("sync", false);
 
         if (LoadGraphFactory.check(name)) {
             // return already loaded
@@ -87,11 +96,32 @@ public final class LoadGraphProc {
             return Stream.of(stats);
         }
 
-        try (ProgressTimer timer = ProgressTimer.start()) {
-            Class<? extends GraphFactory> graphImpl = configuration.getGraphImpl();
+        Class<? extends GraphFactory> graphImpl = configuration.getGraphImpl();
+        HugeGraphSync sync = null;
+        if (stats.sync) {
+            if (graphImpl != HugeGraphFactory.class) {
+                throw new IllegalArgumentException("Only huge graphs can be kept in sync, use graph:'huge'");
+            }
+            if (configuration.getMemoryBackend() != MemoryBackend.HEAP) {
+                throw new IllegalArgumentException("Graphs that are kept in sync must be stored on the heap");
+            }
+            // registered before the load, so that transactions that commit during the load are not missed
+            sync = new HugeGraphSync(
+                    name,
+                    dbAPI,
+                    log,
+                    configuration.getNodeLabelOrQuery(),
+                    configuration.getRelationshipOrQuery(),
+                    relationshipWeight,
+                    1.0d,
+                    stats.undirected,
+                    configuration.get("mergeThreshold", DEFAULT_MERGE_THRESHOLD));
+            sync.register();
+        }
 
+        try (ProgressTimer timer = ProgressTimer.start()) {
             Graph graph = new GraphLoader(dbAPI, Pools.DEFAULT)
-                    .init(log, configuration.getNodeLabelOrQuery(),
+                    .initNamedGraph(log, configuration.getNodeLabelOrQuery(),
                             configuration.getRelationshipOrQuery(), configuration)
                     .withName(name)
                     .withAllocationTracker(new AllocationTracker())
@@ -109,6 +139,15 @@ public final class LoadGraphProc {
             stats.nodes=graph.nodeCount();
             stats.loadMillis = timer.stop().getDuration();
             LoadGraphFactory.set(name, graph);
+        } catch (RuntimeException e) {
+            if (sync != null) {
+                HugeGraphSync.unregister(name);
+            }
+            throw e;
+        }
+
+        if (sync != null) {
+            sync.start();
         }
 
         return Stream.of(stats);
@@ -118,11 +157,73 @@ public final class LoadGraphProc {
         public String name, graph, direction;
         public boolean undirected;
         public boolean sorted;
+        public boolean sync;
         public long nodes, loadMillis;
         public boolean alreadyLoaded;
         public String nodeWeight, relationshipWeight, nodeProperty, loadNodes, loadRelationships;
     }
 
+    @Procedure(name = "algo.graph.save")
+    @Description("CALL algo.graph.save(name:String, file:String, {overwrite:false}) " +
+            "YIELD name, file, type, nodes, bytes, millis - " +
+            "write a named huge graph into a binary file, the file is resolved against the directory configured with " + GraphFileDirectory.SETTING)
+    public Stream<GraphFileStats> save(
+            @Name("name") String name,
+            @Name("file") String file,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        Path path = GraphFileDirectory.resolve(dbAPI, file);
+        boolean overwrite = ProcedureConfiguration.create(config).get("overwrite", false);
+        GraphFileStats stats = new GraphFileStats(name, path.toString());
+        Graph graph = LoadGraphFactory.get(name);
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            stats.bytes = LoadGraphFactory.save(name, graph, path, overwrite);
+            stats.millis = timer.stop().getDuration();
+        }
+        stats.type = graph.getType();
+        stats.nodes = graph.nodeCount();
+        return Stream.of(stats);
+    }
+
+    @Procedure(name = "algo.graph.open")
+    @Description("CALL algo.graph.open(name:String, file:String) " +
+            "YIELD name, file, type, nodes, bytes, millis, alreadyLoaded - " +
+            "open a graph file written by algo.graph.save as named graph, the file is resolved against the directory configured with " + GraphFileDirectory.SETTING + ", " +
+            "the relationships and node ids are read from the memory mapped file, which must not change while the graph is loaded")
+    public Stream<GraphFileStats> open(
+            @Name("name") String name,
+            @Name("file") String file) {
+        Path path = GraphFileDirectory.resolve(dbAPI, file);
+        GraphFileStats stats = new GraphFileStats(name, path.toString());
+
+        if (LoadGraphFactory.check(name)) {
+            // return already loaded
+            stats.alreadyLoaded = true;
+            return Stream.of(stats);
+        }
+
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            Graph graph = LoadGraphFactory.open(name, path, AllocationTracker.create());
+            stats.millis = timer.stop().getDuration();
+            stats.type = graph.getType();
+            stats.nodes = graph.nodeCount();
+        }
+        stats.bytes = path.toFile().length();
+        return Stream.of(stats);
+    }
+
+    public static class GraphFileStats {
+        public final String name;
+        public final String file;
+        public String type;
+        public long nodes, bytes, millis;
+        public boolean alreadyLoaded;
+
+        public GraphFileStats(String name, String file) {
+            this.name = name;
+            this.file = file;
+        }
+    }
+
     @Procedure(name = "algo.graph.remove")
     @Description("CALL algo.graph.remove(name:String")
     public Stream<GraphInfo> remove(@Name("name") String name) {
@@ -147,6 +248,10 @@ public final class LoadGraphProc {
             info.type = graph.getType();
             info.nodes = graph.nodeCount();
             info.exists = true;
+            info.sync = HugeGraphSync.get(name) != null;
+            if (graph instanceof HugeGraphImpl) {
+                info.pendingUpdates = ((HugeGraphImpl) graph).pendingUpdates();
+            }
         }
         return Stream.of(info);
     }
@@ -156,7 +261,9 @@ public final class LoadGraphProc {
         public String type;
         public boolean exists;
         public boolean removed;
+        public boolean sync;
         public long nodes;
+        public long pendingUpdates;
 
         public GraphInfo(String name) {
             this.name = name;
@@ -26,6 +26,7 @@ import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.louvain.*;
 import org.neo4j.graphalgo.results.LouvainResult;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -82,9 +83,11 @@ public class LouvainProc {
             return Stream.of(builder.build());
         }
 
-        final Louvain louvain = new Louvain(graph, Pools.DEFAULT, configuration.getConcurrency(), AllocationTracker.create())
+        final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        final LouvainAlgorithm louvain = LouvainAlgorithm.of(graph, Pools.DEFAULT, configuration.getConcurrency(), AllocationTracker.create());
+        louvain.algorithm()
                 .withProgressLogger(ProgressLogger.wrap(log, "Louvain"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction));
+                .withTerminationFlag(terminationFlag);
 
         // evaluation
         try (ProgressTimer timer = builder.timeEval()) {
@@ -93,7 +96,7 @@ public class LouvainProc {
         }
 
         if (configuration.isWriteFlag()) {
-            builder.timeWrite(() -> write(graph, louvain.getDendrogram(), configuration));
+            builder.timeWrite(() -> write(graph, louvain, configuration, terminationFlag));
         }
 
         return Stream.of(builder.build());
@@ -115,10 +118,11 @@ public class LouvainProc {
         final Graph graph = graph(configuration);
 
         // evaluation
-        final Louvain louvain = new Louvain(graph, Pools.DEFAULT, configuration.getConcurrency(), AllocationTracker.create())
+        final LouvainAlgorithm louvain = LouvainAlgorithm.of(graph, Pools.DEFAULT, configuration.getConcurrency(), AllocationTracker.create());
+        louvain.algorithm()
                 .withProgressLogger(ProgressLogger.wrap(log, "Louvain"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction))
-                .compute(configuration.getIterations(10), configuration.get("innerIterations", 10));
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+        louvain.compute(configuration.getIterations(10), configuration.get("innerIterations", 10));
 
         if (graph.nodeCount() == 0) {
             graph.release();
@@ -138,9 +142,22 @@ public class LouvainProc {
                 .load(config.getGraphImpl());
     }
 
-    private void write(Graph graph, int[][] communities, ProcedureConfiguration configuration) {
+    private void write(Graph graph, LouvainAlgorithm louvain, ProcedureConfiguration configuration, TerminationFlag terminationFlag) {
         log.debug("Writing results");
 
+        if (louvain instanceof HugeLouvain) {
+            Exporter.of(api, graph)
+                    .withLog(log)
+                    .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                    .build()
+                    .write(
+                            configuration.getWriteProperty(DEFAULT_CLUSTER_PROPERTY),
+                            (HugeLouvain) louvain,
+                            HugeLouvain.DendrogramTranslator.INSTANCE);
+            return;
+        }
+
+        final int[][] communities = ((Louvain) louvain).getDendrogram();
         new LouvainCommunityExporter(
                 api,
                 Pools.DEFAULT,
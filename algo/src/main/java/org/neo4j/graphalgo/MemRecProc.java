@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.MemoryRecommendation;
+import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.impl.UnionFindAlgo;
+import org.neo4j.graphalgo.impl.UnionFindProcExec;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+import static org.neo4j.graphalgo.core.utils.paged.AllocationTracker.humanReadable;
+
+/**
+ * Estimates the memory that loading a huge graph and running an algorithm on it requires,
+ * without loading the graph.
+ * <p>
+ * Only huge graphs and the algorithms pageRank and unionFind can estimate their memory.
+ * Without an algorithm the graph is estimated as loaded by {@code algo.graph.load}, which also
+ * accepts {@code memory:'offheap'}; the memory that such a graph keeps outside of the heap
+ * is reported as offHeapMinBytes and offHeapMaxBytes and is not part of minBytes and maxBytes.
+ */
+public final class MemRecProc {
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Context
+    public Log log;
+
+    @Context
+    public KernelTransaction transaction;
+
+    @Procedure(name = "algo.memrec")
+    @Description("CALL algo.memrec(label:String, relationship:String, algorithm:'pageRank/unionFind', " +
+            "{graph:'huge', concurrency:4, ...algorithm config}) " +
+            "YIELD nodes, requiredMemory, graphMinBytes, graphMaxBytes, algorithmMinBytes, algorithmMaxBytes, " +
+            "minBytes, maxBytes, offHeapMinBytes, offHeapMaxBytes, availableHeap, fitsInHeap - " +
+            "estimates the heap of loading a huge graph and running the algorithm, without an algorithm the graph " +
+            "is estimated as loaded by algo.graph.load and off-heap memory is reported separately")
+    public Stream<MemRecResult> memrec(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "algorithm", defaultValue = "") String algorithm,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config)
+                .overrideNodeLabelOrQuery(label)
+                .overrideRelationshipTypeOrQuery(relationship);
+        Class<? extends GraphFactory> graphImpl = configuration.getGraphImpl(HugeGraph.TYPE);
+
+        final GraphLoader loader;
+        final LongFunction<MemoryRange> estimation;
+        switch (algorithm.toLowerCase(Locale.ROOT)) {
+            case "":
+                loader = new GraphLoader(api, Pools.DEFAULT)
+                        .initNamedGraph(log, label, relationship, configuration);
+                estimation = nodeCount -> MemoryRange.empty();
+                break;
+            case "pagerank":
+                loader = PageRankProc.graphLoader(api, log, label, relationship, configuration);
+                estimation = nodeCount -> PageRankProc.memoryEstimation(configuration, nodeCount);
+                break;
+            case "unionfind":
+                UnionFindProcExec unionFind = new UnionFindProcExec(
+                        api,
+                        log,
+                        transaction,
+                        UnionFindAlgo.SEQ,
+                        UnionFindAlgo.AFFOREST);
+                loader = unionFind.graphLoader(configuration, AllocationTracker.EMPTY);
+                estimation = nodeCount -> unionFind.memoryEstimation(configuration, nodeCount);
+                break;
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "Memory estimation is not supported for algorithm '%s', use one of 'pageRank' or 'unionFind'",
+                        algorithm));
+        }
+
+        GraphFactory factory = loader.build(graphImpl);
+        return Stream.of(new MemRecResult(MemoryRecommendation.of(factory, estimation)));
+    }
+
+    public static class MemRecResult {
+        public final long nodes;
+        public final String requiredMemory;
+        public final long graphMinBytes, graphMaxBytes;
+        public final long algorithmMinBytes, algorithmMaxBytes;
+        public final long minBytes, maxBytes;
+        public final long offHeapMinBytes, offHeapMaxBytes;
+        public final String availableHeap;
+        public final boolean fitsInHeap;
+
+        public MemRecResult(MemoryRecommendation recommendation) {
+            MemoryRange total = recommendation.total();
+            this.nodes = recommendation.nodeCount();
+            this.requiredMemory = total.toString();
+            this.graphMinBytes = recommendation.graph().min();
+            this.graphMaxBytes = recommendation.graph().max();
+            this.algorithmMinBytes = recommendation.algorithm().min();
+            this.algorithmMaxBytes = recommendation.algorithm().max();
+            this.minBytes = total.min();
+            this.maxBytes = total.max();
+            this.offHeapMinBytes = recommendation.offHeap().min();
+            this.offHeapMaxBytes = recommendation.offHeap().max();
+            this.availableHeap = humanReadable(recommendation.availableHeap());
+            this.fitsInHeap = recommendation.fitsInHeap();
+        }
+    }
+}
@@ -21,13 +21,18 @@ package org.neo4j.graphalgo;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.MemoryRecommendation;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
 import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.impl.HugePageRank;
+import org.neo4j.graphalgo.impl.PageRankScores;
 import org.neo4j.graphalgo.impl.PageRankResult;
 import org.neo4j.graphalgo.impl.Algorithm;
 import org.neo4j.graphalgo.impl.PageRankAlgorithm;
@@ -46,6 +51,8 @@ import org.neo4j.procedure.Procedure;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongToDoubleFunction;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
@@ -53,9 +60,16 @@ import java.util.stream.Stream;
 public final class PageRankProc {
 
     public static final String CONFIG_DAMPING = "dampingFactor";
+    public static final String CONFIG_TOLERANCE = "tolerance";
+    public static final String CONFIG_EPSILON = "epsilon";
+    public static final String CONFIG_SEED_PROPERTY = "seedProperty";
+    public static final String CONFIG_SEED_RESULT = "seedResult";
+    public static final String CONFIG_STORE_RESULT = "storeResult";
 
     public static final Double DEFAULT_DAMPING = 0.85;
     public static final Integer DEFAULT_ITERATIONS = 20;
+    public static final Double DEFAULT_TOLERANCE = 0.0;
+    public static final Double DEFAULT_EPSILON = 0.0;
     public static final String DEFAULT_SCORE_PROPERTY = "pagerank";
 
     @Context
@@ -69,7 +83,8 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRank", mode = Mode.WRITE)
     @Description("CALL algo.pageRank(label:String, relationship:String, " +
-            "{iterations:5, dampingFactor:0.85, write: true, writeProperty:'pagerank', concurrency:4}) " +
+            "{iterations:5, dampingFactor:0.85, write: true, writeProperty:'pagerank', concurrency:4, " +
+            "tolerance:0.0, epsilon:0.0, seedProperty:'pagerank', seedResult:'name', storeResult:'name'}) " +
             "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, write, writeProperty" +
             " - calculates page rank and potentially writes back")
     public Stream<PageRankScore.Stats> pageRank(
@@ -100,7 +115,8 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRank.stream", mode = Mode.READ)
     @Description("CALL algo.pageRank.stream(label:String, relationship:String, " +
-            "{iterations:20, dampingFactor:0.85, concurrency:4}) " +
+            "{iterations:20, dampingFactor:0.85, concurrency:4, " +
+            "tolerance:0.0, epsilon:0.0, seedProperty:'pagerank', seedResult:'name', storeResult:'name'}) " +
             "YIELD node, score - calculates page rank and streams results")
     public Stream<PageRankScore> pageRankStream(
             @Name(value = "label", defaultValue = "") String label,
@@ -147,30 +163,67 @@ public final class PageRankProc {
                 });
     }
 
+    @Procedure(value = "algo.pageRank.removeResult", mode = Mode.READ)
+    @Description("CALL algo.pageRank.removeResult(name:String) YIELD name, removed" +
+            " - removes a result that has been kept with storeResult")
+    public Stream<StoredResult> removeResult(@Name("name") String name) {
+        return Stream.of(new StoredResult(name, PageRankScores.remove(name)));
+    }
+
     private Graph load(
             String label,
             String relationship,
             AllocationTracker tracker,
             Class<? extends GraphFactory> graphFactory,
             PageRankScore.Stats.Builder statsBuilder, ProcedureConfiguration configuration) {
+        GraphLoader graphLoader = graphLoader(api, log, label, relationship, configuration)
+                .withAllocationTracker(tracker);
+
+        try (ProgressTimer timer = statsBuilder.timeLoad()) {
+            GraphFactory factory = graphLoader.build(graphFactory);
+            if (configuration.shouldCheckMemory()) {
+                MemoryRecommendation
+                        .of(factory, nodeCount -> memoryEstimation(configuration, nodeCount))
+                        .assertFitsInHeap("PageRank", log);
+            }
+            Graph graph = factory.build();
+            statsBuilder.withNodes(graph.nodeCount());
+            return graph;
+        }
+    }
+
+    static GraphLoader graphLoader(
+            GraphDatabaseAPI api,
+            Log log,
+            String label,
+            String relationship,
+            ProcedureConfiguration configuration) {
         GraphLoader graphLoader = new GraphLoader(api, Pools.DEFAULT)
                 .init(log, label, relationship, configuration)
-                .withAllocationTracker(tracker)
                 .withoutRelationshipWeights();
 
+        String seedProperty = configuration.getString(CONFIG_SEED_PROPERTY, null);
+        if (seedProperty != null) {
+            graphLoader.withOptionalNodeProperties(
+                    PropertyMapping.of(CONFIG_SEED_PROPERTY, seedProperty, Double.NaN));
+        }
+
         Direction direction = configuration.getDirection(Direction.OUTGOING);
         if (direction == Direction.BOTH) {
             graphLoader.asUndirected(true);
         } else {
             graphLoader.withDirection(direction);
         }
+        return graphLoader;
+    }
 
-
-        try (ProgressTimer timer = statsBuilder.timeLoad()) {
-            Graph graph = graphLoader.load(graphFactory);
-            statsBuilder.withNodes(graph.nodeCount());
-            return graph;
-        }
+    /**
+     * Huge graphs are ranked by {@link HugePageRank}. Only huge graphs can estimate their memory,
+     * the estimation of any other graph fails before the page rank is estimated.
+     */
+    static MemoryRange memoryEstimation(ProcedureConfiguration configuration, long nodeCount) {
+        int concurrency = configuration.getConcurrency(Pools.getNoThreadsInDefaultPool());
+        return HugePageRank.memoryEstimation(nodeCount, concurrency);
     }
 
     private PageRankResult evaluate(
@@ -182,6 +235,9 @@ public final class PageRankProc {
 
         double dampingFactor = configuration.get(CONFIG_DAMPING, DEFAULT_DAMPING);
         int iterations = configuration.getIterations(DEFAULT_ITERATIONS);
+        double tolerance = configuration.getNumber(CONFIG_TOLERANCE, DEFAULT_TOLERANCE).doubleValue();
+        double epsilon = configuration.getNumber(CONFIG_EPSILON, DEFAULT_EPSILON).doubleValue();
+        String storeResult = configuration.getString(CONFIG_STORE_RESULT, null);
         final int batchSize = configuration.getBatchSize();
         final int concurrency = configuration.getConcurrency(Pools.getNoThreadsInDefaultPool());
         log.debug("Computing page rank with damping of " + dampingFactor + " and " + iterations + " iterations.");
@@ -198,23 +254,59 @@ public final class PageRankProc {
                 concurrency,
                 batchSize);
         Algorithm<?> algo = prAlgo
+                .withTolerance(tolerance)
+                .withEpsilon(epsilon)
                 .algorithm()
                 .withLog(log)
                 .withTerminationFlag(terminationFlag);
 
+        boolean resumable = storeResult != null
+                || configuration.containsKeys(CONFIG_SEED_RESULT)
+                || configuration.containsKeys(CONFIG_SEED_PROPERTY);
+        if (resumable) {
+            if (!(prAlgo instanceof HugePageRank)) {
+                throw new IllegalArgumentException(
+                        "Resuming from previous scores requires a huge graph, use graph:'huge'");
+            }
+            ((HugePageRank) prAlgo).withPriorScores(priorScores((HugeGraph) graph, configuration));
+        }
 
         statsBuilder.timeEval(() -> prAlgo.compute(iterations));
 
         statsBuilder
-                .withIterations(iterations)
+                .withIterations(prAlgo.iterations())
                 .withDampingFactor(dampingFactor);
 
         final PageRankResult pageRank = prAlgo.result();
+        if (storeResult != null) {
+            PageRankScores.store(storeResult, (HugeGraph) graph, pageRank, tracker);
+        }
         algo.release();
         graph.release();
         return pageRank;
     }
 
+    private LongToDoubleFunction priorScores(HugeGraph graph, ProcedureConfiguration configuration) {
+        Optional<String> seedResult = configuration.getString(CONFIG_SEED_RESULT);
+        if (seedResult.isPresent()) {
+            PageRankScores scores = PageRankScores.get(seedResult.get());
+            if (scores == null) {
+                log.info("PageRank: no result named '%s', starting from the initial scores", seedResult.get());
+                return null;
+            }
+            return scores.priorScores(graph);
+        }
+        if (configuration.getString(CONFIG_SEED_PROPERTY).isPresent()) {
+            WeightMapping seedScores = graph.nodeProperties(CONFIG_SEED_PROPERTY);
+            if (seedScores == null) {
+                throw new IllegalArgumentException(
+                        "The seed property has not been loaded with the graph, use seedResult for named graphs");
+            }
+            return node -> seedScores.get(node, Double.NaN);
+        }
+        return null;
+    }
+
     private void write(
             Graph graph,
             TerminationFlag terminationFlag,
@@ -239,4 +331,14 @@ public final class PageRankProc {
             statsBuilder.withWrite(false);
         }
     }
+
+    public static final class StoredResult {
+        public final String name;
+        public final boolean removed;
+
+        public StoredResult(String name, boolean removed) {
+            this.name = name;
+            this.removed = removed;
+        }
+    }
 }
@@ -141,7 +141,7 @@ public class PrimProc {
         }
 
         final int root = graph.toMappedNodeId(startNode);
-        final Prim mstPrim = new Prim(graph, graph, graph)
+        final Prim mstPrim = new Prim(graph, graph)
                 .withProgressLogger(ProgressLogger.wrap(log, "Prim(MaximumSpanningTree)"))
                 .withTerminationFlag(TerminationFlag.wrap(transaction));
         builder.timeEval(() -> {
@@ -162,14 +162,14 @@ public class PrimProc {
                         .writeRelationshipAndProperty(
                                 configuration.get(CONFIG_WRITE_RELATIONSHIP, CONFIG_WRITE_RELATIONSHIP_DEFAULT),
                                 weightProperty,
-                                (ops, relType, propertyType) -> spanningTree.forEach(writeBack(relType, propertyType, graph, ops))
+                                (ops, relType, propertyType) -> spanningTree.forEach(writeBack(relType, propertyType, graph, spanningTree, ops))
                         );
             });
         }
         return Stream.of(builder.build());
     }
 
-    private static RelationshipConsumer writeBack(int relType, int propertyType, Graph graph, Write ops) {
+    private static RelationshipConsumer writeBack(int relType, int propertyType, Graph graph, SpanningTree spanningTree, Write ops) {
         return (source, target, rid) -> {
             try {
                 final long relId = ops.relationshipCreate(
@@ -177,7 +177,7 @@ public class PrimProc {
                         relType,
                         graph.toOriginalNodeId(target)
                 );
-                ops.relationshipSetProperty(relId, propertyType, Values.doubleValue(graph.weightOf(source, target)));
+                ops.relationshipSetProperty(relId, propertyType, Values.doubleValue(spanningTree.weights[target]));
             } catch (KernelException e) {
                 ExceptionUtil.throwKernelException(e);
             }
@@ -20,17 +20,23 @@ package org.neo4j.graphalgo;
 
 import com.carrotsearch.hppc.IntArrayDeque;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.graphalgo.impl.ContractionHierarchy;
+import org.neo4j.graphalgo.impl.ContractionHierarchyBuilder;
 import org.neo4j.graphalgo.impl.ShortestPathAStar;
 import org.neo4j.graphalgo.impl.ShortestPathDijkstra;
+import org.neo4j.graphalgo.results.ContractionHierarchyResult;
 import org.neo4j.graphalgo.results.DijkstraResult;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
@@ -48,6 +54,8 @@ import java.util.stream.Stream;
 public class ShortestPathProc {
 
     public static final String DEFAULT_TARGET_PROPERTY = "sssp";
+    public static final String CONFIG_BIDIRECTIONAL = "bidirectional";
+    public static final String CONFIG_WITNESS_LIMIT = "witnessLimit";
 
 
     @Context
@@ -73,7 +81,7 @@ public class ShortestPathProc {
      */
     @Procedure("algo.shortestPath.stream")
     @Description("CALL algo.shortestPath.stream(startNode:Node, endNode:Node, weightProperty:String" +
-            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0}) " +
+            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, bidirectional:false}) " +
             "YIELD nodeId, cost - yields a stream of {nodeId, cost} from start to end (inclusive)")
     public Stream<ShortestPathDijkstra.Result> dijkstraStream(
             @Name("startNode") Node startNode,
@@ -92,11 +100,16 @@ public class ShortestPathProc {
                         propertyName,
                         configuration.getWeightPropertyDefaultValue(1.0));
 
+        boolean bidirectional = configuration.get(CONFIG_BIDIRECTIONAL, false);
+        Direction reverseDirection;
         if(direction == Direction.BOTH) {
             direction = Direction.OUTGOING;
+            reverseDirection = direction;
             graphLoader.asUndirected(true).withDirection(direction);
         } else {
-            graphLoader.withDirection(direction);
+            reverseDirection = direction.reverse();
+            // the backward search of the bidirectional variant follows the relationships in reverse
+            graphLoader.withDirection(bidirectional ? Direction.BOTH : direction);
         }
 
 
@@ -107,16 +120,17 @@ public class ShortestPathProc {
             return Stream.empty();
         }
 
-        return new ShortestPathDijkstra(graph)
+        ShortestPathDijkstra dijkstra = new ShortestPathDijkstra(graph)
+                .withContractionHierarchy(ContractionHierarchy.get(configuration.getGraphName(null), graph))
                 .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction))
-                .compute(startNode.getId(), endNode.getId(), direction)
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+        return compute(dijkstra, startNode, endNode, direction, bidirectional ? reverseDirection : null)
                 .resultStream();
     }
 
     @Procedure(value = "algo.shortestPath", mode = Mode.WRITE)
     @Description("CALL algo.shortestPath(startNode:Node, endNode:Node, weightProperty:String" +
-            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, write:'true', writeProperty:'sssp'}) " +
+            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, bidirectional:false, write:'true', writeProperty:'sssp'}) " +
             "YIELD nodeId, cost, loadMillis, evalMillis, writeMillis - yields nodeCount, totalCost, loadMillis, evalMillis, writeMillis")
     public Stream<DijkstraResult> dijkstra(
             @Name("startNode") Node startNode,
@@ -133,6 +147,8 @@ public class ShortestPathProc {
         final ShortestPathDijkstra dijkstra;
 
         Direction direction = configuration.getDirection(Direction.BOTH);
+        boolean bidirectional = configuration.get(CONFIG_BIDIRECTIONAL, false);
+        Direction reverseDirection;
         try (ProgressTimer timer = builder.timeLoad()) {
             GraphLoader graphLoader = new GraphLoader(api, Pools.DEFAULT)
                     .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
@@ -143,9 +159,11 @@ public class ShortestPathProc {
 
             if(direction == Direction.BOTH) {
                 direction = Direction.OUTGOING;
+                reverseDirection = direction;
                 graphLoader.asUndirected(true).withDirection(direction);
             } else {
-                graphLoader.withDirection(direction);
+                reverseDirection = direction.reverse();
+                graphLoader.withDirection(bidirectional ? Direction.BOTH : direction);
             }
 
 
@@ -158,10 +176,11 @@ public class ShortestPathProc {
         }
 
         try (ProgressTimer timer = builder.timeEval()) {
-            dijkstra = new ShortestPathDijkstra(graph)
+            dijkstra = compute(new ShortestPathDijkstra(graph)
+                    .withContractionHierarchy(ContractionHierarchy.get(configuration.getGraphName(null), graph))
                     .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
-                    .withTerminationFlag(TerminationFlag.wrap(transaction))
-                    .compute(startNode.getId(), endNode.getId(), direction);
+                    .withTerminationFlag(TerminationFlag.wrap(transaction)),
+                    startNode, endNode, direction, bidirectional ? reverseDirection : null);
             builder.withNodeCount(dijkstra.getPathLength())
                     .withTotalCosts(dijkstra.getTotalCost());
         }
@@ -186,6 +205,50 @@ public class ShortestPathProc {
         return Stream.of(builder.build());
     }
     
+    /**
+     * Builds a contraction hierarchy of a named huge graph. Subsequent calls of
+     * {@code algo.shortestPath} and {@code algo.shortestPath.stream} on that graph
+     * answer the queries with the hierarchy, as long as the graph isn't removed or updated.
+     */
+    @Procedure("algo.shortestPath.index")
+    @Description("CALL algo.shortestPath.index(graphName:String, {witnessLimit:500, concurrency:4}) " +
+            "YIELD graph, nodes, shortcuts, computeMillis - builds a contraction hierarchy of the named graph " +
+            "that speeds up the shortest path queries on it")
+    public Stream<ContractionHierarchyResult> index(
+            @Name("graphName") String graphName,
+            @Name(value = "config", defaultValue = "{}")
+                    Map<String, Object> config) {
+
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+
+        Graph graph = LoadGraphFactory.get(graphName);
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph name " + graphName + " is not loaded");
+        }
+        if (!(graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException("Only huge graphs can be indexed, but " + graphName + " is a " + graph.getType() + " graph");
+        }
+
+        ContractionHierarchyResult.Builder builder = ContractionHierarchyResult.builder()
+                .withGraph(graphName)
+                .withNodes(graph.nodeCount());
+
+        ContractionHierarchy hierarchy;
+        try (ProgressTimer timer = builder.timeEval()) {
+            hierarchy = new ContractionHierarchyBuilder(
+                    graph,
+                    configuration.getInt(CONFIG_WITNESS_LIMIT, ContractionHierarchyBuilder.DEFAULT_WITNESS_LIMIT),
+                    configuration.getConcurrency(),
+                    AllocationTracker.create())
+                    .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(ContractionHierarchy)"))
+                    .withTerminationFlag(TerminationFlag.wrap(transaction))
+                    .compute();
+        }
+        ContractionHierarchy.set(graphName, hierarchy);
+
+        return Stream.of(builder.withShortcuts(hierarchy.shortcutCount()).build());
+    }
+
     @Procedure("algo.shortestPath.astar.stream")
     @Description("CALL algo.shortestPath.astar.stream(startNode:Node, endNode:Node, weightProperty:String, propertyKeyLat:String," +
     		"propertyKeyLon:String, {nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0}) " +
@@ -228,6 +291,21 @@ public class ShortestPathProc {
     				.resultStream();
     }
 
+    /**
+     * @param reverseDirection the direction of the backward search of a bidirectional search, null for a forward search
+     */
+    private static ShortestPathDijkstra compute(
+            ShortestPathDijkstra dijkstra,
+            Node startNode,
+            Node endNode,
+            Direction direction,
+            Direction reverseDirection) {
+        if (reverseDirection == null) {
+            return dijkstra.compute(startNode.getId(), endNode.getId(), direction);
+        }
+        return dijkstra.compute(startNode.getId(), endNode.getId(), direction, reverseDirection);
+    }
+
     private static final class DequeMapping implements IdMapping {
         private final IdMapping mapping;
         private final int[] data;
@@ -25,6 +25,7 @@ import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.neo4jview.DirectIdMapping;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
@@ -35,6 +36,7 @@ import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.Translators;
 import org.neo4j.graphalgo.impl.*;
+import org.neo4j.graphalgo.impl.multistepscc.HugeMultistepSCC;
 import org.neo4j.graphalgo.impl.multistepscc.MultistepSCC;
 import org.neo4j.graphalgo.impl.scc.SCCAlgorithm;
 import org.neo4j.graphalgo.impl.scc.SCCTarjan;
@@ -69,7 +71,7 @@ public class StronglyConnectedComponentsProc {
     @Context
     public KernelTransaction transaction;
 
-    // default algo.scc -> iterative tarjan
+    // default algo.scc -> iterative tarjan, parallel multistep on huge graphs
     @Procedure(value = "algo.scc", mode = Mode.WRITE)
     @Description("CALL algo.scc(label:String, relationship:String, config:Map<String, Object>) YIELD " +
             "loadMillis, computeMillis, writeMillis, setCount, maxSetSize, minSetSize")
@@ -78,10 +80,13 @@ public class StronglyConnectedComponentsProc {
             @Name(value = "relationship", defaultValue = "") String relationship,
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
 
+        if (useHugeMultistep(ProcedureConfiguration.create(config))) {
+            return multistep(label, relationship, config);
+        }
         return sccIterativeTarjan(label, relationship, config);
     }
 
-    // default algo.scc -> iter tarjan
+    // default algo.scc -> iter tarjan, parallel multistep on huge graphs
     @Procedure(value = "algo.scc.stream")
     @Description("CALL algo.scc.stream(label:String, relationship:String, config:Map<String, Object>) YIELD " +
             "loadMillis, computeMillis, writeMillis, setCount, maxSetSize, minSetSize")
@@ -90,6 +95,10 @@ public class StronglyConnectedComponentsProc {
             @Name(value = "relationship", defaultValue = "") String relationship,
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
 
+        if (useHugeMultistep(ProcedureConfiguration.create(config))) {
+            return multistepStream(label, relationship, config)
+                    .map(result -> new SCCAlgorithm.StreamResult(result.nodeId, result.partition));
+        }
         return sccIterativeTarjanStream(label, relationship, config);
     }
 
@@ -376,6 +385,22 @@ public class StronglyConnectedComponentsProc {
         }
 
         final TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        if (graph instanceof HugeGraph) {
+            final SCCAlgorithm multistep = hugeMultistep((HugeGraph) graph, configuration);
+
+            builder.timeEval(multistep::compute);
+
+            builder.withMaxSetSize(multistep.getMaxSetSize())
+                    .withMinSetSize(multistep.getMinSetSize())
+                    .withSetCount(multistep.getSetCount());
+
+            if (configuration.isWriteFlag()) {
+                builder.timeWrite(() -> write(configuration, graph, terminationFlag, multistep));
+            }
+
+            return Stream.of(builder.build());
+        }
+
         final MultistepSCC multistep = new MultistepSCC(graph, org.neo4j.graphalgo.core.utils.Pools.DEFAULT,
                 configuration.getConcurrency(),
                 configuration.getNumber("cutoff", 100_000).intValue())
@@ -428,6 +453,13 @@ public class StronglyConnectedComponentsProc {
             return Stream.empty();
         }
 
+        if (graph instanceof HugeGraph) {
+            final SCCAlgorithm multistep = hugeMultistep((HugeGraph) graph, configuration).compute();
+            graph.release();
+            return multistep.resultStream()
+                    .map(result -> new SCCStreamResult(result.nodeId, result.partition));
+        }
+
         final MultistepSCC multistep = new MultistepSCC(graph, org.neo4j.graphalgo.core.utils.Pools.DEFAULT,
                 configuration.getConcurrency(),
                 configuration.getNumber("cutoff", 100_000).intValue())
@@ -469,4 +501,21 @@ public class StronglyConnectedComponentsProc {
         graph.release();
         return algo.resultStream();
     }
+
+    /**
+     * The parallel multistep algorithm is used for huge graphs when more than one thread is available.
+     * It needs the incoming relationships as well, so the graph is loaded in both directions.
+     */
+    private static boolean useHugeMultistep(ProcedureConfiguration configuration) {
+        return configuration.getConcurrency() > 1 && HugeGraphFactory.class.equals(configuration.getGraphImpl());
+    }
+
+    private SCCAlgorithm hugeMultistep(HugeGraph graph, ProcedureConfiguration configuration) {
+        return new HugeMultistepSCC(graph, Pools.DEFAULT,
+                configuration.getConcurrency(),
+                configuration.getNumber("cutoff", 100_000).longValue(),
+                AllocationTracker.create())
+                .withProgressLogger(ProgressLogger.wrap(log, "SCC(HugeMultiStep)"))
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+    }
 }
@@ -27,6 +27,7 @@ import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.utils.*;
 import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.PagedAtomicIntegerArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicLongArray;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.Translators;
 import org.neo4j.graphalgo.impl.triangle.*;
@@ -184,6 +185,7 @@ public class TriangleProc {
 
         final Graph graph;
         final TriangleCountAlgorithm triangleCount;
+        final Object coefficients;
 
         final ProcedureConfiguration configuration = ProcedureConfiguration.create(config)
                 .overrideNodeLabelOrQuery(label)
@@ -212,12 +214,13 @@ public class TriangleProc {
                     .withProgressLogger(ProgressLogger.wrap(log, "triangleCount"))
                     .withTerminationFlag(TerminationFlag.wrap(transaction))
                     .compute();
-            triangleCount.getCoefficients();
+            // also computes the average coefficient
+            coefficients = triangleCount.getCoefficients();
         }
 
         if (configuration.isWriteFlag()) {
             try (ProgressTimer timer = builder.timeWrite()) {
-                write(graph, triangleCount, configuration, terminationFlag);
+                write(graph, triangleCount, coefficients, configuration, terminationFlag);
             }
         }
 
@@ -232,10 +235,11 @@ public class TriangleProc {
      * writeback method for "algo.triangleCount"
      * @param graph the graph
      * @param algorithm Impl. of TriangleCountAlgorithm
+     * @param coefficients the coefficients that have been computed by the algorithm
      * @param configuration configuration wrapper
      * @param flag termination flag
      */
-    private void write(Graph graph, TriangleCountAlgorithm algorithm, ProcedureConfiguration configuration, TerminationFlag flag) {
+    private void write(Graph graph, TriangleCountAlgorithm algorithm, Object coefficients, ProcedureConfiguration configuration, TerminationFlag flag) {
 
         final Optional<String> coefficientProperty = configuration.getString(COEFFICIENT_WRITE_PROPERTY_VALUE);
 
@@ -244,17 +248,36 @@ public class TriangleProc {
                 .parallel(Pools.DEFAULT, configuration.getConcurrency(), flag)
                 .build();
 
-        if (algorithm instanceof IntersectingTriangleCount) {
+        if (algorithm instanceof HugeDegreeOrderedTriangleCount) {
+            final PagedAtomicLongArray triangles = ((HugeDegreeOrderedTriangleCount) algorithm).getTriangles();
+            if (coefficientProperty.isPresent()) {
+                // huge with long counters and coefficients
+                exporter.write(
+                        configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY_VALUE),
+                        triangles,
+                        PagedAtomicLongArray.Translator.INSTANCE,
+                        coefficientProperty.get(),
+                        (DoubleArray) coefficients,
+                        DoubleArray.Translator.INSTANCE
+                );
+            } else {
+                // huge with long counters without coefficients
+                exporter.write(
+                        configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY_VALUE),
+                        triangles,
+                        PagedAtomicLongArray.Translator.INSTANCE
+                );
+            }
+        } else if (algorithm instanceof IntersectingTriangleCount) {
             if (coefficientProperty.isPresent()) {
                 // huge with coefficients
-                final DoubleArray coefficients = ((IntersectingTriangleCount) algorithm).getCoefficients();
                 final PagedAtomicIntegerArray triangles = ((IntersectingTriangleCount) algorithm).getTriangles();
                 exporter.write(
                         configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY_VALUE),
                         triangles,
                         PagedAtomicIntegerArray.Translator.INSTANCE,
                         coefficientProperty.get(),
-                        coefficients,
+                        (DoubleArray) coefficients,
                         DoubleArray.Translator.INSTANCE
                 );
             } else {
@@ -270,14 +293,13 @@ public class TriangleProc {
 
             if (coefficientProperty.isPresent()) {
                 // nonhuge with coefficients
-                final double[] coefficients = ((TriangleCountQueue) algorithm).getCoefficients();
                 final AtomicIntegerArray triangles = ((TriangleCountQueue) algorithm).getTriangles();
                 exporter.write(
                         configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY_VALUE),
                         triangles,
                         Translators.ATOMIC_INTEGER_ARRAY_TRANSLATOR,
                         coefficientProperty.get(),
-                        coefficients,
+                        (double[]) coefficients,
                         Translators.DOUBLE_ARRAY_TRANSLATOR
                 );
             } else {
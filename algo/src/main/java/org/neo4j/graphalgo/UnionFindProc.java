@@ -22,6 +22,7 @@ import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.impl.UnionFindAlgo;
 import org.neo4j.graphalgo.impl.UnionFindProcExec;
 import org.neo4j.graphalgo.results.UnionFindResult;
+import org.neo4j.graphalgo.results.UnionFindUpdateResult;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
@@ -31,6 +32,7 @@ import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -80,13 +82,43 @@ public class UnionFindProc {
                 this::ufExec);
     }
 
+    /**
+     * Adds relationships to the components of a named huge graph, which are
+     * computed on the first call and kept until the graph is removed.
+     */
+    @Procedure("algo.unionFind.update")
+    @Description("CALL algo.unionFind.update(graphName:String, relationships:[[sourceId, targetId]], {concurrency:4}) " +
+            "YIELD graph, nodes, relationships, merges, skipped, computeMillis, updateMillis - " +
+            "adds the relationships to the stored components of the named graph")
+    public Stream<UnionFindUpdateResult> unionFindUpdate(
+            @Name("graphName") String graphName,
+            @Name(value = "relationships", defaultValue = "[]") List<List<Number>> relationships,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        return UnionFindProcExec.update(
+                graphName,
+                relationships,
+                config,
+                this::ufExec);
+    }
+
+    @Procedure("algo.unionFind.components.stream")
+    @Description("CALL algo.unionFind.components.stream(graphName:String, nodeIds:[nodeId]) " +
+            "YIELD nodeId, setId - yields the stored setId of the given nodes or of all nodes of the named graph")
+    public Stream<DisjointSetStruct.Result> unionFindComponentsStream(
+            @Name("graphName") String graphName,
+            @Name(value = "nodeIds", defaultValue = "null") List<Number> nodeIds) {
+
+        return UnionFindProcExec.components(graphName, nodeIds);
+    }
+
     private UnionFindProcExec ufExec() {
         return new UnionFindProcExec(
                 api,
                 log,
                 transaction,
                 UnionFindAlgo.SEQ,
-                UnionFindAlgo.QUEUE
+                UnionFindAlgo.AFFOREST
         );
     }
 }
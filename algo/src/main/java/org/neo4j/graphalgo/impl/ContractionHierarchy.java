@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.DoubleArrayDeque;
+import com.carrotsearch.hppc.IntArrayDeque;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphdb.Direction;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A contraction hierarchy of a named graph, see {@link ContractionHierarchyBuilder}.
+ * <p>
+ * Every node has a rank, the order in which it has been contracted. The relationships
+ * of the graph and the shortcuts that have been added during the contraction are split into
+ * two upward graphs, which are compressed like any other {@link HugeGraph}: the upward graph
+ * holds the relationships {@code a -> b} with {@code rank(a) < rank(b)} at {@code a}, the downward
+ * graph holds the relationships {@code a -> b} with {@code rank(a) > rank(b)} reversed at {@code b}.
+ * A query searches the upward graph from the start node and the downward graph from the goal node,
+ * both searches only visit nodes of a higher rank and therefore settle only a small part of the graph.
+ * Shortcuts are unpacked into the relationships they replace with the middle node that is
+ * stored for every shortcut.
+ * <p>
+ * The indexes are registered by the name of the graph. An index is only used as long as the
+ * name refers to the graph instance it has been built for, it is ignored once the graph
+ * has been removed or updated.
+ */
+public final class ContractionHierarchy {
+
+    private static final ConcurrentHashMap<String, ContractionHierarchy> indexes = new ConcurrentHashMap<>();
+
+    private static final int NO_MIDDLE = -1;
+
+    private final WeakReference<Graph> graph;
+    private final HugeGraph upward;
+    private final HugeGraph downward;
+    private final int[] ranks;
+    // the middle node of every shortcut, keyed by the packed (source, target) pair
+    private final LongIntHashMap middles;
+
+    ContractionHierarchy(
+            Graph graph,
+            HugeGraph upward,
+            HugeGraph downward,
+            int[] ranks,
+            LongIntHashMap middles) {
+        this.graph = new WeakReference<>(graph);
+        this.upward = upward;
+        this.downward = downward;
+        this.ranks = ranks;
+        this.middles = middles;
+    }
+
+    /**
+     * Registers the index for the named graph, replacing a previous index of the name.
+     */
+    public static void set(String name, ContractionHierarchy index) {
+        if (name == null || index == null) {
+            throw new IllegalArgumentException("Both name and index must be not null");
+        }
+        indexes.put(name, index);
+    }
+
+    /**
+     * @param graph the graph that is currently loaded under the name
+     * @return the index of the named graph, or {@code null} if there is none
+     * or if it has been built for another instance than {@code graph}
+     */
+    public static ContractionHierarchy get(String name, Graph graph) {
+        if (name == null || graph == null) {
+            return null;
+        }
+        ContractionHierarchy index = indexes.get(name);
+        if (index == null) {
+            return null;
+        }
+        if (index.graph.get() != graph) {
+            // the graph has been removed or replaced, the index can't be used anymore
+            indexes.remove(name, index);
+            return null;
+        }
+        return index;
+    }
+
+    public static boolean remove(String name) {
+        return name != null && indexes.remove(name) != null;
+    }
+
+    public int nodeCount() {
+        return ranks.length;
+    }
+
+    /**
+     * @return the number of shortcuts that have been added to the graph
+     */
+    public int shortcutCount() {
+        return middles.size();
+    }
+
+    /**
+     * Computes the shortest path between two mapped node ids.
+     * The nodes of the path and the cost to reach each of them are added to the given deques.
+     *
+     * @return the total cost of the path, or {@link ShortestPathDijkstra#NO_PATH_FOUND}
+     */
+    public double shortestPath(int start, int goal, IntArrayDeque path, DoubleArrayDeque pathCosts) {
+        if (start == goal || start < 0 || goal < 0 || start >= ranks.length || goal >= ranks.length) {
+            return ShortestPathDijkstra.NO_PATH_FOUND;
+        }
+        DijkstraSearchState forward = DijkstraSearchState.acquire(upward);
+        DijkstraSearchState backward = DijkstraSearchState.acquire(downward);
+        try {
+            forward.start(start);
+            backward.start(goal);
+            double bestCost = Double.MAX_VALUE;
+            int meetingNode = DijkstraSearchState.NO_PREDECESSOR;
+            while (true) {
+                double forwardCost = forward.minCost();
+                double backwardCost = backward.minCost();
+                // a search can stop once its radius exceeds the best path
+                if (Math.min(forwardCost, backwardCost) >= bestCost) {
+                    break;
+                }
+                boolean isForward = forwardCost <= backwardCost;
+                DijkstraSearchState search = isForward ? forward : backward;
+                DijkstraSearchState other = isForward ? backward : forward;
+                int node = search.pop();
+                if (other.touched(node)) {
+                    double cost = search.cost(node) + other.cost(node);
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        meetingNode = node;
+                    }
+                }
+                double costs = search.cost(node);
+                int depth = search.depth(node);
+                (isForward ? upward : downward).forEachRelationship(node, Direction.OUTGOING, (source, target, relId, weight) -> {
+                    search.relax(target, source, costs + weight, depth + 1);
+                    return true;
+                });
+            }
+            if (meetingNode == DijkstraSearchState.NO_PREDECESSOR) {
+                return ShortestPathDijkstra.NO_PATH_FOUND;
+            }
+            IntArrayList packed = new IntArrayList();
+            for (int node = meetingNode; node != DijkstraSearchState.NO_PREDECESSOR; node = forward.predecessor(node)) {
+                packed.add(node);
+            }
+            reverse(packed);
+            for (int node = backward.predecessor(meetingNode); node != DijkstraSearchState.NO_PREDECESSOR; node = backward.predecessor(node)) {
+                packed.add(node);
+            }
+            unpack(packed, path, pathCosts);
+            return bestCost;
+        } finally {
+            DijkstraSearchState.release(upward, forward);
+            DijkstraSearchState.release(downward, backward);
+        }
+    }
+
+    /**
+     * Replaces every shortcut of the path with the relationships it consists of.
+     */
+    private void unpack(IntArrayList packed, IntArrayDeque path, DoubleArrayDeque pathCosts) {
+        int current = packed.get(0);
+        double costs = 0.0;
+        path.addLast(current);
+        pathCosts.addLast(costs);
+        IntArrayDeque stack = new IntArrayDeque();
+        for (int i = 1; i < packed.size(); i++) {
+            stack.addLast(packed.get(i));
+            while (!stack.isEmpty()) {
+                int next = stack.getLast();
+                int middle = middles.getOrDefault(pair(current, next), NO_MIDDLE);
+                if (middle != NO_MIDDLE) {
+                    // continue with the first half of the shortcut
+                    stack.addLast(middle);
+                    continue;
+                }
+                costs += weight(current, next);
+                path.addLast(next);
+                pathCosts.addLast(costs);
+                current = next;
+                stack.removeLast();
+            }
+        }
+    }
+
+    private double weight(int source, int target) {
+        if (ranks[source] < ranks[target]) {
+            return upward.weightOf(source, target);
+        }
+        return downward.weightOf(target, source);
+    }
+
+    static long pair(int source, int target) {
+        return ((long) source << 32) | Integer.toUnsignedLong(target);
+    }
+
+    private static void reverse(IntArrayList list) {
+        int[] buffer = list.buffer;
+        for (int i = 0, j = list.size() - 1; i < j; i++, j--) {
+            int tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphBuilder;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds a {@link ContractionHierarchy} of the outgoing relationships of a graph.
+ * <p>
+ * The nodes are contracted in rounds. Every round contracts an independent set of nodes,
+ * the nodes whose priority is lower than the priority of all their remaining neighbours.
+ * The witness searches of these nodes don't depend on each other and run in parallel,
+ * the shortcuts they find are applied afterwards. The priority of a node is its edge
+ * difference (shortcuts minus removed relationships) plus the number of relationships to contracted neighbours,
+ * it is updated for the neighbours of the contracted nodes after every round.
+ * <p>
+ * A witness search from {@code x} looks for a path to {@code y} that avoids the contracted node
+ * {@code u} and is not longer than {@code x -> u -> y}. It settles at most {@code witnessLimit} nodes,
+ * a search that stops early adds a shortcut that might not be necessary, which makes the index
+ * larger but never wrong. Relationships must have non-negative weights, parallel relationships
+ * are reduced to the cheapest one.
+ * <p>
+ * The graph is copied into modifiable adjacency lists during the contraction,
+ * which requires more memory than the graph itself.
+ */
+public final class ContractionHierarchyBuilder extends Algorithm<ContractionHierarchyBuilder> {
+
+    public static final int DEFAULT_WITNESS_LIMIT = 500;
+
+    private Graph graph;
+    private final int nodeCount;
+    private final int witnessLimit;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+
+    private IntArrayList[] outTargets;
+    private DoubleArrayList[] outWeights;
+    private IntArrayList[] inTargets;
+    private DoubleArrayList[] inWeights;
+    private boolean[] contracted;
+    private int[] deletedNeighbours;
+    private int[] priorities;
+    private LongIntHashMap middles;
+
+    public ContractionHierarchyBuilder(
+            Graph graph,
+            int witnessLimit,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.nodeCount = Math.toIntExact(graph.nodeCount());
+        this.witnessLimit = witnessLimit;
+        this.concurrency = Math.max(1, concurrency);
+        this.tracker = tracker;
+    }
+
+    public ContractionHierarchy compute() {
+        copyGraph();
+        contracted = new boolean[nodeCount];
+        deletedNeighbours = new int[nodeCount];
+        priorities = new int[nodeCount];
+        middles = new LongIntHashMap();
+        int[] ranks = new int[nodeCount];
+        DijkstraSearchState[] states = new DijkstraSearchState[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            states[i] = new DijkstraSearchState(nodeCount);
+        }
+
+        IntArrayList all = new IntArrayList(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            all.add(node);
+        }
+        updatePriorities(all, states);
+
+        int rank = 0;
+        boolean[] touched = new boolean[nodeCount];
+        while (rank < nodeCount && running()) {
+            IntArrayList independentSet = new IntArrayList();
+            for (int node = 0; node < nodeCount; node++) {
+                if (!contracted[node] && isLocalMinimum(node)) {
+                    independentSet.add(node);
+                }
+            }
+            for (int i = 0; i < independentSet.size(); i++) {
+                contracted[independentSet.get(i)] = true;
+            }
+
+            Shortcuts[] shortcuts = new Shortcuts[concurrency];
+            run(independentSet, states, (node, state, task) -> {
+                if (shortcuts[task] == null) {
+                    shortcuts[task] = new Shortcuts();
+                }
+                contract(node, state, shortcuts[task]);
+            });
+
+            IntArrayList neighbours = new IntArrayList();
+            for (int i = 0; i < independentSet.size(); i++) {
+                int node = independentSet.get(i);
+                ranks[node] = rank++;
+                disconnect(node, outTargets[node], inTargets, inWeights, touched, neighbours);
+                disconnect(node, inTargets[node], outTargets, outWeights, touched, neighbours);
+            }
+            for (Shortcuts taskShortcuts : shortcuts) {
+                if (taskShortcuts != null) {
+                    taskShortcuts.apply();
+                }
+            }
+            for (int i = 0; i < neighbours.size(); i++) {
+                touched[neighbours.get(i)] = false;
+            }
+            updatePriorities(neighbours, states);
+            getProgressLogger().logProgress(rank, nodeCount);
+        }
+        if (rank < nodeCount) {
+            throw new IllegalStateException("The contraction has been terminated after " + rank + " of " + nodeCount + " nodes");
+        }
+
+        // the adjacency of every contracted node only contains the nodes that have been contracted later
+        HugeGraph upward = toGraph(outTargets, outWeights);
+        HugeGraph downward = toGraph(inTargets, inWeights);
+        return new ContractionHierarchy(graph, upward, downward, ranks, middles);
+    }
+
+    private void copyGraph() {
+        outTargets = new IntArrayList[nodeCount];
+        outWeights = new DoubleArrayList[nodeCount];
+        inTargets = new IntArrayList[nodeCount];
+        inWeights = new DoubleArrayList[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            outTargets[node] = new IntArrayList();
+            outWeights[node] = new DoubleArrayList();
+            inTargets[node] = new IntArrayList();
+            inWeights[node] = new DoubleArrayList();
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            graph.forEachRelationship(node, Direction.OUTGOING, (source, target, relId, weight) -> {
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Contraction hierarchies require non-negative weights, but found " + weight);
+                }
+                if (source != target) {
+                    addRelationship(source, target, weight);
+                }
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Adds the relationship or lowers the weight of an existing relationship.
+     *
+     * @return false if there is a relationship that is at least as cheap
+     */
+    private boolean addRelationship(int source, int target, double weight) {
+        int index = outTargets[source].indexOf(target);
+        if (index == -1) {
+            outTargets[source].add(target);
+            outWeights[source].add(weight);
+            inTargets[target].add(source);
+            inWeights[target].add(weight);
+            return true;
+        }
+        if (outWeights[source].get(index) <= weight) {
+            return false;
+        }
+        outWeights[source].set(index, weight);
+        inWeights[target].set(inTargets[target].indexOf(source), weight);
+        return true;
+    }
+
+    /**
+     * Removes the node from the adjacency of its neighbours, its own adjacency is kept.
+     */
+    private void disconnect(
+            int node,
+            IntArrayList neighbours,
+            IntArrayList[] targets,
+            DoubleArrayList[] weights,
+            boolean[] touched,
+            IntArrayList touchedNeighbours) {
+        for (int i = 0; i < neighbours.size(); i++) {
+            int neighbour = neighbours.get(i);
+            IntArrayList neighbourTargets = targets[neighbour];
+            DoubleArrayList neighbourWeights = weights[neighbour];
+            int index = neighbourTargets.indexOf(node);
+            int last = neighbourTargets.size() - 1;
+            neighbourTargets.set(index, neighbourTargets.get(last));
+            neighbourWeights.set(index, neighbourWeights.get(last));
+            neighbourTargets.remove(last);
+            neighbourWeights.remove(last);
+            deletedNeighbours[neighbour]++;
+            if (!touched[neighbour]) {
+                touched[neighbour] = true;
+                touchedNeighbours.add(neighbour);
+            }
+        }
+    }
+
+    private boolean isLocalMinimum(int node) {
+        return isLowerThanAll(node, outTargets[node]) && isLowerThanAll(node, inTargets[node]);
+    }
+
+    private boolean isLowerThanAll(int node, IntArrayList neighbours) {
+        int priority = priorities[node];
+        for (int i = 0; i < neighbours.size(); i++) {
+            int neighbour = neighbours.get(i);
+            int other = priorities[neighbour];
+            if (other < priority || (other == priority && neighbour < node)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void updatePriorities(IntArrayList nodes, DijkstraSearchState[] states) {
+        run(nodes, states, (node, state, task) -> {
+            int removed = outTargets[node].size() + inTargets[node].size();
+            priorities[node] = contract(node, state, null) - removed + deletedNeighbours[node];
+        });
+    }
+
+    /**
+     * Runs the witness searches for the contraction of the node.
+     *
+     * @param shortcuts collects the required shortcuts, or {@code null} to only count them
+     * @return the number of required shortcuts
+     */
+    private int contract(int node, DijkstraSearchState state, Shortcuts shortcuts) {
+        IntArrayList sources = inTargets[node];
+        IntArrayList targets = outTargets[node];
+        DoubleArrayList targetWeights = outWeights[node];
+        int count = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            int source = sources.get(i);
+            double sourceWeight = inWeights[node].get(i);
+            double maxCost = -1.0;
+            for (int j = 0; j < targets.size(); j++) {
+                if (targets.get(j) != source) {
+                    maxCost = Math.max(maxCost, sourceWeight + targetWeights.get(j));
+                }
+            }
+            if (maxCost < 0) {
+                continue;
+            }
+            witnessSearch(source, node, maxCost, state);
+            for (int j = 0; j < targets.size(); j++) {
+                int target = targets.get(j);
+                double cost = sourceWeight + targetWeights.get(j);
+                if (target != source && state.cost(target) > cost) {
+                    count++;
+                    if (shortcuts != null) {
+                        shortcuts.add(source, target, cost, node);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private void witnessSearch(int source, int excluded, double maxCost, DijkstraSearchState state) {
+        state.reset();
+        state.start(source);
+        int settled = 0;
+        while (!state.isEmpty() && state.minCost() <= maxCost && settled++ < witnessLimit) {
+            int node = state.pop();
+            double costs = state.cost(node);
+            int depth = state.depth(node);
+            IntArrayList targets = outTargets[node];
+            DoubleArrayList weights = outWeights[node];
+            for (int i = 0; i < targets.size(); i++) {
+                int target = targets.get(i);
+                if (target != excluded && !contracted[target]) {
+                    state.relax(target, node, costs + weights.get(i), depth + 1);
+                }
+            }
+        }
+    }
+
+    private HugeGraph toGraph(IntArrayList[] targets, DoubleArrayList[] weights) {
+        HugeGraphBuilder builder = new HugeGraphBuilder(nodeCount, true, 1.0, tracker);
+        int batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, 1);
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (int start = 0; start < nodeCount; start += batchSize) {
+            int from = start;
+            int to = Math.min(nodeCount, start + batchSize);
+            HugeGraphBuilder.Importer importer = builder.newImporter();
+            tasks.add(() -> {
+                long[] nodeTargets = new long[0];
+                for (int node = from; node < to; node++) {
+                    int degree = targets[node].size();
+                    if (nodeTargets.length < degree) {
+                        nodeTargets = new long[degree];
+                    }
+                    for (int i = 0; i < degree; i++) {
+                        nodeTargets[i] = targets[node].get(i);
+                    }
+                    importer.add(node, nodeTargets, weights[node].toArray(), degree);
+                }
+            });
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, getTerminationFlag(), Pools.DEFAULT);
+        return builder.build();
+    }
+
+    private interface NodeTask {
+        void run(int node, DijkstraSearchState state, int task);
+    }
+
+    /**
+     * Runs the task for all nodes with one search state per thread.
+     */
+    private void run(IntArrayList nodes, DijkstraSearchState[] states, NodeTask nodeTask) {
+        int size = nodes.size();
+        if (size == 0) {
+            return;
+        }
+        int batchSize = ParallelUtil.threadSize(concurrency, size);
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (int task = 0, start = 0; start < size; task++, start += batchSize) {
+            int taskId = task;
+            int from = start;
+            int to = Math.min(size, start + batchSize);
+            tasks.add(() -> {
+                DijkstraSearchState state = states[taskId];
+                for (int i = from; i < to; i++) {
+                    nodeTask.run(nodes.get(i), state, taskId);
+                }
+            });
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, getTerminationFlag(), Pools.DEFAULT);
+    }
+
+    @Override
+    public ContractionHierarchyBuilder me() {
+        return this;
+    }
+
+    @Override
+    public ContractionHierarchyBuilder release() {
+        graph = null;
+        outTargets = null;
+        outWeights = null;
+        inTargets = null;
+        inWeights = null;
+        contracted = null;
+        deletedNeighbours = null;
+        priorities = null;
+        middles = null;
+        return this;
+    }
+
+    /**
+     * The shortcuts that have been found by a single thread in a round.
+     */
+    private final class Shortcuts {
+        private final IntArrayList sources = new IntArrayList();
+        private final IntArrayList targets = new IntArrayList();
+        private final IntArrayList middleNodes = new IntArrayList();
+        private final DoubleArrayList weights = new DoubleArrayList();
+
+        void add(int source, int target, double weight, int middle) {
+            sources.add(source);
+            targets.add(target);
+            weights.add(weight);
+            middleNodes.add(middle);
+        }
+
+        void apply() {
+            for (int i = 0; i < sources.size(); i++) {
+                int source = sources.get(i);
+                int target = targets.get(i);
+                if (addRelationship(source, target, weights.get(i))) {
+                    middles.put(ContractionHierarchy.pair(source, target), middleNodes.get(i));
+                }
+            }
+        }
+    }
+}
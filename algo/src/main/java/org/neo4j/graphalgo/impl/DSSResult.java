@@ -25,6 +25,7 @@ import org.neo4j.graphalgo.api.HugeNodeIterator;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.NodeIterator;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
 
 import java.util.stream.Stream;
@@ -32,26 +33,38 @@ import java.util.stream.Stream;
 public final class DSSResult {
     public final DisjointSetStruct struct;
     public final PagedDisjointSetStruct hugeStruct;
+    public final PagedAtomicDisjointSetStruct atomicStruct;
 
     public DSSResult(final DisjointSetStruct struct) {
-        this(struct, null);
+        this(struct, null, null);
     }
 
     public DSSResult(final PagedDisjointSetStruct hugeStruct) {
-        this(null, hugeStruct);
+        this(null, hugeStruct, null);
     }
 
-    private DSSResult(DisjointSetStruct struct, PagedDisjointSetStruct hugeStruct) {
-        assert (struct != null && hugeStruct == null) || (struct == null && hugeStruct != null);
+    public DSSResult(final PagedAtomicDisjointSetStruct atomicStruct) {
+        this(null, null, atomicStruct);
+    }
+
+    private DSSResult(DisjointSetStruct struct, PagedDisjointSetStruct hugeStruct, PagedAtomicDisjointSetStruct atomicStruct) {
+        assert (struct != null ? 1 : 0) + (hugeStruct != null ? 1 : 0) + (atomicStruct != null ? 1 : 0) == 1;
         this.struct = struct;
         this.hugeStruct = hugeStruct;
+        this.atomicStruct = atomicStruct;
     }
 
     public int getSetCount() {
+        if (atomicStruct != null) {
+            return atomicStruct.getSetCount();
+        }
         return struct != null ? struct.getSetCount() : hugeStruct.getSetCount();
     }
 
     public Stream<DisjointSetStruct.Result> resultStream(IdMapping idMapping) {
+        if (atomicStruct != null) {
+            return atomicStruct.resultStream(((HugeIdMapping) idMapping));
+        }
         return struct != null
                 ? struct.resultStream(idMapping)
                 : hugeStruct.resultStream(((HugeIdMapping) idMapping));
@@ -60,6 +73,8 @@ public final class DSSResult {
     public void forEach(NodeIterator nodes, IntIntPredicate consumer) {
         if (struct != null) {
             nodes.forEachNode(nodeId -> consumer.apply(nodeId, struct.find(nodeId)));
+        } else if (atomicStruct != null) {
+            nodes.forEachNode(nodeId -> consumer.apply(nodeId, (int) atomicStruct.find(nodeId)));
         } else {
             nodes.forEachNode(nodeId -> consumer.apply(nodeId, (int) hugeStruct.find(nodeId)));
         }
@@ -68,6 +83,8 @@ public final class DSSResult {
     public void forEach(HugeNodeIterator nodes, LongLongPredicate consumer) {
         if (hugeStruct != null) {
             nodes.forEachNode(nodeId -> consumer.apply(nodeId, hugeStruct.find(nodeId)));
+        } else if (atomicStruct != null) {
+            nodes.forEachNode(nodeId -> consumer.apply(nodeId, atomicStruct.find(nodeId)));
         } else {
             nodes.forEachNode(nodeId -> consumer.apply((int) nodeId, struct.find((int) nodeId)));
         }
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.utils.Pools;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * The costs, predecessors, depths and the priority queue of a single Dijkstra search,
+ * stored in arrays that are indexed by the mapped node id.
+ * <p>
+ * The arrays are not cleared between searches. Every entry is stamped with the epoch of the search
+ * that has written it and entries of older epochs count as untouched, so that {@link #reset()} only
+ * increments the epoch. The queue is an indexed binary heap, which decreases the cost of a queued
+ * node in {@code O(log n)}.
+ * <p>
+ * States are pooled per graph with {@link #acquire(Graph)} and {@link #release(Graph, DijkstraSearchState)},
+ * so that repeated point-to-point queries on the same graph don't allocate. A pool keeps at most
+ * {@link #MAX_POOLED_STATES} states, enough for one bidirectional search per thread, states that are
+ * released beyond that are dropped. The pool of a graph is dropped once the graph is no longer referenced.
+ */
+public final class DijkstraSearchState {
+
+    public static final int NO_PREDECESSOR = -1;
+
+    public static final int MAX_POOLED_STATES = 2 * Pools.DEFAULT_CONCURRENCY;
+
+    private static final int NOT_QUEUED = -1;
+
+    private static final Map<Graph, Queue<DijkstraSearchState>> POOLS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final int capacity;
+    private int epoch;
+    private final int[] epochs;
+    private final double[] costs;
+    private final int[] predecessors;
+    private final int[] depths;
+    // heap index of a queued node, NOT_QUEUED for touched nodes that have been popped
+    private final int[] positions;
+    private final int[] heap;
+    private int size;
+
+    public DijkstraSearchState(int capacity) {
+        this.capacity = capacity;
+        this.epochs = new int[capacity];
+        this.costs = new double[capacity];
+        this.predecessors = new int[capacity];
+        this.depths = new int[capacity];
+        this.positions = new int[capacity];
+        this.heap = new int[capacity];
+        this.epoch = 1;
+    }
+
+    /**
+     * @return a reset state for the graph, taken from the graph's pool if possible
+     */
+    public static DijkstraSearchState acquire(Graph graph) {
+        int nodeCount = Math.toIntExact(graph.nodeCount());
+        DijkstraSearchState state = pool(graph).poll();
+        if (state == null || state.capacity < nodeCount) {
+            return new DijkstraSearchState(nodeCount);
+        }
+        state.reset();
+        return state;
+    }
+
+    /**
+     * Returns the state to the graph's pool, it must not be used by the caller afterwards.
+     * The state is dropped if the pool is full.
+     */
+    public static void release(Graph graph, DijkstraSearchState state) {
+        pool(graph).offer(state);
+    }
+
+    private static Queue<DijkstraSearchState> pool(Graph graph) {
+        return POOLS.computeIfAbsent(graph, g -> new ArrayBlockingQueue<>(MAX_POOLED_STATES));
+    }
+
+    /**
+     * Forgets all nodes in constant time.
+     */
+    public void reset() {
+        size = 0;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(epochs, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+
+    /**
+     * Starts the search at the node with zero cost.
+     */
+    public void start(int node) {
+        relax(node, NO_PREDECESSOR, 0d, 1);
+    }
+
+    /**
+     * Lowers the cost of a node that has not been popped yet and queues it.
+     *
+     * @return true if the cost has been lowered
+     */
+    public boolean relax(int node, int predecessor, double cost, int depth) {
+        if (epochs[node] != epoch) {
+            epochs[node] = epoch;
+            costs[node] = cost;
+            predecessors[node] = predecessor;
+            depths[node] = depth;
+            positions[node] = size;
+            heap[size++] = node;
+            upHeap(size - 1);
+            return true;
+        }
+        int position = positions[node];
+        if (position == NOT_QUEUED || cost >= costs[node]) {
+            return false;
+        }
+        costs[node] = cost;
+        predecessors[node] = predecessor;
+        depths[node] = depth;
+        upHeap(position);
+        return true;
+    }
+
+    /**
+     * Removes the node with the lowest cost from the queue, its cost is final afterwards.
+     *
+     * @return the node, or {@code -1} if the queue is empty
+     */
+    public int pop() {
+        if (size == 0) {
+            return -1;
+        }
+        int node = heap[0];
+        positions[node] = NOT_QUEUED;
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            downHeap(0);
+        }
+        return node;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the lowest cost in the queue, or {@link Double#MAX_VALUE} if the queue is empty
+     */
+    public double minCost() {
+        return size == 0 ? Double.MAX_VALUE : costs[heap[0]];
+    }
+
+    public boolean touched(int node) {
+        return epochs[node] == epoch;
+    }
+
+    /**
+     * @return true if the node has been popped, i.e. its cost is final
+     */
+    public boolean visited(int node) {
+        return epochs[node] == epoch && positions[node] == NOT_QUEUED;
+    }
+
+    /**
+     * @return the cost of the node, or {@link Double#MAX_VALUE} if the node has not been reached
+     */
+    public double cost(int node) {
+        return epochs[node] == epoch ? costs[node] : Double.MAX_VALUE;
+    }
+
+    /**
+     * @return the node before the node on the cheapest path, or {@link #NO_PREDECESSOR}
+     */
+    public int predecessor(int node) {
+        return epochs[node] == epoch ? predecessors[node] : NO_PREDECESSOR;
+    }
+
+    /**
+     * @return the number of nodes on the cheapest path to the node, including the start node
+     */
+    public int depth(int node) {
+        return epochs[node] == epoch ? depths[node] : 0;
+    }
+
+    private void upHeap(int position) {
+        int node = heap[position];
+        double cost = costs[node];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (costs[parent] <= cost) {
+                break;
+            }
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+
+    private void downHeap(int position) {
+        int node = heap[position];
+        double cost = costs[node];
+        int child;
+        while ((child = 2 * position + 1) < size) {
+            if (child + 1 < size && costs[heap[child + 1]] < costs[heap[child]]) {
+                child++;
+            }
+            int childNode = heap[child];
+            if (cost <= costs[childNode]) {
+                break;
+            }
+            heap[position] = childNode;
+            positions[childNode] = position;
+            position = child;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+}
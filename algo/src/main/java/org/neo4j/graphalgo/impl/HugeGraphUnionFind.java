@@ -20,12 +20,15 @@ package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
 import org.neo4j.graphdb.Direction;
 
+import java.util.function.LongConsumer;
+
 /**
  * Sequential UnionFind:
  * <p>
@@ -89,20 +92,28 @@ public class HugeGraphUnionFind extends GraphUnionFindAlgo<HugeGraph, PagedDisjo
     }
 
     private PagedDisjointSetStruct compute(HugeRelationshipConsumer consumer) {
+        return compute((long node) -> graph.forEachRelationship(node, Direction.OUTGOING, consumer));
+    }
+
+    private PagedDisjointSetStruct compute(HugeWeightedRelationshipConsumer consumer) {
+        return compute((long node) -> graph.forEachRelationship(node, Direction.OUTGOING, consumer));
+    }
+
+    private PagedDisjointSetStruct compute(LongConsumer relationships) {
         dss.reset();
         final ProgressLogger progressLogger = getProgressLogger();
         graph.forEachNode((long node) -> {
             if (!running()) {
                 return false;
             }
-            graph.forEachRelationship(node, Direction.OUTGOING, consumer);
+            relationships.accept(node);
             progressLogger.logProgress((double) node / (nodeCount - 1));
             return true;
         });
         return dss;
     }
 
-    private final class WithThreshold implements HugeRelationshipConsumer {
+    private final class WithThreshold implements HugeWeightedRelationshipConsumer {
         private final double threshold;
 
         private WithThreshold(final double threshold) {
@@ -112,8 +123,8 @@ public class HugeGraphUnionFind extends GraphUnionFindAlgo<HugeGraph, PagedDisjo
         @Override
         public boolean accept(
                 final long source,
-                final long target) {
-            double weight = graph.weightOf(source, target);
+                final long target,
+                final double weight) {
             if (weight >= threshold) {
                 dss.union(source, target);
             }
@@ -0,0 +1,403 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongDoubleHashMap;
+import com.carrotsearch.hppc.LongDoubleScatterMap;
+import com.carrotsearch.hppc.procedures.LongDoubleProcedure;
+import org.neo4j.collection.primitive.PrimitiveLongIterable;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.NullWeightMap;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Label Propagation for {@link HugeGraph}s.
+ * <p>
+ * Works like {@link LabelPropagation}, but stores the labels in a paged
+ * {@link HugeLongArray} and supports more than {@code 2^31} nodes.
+ * Every batch of nodes is processed by its own {@code ComputeStep}, which
+ * uses its own copy of the graph and a reusable map for counting the votes.
+ */
+public final class HugeLabelPropagation extends Algorithm<HugeLabelPropagation> implements LabelPropagationAlgorithm {
+
+    private static final long[] EMPTY_LONGS = new long[0];
+
+    private final WeightMapping nodeProperties;
+    private final WeightMapping nodeWeights;
+
+    private HugeGraph graph;
+    private final int batchSize;
+    private final int concurrency;
+    private final ExecutorService executor;
+    private final long nodeCount;
+    private final AllocationTracker tracker;
+
+    private HugeLongArray labels;
+    private long ranIterations;
+    private boolean didConverge;
+
+    public HugeLabelPropagation(
+            HugeGraph graph,
+            int batchSize,
+            int concurrency,
+            ExecutorService executor,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.nodeCount = graph.nodeCount();
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.executor = executor;
+        this.tracker = tracker;
+
+        this.nodeProperties = propertiesOrDefault(graph.nodeProperties(LabelPropagation.PARTITION_TYPE), 0.0);
+        this.nodeWeights = propertiesOrDefault(graph.nodeProperties(LabelPropagation.WEIGHT_TYPE), 1.0);
+    }
+
+    @Override
+    public HugeLabelPropagation compute(
+            Direction direction,
+            long maxIterations) {
+        return compute(direction, maxIterations, true);
+    }
+
+    @Override
+    public HugeLabelPropagation compute(
+            Direction direction,
+            long maxIterations,
+            boolean randomizeOrder) {
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("Must iterate at least 1 time");
+        }
+
+        if (labels == null || labels.size() != nodeCount) {
+            labels = HugeLongArray.newArray(nodeCount, tracker);
+        }
+        ranIterations = 0;
+        didConverge = false;
+
+        Collection<PrimitiveLongIterable> batches = graph.hugeBatchIterables(batchSize);
+        List<InitStep> initSteps = new ArrayList<>(batches.size());
+        for (PrimitiveLongIterable batch : batches) {
+            initSteps.add(new InitStep(labels, batch, nodeProperties));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, initSteps, executor);
+
+        List<ComputeStep> computeSteps = new ArrayList<>(initSteps.size());
+        for (InitStep initStep : initSteps) {
+            computeSteps.add(initStep.computeStep(
+                    graph,
+                    direction,
+                    randomizeOrder,
+                    getProgressLogger(),
+                    nodeWeights));
+        }
+
+        for (long i = 0L; i < maxIterations; i++) {
+            ParallelUtil.runWithConcurrency(concurrency, computeSteps, executor);
+        }
+
+        long maxIteration = 0;
+        boolean converged = true;
+        for (ComputeStep step : computeSteps) {
+            if (step.iteration > maxIteration) {
+                maxIteration = step.iteration;
+            }
+            converged = converged && !step.didChange;
+            step.release();
+        }
+
+        ranIterations = maxIteration;
+        didConverge = converged;
+
+        return this;
+    }
+
+    @Override
+    public long ranIterations() {
+        return ranIterations;
+    }
+
+    @Override
+    public boolean didConverge() {
+        return didConverge;
+    }
+
+    public HugeLongArray labels() {
+        return labels;
+    }
+
+    @Override
+    public Labels result() {
+        return new LabelArray(labels);
+    }
+
+    @Override
+    public Algorithm<?> algorithm() {
+        return this;
+    }
+
+    @Override
+    public HugeLabelPropagation me() {
+        return this;
+    }
+
+    @Override
+    public HugeLabelPropagation release() {
+        graph = null;
+        return this;
+    }
+
+    private static WeightMapping propertiesOrDefault(WeightMapping properties, double defaultValue) {
+        return properties != null ? properties : new NullWeightMap(defaultValue);
+    }
+
+    private static final class LabelArray implements Labels {
+        private final HugeLongArray labels;
+
+        private LabelArray(HugeLongArray labels) {
+            this.labels = labels;
+        }
+
+        @Override
+        public long labelFor(long nodeId) {
+            return labels.get(nodeId);
+        }
+
+        @Override
+        public long size() {
+            return labels.size();
+        }
+
+        @Override
+        public void export(String propertyName, Exporter exporter) {
+            exporter.write(propertyName, labels, HugeLongArray.Translator.INSTANCE);
+        }
+    }
+
+    private static final class InitStep implements Runnable {
+
+        private final HugeLongArray existingLabels;
+        private final PrimitiveLongIterable nodes;
+        private final WeightMapping nodeProperties;
+
+        private InitStep(
+                HugeLongArray existingLabels,
+                PrimitiveLongIterable nodes,
+                WeightMapping nodeProperties) {
+            this.existingLabels = existingLabels;
+            this.nodes = nodes;
+            this.nodeProperties = nodeProperties;
+        }
+
+        @Override
+        public void run() {
+            PrimitiveLongIterator iterator = nodes.iterator();
+            while (iterator.hasNext()) {
+                long nodeId = iterator.next();
+                long existingLabel = (long) nodeProperties.get(nodeId, (double) nodeId);
+                existingLabels.set(nodeId, existingLabel);
+            }
+        }
+
+        private ComputeStep computeStep(
+                HugeGraph graph,
+                Direction direction,
+                boolean randomizeOrder,
+                ProgressLogger progressLogger,
+                WeightMapping nodeWeights) {
+            return new ComputeStep(
+                    graph.concurrentCopy(),
+                    existingLabels,
+                    direction,
+                    randomizeOrder,
+                    progressLogger,
+                    nodes,
+                    nodeWeights);
+        }
+    }
+
+    private static final class ComputeStep implements Runnable, HugeWeightedRelationshipConsumer, LongDoubleProcedure {
+
+        private final HugeGraph graph;
+        private final HugeLongArray existingLabels;
+        private final Direction direction;
+        private final ProgressLogger progressLogger;
+        private final PrimitiveLongIterable nodes;
+        private final long maxNode;
+        private final LongDoubleHashMap votes;
+        private final WeightMapping nodeWeights;
+
+        private boolean didChange = true;
+        private long iteration = 0L;
+
+        private long bestLabel;
+        private double bestWeight;
+
+        private ComputeStep(
+                HugeGraph graph,
+                HugeLongArray existingLabels,
+                Direction direction,
+                boolean randomizeOrder,
+                ProgressLogger progressLogger,
+                PrimitiveLongIterable nodes,
+                WeightMapping nodeWeights) {
+            this.graph = graph;
+            this.existingLabels = existingLabels;
+            this.direction = direction;
+            this.progressLogger = progressLogger;
+            this.nodes = RandomlySwitchingIterable.of(randomizeOrder, nodes);
+            this.maxNode = graph.nodeCount() - 1L;
+            this.votes = new LongDoubleScatterMap();
+            this.nodeWeights = nodeWeights;
+        }
+
+        @Override
+        public void run() {
+            if (this.didChange) {
+                iteration++;
+                PrimitiveLongIterator iterator = nodes.iterator();
+                boolean didChange = false;
+                while (iterator.hasNext()) {
+                    didChange = compute(iterator.next(), didChange);
+                }
+                this.didChange = didChange;
+                if (!didChange) {
+                    release();
+                }
+            }
+        }
+
+        private boolean compute(long nodeId, boolean didChange) {
+            votes.clear();
+            long previous = existingLabels.get(nodeId);
+            bestLabel = previous;
+            bestWeight = Double.NEGATIVE_INFINITY;
+            graph.forEachRelationship(nodeId, direction, this);
+            votes.forEach(this);
+            progressLogger.logProgress(nodeId, maxNode);
+            if (bestLabel != previous) {
+                existingLabels.set(nodeId, bestLabel);
+                return true;
+            }
+            return didChange;
+        }
+
+        @Override
+        public boolean accept(
+                final long sourceNodeId,
+                final long targetNodeId,
+                final double weight) {
+            long partition = existingLabels.get(targetNodeId);
+            votes.addTo(partition, weight * nodeWeights.get(targetNodeId));
+            return true;
+        }
+
+        @Override
+        public void apply(final long label, final double weight) {
+            if (bestWeight < weight) {
+                bestWeight = weight;
+                bestLabel = label;
+            }
+        }
+
+        private void release() {
+            // the HPPC release() method allocates new arrays
+            // the clear() method overwrite the existing keys with the default value
+            // we want to throw away all data to allow for GC collection instead.
+
+            if (votes.keys != null) {
+                votes.keys = EMPTY_LONGS;
+                votes.clear();
+                votes.keys = null;
+                votes.values = null;
+            }
+        }
+    }
+
+    private static final class RandomlySwitchingIterable implements PrimitiveLongIterable {
+        private final PrimitiveLongIterable delegate;
+        private final Random random;
+
+        static PrimitiveLongIterable of(
+                boolean randomize,
+                PrimitiveLongIterable delegate) {
+            return randomize
+                    ? new RandomlySwitchingIterable(delegate, ThreadLocalRandom.current())
+                    : delegate;
+        }
+
+        private RandomlySwitchingIterable(PrimitiveLongIterable delegate, Random random) {
+            this.delegate = delegate;
+            this.random = random;
+        }
+
+        @Override
+        public PrimitiveLongIterator iterator() {
+            return new RandomlySwitchingIterator(delegate.iterator(), random);
+        }
+    }
+
+    private static final class RandomlySwitchingIterator implements PrimitiveLongIterator {
+        private final PrimitiveLongIterator delegate;
+        private final Random random;
+        private boolean hasSkipped;
+        private long skipped;
+
+        private RandomlySwitchingIterator(PrimitiveLongIterator delegate, Random random) {
+            this.delegate = delegate;
+            this.random = random;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasSkipped || delegate.hasNext();
+        }
+
+        @Override
+        public long next() {
+            if (hasSkipped) {
+                long elem = skipped;
+                hasSkipped = false;
+                return elem;
+            }
+            long next = delegate.next();
+            if (delegate.hasNext() && random.nextBoolean()) {
+                skipped = next;
+                hasSkipped = true;
+                return delegate.next();
+            }
+            return next;
+        }
+    }
+}
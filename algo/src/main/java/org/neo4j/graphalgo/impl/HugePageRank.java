@@ -24,6 +24,7 @@ import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
 import org.neo4j.graphalgo.core.write.Translators;
@@ -35,6 +36,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.function.LongToDoubleFunction;
 import java.util.stream.LongStream;
 
 import static org.neo4j.graphalgo.core.utils.ArrayUtil.binaryLookup;
@@ -90,6 +92,18 @@ import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.*;
  * Smaller partitions are merged down until we have at most {@code concurrency} partitions,
  * in order to batch partitions and keep the number of threads in use predictable/configurable.
  * <p>
+ * The scores are computed by pushing the change of every node's score to its neighbours,
+ * which allows to resume from a previous result (see {@link #withPriorScores(LongToDoubleFunction)}):
+ * The first iteration computes the difference between the prior scores and the scores
+ * they imply, only this difference is propagated afterwards. On a graph that changed only
+ * slightly, the differences are small and a {@link #withTolerance(double) tolerance}
+ * stops the computation after a few iterations.
+ * <p>
+ * With an {@link #withEpsilon(double) epsilon}, only nodes whose score changed by more
+ * than epsilon send their change in the next iteration, smaller changes are accumulated
+ * until they exceed epsilon. Late iterations then only touch the relationships of
+ * the few nodes that are still moving, at the cost of an error of about epsilon per node.
+ * <p>
  * [1]: <a href="http://delab.csd.auth.gr/~dimitris/courses/ir_spring06/page_rank_computing/01531136.pdf">An Efficient Partition-Based Parallel PageRank Algorithm</a><br>
  * [2]: <a href="https://www.cs.purdue.edu/homes/dgleich/publications/gleich2004-parallel.pdf">Fast Parallel PageRank: A Linear System Approach</a>
  */
@@ -106,6 +120,9 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
     private final double dampingFactor;
     private final HugeGraph graph;
     private LongStream sourceNodeIds;
+    private LongToDoubleFunction priorScores;
+    private double tolerance;
+    private double epsilon;
 
     private Log log;
     private ComputeSteps computeSteps;
@@ -166,6 +183,35 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         return this;
     }
 
+    /**
+     * Starts from the given scores instead of the uniform initial score.
+     * Nodes for which the function returns {@code NaN} start with the initial score.
+     * Must be called before {@link #compute(int)}.
+     *
+     * @param priorScores maps a node id of this graph to its prior score
+     */
+    public HugePageRank withPriorScores(LongToDoubleFunction priorScores) {
+        this.priorScores = priorScores;
+        return this;
+    }
+
+    @Override
+    public HugePageRank withTolerance(double tolerance) {
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    @Override
+    public HugePageRank withEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+        return this;
+    }
+
+    @Override
+    public int iterations() {
+        return computeSteps.iterations;
+    }
+
     @Override
     public PageRankResult result() {
         return computeSteps.getPageRank();
@@ -200,7 +246,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 concurrency,
                 idMapping.nodeCount(),
                 dampingFactor,
-                sourceNodeIds.map(graph::toHugeMappedNodeId).filter(mappedId -> mappedId != -1L).toArray(),
+                sourceNodeIds.map(graph::toHugeMappedNodeId).filter(mappedId -> mappedId != -1L).sorted().toArray(),
                 relationshipIterator,
                 degrees,
                 partitions,
@@ -275,6 +321,8 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             computeSteps.add(new ComputeStep(
                     dampingFactor,
                     sourceNodeIds,
+                    priorScores,
+                    epsilon,
                     relationshipIterator,
                     degrees,
                     tracker,
@@ -288,7 +336,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         for (ComputeStep computeStep : computeSteps) {
             computeStep.setStarts(startArray, lengthArray);
         }
-        return new ComputeSteps(tracker, computeSteps, concurrency, pool);
+        return new ComputeSteps(tracker, computeSteps, concurrency, tolerance, pool);
     }
 
     private static int findIdealConcurrency(
@@ -368,6 +416,18 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         return shallowSizeOfInstance(ComputeStep.class) + partitions;
     }
 
+    /**
+     * Estimates the memory of computing the page rank of {@code nodeCount} nodes.
+     * Every compute step keeps the scores it sends to the nodes of all steps, the number of
+     * steps depends on the degree distribution and is at most {@code concurrency + 1}.
+     */
+    public static MemoryRange memoryEstimation(long nodeCount, int concurrency) {
+        int maxSteps = Math.max(1, concurrency) + 1;
+        long shared = shallowSizeOfInstance(ComputeSteps.class) + 2L * Double.BYTES * nodeCount;
+        long perStep = shallowSizeOfInstance(ComputeStep.class) + (long) Integer.BYTES * nodeCount;
+        return MemoryRange.of(shared + perStep, shared + maxSteps * perStep);
+    }
+
     private static long memoryUsageFor(
             int concurrency,
             List<Partition> partitions) {
@@ -450,13 +510,17 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private final ExecutorService pool;
         private int[][][] scores;
         private final int concurrency;
+        private final double tolerance;
+        private int iterations;
 
         private ComputeSteps(
                 AllocationTracker tracker,
                 List<ComputeStep> steps,
                 int concurrency,
+                double tolerance,
                 ExecutorService pool) {
             this.concurrency = concurrency;
+            this.tolerance = tolerance;
             assert !steps.isEmpty();
             this.steps = steps;
             this.pool = pool;
@@ -494,7 +558,19 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 // sync scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
                 getProgressLogger().logProgress(++op, operations, tracker);
+                ++this.iterations;
+                if (tolerance > 0.0 && sumOfDeltas() < tolerance) {
+                    break;
+                }
+            }
+        }
+
+        private double sumOfDeltas() {
+            double sum = 0.0;
+            for (ComputeStep step : steps) {
+                sum += step.sumOfDeltas;
             }
+            return sum;
         }
 
         private void synchronizeScores() {
@@ -537,12 +613,14 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private long[] starts;
         private int[] lengths;
         private long[] sourceNodeIds;
+        private LongToDoubleFunction priorScores;
         private final HugeRelationshipIterator relationshipIterator;
         private final HugeDegrees degrees;
         private final AllocationTracker tracker;
 
         private final double alpha;
         private final double dampingFactor;
+        private final double epsilon;
 
         private double[] pageRank;
         private double[] deltas;
@@ -554,10 +632,14 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private final int partitionSize;
 
         private int srcRankDelta = 0;
+        private boolean resuming;
+        private double sumOfDeltas;
 
         ComputeStep(
                 double dampingFactor,
                 long[] sourceNodeIds,
+                LongToDoubleFunction priorScores,
+                double epsilon,
                 HugeRelationshipIterator relationshipIterator,
                 HugeDegrees degrees,
                 AllocationTracker tracker,
@@ -565,7 +647,9 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 long startNode) {
             this.dampingFactor = dampingFactor;
             this.alpha = 1.0 - dampingFactor;
+            this.epsilon = epsilon;
             this.sourceNodeIds = sourceNodeIds;
+            this.priorScores = priorScores;
             this.relationshipIterator = relationshipIterator.concurrentCopy();
             this.degrees = degrees;
             this.tracker = tracker;
@@ -611,7 +695,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 Arrays.fill(partitionRank,0);
 
                 long[] partitionSourceNodeIds = LongStream.of(sourceNodeIds)
-                        .filter(sourceNodeId -> sourceNodeId >= startNode && sourceNodeId <= endNode)
+                        .filter(sourceNodeId -> sourceNodeId >= startNode && sourceNodeId < endNode)
                         .toArray();
 
                 for (long sourceNodeId : partitionSourceNodeIds) {
@@ -619,6 +703,18 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 }
             }
 
+            if (priorScores != null) {
+                for (int i = 0; i < partitionSize; i++) {
+                    double prior = priorScores.applyAsDouble(startNode + i);
+                    if (!Double.isNaN(prior)) {
+                        partitionRank[i] = prior;
+                    }
+                }
+                // the prior scores are sent in full once, see combineScores
+                resuming = true;
+                priorScores = null;
+            }
+
             this.pageRank = partitionRank;
             this.deltas = Arrays.copyOf(partitionRank, partitionSize);
         }
@@ -627,9 +723,13 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             long startNode = this.startNode;
             long endNode = this.endNode;
             HugeRelationshipIterator rels = this.relationshipIterator;
+            // the prior scores have to be sent in full
+            double epsilon = resuming ? 0.0 : this.epsilon;
             for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
-                double delta = deltas[(int) (nodeId - startNode)];
-                if (delta > 0) {
+                int index = (int) (nodeId - startNode);
+                double delta = deltas[index];
+                if (Math.abs(delta) > epsilon) {
+                    deltas[index] = 0.0;
                     int degree = degrees.degree(nodeId, Direction.OUTGOING);
                     if (degree > 0) {
                         srcRankDelta = (int) (100_000 * (delta / degree));
@@ -662,6 +762,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             int[][] prevScores = this.prevScores;
 
             int length = prevScores[0].length;
+            double sumOfDeltas = 0.0;
             for (int i = 0; i < length; i++) {
                 int sum = 0;
                 for (int j = 0; j < scoreDim; j++) {
@@ -670,9 +771,24 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                     scores[i] = 0;
                 }
                 double delta = dampingFactor * (sum / 100_000.0);
+                if (resuming) {
+                    // the full scores have been sent, the difference to the
+                    // prior score is what has to be propagated from now on
+                    delta += initialScore(i) - pageRank[i];
+                }
                 pageRank[i] += delta;
-                deltas[i] = delta;
+                deltas[i] += delta;
+                sumOfDeltas += Math.abs(delta);
+            }
+            this.sumOfDeltas = sumOfDeltas;
+            resuming = false;
+        }
+
+        private double initialScore(int index) {
+            if (sourceNodeIds.length == 0) {
+                return alpha;
             }
+            return Arrays.binarySearch(sourceNodeIds, startNode + index) >= 0 ? alpha : 0.0;
         }
 
     }
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongIntScatterMap;
+import com.carrotsearch.hppc.cursors.LongIntCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parallel UnionFind on a single {@link PagedAtomicDisjointSetStruct} that is shared by all threads.
+ * <p>
+ * The relationships are processed in the phases of Afforest
+ * (Sutton, Ben-Nun, Barak: Optimizing Parallel Graph Connectivity Computation via Subgraph Sampling):
+ * <ol>
+ * <li>the first {@code neighbourRounds} relationships of every node are linked and the trees are compressed,
+ * which already connects most nodes of the largest component</li>
+ * <li>the largest intermediate component is estimated from a sample of nodes</li>
+ * <li>the remaining relationships of all nodes are linked, every relationship within the
+ * largest component is skipped after a single, mostly one step, find of its target</li>
+ * </ol>
+ * Afforest also skips the nodes of the largest component entirely in the last phase, which requires the
+ * relationships in both directions. The graph is loaded with outgoing relationships only, so their
+ * relationships are still visited, but the unions themselves are skipped.
+ * <p>
+ * Unlike the other parallel variants there is no struct per batch and no merge phase,
+ * the memory is that of one struct regardless of the concurrency.
+ */
+public class HugeParallelUnionFindAfforest extends GraphUnionFindAlgo<HugeGraph, PagedAtomicDisjointSetStruct, HugeParallelUnionFindAfforest> {
+
+    static final int NEIGHBOUR_ROUNDS = 2;
+    private static final int SAMPLES = 1024;
+
+    private final ExecutorService executor;
+    private final long nodeCount;
+    private final long batchSize;
+    private final int concurrency;
+    private PagedAtomicDisjointSetStruct struct;
+
+    HugeParallelUnionFindAfforest(
+            HugeGraph graph,
+            ExecutorService executor,
+            AllocationTracker tracker,
+            int minBatchSize,
+            int concurrency) {
+        super(graph);
+        this.executor = executor;
+        this.nodeCount = graph.nodeCount();
+        this.concurrency = concurrency;
+        this.batchSize = ParallelUtil.adjustBatchSize(
+                nodeCount,
+                concurrency,
+                minBatchSize);
+        this.struct = new PagedAtomicDisjointSetStruct(nodeCount, tracker);
+    }
+
+    @Override
+    public PagedAtomicDisjointSetStruct compute() {
+        return compute(Double.NaN);
+    }
+
+    /**
+     * compute unions if relationship weight exceeds threshold
+     *
+     * @param threshold the minimum threshold, NaN to follow all relationships
+     */
+    @Override
+    public PagedAtomicDisjointSetStruct compute(double threshold) {
+        forEachBatch((rels, node) -> link(rels, node, threshold, 0, NEIGHBOUR_ROUNDS, -1L));
+        forEachBatch((rels, node) -> struct.compress(node));
+        long largestComponent = sampleLargestComponent();
+        forEachBatch((rels, node) -> {
+            // nodes of the largest component only need to be linked to other components
+            long skip = struct.find(node) == largestComponent ? largestComponent : -1L;
+            link(rels, node, threshold, NEIGHBOUR_ROUNDS, Integer.MAX_VALUE, skip);
+        });
+        return struct;
+    }
+
+    /**
+     * Links the node with its relationships from index {@code from} (inclusive) until index {@code to} (exclusive).
+     *
+     * @param skip the set of the node, if its relationships to the same set can be skipped, -1 otherwise
+     */
+    private void link(HugeGraph rels, long node, double threshold, int from, int to, long skip) {
+        int[] index = {0};
+        if (Double.isNaN(threshold)) {
+            rels.forEachRelationship(node, Direction.OUTGOING, (source, target) -> {
+                int current = index[0]++;
+                if (current >= from) {
+                    link(source, target, skip);
+                }
+                return index[0] < to;
+            });
+        } else {
+            rels.forEachRelationship(node, Direction.OUTGOING, (source, target, weight) -> {
+                if (weight < threshold) {
+                    return true;
+                }
+                int current = index[0]++;
+                if (current >= from) {
+                    link(source, target, skip);
+                }
+                return index[0] < to;
+            });
+        }
+    }
+
+    private void link(long source, long target, long skip) {
+        if (skip == -1L || struct.find(target) != skip) {
+            struct.union(source, target);
+        }
+    }
+
+    /**
+     * @return the most frequent set of a sample of nodes
+     */
+    private long sampleLargestComponent() {
+        Random random = new Random(42L);
+        LongIntScatterMap counts = new LongIntScatterMap();
+        for (int i = 0; i < SAMPLES; i++) {
+            long node = (long) (random.nextDouble() * nodeCount);
+            counts.addTo(struct.find(node), 1);
+        }
+        long largest = -1L;
+        int largestCount = 0;
+        for (LongIntCursor cursor : counts) {
+            if (cursor.value > largestCount) {
+                largestCount = cursor.value;
+                largest = cursor.key;
+            }
+        }
+        return largest;
+    }
+
+    private interface NodeTask {
+        void run(HugeGraph rels, long node);
+    }
+
+    private void forEachBatch(NodeTask task) {
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            long from = start;
+            long to = Math.min(nodeCount, start + batchSize);
+            HugeGraph rels = graph.concurrentCopy();
+            tasks.add(() -> {
+                for (long node = from; node < to && running(); node++) {
+                    task.run(rels, node);
+                }
+                getProgressLogger().logProgress((to - 1.0) / (nodeCount - 1.0));
+            });
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, getTerminationFlag(), executor);
+    }
+
+    @Override
+    public HugeParallelUnionFindAfforest release() {
+        struct = null;
+        return super.release();
+    }
+}
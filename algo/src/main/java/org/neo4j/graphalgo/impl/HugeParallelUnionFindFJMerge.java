@@ -170,7 +170,7 @@ public class HugeParallelUnionFindFJMerge extends GraphUnionFindAlgo<HugeGraph,
         private final long offset;
         private final long end;
         private final PagedDisjointSetStruct struct;
-        private final HugeRelationshipIterator rels;
+        private final HugeGraph rels;
         private final double threshold;
 
         TUFProcess(long offset, long length, double threshold) {
@@ -187,10 +187,7 @@ public class HugeParallelUnionFindFJMerge extends GraphUnionFindAlgo<HugeGraph,
                 rels.forEachRelationship(
                         node,
                         Direction.OUTGOING,
-                        (sourceNodeId, targetNodeId) -> {
-                            double weight = graph.weightOf(
-                                    sourceNodeId,
-                                    targetNodeId);
+                        (sourceNodeId, targetNodeId, weight) -> {
                             if (weight > threshold) {
                                 struct.union(sourceNodeId, targetNodeId);
                             }
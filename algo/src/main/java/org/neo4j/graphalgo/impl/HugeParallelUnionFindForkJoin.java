@@ -125,7 +125,7 @@ public class HugeParallelUnionFindForkJoin extends GraphUnionFindAlgo<HugeGraph,
 
         private final long offset;
         private final long end;
-        private final HugeRelationshipIterator rels;
+        private final HugeGraph rels;
         private final double threshold;
 
         ThresholdUFTask(long offset, double threshold) {
@@ -155,8 +155,7 @@ public class HugeParallelUnionFindForkJoin extends GraphUnionFindAlgo<HugeGraph,
                 rels.forEachRelationship(
                         node,
                         Direction.OUTGOING,
-                        (source, target) -> {
-                            double weight = graph.weightOf(source, target);
+                        (source, target, weight) -> {
                             if (weight >= threshold && !struct.connected(
                                     source,
                                     target)) {
@@ -32,6 +32,8 @@ import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.Translators;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Arrays;
@@ -40,7 +42,7 @@ import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 
-public final class LabelPropagation extends Algorithm<LabelPropagation> {
+public final class LabelPropagation extends Algorithm<LabelPropagation> implements LabelPropagationAlgorithm {
 
     public static final String PARTITION_TYPE = "property";
     public static final String WEIGHT_TYPE = "weight";
@@ -85,12 +87,14 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         this.nodeWeights = this.graph.nodeProperties(WEIGHT_TYPE);
     }
 
+    @Override
     public LabelPropagation compute(
         Direction direction,
         long maxIterations) {
         return compute(direction, maxIterations, true);
     }
 
+    @Override
     public LabelPropagation compute(
             Direction direction,
             long maxIterations,
@@ -145,10 +149,12 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         return this;
     }
 
+    @Override
     public long ranIterations() {
         return ranIterations;
     }
 
+    @Override
     public boolean didConverge() {
         return didConverge;
     }
@@ -157,6 +163,16 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         return labels;
     }
 
+    @Override
+    public Labels result() {
+        return new LabelArray(labels);
+    }
+
+    @Override
+    public Algorithm<?> algorithm() {
+        return this;
+    }
+
     public IntObjectMap<IntArrayList> groupByPartition() {
         if (labels == null) {
             return null;
@@ -187,6 +203,29 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         return this;
     }
 
+    private static final class LabelArray implements Labels {
+        private final int[] labels;
+
+        private LabelArray(int[] labels) {
+            this.labels = labels;
+        }
+
+        @Override
+        public long labelFor(long nodeId) {
+            return (long) labels[Math.toIntExact(nodeId)];
+        }
+
+        @Override
+        public long size() {
+            return (long) labels.length;
+        }
+
+        @Override
+        public void export(String propertyName, Exporter exporter) {
+            exporter.write(propertyName, labels, Translators.INT_ARRAY_TRANSLATOR);
+        }
+    }
+
     private static final class InitStep implements Runnable {
 
         private final HeavyGraph graph;
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ExecutorService;
+
+public interface LabelPropagationAlgorithm {
+
+    LabelPropagationAlgorithm compute(Direction direction, long maxIterations);
+
+    LabelPropagationAlgorithm compute(Direction direction, long maxIterations, boolean randomizeOrder);
+
+    long ranIterations();
+
+    boolean didConverge();
+
+    Labels result();
+
+    Algorithm<?> algorithm();
+
+    interface Labels {
+
+        long labelFor(long nodeId);
+
+        long size();
+
+        void export(String propertyName, Exporter exporter);
+    }
+
+    static LabelPropagationAlgorithm of(
+            Graph graph,
+            int batchSize,
+            int concurrency,
+            ExecutorService executor,
+            AllocationTracker tracker) {
+        if (graph instanceof HugeGraph) {
+            return new HugeLabelPropagation(
+                    (HugeGraph) graph,
+                    batchSize,
+                    concurrency,
+                    executor,
+                    tracker);
+        }
+        if (graph instanceof HeavyGraph) {
+            return new LabelPropagation(
+                    (HeavyGraph) graph,
+                    batchSize,
+                    concurrency,
+                    executor);
+        }
+        throw new IllegalArgumentException(
+                "Label Propagation is not supported for " + graph.getType() + " graphs");
+    }
+}
@@ -84,12 +84,20 @@ import static org.neo4j.graphalgo.core.utils.ArrayUtil.binaryLookup;
  * Smaller partitions are merged down until we have at most {@code concurrency} partitions,
  * in order to batch partitions and keep the number of threads in use predictable/configurable.
  * <p>
+ * Every iteration only sends the change of a node's score to its neighbours. With a
+ * {@link #withTolerance(double) tolerance} the computation stops once the sum of all changes
+ * is small enough, with an {@link #withEpsilon(double) epsilon} changes below epsilon are
+ * accumulated instead of being sent, so late iterations touch only a few relationships.
+ * <p>
  * [1]: <a href="http://delab.csd.auth.gr/~dimitris/courses/ir_spring06/page_rank_computing/01531136.pdf">An Efficient Partition-Based Parallel PageRank Algorithm</a><br>
  * [2]: <a href="https://www.cs.purdue.edu/homes/dgleich/publications/gleich2004-parallel.pdf">Fast Parallel PageRank: A Linear System Approach</a>
  */
 public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
 
     private final ComputeSteps computeSteps;
+    private int iterations;
+    private double tolerance;
+    private double epsilon;
 
     /**
      * Forces sequential use. If you want parallelism, prefer
@@ -147,10 +155,27 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
     @Override
     public PageRank compute(int iterations) {
         assert iterations >= 1;
-        computeSteps.run(iterations);
+        this.iterations = computeSteps.run(iterations);
+        return this;
+    }
+
+    @Override
+    public PageRank withTolerance(double tolerance) {
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    @Override
+    public PageRank withEpsilon(double epsilon) {
+        this.epsilon = epsilon;
         return this;
     }
 
+    @Override
+    public int iterations() {
+        return iterations;
+    }
+
     @Override
     public PageRankResult result() {
         return computeSteps.getPageRank();
@@ -331,16 +356,32 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             return new PartitionedPrimitiveDoubleArrayResult(results, firstStep.starts);
         }
 
-        private void run(int iterations) {
+        private int run(int iterations) {
+            for (ComputeStep step : steps) {
+                step.epsilon = epsilon;
+            }
             // initialize data structures
             ParallelUtil.runWithConcurrency(concurrency, steps, pool);
-            for (int i = 0; i < iterations && running(); i++) {
+            int i;
+            for (i = 0; i < iterations && running(); i++) {
                 // calculate scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
                 synchronizeScores();
                 // sync scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                if (tolerance > 0.0 && sumOfDeltas() < tolerance) {
+                    return i + 1;
+                }
+            }
+            return i;
+        }
+
+        private double sumOfDeltas() {
+            double sum = 0.0;
+            for (ComputeStep step : steps) {
+                sum += step.sumOfDeltas;
             }
+            return sum;
         }
 
         private void synchronizeScores() {
@@ -385,6 +426,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
 
         private final double alpha;
         private final double dampingFactor;
+        private double epsilon;
 
         private double[] pageRank;
         private double[] deltas;
@@ -396,6 +438,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         private final int endNode;
 
         private int srcRankDelta = 0;
+        private double sumOfDeltas;
 
         ComputeStep(
                 double dampingFactor,
@@ -465,7 +508,8 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             RelationshipIterator rels = this.relationshipIterator;
             for (int nodeId = startNode; nodeId < endNode; ++nodeId) {
                 double delta = deltas[nodeId - startNode];
-                if (delta > 0) {
+                if (delta > epsilon) {
+                    deltas[nodeId - startNode] = 0.0;
                     int degree = degrees.degree(nodeId, Direction.OUTGOING);
                     if (degree > 0) {
                         srcRankDelta = (int) (100_000 * (delta / degree));
@@ -514,14 +558,17 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             double[] pageRank = this.pageRank;
 
             int length = allScores.length;
+            double sumOfDeltas = 0.0;
             for (int i = 0; i < length; i++) {
                 int sum = allScores[i];
 
                 double delta = dampingFactor * (sum / 100_000.0);
                 pageRank[i] += delta;
-                deltas[i] = delta;
+                deltas[i] += delta;
+                sumOfDeltas += delta;
                 allScores[i] = 0;
             }
+            this.sumOfDeltas = sumOfDeltas;
         }
 
     }
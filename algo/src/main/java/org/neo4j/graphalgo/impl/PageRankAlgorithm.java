@@ -30,6 +30,25 @@ public interface PageRankAlgorithm {
 
     PageRankAlgorithm compute(int iterations);
 
+    /**
+     * @return the number of iterations that have been computed
+     */
+    int iterations();
+
+    /**
+     * Stops the computation as soon as the sum of all score changes
+     * of an iteration is smaller than the given tolerance.
+     * A tolerance of {@code 0} always runs all iterations.
+     */
+    PageRankAlgorithm withTolerance(double tolerance);
+
+    /**
+     * Only nodes whose score changed by more than epsilon send their change
+     * to their neighbours, smaller changes are kept until they exceed epsilon.
+     * An epsilon of {@code 0} sends every change.
+     */
+    PageRankAlgorithm withEpsilon(double epsilon);
+
     PageRankResult result();
 
     Algorithm<?> algorithm();
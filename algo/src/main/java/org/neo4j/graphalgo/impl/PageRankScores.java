@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * PageRank scores that are kept in memory under a name, so that a later
+ * computation can resume from them (see {@link HugePageRank#withPriorScores(LongToDoubleFunction)}).
+ * <p>
+ * The scores are indexed by the original node id, which makes them independent
+ * of the graph they have been computed on.
+ */
+public final class PageRankScores {
+
+    private static final ConcurrentHashMap<String, PageRankScores> results = new ConcurrentHashMap<>();
+
+    private final DoubleArray scores;
+    private final long nodeCount;
+    private final AllocationTracker tracker;
+    private final long trackedBytes;
+
+    private PageRankScores(DoubleArray scores, long nodeCount, AllocationTracker tracker, long trackedBytes) {
+        this.scores = scores;
+        this.nodeCount = nodeCount;
+        this.tracker = tracker;
+        this.trackedBytes = trackedBytes;
+    }
+
+    /**
+     * Copies the result and stores it under the given name, replacing a previous result of that name.
+     */
+    public static PageRankScores store(
+            String name,
+            HugeIdMapping idMapping,
+            PageRankResult result,
+            AllocationTracker tracker) {
+        long nodeCount = idMapping.nodeCount();
+        long capacity = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            capacity = Math.max(capacity, idMapping.toOriginalNodeId(node) + 1L);
+        }
+        long tracked = tracker.tracked();
+        DoubleArray scores = DoubleArray.newArray(capacity, tracker);
+        tracked = tracker.tracked() - tracked;
+        scores.fill(Double.NaN);
+        for (long node = 0L; node < nodeCount; node++) {
+            scores.set(idMapping.toOriginalNodeId(node), result.score(node));
+        }
+        PageRankScores stored = new PageRankScores(scores, nodeCount, tracker, tracked);
+        // a replaced result is not released, it might still be read by a running computation
+        PageRankScores replaced = results.put(name, stored);
+        if (replaced != null) {
+            replaced.untrack();
+        }
+        return stored;
+    }
+
+    public static PageRankScores get(String name) {
+        return results.get(name);
+    }
+
+    /**
+     * Removes the result and its memory from the tracker it has been allocated with.
+     * The scores are left to the garbage collector as a running computation might still read them.
+     */
+    public static boolean remove(String name) {
+        PageRankScores removed = results.remove(name);
+        if (removed == null) {
+            return false;
+        }
+        removed.untrack();
+        return true;
+    }
+
+    private void untrack() {
+        tracker.remove(trackedBytes);
+    }
+
+    /**
+     * @return the score of the node or {@code NaN} if it has not been part of the result
+     */
+    public double score(long originalNodeId) {
+        if (originalNodeId < 0L || originalNodeId >= scores.size()) {
+            return Double.NaN;
+        }
+        return scores.get(originalNodeId);
+    }
+
+    /**
+     * @return the number of nodes of the stored result
+     */
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the prior scores for the nodes of the given graph
+     */
+    public LongToDoubleFunction priorScores(HugeIdMapping idMapping) {
+        return node -> score(idMapping.toOriginalNodeId(node));
+    }
+}
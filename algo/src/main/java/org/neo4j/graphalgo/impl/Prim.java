@@ -45,15 +45,13 @@ import java.util.Arrays;
  */
 public class Prim extends Algorithm<Prim> {
 
-    private final RelationshipIterator relationshipIterator;
-    private final RelationshipWeights weights;
+    private final WeightedRelationshipIterator relationshipIterator;
     private final int nodeCount;
 
     private SpanningTree spanningTree;
 
-    public Prim(IdMapping idMapping, RelationshipIterator relationshipIterator, RelationshipWeights weights) {
+    public Prim(IdMapping idMapping, WeightedRelationshipIterator relationshipIterator) {
         this.relationshipIterator = relationshipIterator;
-        this.weights = weights;
         nodeCount = Math.toIntExact(idMapping.nodeCount());
     }
 
@@ -86,12 +84,12 @@ public class Prim extends Algorithm<Prim> {
             }
             effectiveNodeCount++;
             visited.put(node);
-            relationshipIterator.forEachRelationship(node, Direction.OUTGOING, (s, t, r) -> {
+            relationshipIterator.forEachRelationship(node, Direction.OUTGOING, (s, t, r, weight) -> {
                 if (visited.contains(t)) {
                     return true;
                 }
                 // invert weight to calculate maximum
-                final double w = max ? -weights.weightOf(s, t) : weights.weightOf(s, t);
+                final double w = max ? -weight : weight;
                 if (w < cost.getOrDefault(t, Double.MAX_VALUE)) {
                     cost.put(t, w);
                     queue.add(t, -1.0);
@@ -21,8 +21,6 @@ package org.neo4j.graphalgo.impl;
 import com.carrotsearch.hppc.*;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
-import org.neo4j.graphalgo.core.utils.queue.IntPriorityQueue;
-import org.neo4j.graphalgo.core.utils.queue.SharedIntPriorityQueue;
 import org.neo4j.graphdb.Direction;
 
 import java.util.stream.Stream;
@@ -34,45 +32,50 @@ import java.util.stream.StreamSupport;
  * The algorithm computes a (there might be more then one) shortest path
  * between a given start and target-NodeId. It returns result tuples of
  * [nodeId, distance] of each node in the path.
+ * <p>
+ * The search state is taken from the pool of the graph (see {@link DijkstraSearchState}),
+ * so that repeated queries on the same graph neither allocate nor clear per-node state.
+ * The bidirectional variant searches from both ends at once and stops as soon as the
+ * two searches can't improve the best path through a node that both have reached.
+ * Queries in {@link Direction#OUTGOING} are answered by the {@link ContractionHierarchy}
+ * of the graph if one is given.
  */
 public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
 
-    private static final int PATH_END = -1;
+    private static final int PATH_END = DijkstraSearchState.NO_PREDECESSOR;
     public static final double NO_PATH_FOUND = -1.0;
 
     private Graph graph;
 
-    // node to cost map
-    private IntDoubleMap costs;
-    // next node priority queue
-    private IntPriorityQueue queue;
-    // auxiliary path map
-    private IntIntMap path;
     // path map (stores the resulting shortest path)
     private IntArrayDeque finalPath;
     private DoubleArrayDeque finalPathCosts;
-    // visited set
-    private BitSet visited;
     private final int nodeCount;
     // overall cost of the path
     private double totalCost;
     private ProgressLogger progressLogger;
+    // cheapest path through a node that both searches have reached, bidirectional search only
+    private double bestCost;
+    private int meetingNode;
+    private ContractionHierarchy hierarchy;
 
     public ShortestPathDijkstra(Graph graph) {
         this.graph = graph;
         nodeCount = Math.toIntExact(graph.nodeCount());
-        costs = new IntDoubleScatterMap();
-        queue = SharedIntPriorityQueue.min(
-                IntPriorityQueue.DEFAULT_CAPACITY,
-                costs,
-                Double.MAX_VALUE);
-        path = new IntIntScatterMap();
-        visited = new BitSet();
         finalPath = new IntArrayDeque();
         finalPathCosts = new DoubleArrayDeque();
         progressLogger = getProgressLogger();
     }
 
+    /**
+     * Uses the contraction hierarchy for queries that follow the outgoing relationships,
+     * it must have been built for the graph of this instance.
+     */
+    public ShortestPathDijkstra withContractionHierarchy(ContractionHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        return this;
+    }
+
     /**
      * compute shortest path between startNode and goalNode
      *
@@ -87,23 +90,94 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
 
         int node = graph.toMappedNodeId(startNode);
         int goal = graph.toMappedNodeId(goalNode);
-        costs.put(node, 0.0);
-        queue.add(node, 0.0);
-        run(goal, direction);
-        if (!path.containsKey(goal)) {
+        if (node == -1 || goal == -1) {
             return this;
         }
-        totalCost = costs.get(goal);
-        int last = goal;
-        while (last != PATH_END) {
-            finalPath.addFirst(last);
-            finalPathCosts.addFirst(costs.get(last));
-            last = path.getOrDefault(last, PATH_END);
+        if (hierarchy != null && direction == Direction.OUTGOING) {
+            totalCost = hierarchy.shortestPath(node, goal, finalPath, finalPathCosts);
+            return this;
+        }
+        DijkstraSearchState state = DijkstraSearchState.acquire(graph);
+        try {
+            state.start(node);
+            run(state, goal, direction);
+            if (state.predecessor(goal) == PATH_END) {
+                return this;
+            }
+            totalCost = state.cost(goal);
+            int last = goal;
+            while (last != PATH_END) {
+                finalPath.addFirst(last);
+                finalPathCosts.addFirst(state.cost(last));
+                last = state.predecessor(last);
+            }
+        } finally {
+            DijkstraSearchState.release(graph, state);
+        }
+        return this;
+    }
+
+    /**
+     * compute shortest path between startNode and goalNode with a bidirectional search
+     *
+     * @param direction        the direction of the search from startNode
+     * @param reverseDirection the direction of the search from goalNode, which must follow the relationships backwards,
+     *                         i.e. {@link Direction#INCOMING} for {@link Direction#OUTGOING} on a directed graph,
+     *                         or the same direction on an undirected graph
+     * @return itself
+     */
+    public ShortestPathDijkstra compute(long startNode, long goalNode, Direction direction, Direction reverseDirection) {
+        reset();
+
+        int node = graph.toMappedNodeId(startNode);
+        int goal = graph.toMappedNodeId(goalNode);
+        if (node == -1 || goal == -1 || node == goal) {
+            return this;
+        }
+        if (hierarchy != null && direction == Direction.OUTGOING) {
+            totalCost = hierarchy.shortestPath(node, goal, finalPath, finalPathCosts);
+            return this;
+        }
+        DijkstraSearchState forward = DijkstraSearchState.acquire(graph);
+        DijkstraSearchState backward = DijkstraSearchState.acquire(graph);
+        try {
+            forward.start(node);
+            backward.start(goal);
+            bestCost = Double.MAX_VALUE;
+            meetingNode = PATH_END;
+            while (!forward.isEmpty() && !backward.isEmpty() && running()) {
+                double forwardCost = forward.minCost();
+                double backwardCost = backward.minCost();
+                if (forwardCost + backwardCost >= bestCost) {
+                    break;
+                }
+                // expand the search with the smaller radius
+                if (forwardCost <= backwardCost) {
+                    expand(forward, backward, direction);
+                } else {
+                    expand(backward, forward, reverseDirection);
+                }
+            }
+            if (meetingNode == PATH_END) {
+                return this;
+            }
+            totalCost = bestCost;
+            int last = meetingNode;
+            while (last != PATH_END) {
+                finalPath.addFirst(last);
+                finalPathCosts.addFirst(forward.cost(last));
+                last = forward.predecessor(last);
+            }
+            int next = backward.predecessor(meetingNode);
+            while (next != PATH_END) {
+                finalPath.addLast(next);
+                finalPathCosts.addLast(bestCost - backward.cost(next));
+                next = backward.predecessor(next);
+            }
+        } finally {
+            DijkstraSearchState.release(graph, forward);
+            DijkstraSearchState.release(graph, backward);
         }
-        // destroy costs and path to remove the data for nodes that are not part of the graph
-        // since clear never downsizes the buffer array
-        costs.release();
-        path.release();
         return this;
     }
 
@@ -140,40 +214,42 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
         return finalPath.size();
     }
 
-    private void run(int goal, Direction direction) {
-        while (!queue.isEmpty() && running()) {
-            int node = queue.pop();
+    private void run(DijkstraSearchState state, int goal, Direction direction) {
+        while (!state.isEmpty() && running()) {
+            int node = state.pop();
             if (node == goal) {
                 return;
             }
 
-            visited.set(node);
-            double costs = this.costs.getOrDefault(node, Double.MAX_VALUE);
+            double costs = state.cost(node);
+            int depth = state.depth(node);
             graph.forEachRelationship(
                     node,
                     direction, (source, target, relId, weight) -> {
-                        boolean oldCostChanged = updateCosts(source, target, weight + costs);
-                        if (!visited.get(target)) {
-                            if (oldCostChanged) {
-                                queue.update(target);
-                            } else {
-                                queue.add(target, 0);
-                            }
-                        }
+                        state.relax(target, source, weight + costs, depth + 1);
                         return true;
                     });
             progressLogger.logProgress((double) node / (nodeCount - 1));
         }
     }
 
-    private boolean updateCosts(int source, int target, double newCosts) {
-        double oldCosts = costs.getOrDefault(target, Double.MAX_VALUE);
-        if (newCosts < oldCosts) {
-            costs.put(target, newCosts);
-            path.put(target, source);
-            return oldCosts < Double.MAX_VALUE;
-        }
-        return false;
+    private void expand(DijkstraSearchState search, DijkstraSearchState other, Direction direction) {
+        int node = search.pop();
+        double costs = search.cost(node);
+        int depth = search.depth(node);
+        graph.forEachRelationship(
+                node,
+                direction, (source, target, relId, weight) -> {
+                    search.relax(target, source, weight + costs, depth + 1);
+                    if (other.touched(target)) {
+                        double pathCosts = search.cost(target) + other.cost(target);
+                        if (pathCosts < bestCost) {
+                            bestCost = pathCosts;
+                            meetingNode = target;
+                        }
+                    }
+                    return true;
+                });
     }
 
     @Override
@@ -184,20 +260,15 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
     @Override
     public ShortestPathDijkstra release() {
         graph = null;
-        costs = null;
-        queue = null;
-        path = null;
+        hierarchy = null;
         finalPath = null;
-        visited = null;
+        finalPathCosts = null;
         return this;
     }
 
     private void reset() {
-        visited.clear();
-        queue.clear();
-        costs.clear();
-        path.clear();
         finalPath.clear();
+        finalPathCosts.clear();
         totalCost = NO_PATH_FOUND;
     }
 
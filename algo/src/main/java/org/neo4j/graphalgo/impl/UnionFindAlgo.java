@@ -20,8 +20,11 @@ package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
 
 import java.util.concurrent.ExecutorService;
@@ -162,6 +165,45 @@ public enum UnionFindAlgo {
             return new DSSResult(struct);
         }
     },
+    /**
+     * All threads share one {@link PagedAtomicDisjointSetStruct}, see {@link HugeParallelUnionFindAfforest}.
+     * Graphs that are not huge are computed by {@link #QUEUE}.
+     */
+    AFFOREST {
+        @Override
+        DSSResult run(
+                Graph graph,
+                ExecutorService executor,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            return QUEUE.run(graph, executor, minBatchSize, concurrency, threshold, prepare);
+        }
+
+        @Override
+        DSSResult run(
+                HugeGraph hugeGraph,
+                ExecutorService executor,
+                AllocationTracker tracker,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            HugeParallelUnionFindAfforest algo = new HugeParallelUnionFindAfforest(
+                    hugeGraph,
+                    executor,
+                    tracker,
+                    minBatchSize,
+                    concurrency);
+            prepare.accept("CC(HugeParallelUnionFindAfforest)", algo);
+            PagedAtomicDisjointSetStruct struct = Double.isFinite(threshold)
+                    ? algo.compute(threshold)
+                    : algo.compute();
+            algo.release();
+            return new DSSResult(struct);
+        }
+    },
     SEQ {
         @Override
         DSSResult run(
@@ -201,6 +243,28 @@ public enum UnionFindAlgo {
         }
     };
 
+    /**
+     * Estimates the memory of the disjoint set structs that are used to compute
+     * the components of {@code nodeCount} nodes. The parallel variants build one
+     * struct per batch, of which at least {@code concurrency} are alive at the same time,
+     * except for {@link #AFFOREST}, which shares a single struct.
+     */
+    public MemoryRange memoryEstimation(long nodeCount, int minBatchSize, int concurrency) {
+        if (this == AFFOREST) {
+            return MemoryRange.of(PagedAtomicDisjointSetStruct.estimateMemoryUsage(nodeCount));
+        }
+        long struct = PagedDisjointSetStruct.estimateMemoryUsage(nodeCount);
+        if (this == SEQ) {
+            return MemoryRange.of(struct);
+        }
+        long batchSize = Math.max(
+                Math.max(1L, minBatchSize),
+                ParallelUtil.threadSize(Math.max(1, concurrency), nodeCount));
+        long steps = ParallelUtil.threadSize(batchSize, nodeCount);
+        long minSteps = Math.min(steps, Math.max(1, concurrency));
+        return MemoryRange.of(minSteps * struct, steps * struct);
+    }
+
     public static BiConsumer<String, Algorithm<?>> NOTHING = (s, a) -> {
     };
 
@@ -19,25 +19,35 @@
 package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.MemoryRecommendation;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.results.UnionFindResult;
+import org.neo4j.graphalgo.results.UnionFindUpdateResult;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>> {
@@ -120,6 +130,108 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
         return result.resultStream(graph);
     }
 
+    /**
+     * Adds relationships to the components of a named huge graph. The components are computed
+     * and stored next to the graph in {@link LoadGraphFactory} on the first call, every following
+     * call only costs two finds per relationship. The graph itself is not changed, but the relationships
+     * are kept with it and added again if the components have to be computed again after a sync.
+     *
+     * @param relationships pairs of neo4j node ids, pairs with a node that is not part of the components are skipped
+     */
+    public static Stream<UnionFindUpdateResult> update(
+            String graphName,
+            List<List<Number>> relationships,
+            Map<String, Object> config,
+            Supplier<UnionFindProcExec> unionFind) {
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        HugeGraph graph = namedGraph(graphName);
+        UnionFindUpdateResult.Builder builder = UnionFindUpdateResult.builder()
+                .withGraph(graphName);
+
+        PagedAtomicDisjointSetStruct struct = LoadGraphFactory.getComponents(graphName);
+        if (struct == null) {
+            PagedAtomicDisjointSetStruct computed;
+            try (ProgressTimer ignored = builder.timeEval()) {
+                computed = unionFind.get().components(graph, configuration);
+            }
+            struct = LoadGraphFactory.setComponents(graphName, graph, computed);
+            if (struct != computed) {
+                // another call has stored its components in the meantime
+                computed.release();
+            }
+        }
+
+        long merges;
+        long skipped = 0L;
+        try (ProgressTimer ignored = builder.timeWrite()) {
+            long[] nodeIds = new long[relationships.size() * 2];
+            int index = 0;
+            for (List<Number> relationship : relationships) {
+                if (relationship == null || relationship.size() != 2) {
+                    throw new IllegalArgumentException("Relationships must be pairs of node ids, but got " + relationship);
+                }
+                long source = nodeId(relationship.get(0));
+                long target = nodeId(relationship.get(1));
+                if (LoadGraphFactory.componentId(graph, struct, source) == -1L
+                        || LoadGraphFactory.componentId(graph, struct, target) == -1L) {
+                    skipped++;
+                } else {
+                    nodeIds[index++] = source;
+                    nodeIds[index++] = target;
+                }
+            }
+            // kept by the named graph, so that they are not lost when the components are computed again
+            merges = LoadGraphFactory.unionComponents(graphName, graph, struct, Arrays.copyOf(nodeIds, index));
+        }
+
+        return Stream.of(builder
+                .withNodes(struct.capacity())
+                .withRelationships(relationships.size() - skipped)
+                .withMerges(merges)
+                .withSkipped(skipped)
+                .build());
+    }
+
+    /**
+     * Streams the stored components of a named graph, see {@link #update(String, List, Map, Supplier)}.
+     *
+     * @param nodeIds the neo4j node ids to look up or {@code null} for all nodes
+     */
+    public static Stream<DisjointSetStruct.Result> components(String graphName, List<Number> nodeIds) {
+        HugeGraph graph = namedGraph(graphName);
+        PagedAtomicDisjointSetStruct struct = LoadGraphFactory.getComponents(graphName);
+        if (struct == null) {
+            throw new IllegalArgumentException("The components of graph " + graphName + " have not been computed, call algo.unionFind.update first");
+        }
+        if (nodeIds == null) {
+            return LongStream.range(0L, struct.capacity())
+                    .mapToObj(mappedId -> new DisjointSetStruct.Result(
+                            graph.toOriginalNodeId(mappedId),
+                            struct.find(mappedId)));
+        }
+        return nodeIds.stream()
+                .mapToLong(nodeId -> LoadGraphFactory.componentId(graph, struct, nodeId(nodeId)))
+                .filter(mappedId -> mappedId != -1L)
+                .mapToObj(mappedId -> new DisjointSetStruct.Result(
+                        graph.toOriginalNodeId(mappedId),
+                        struct.find(mappedId)));
+    }
+
+    private static HugeGraph namedGraph(String graphName) {
+        Graph graph = LoadGraphFactory.get(graphName);
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph name " + graphName + " is not loaded");
+        }
+        if (!(graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException("Only the components of huge graphs can be updated, but " + graphName + " is a " + graph.getType() + " graph");
+        }
+        return (HugeGraph) graph;
+    }
+
+    private static long nodeId(Number nodeId) {
+        return nodeId == null ? -1L : nodeId.longValue();
+    }
+
     public UnionFindProcExec(
             GraphDatabaseAPI api,
             Log log,
@@ -145,14 +257,34 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
     public Graph load(
             ProcedureConfiguration config,
             AllocationTracker tracker) {
+        GraphFactory factory = graphLoader(config, tracker).build(config.getGraphImpl());
+        if (config.shouldCheckMemory()) {
+            MemoryRecommendation
+                    .of(factory, nodeCount -> memoryEstimation(config, nodeCount))
+                    .assertFitsInHeap("UnionFind", log);
+        }
+        return factory.build();
+    }
+
+    public GraphLoader graphLoader(
+            ProcedureConfiguration config,
+            AllocationTracker tracker) {
         return new GraphLoader(api, Pools.DEFAULT)
                 .init(log, config.getNodeLabelOrQuery(), config.getRelationshipOrQuery(), config)
                 .withOptionalRelationshipWeightsFromProperty(
                         config.getWeightProperty(),
                         config.getWeightPropertyDefaultValue(1.0))
                 .withDirection(Direction.OUTGOING)
-                .withAllocationTracker(tracker)
-                .load(config.getGraphImpl());
+                .withAllocationTracker(tracker);
+    }
+
+    /**
+     * @return the estimated memory of computing the components of a huge graph with the given node count
+     */
+    public MemoryRange memoryEstimation(ProcedureConfiguration config, long nodeCount) {
+        int concurrency = config.getConcurrency();
+        UnionFindAlgo uf = concurrency > 1 ? parallel : sequential;
+        return uf.memoryEstimation(nodeCount, config.getBatchSize(), concurrency);
     }
 
     private DSSResult evaluate(
@@ -183,6 +315,17 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 this);
     }
 
+    private PagedAtomicDisjointSetStruct components(HugeGraph graph, ProcedureConfiguration config) {
+        return UnionFindAlgo.AFFOREST.run(
+                graph,
+                Pools.DEFAULT,
+                AllocationTracker.create(),
+                config.getBatchSize(),
+                config.getConcurrency(),
+                Double.NaN,
+                this).atomicStruct;
+    }
+
     private void write(
             Supplier<ProgressTimer> timer,
             Graph graph,
@@ -207,6 +350,8 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 .build();
         if (struct.hugeStruct != null) {
             write(exporter, struct.hugeStruct, configuration);
+        } else if (struct.atomicStruct != null) {
+            write(exporter, struct.atomicStruct, configuration);
         } else {
             write(exporter, struct.struct, configuration);
         }
@@ -242,4 +387,16 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
                 PagedDisjointSetStruct.Translator.INSTANCE);
     }
 
+    private void write(
+            Exporter exporter,
+            PagedAtomicDisjointSetStruct struct,
+            ProcedureConfiguration configuration) {
+        exporter.write(
+                configuration.get(
+                        CONFIG_CLUSTER_PROPERTY,
+                        DEFAULT_CLUSTER_PROPERTY),
+                struct,
+                PagedAtomicDisjointSetStruct.Translator.INSTANCE);
+    }
+
 }
@@ -0,0 +1,477 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.betweenness;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphalgo.impl.msbfs.HugeBfsSources;
+import org.neo4j.graphalgo.impl.msbfs.HugeMultiSourceBFS;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Brandes Betweenness Centrality for huge graphs.
+ * <p>
+ * Instead of one BFS per source, the sources are processed in batches of up to 64
+ * with a {@link HugeMultiSourceBFS}, which records for every depth the nodes of the
+ * frontier together with a bit set of the sources that reached them. The number of
+ * shortest paths and the dependencies of every (node, source) pair are then computed
+ * by walking the recorded levels forwards and backwards, matching neighbours of
+ * adjacent levels with a bitwise and of their source sets.
+ * <p>
+ * Each thread accumulates the dependencies of its batches in its own paged buffer,
+ * the buffers are summed up once all batches are done.
+ * The path counts and dependencies are stored next to the recorded frontier entries, one value
+ * for every source of an entry, so they only grow with the (node, source) pairs that have been visited,
+ * up to {@code 2 * batchSize} doubles per node and thread, see {@link #memoryEstimation(long, long, int, int)}.
+ * Smaller batches trade traversals for memory.
+ * Only {@code ceil(sourceCount / batchSize)} threads are started, and their buffers are
+ * allocated when they take their first batch.
+ * <p>
+ * If a {@link RABrandesBetweennessCentrality.SelectionStrategy} is given, only the selected
+ * nodes are used as sources and the centrality is scaled by {@code nodeCount / selectedCount}.
+ * Selection strategies identify nodes by int ids, so they can only be used for graphs
+ * with at most {@link Integer#MAX_VALUE} nodes.
+ */
+public class HugeBetweennessCentrality extends Algorithm<HugeBetweennessCentrality> {
+
+    // the maximum number of sources of a batch, one bit of the MS-BFS source sets per source
+    public static final int MAX_BATCH_SIZE = 64;
+
+    private HugeGraph graph;
+    private RABrandesBetweennessCentrality.SelectionStrategy selectionStrategy;
+    private DoubleArray centrality;
+    private final long nodeCount;
+    private final ExecutorService executorService;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private Direction direction = Direction.OUTGOING;
+    private double divisor = 1.0;
+    private int maxDepth = Integer.MAX_VALUE;
+    private int batchSize = MAX_BATCH_SIZE;
+
+    // the next node that is tested as source, guarded by this
+    private long nextSource;
+    private long processedSources;
+
+    /**
+     * @param graph the graph
+     * @param executorService the executor service
+     * @param concurrency desired number of threads to spawn
+     * @param selectionStrategy the selection of source nodes, or null to use all nodes
+     * @param tracker the allocation tracker
+     */
+    public HugeBetweennessCentrality(
+            HugeGraph graph,
+            ExecutorService executorService,
+            int concurrency,
+            RABrandesBetweennessCentrality.SelectionStrategy selectionStrategy,
+            AllocationTracker tracker) {
+        if (selectionStrategy != null && graph.nodeCount() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Source nodes can only be selected in graphs with at most " + Integer.MAX_VALUE + " nodes");
+        }
+        this.graph = graph;
+        this.nodeCount = graph.nodeCount();
+        this.executorService = executorService;
+        this.concurrency = concurrency;
+        this.selectionStrategy = selectionStrategy;
+        this.tracker = tracker;
+    }
+
+    public HugeBetweennessCentrality withDirection(Direction direction) {
+        this.direction = direction;
+        this.divisor = direction == Direction.BOTH ? 2.0 : 1.0;
+        return this;
+    }
+
+    /**
+     * only count shortest paths of at most maxDepth relationships
+     */
+    public HugeBetweennessCentrality withMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * the number of sources that are traversed at once, between 1 and 64
+     */
+    public HugeBetweennessCentrality withBatchSize(int batchSize) {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "The batch size must be between 1 and " + MAX_BATCH_SIZE + ", but was " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Estimates the memory of computing the centrality of {@code nodeCount} nodes
+     * from {@code sourceCount} sources. Every thread keeps the MS-BFS arrays, its own centrality buffer
+     * and the recorded frontiers of its batch together with their path counts and dependencies.
+     * The recorded frontiers start with a quarter of the nodes and grow up to one entry
+     * and one path count and dependency per (node, source) pair.
+     */
+    public static MemoryRange memoryEstimation(long nodeCount, long sourceCount, int concurrency, int batchSize) {
+        long tasks = Math.min(Math.max(1, concurrency), ParallelUtil.threadSize(batchSize, sourceCount));
+        long result = DoubleArray.estimateMemoryUsage(nodeCount);
+        long perTask = DoubleArray.estimateMemoryUsage(nodeCount)
+                + 4L * HugeLongArray.estimateMemoryUsage(nodeCount);
+        long minCapacity = Math.max(batchSize, nodeCount >>> 2);
+        long maxCapacity = Math.max(batchSize, nodeCount * batchSize);
+        long minEntries = 3L * HugeLongArray.estimateMemoryUsage(minCapacity)
+                + 2L * DoubleArray.estimateMemoryUsage(minCapacity);
+        long maxEntries = 3L * HugeLongArray.estimateMemoryUsage(maxCapacity)
+                + 2L * DoubleArray.estimateMemoryUsage(maxCapacity);
+        return MemoryRange.of(
+                result + tasks * (perTask + minEntries),
+                result + tasks * (perTask + maxEntries));
+    }
+
+    /**
+     * @return the number of source nodes, all nodes if no selection strategy is given
+     */
+    public long sourceCount() {
+        return selectionStrategy == null ? nodeCount : selectionStrategy.size();
+    }
+
+    /**
+     * compute centrality
+     *
+     * @return itself for method chaining
+     */
+    public HugeBetweennessCentrality compute() {
+        nextSource = 0L;
+        processedSources = 0L;
+        HugeMultiSourceBFS bfs = new HugeMultiSourceBFS(
+                graph,
+                graph,
+                direction,
+                (nodeId, depth, sourceNodeIds) -> {},
+                tracker);
+        long sourceCount = sourceCount();
+        int taskCount = (int) Math.min(concurrency, ParallelUtil.threadSize(batchSize, sourceCount));
+        List<BatchTask> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new BatchTask(bfs));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, this, executorService);
+        // tasks that did not get a batch never allocated their buffers
+        tasks.removeIf(task -> task.centrality == null);
+
+        double scale = sourceCount == 0L ? 0.0 : (double) nodeCount / sourceCount / divisor;
+        centrality = DoubleArray.newArray(nodeCount, tracker);
+        long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, 10_000L);
+        Collection<Runnable> reducers = new ArrayList<>();
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            long from = start;
+            long to = Math.min(nodeCount, start + batchSize);
+            reducers.add(() -> {
+                for (long node = from; node < to; node++) {
+                    double sum = 0.0;
+                    for (BatchTask task : tasks) {
+                        sum += task.centrality.get(node);
+                    }
+                    centrality.set(node, sum * scale);
+                }
+            });
+        }
+        ParallelUtil.runWithConcurrency(concurrency, reducers, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, this, executorService);
+        tasks.forEach(BatchTask::release);
+        return this;
+    }
+
+    /**
+     * get the centrality array
+     *
+     * @return array with centrality
+     */
+    public DoubleArray getCentrality() {
+        return centrality;
+    }
+
+    /**
+     * emit the result stream
+     *
+     * @return stream if Results
+     */
+    public Stream<BetweennessCentrality.Result> resultStream() {
+        return LongStream.range(0L, nodeCount)
+                .mapToObj(nodeId ->
+                        new BetweennessCentrality.Result(
+                                graph.toOriginalNodeId(nodeId),
+                                centrality.get(nodeId)));
+    }
+
+    @Override
+    public HugeBetweennessCentrality me() {
+        return this;
+    }
+
+    @Override
+    public HugeBetweennessCentrality release() {
+        graph = null;
+        selectionStrategy = null;
+        centrality = null;
+        return this;
+    }
+
+    /**
+     * fills the buffer with the next selected source nodes,
+     * the node count has been checked to fit into an int if a selection strategy is given
+     *
+     * @return the number of sources, 0 if all sources have been processed
+     */
+    private synchronized int nextBatch(long[] buffer) {
+        int size = 0;
+        while (size < buffer.length && nextSource < nodeCount) {
+            long node = nextSource++;
+            if (selectionStrategy == null || selectionStrategy.select(Math.toIntExact(node))) {
+                buffer[size++] = node;
+            }
+        }
+        processedSources += size;
+        getProgressLogger().logProgress(processedSources, Math.max(1L, sourceCount()));
+        return size;
+    }
+
+    /**
+     * a BatchTask takes batches of up to batchSize sources until all sources
+     * have been processed and adds their dependencies to its own buffer
+     */
+    private final class BatchTask implements Runnable {
+
+        private final HugeMultiSourceBFS bfs;
+        private final HugeRelationshipIterator relationships;
+        private final long[] buffer;
+        // the entry of every node of the current level plus one while it is matched with its predecessors
+        private HugeLongArray levelEntries;
+        // null until the task takes its first batch
+        private DoubleArray centrality;
+
+        // the recorded frontiers, the entries of level d are in [levels[d], levels[d + 1])
+        private final LongArrayList levels;
+        private HugeLongArray entryNodes;
+        private HugeLongArray entrySources;
+        // the path counts and dependencies of an entry start at its offset, one value per source in its source set
+        private HugeLongArray entryOffsets;
+        private DoubleArray sigma;
+        private DoubleArray delta;
+        private long entryCount;
+        private long valueCount;
+
+        private long[] sources;
+
+        private BatchTask(HugeMultiSourceBFS bfs) {
+            this.bfs = bfs;
+            this.relationships = graph.concurrentCopy();
+            this.buffer = new long[batchSize];
+            this.levels = new LongArrayList();
+        }
+
+        private void allocate() {
+            levelEntries = HugeLongArray.newArray(nodeCount, tracker);
+            centrality = DoubleArray.newArray(nodeCount, tracker);
+            long capacity = Math.max(batchSize, nodeCount >>> 2);
+            entryNodes = HugeLongArray.newArray(capacity, tracker);
+            entrySources = HugeLongArray.newArray(capacity, tracker);
+            entryOffsets = HugeLongArray.newArray(capacity, tracker);
+            sigma = DoubleArray.newArray(capacity, tracker);
+            delta = DoubleArray.newArray(capacity, tracker);
+        }
+
+        @Override
+        public void run() {
+            int size;
+            while (running() && (size = nextBatch(buffer)) > 0) {
+                if (centrality == null) {
+                    allocate();
+                }
+                // sources are sorted, so bit i of a source set is sources[i]
+                sources = Arrays.copyOf(buffer, size);
+                entryCount = 0L;
+                valueCount = 0L;
+                levels.clear();
+                levels.add(0L);
+                for (int i = 0; i < size; i++) {
+                    append(sources[i], 1L << i);
+                    sigma.set(valueCount - 1L, 1.0);
+                }
+                bfs.forSources(relationships, this::visit, sources).run();
+                levels.add(entryCount);
+                countPaths();
+                accumulateDependencies();
+            }
+        }
+
+        private void visit(long nodeId, int depth, HugeBfsSources sourceNodeIds) {
+            if (depth > maxDepth) {
+                return;
+            }
+            if (depth == levels.size()) {
+                levels.add(entryCount);
+            }
+            long sourceSet = 0L;
+            while (sourceNodeIds.hasNext()) {
+                sourceSet |= 1L << Arrays.binarySearch(sources, sourceNodeIds.next());
+            }
+            append(nodeId, sourceSet);
+        }
+
+        /**
+         * forward pass: the path count of every node is the sum of the path counts
+         * of its neighbours on the previous level
+         */
+        private void countPaths() {
+            for (int depth = 1; depth < levels.size() - 1; depth++) {
+                markLevel(depth, true);
+                forEachEdge(depth - 1, (node, neighbour) -> sigma.add(neighbour, sigma.get(node)));
+                markLevel(depth, false);
+            }
+        }
+
+        /**
+         * backward pass: the dependency of a node is accumulated from its neighbours
+         * on the next level, the dependencies of a level are final before its
+         * predecessors are processed
+         */
+        private void accumulateDependencies() {
+            for (int depth = levels.size() - 2; depth > 0; depth--) {
+                markLevel(depth, true);
+                forEachEdge(depth - 1, (node, neighbour) ->
+                        delta.add(node, sigma.get(node) / sigma.get(neighbour) * (1.0 + delta.get(neighbour))));
+                markLevel(depth, false);
+                for (long entry = levels.get(depth), end = levels.get(depth + 1); entry < end; entry++) {
+                    long offset = entryOffsets.get(entry);
+                    long values = offset + Long.bitCount(entrySources.get(entry));
+                    double dependency = 0.0;
+                    for (long value = offset; value < values; value++) {
+                        dependency += delta.get(value);
+                    }
+                    centrality.add(entryNodes.get(entry), dependency);
+                }
+            }
+        }
+
+        private void markLevel(int depth, boolean mark) {
+            for (long entry = levels.get(depth), end = levels.get(depth + 1); entry < end; entry++) {
+                levelEntries.set(entryNodes.get(entry), mark ? entry + 1L : 0L);
+            }
+        }
+
+        /**
+         * calls the consumer for every relationship from a node of the given level
+         * to a node of the marked level, once for every source both nodes share,
+         * with the indices of the values of both nodes for that source
+         */
+        private void forEachEdge(int depth, PathConsumer consumer) {
+            for (long entry = levels.get(depth), end = levels.get(depth + 1); entry < end; entry++) {
+                long node = entryNodes.get(entry);
+                long sourceSet = entrySources.get(entry);
+                long offset = entryOffsets.get(entry);
+                relationships.forEachRelationship(node, direction, (source, target) -> {
+                    long targetEntry = levelEntries.get(target) - 1L;
+                    if (targetEntry < 0L) {
+                        return true;
+                    }
+                    long targetSources = entrySources.get(targetEntry);
+                    long targetOffset = entryOffsets.get(targetEntry);
+                    for (long shared = sourceSet & targetSources; shared != 0L; shared &= shared - 1L) {
+                        long lower = Long.lowestOneBit(shared) - 1L;
+                        consumer.accept(
+                                offset + Long.bitCount(sourceSet & lower),
+                                targetOffset + Long.bitCount(targetSources & lower));
+                    }
+                    return true;
+                });
+            }
+        }
+
+        private void append(long nodeId, long sourceSet) {
+            if (entryCount == entryNodes.size()) {
+                long capacity = entryCount + Math.max(1L, entryCount >>> 1);
+                entryNodes = grow(entryNodes, capacity);
+                entrySources = grow(entrySources, capacity);
+                entryOffsets = grow(entryOffsets, capacity);
+            }
+            int values = Long.bitCount(sourceSet);
+            if (valueCount + values > sigma.size()) {
+                long capacity = Math.max(valueCount + values, valueCount + (valueCount >>> 1));
+                sigma = grow(sigma, capacity);
+                delta = grow(delta, capacity);
+            }
+            entryNodes.set(entryCount, nodeId);
+            entrySources.set(entryCount, sourceSet);
+            entryOffsets.set(entryCount, valueCount);
+            ++entryCount;
+            // the values of the previous batch are overwritten
+            for (long end = valueCount + values; valueCount < end; valueCount++) {
+                sigma.set(valueCount, 0.0);
+                delta.set(valueCount, 0.0);
+            }
+        }
+
+        private HugeLongArray grow(HugeLongArray array, long capacity) {
+            HugeLongArray grown = HugeLongArray.newArray(capacity, tracker);
+            array.copyTo(grown, array.size());
+            array.release();
+            return grown;
+        }
+
+        private DoubleArray grow(DoubleArray array, long capacity) {
+            DoubleArray grown = DoubleArray.newArray(capacity, tracker);
+            array.copyTo(grown, array.size());
+            array.release();
+            return grown;
+        }
+
+        private void release() {
+            if (centrality == null) {
+                return;
+            }
+            levelEntries.release();
+            entryNodes.release();
+            entrySources.release();
+            entryOffsets.release();
+            sigma.release();
+            delta.release();
+            centrality.release();
+            centrality = null;
+        }
+    }
+
+    private interface PathConsumer {
+        void accept(long node, long neighbour);
+    }
+}
@@ -0,0 +1,371 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.louvain;
+
+import com.carrotsearch.hppc.LongDoubleScatterMap;
+import com.carrotsearch.hppc.cursors.LongDoubleCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphBuilder;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Louvain Clustering Algorithm for {@link HugeGraph}s.
+ * <p>
+ * Works like {@link Louvain} but supports more than 2^31 nodes. All per-node
+ * data is kept in paged arrays and the graph of each level is built as a
+ * compressed {@link HugeGraph} using a {@link HugeGraphBuilder}.
+ * <p>
+ * The dendrogram only stores the transition of each level, i.e. the first
+ * level maps every node to its community and each following level maps the
+ * communities of the previous level to their new community. Since the number
+ * of communities shrinks from level to level, this needs much less memory
+ * than storing the full community structure for every level. The community
+ * of a node at a given level is resolved by following the levels.
+ */
+public final class HugeLouvain extends Algorithm<HugeLouvain> implements LouvainAlgorithm {
+
+    private final long rootNodeCount;
+    private final ExecutorService pool;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private HugeGraph root;
+    private HugeLongArray[] dendrogram;
+    private int level;
+    private long communityCount;
+
+    public HugeLouvain(
+            HugeGraph graph,
+            ExecutorService pool,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.root = graph;
+        this.pool = pool;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.rootNodeCount = graph.nodeCount();
+        this.communityCount = rootNodeCount;
+        this.dendrogram = new HugeLongArray[0];
+    }
+
+    @Override
+    public HugeLouvain compute(int maxLevel, int maxIterations) {
+        // temporary graph
+        HugeGraph graph = this.root;
+        DoubleArray nodeWeights = null;
+        // result arrays
+        dendrogram = new HugeLongArray[maxLevel];
+        long nodeCount = rootNodeCount;
+        for (level = 0; level < maxLevel && running(); level++) {
+            // start modularity optimization
+            final HugeModularityOptimization modularityOptimization =
+                    new HugeModularityOptimization(
+                            graph,
+                            nodeWeights,
+                            pool,
+                            concurrency,
+                            tracker)
+                            .withProgressLogger(getProgressLogger())
+                            .withTerminationFlag(getTerminationFlag())
+                            .compute(maxIterations);
+            // rebuild graph based on the community structure
+            final HugeLongArray communityIds = modularityOptimization.getCommunityIds();
+            communityCount = HugeModularityOptimization.normalize(communityIds, tracker);
+            // release the old algo instance
+            modularityOptimization.release();
+            getProgressLogger().log(
+                    "level: " + (level + 1) +
+                            " communities: " + communityCount +
+                            " q: " + modularityOptimization.getModularity());
+            if (communityCount >= nodeCount) {
+                tracker.remove(communityIds.release());
+                break;
+            }
+            nodeCount = communityCount;
+            dendrogram[level] = communityIds;
+            if (nodeWeights != null) {
+                tracker.remove(nodeWeights.release());
+            }
+            nodeWeights = DoubleArray.newArray(communityCount, tracker);
+            final HugeGraph nextGraph = rebuildGraph(graph, communityIds, communityCount, nodeWeights);
+            if (graph != root) {
+                graph.release();
+            }
+            graph = nextGraph;
+        }
+        if (graph != root) {
+            graph.release();
+        }
+        if (nodeWeights != null) {
+            tracker.remove(nodeWeights.release());
+        }
+        dendrogram = Arrays.copyOf(dendrogram, level);
+        return this;
+    }
+
+    /**
+     * create a graph based on the community structure of the
+     * previous louvain round. Relationships between two communities
+     * are merged into one relationship, their weights are summed up.
+     * The weight of all relationships inside of a community is stored as its node weight.
+     *
+     * @param graph          previous graph
+     * @param communityIds   community structure
+     * @param communityCount number of communities
+     * @param nodeWeights    receives the self loop weight of each community
+     * @return a new graph built from a community structure
+     */
+    private HugeGraph rebuildGraph(
+            HugeGraph graph,
+            HugeLongArray communityIds,
+            long communityCount,
+            DoubleArray nodeWeights) {
+        final long nodeCount = communityIds.size();
+        // sort the nodes by their community (counting sort), after filling the members
+        // the nodes of community c are stored in [ends[c-1], ends[c])
+        final HugeLongArray ends = HugeLongArray.newArray(communityCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            final long community = communityIds.get(node);
+            if (community + 1 < communityCount) {
+                ends.addTo(community + 1, 1L);
+            }
+        }
+        for (long c = 1L; c < communityCount; c++) {
+            ends.addTo(c, ends.get(c - 1));
+        }
+        final HugeLongArray members = HugeLongArray.newArray(nodeCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            final long community = communityIds.get(node);
+            final long index = ends.get(community);
+            members.set(index, node);
+            ends.set(community, index + 1);
+        }
+
+        final HugeGraphBuilder builder = new HugeGraphBuilder(communityCount, true, 0.0, tracker);
+        final int threads = (int) Math.max(1L, Math.min(concurrency, communityCount));
+        final long batchSize = ParallelUtil.threadSize(threads, communityCount);
+        final List<Runnable> tasks = new ArrayList<>(threads);
+        for (long start = 0L; start < communityCount; start += batchSize) {
+            tasks.add(new RebuildTask(
+                    graph.concurrentCopy(),
+                    builder.newImporter(),
+                    communityIds,
+                    members,
+                    ends,
+                    nodeWeights,
+                    start,
+                    Math.min(start + batchSize, communityCount)));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, pool);
+        tracker.remove(members.release());
+        tracker.remove(ends.release());
+        return builder.build();
+    }
+
+    /**
+     * The community of each node at the last level.
+     * The array is created on each call.
+     *
+     * @return node to community mapping array
+     */
+    public HugeLongArray getCommunityIds() {
+        return getCommunityIds(dendrogram.length - 1);
+    }
+
+    /**
+     * The community of each node at the given level.
+     * The array is created on each call.
+     *
+     * @return node to community mapping array
+     */
+    public HugeLongArray getCommunityIds(int level) {
+        final HugeLongArray communities = HugeLongArray.newArray(rootNodeCount, tracker);
+        communities.setAll(node -> communityOf(node, level));
+        return communities;
+    }
+
+    /**
+     * @return the community of the node at the given level
+     */
+    public long communityOf(long nodeId, int level) {
+        long community = nodeId;
+        for (int i = 0; i <= level && i < dendrogram.length; i++) {
+            community = dendrogram[i].get(community);
+        }
+        return community;
+    }
+
+    /**
+     * @return the community of the node at every level
+     */
+    public long[] communitiesOf(long nodeId) {
+        final long[] communities = new long[dendrogram.length];
+        long community = nodeId;
+        for (int i = 0; i < dendrogram.length; i++) {
+            communities[i] = community = dendrogram[i].get(community);
+        }
+        return communities;
+    }
+
+    @Override
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public long getCommunityCount() {
+        return communityCount;
+    }
+
+    @Override
+    public Stream<Louvain.Result> resultStream() {
+        final int lastLevel = dendrogram.length - 1;
+        return LongStream.range(0L, rootNodeCount)
+                .mapToObj(i -> new Louvain.Result(i, communityOf(i, lastLevel)));
+    }
+
+    @Override
+    public Stream<Louvain.StreamingResult> dendrogramStream() {
+        return LongStream.range(0L, rootNodeCount)
+                .mapToObj(i -> {
+                    final long[] communities = communitiesOf(i);
+                    final List<Long> list = new ArrayList<>(communities.length);
+                    for (long community : communities) {
+                        list.add(community);
+                    }
+                    return new Louvain.StreamingResult(root.toOriginalNodeId(i), list);
+                });
+    }
+
+    @Override
+    public Algorithm<?> algorithm() {
+        return this;
+    }
+
+    @Override
+    public HugeLouvain me() {
+        return this;
+    }
+
+    @Override
+    public HugeLouvain release() {
+        for (HugeLongArray level : dendrogram) {
+            tracker.remove(level.release());
+        }
+        dendrogram = new HugeLongArray[0];
+        root = null;
+        return this;
+    }
+
+    /**
+     * writes the communities of all levels as long array
+     */
+    public static final class DendrogramTranslator implements PropertyTranslator<HugeLouvain> {
+
+        public static final DendrogramTranslator INSTANCE = new DendrogramTranslator();
+
+        @Override
+        public Value toProperty(int propertyId, HugeLouvain data, long nodeId) {
+            return Values.longArray(data.communitiesOf(nodeId));
+        }
+    }
+
+    /**
+     * aggregates the relationships of a range of communities
+     * and adds them to the new graph
+     */
+    private static final class RebuildTask implements Runnable {
+
+        private final HugeGraph graph;
+        private final HugeGraphBuilder.Importer importer;
+        private final HugeLongArray communityIds;
+        private final HugeLongArray members;
+        private final HugeLongArray ends;
+        private final DoubleArray nodeWeights;
+        private final long startCommunity;
+        private final long endCommunity;
+        private final LongDoubleScatterMap weights;
+        private long[] targets;
+        private double[] values;
+
+        private RebuildTask(
+                HugeGraph graph,
+                HugeGraphBuilder.Importer importer,
+                HugeLongArray communityIds,
+                HugeLongArray members,
+                HugeLongArray ends,
+                DoubleArray nodeWeights,
+                long startCommunity,
+                long endCommunity) {
+            this.graph = graph;
+            this.importer = importer;
+            this.communityIds = communityIds;
+            this.members = members;
+            this.ends = ends;
+            this.nodeWeights = nodeWeights;
+            this.startCommunity = startCommunity;
+            this.endCommunity = endCommunity;
+            this.weights = new LongDoubleScatterMap();
+            this.targets = new long[0];
+            this.values = new double[0];
+        }
+
+        @Override
+        public void run() {
+            for (long community = startCommunity; community < endCommunity; community++) {
+                final long start = community == 0L ? 0L : ends.get(community - 1);
+                final long end = ends.get(community);
+                weights.clear();
+                for (long i = start; i < end; i++) {
+                    graph.forEachRelationship(members.get(i), Direction.OUTGOING, (s, t, w) -> {
+                        weights.addTo(communityIds.get(t), w);
+                        return true;
+                    });
+                }
+                final int degree = weights.size();
+                if (degree > targets.length) {
+                    targets = new long[degree];
+                    values = new double[degree];
+                }
+                int index = 0;
+                for (LongDoubleCursor cursor : weights) {
+                    targets[index] = cursor.key;
+                    values[index] = cursor.value;
+                    ++index;
+                }
+                nodeWeights.set(community, weights.getOrDefault(community, .0));
+                importer.add(community, targets, values, degree);
+            }
+        }
+    }
+}
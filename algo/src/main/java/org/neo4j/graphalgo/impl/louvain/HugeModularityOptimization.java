@@ -0,0 +1,419 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.louvain;
+
+import com.carrotsearch.hppc.LongDoubleScatterMap;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * parallel weighted undirected modularity based community detection
+ * (first phase of louvain algo) for {@link HugeGraph}s.
+ * <p>
+ * Works like {@link ModularityOptimization} but keeps all per-node state in
+ * paged arrays. The connected communities of a node are accumulated in a single
+ * pass over its relationships instead of one pass per community.
+ * If run with more than one thread, every task visits the nodes in a
+ * different pseudo random order which is derived from a random start node
+ * and a step width that is coprime to the node count.
+ */
+public final class HugeModularityOptimization extends Algorithm<HugeModularityOptimization> {
+
+    private static final double MINIMUM_MODULARITY = -1.0;
+    /**
+     * only outgoing directions are visited since the graph itself must be loaded using {@code .asUndirected(true) } !
+     */
+    private static final Direction D = Direction.OUTGOING;
+    private static final long NONE = -1L;
+    private final long nodeCount;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final DoubleArray nodeWeights;
+    private final Random random;
+    private HugeGraph graph;
+    private ExecutorService pool;
+    private double m2, m22;
+    private HugeLongArray communities;
+    private DoubleArray ki;
+    private int iterations;
+    private double q = MINIMUM_MODULARITY;
+    private AtomicLong counter = new AtomicLong(0);
+
+    /**
+     * @param nodeWeights self loop weight of each node or {@code null}
+     */
+    HugeModularityOptimization(
+            HugeGraph graph,
+            DoubleArray nodeWeights,
+            ExecutorService pool,
+            int concurrency,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.nodeWeights = nodeWeights;
+        this.nodeCount = graph.nodeCount();
+        this.pool = pool;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.random = new Random();
+        ki = DoubleArray.newArray(nodeCount, tracker);
+        communities = HugeLongArray.newArray(nodeCount, tracker);
+    }
+
+    /**
+     * get the task with the best community distribution
+     * (highest modularity value) of an array of tasks
+     *
+     * @return best task
+     */
+    private static Task best(Collection<Task> tasks) {
+        Task best = null; // may stay null if no task improves the current q
+        double q = MINIMUM_MODULARITY;
+        for (Task task : tasks) {
+            if (!task.improvement) {
+                continue;
+            }
+            final double modularity = task.getModularity();
+            if (modularity > q) {
+                q = modularity;
+                best = task;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * normalize nodeToCommunity-Array. Maps community IDs
+     * in a sequential order starting at 0.
+     *
+     * @param communities community ids, each less than the array size
+     * @return number of communities
+     */
+    static long normalize(HugeLongArray communities, AllocationTracker tracker) {
+        final long size = communities.size();
+        final HugeLongArray map = HugeLongArray.newArray(size, tracker);
+        map.fill(NONE);
+        long c = 0L;
+        for (long i = 0L; i < size; i++) {
+            final long community = communities.get(i);
+            long mapped = map.get(community);
+            if (mapped == NONE) {
+                mapped = c++;
+                map.set(community, mapped);
+            }
+            communities.set(i, mapped);
+        }
+        tracker.remove(map.release());
+        return c;
+    }
+
+    /**
+     * init ki (sum of weights of node) & m
+     */
+    private void init() {
+        m2 = .0;
+        for (long node = 0L; node < nodeCount; node++) {
+            // since we use an undirected graph 2m is counted here
+            graph.forEachRelationship(node, D, (s, t, w) -> {
+                m2 += w;
+                ki.add(s, w / 2);
+                ki.add(t, w / 2);
+                return true;
+            });
+        }
+        m22 = Math.pow(m2, 2.0);
+        communities.setAll(i -> i);
+    }
+
+    /**
+     * compute first phase louvain
+     *
+     * @param maxIterations maximum number of optimization rounds
+     * @return this
+     */
+    public HugeModularityOptimization compute(int maxIterations) {
+        // init helper values & initial community structure
+        init();
+        // create an array of tasks for parallel exec
+        final ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            tasks.add(new Task());
+        }
+        // as long as maxIterations is not reached
+        for (iterations = 0; iterations < maxIterations && running(); iterations++) {
+            // reset node counter (for logging)
+            counter.set(0);
+            for (Task task : tasks) {
+                task.shuffle();
+            }
+            // run all tasks
+            ParallelUtil.runWithConcurrency(concurrency, tasks, pool);
+            // take the best candidate
+            Task candidate = best(tasks);
+            if (null == candidate || candidate.q <= this.q) {
+                // best candidate's modularity did not improve
+                break;
+            }
+            // save current modularity
+            this.q = candidate.q;
+            // sync all tasks with the best candidate for the next round
+            sync(candidate, tasks);
+        }
+        for (Task task : tasks) {
+            task.release();
+        }
+        return this;
+    }
+
+    /**
+     * sync parent Task with all other task except itself and
+     * copy community structure to global community structure
+     */
+    private void sync(Task parent, Collection<Task> tasks) {
+        for (Task task : tasks) {
+            task.improvement = false;
+            if (task == parent) {
+                continue;
+            }
+            task.sync(parent);
+        }
+        parent.localCommunities.copyTo(communities, nodeCount);
+    }
+
+    /**
+     * get communities
+     *
+     * @return node-nodeId to localCommunities nodeId mapping
+     */
+    public HugeLongArray getCommunityIds() {
+        return communities;
+    }
+
+    /**
+     * number of iterations
+     *
+     * @return number of iterations
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getModularity() {
+        return q;
+    }
+
+    /**
+     * @return this
+     */
+    @Override
+    public HugeModularityOptimization me() {
+        return this;
+    }
+
+    /**
+     * release structures except the community ids which
+     * are handed over to the caller
+     *
+     * @return this
+     */
+    @Override
+    public HugeModularityOptimization release() {
+        this.graph = null;
+        this.pool = null;
+        this.communities = null;
+        tracker.remove(ki.release());
+        this.ki = null;
+        return this;
+    }
+
+    /**
+     * Restartable task to perform modularity optimization
+     */
+    private final class Task implements Runnable {
+
+        final DoubleArray sTot, sIn;
+        final HugeLongArray localCommunities;
+        final HugeGraph graph;
+        final LongDoubleScatterMap weightsIntoCommunities;
+        double bestGain, bestWeight, q = MINIMUM_MODULARITY;
+        long bestCommunity;
+        long start, step;
+        double modularity;
+        boolean improvement = false;
+
+        /**
+         * at creation the task copies the community-structure
+         * and initializes its helper arrays
+         */
+        Task() {
+            sTot = DoubleArray.newArray(nodeCount, tracker);
+            ki.copyTo(sTot, nodeCount); // ki -> sTot
+            localCommunities = HugeLongArray.newArray(nodeCount, tracker);
+            communities.copyTo(localCommunities, nodeCount);
+            sIn = DoubleArray.newArray(nodeCount, tracker);
+            sIn.fill(0.);
+            graph = HugeModularityOptimization.this.graph.concurrentCopy();
+            weightsIntoCommunities = new LongDoubleScatterMap();
+            start = 0L;
+            step = 1L;
+        }
+
+        /**
+         * choose the node order of the next round
+         */
+        void shuffle() {
+            if (concurrency <= 1 || nodeCount <= 2L) {
+                return;
+            }
+            start = Math.floorMod(random.nextLong(), nodeCount);
+            do {
+                step = 1L + Math.floorMod(random.nextLong(), nodeCount - 1L);
+            } while (gcd(step, nodeCount) != 1L);
+        }
+
+        /**
+         * copy community structure and helper arrays from parent
+         * task into this task
+         */
+        void sync(Task parent) {
+            parent.localCommunities.copyTo(localCommunities, nodeCount);
+            parent.sTot.copyTo(sTot, nodeCount);
+            parent.sIn.copyTo(sIn, nodeCount);
+            this.q = parent.q;
+        }
+
+        void release() {
+            tracker.remove(sTot.release());
+            tracker.remove(sIn.release());
+            tracker.remove(localCommunities.release());
+        }
+
+        @Override
+        public void run() {
+            final ProgressLogger progressLogger = getProgressLogger();
+            final long denominator = nodeCount * concurrency;
+            improvement = false;
+            long node = start;
+            for (long i = 0L; i < nodeCount; i++) {
+                improvement |= move(node);
+                progressLogger.logProgress(
+                        counter.getAndIncrement(),
+                        denominator,
+                        () -> String.format("round %d", iterations + 1));
+                node += step;
+                if (node >= nodeCount) {
+                    node -= nodeCount;
+                }
+            }
+            this.q = calcModularity();
+        }
+
+        /**
+         * get the graph modularity of the calculated community structure
+         */
+        double getModularity() {
+            return q;
+        }
+
+        /**
+         * calc modularity-gain for a node and move it into the best community
+         *
+         * @param node node nodeId
+         * @return true if the node has been moved
+         */
+        private boolean move(long node) {
+            final long currentCommunity = bestCommunity = localCommunities.get(node);
+            final double nodeWeight = nodeWeights == null ? .0 : nodeWeights.get(node);
+            final double kiNode = ki.get(node);
+            final LongDoubleScatterMap weights = weightsIntoCommunities;
+            weights.clear();
+            graph.forEachRelationship(node, D, (s, t, weight) -> {
+                if (s != t) {
+                    weights.addTo(localCommunities.get(t), weight);
+                }
+                return true;
+            });
+            final double w = weights.getOrDefault(currentCommunity, .0);
+            sTot.add(currentCommunity, -kiNode);
+            sIn.add(currentCommunity, -2 * (w + nodeWeight));
+            localCommunities.set(node, NONE);
+            bestGain = .0;
+            bestWeight = w;
+            // visit the communities in relationship order, each one only once
+            graph.forEachRelationship(node, D, (s, t) -> {
+                final long c = localCommunities.get(t);
+                if (c == NONE) {
+                    return true;
+                }
+                final int index = weights.indexOf(c);
+                if (!weights.indexExists(index)) {
+                    return true;
+                }
+                final double wic = weights.indexGet(index);
+                weights.remove(c);
+                final double g = wic / m2 - sTot.get(c) * kiNode / m22;
+                if (g > bestGain) {
+                    bestGain = g;
+                    bestCommunity = c;
+                    bestWeight = wic;
+                }
+                return true;
+            });
+            sTot.add(bestCommunity, kiNode);
+            sIn.add(bestCommunity, 2 * (bestWeight + nodeWeight));
+            localCommunities.set(node, bestCommunity);
+            return bestCommunity != currentCommunity;
+        }
+
+        private double calcModularity() {
+            double sum = .0;
+            for (long node = 0L; node < nodeCount; node++) {
+                modularity = .0;
+                graph.forEachRelationship(node, Direction.OUTGOING, (s, t, w) -> {
+                    if (localCommunities.get(s) == localCommunities.get(t)) {
+                        modularity += w - (ki.get(s) * ki.get(t) / m2);
+                    }
+                    return true;
+                });
+                sum += modularity;
+            }
+            return sum / m2;
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0L) {
+            final long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
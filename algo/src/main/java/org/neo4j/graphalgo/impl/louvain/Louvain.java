@@ -48,7 +48,7 @@ import java.util.stream.Stream;
  *
  * @author mknblch
  */
-public class Louvain extends Algorithm<Louvain> {
+public class Louvain extends Algorithm<Louvain> implements LouvainAlgorithm {
 
     private final int rootNodeCount;
     private int level;
@@ -79,6 +79,7 @@ public class Louvain extends Algorithm<Louvain> {
         Arrays.setAll(communities, i -> i);
     }
 
+    @Override
     public Louvain compute(int maxLevel, int maxIterations) {
         // temporary graph
         Graph graph = this.root;
@@ -186,6 +187,7 @@ public class Louvain extends Algorithm<Louvain> {
      *
      * @return
      */
+    @Override
     public int getLevel() {
         return level;
     }
@@ -195,6 +197,7 @@ public class Louvain extends Algorithm<Louvain> {
      *
      * @return
      */
+    @Override
     public long getCommunityCount() {
         return communityCount;
     }
@@ -204,11 +207,13 @@ public class Louvain extends Algorithm<Louvain> {
      *
      * @return
      */
+    @Override
     public Stream<Result> resultStream() {
         return IntStream.range(0, rootNodeCount)
                 .mapToObj(i -> new Result(i, communities[i]));
     }
 
+    @Override
     public Stream<StreamingResult> dendrogramStream() {
         return IntStream.range(0, rootNodeCount)
                 .mapToObj(i -> {
@@ -221,6 +226,11 @@ public class Louvain extends Algorithm<Louvain> {
                 });
     }
 
+    @Override
+    public Algorithm<?> algorithm() {
+        return this;
+    }
+
     @Override
     public Louvain me() {
         return this;
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.louvain;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.impl.Algorithm;
+
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+public interface LouvainAlgorithm {
+
+    LouvainAlgorithm compute(int maxLevel, int maxIterations);
+
+    int getLevel();
+
+    long getCommunityCount();
+
+    Stream<Louvain.Result> resultStream();
+
+    Stream<Louvain.StreamingResult> dendrogramStream();
+
+    Algorithm<?> algorithm();
+
+    static LouvainAlgorithm of(
+            Graph graph,
+            ExecutorService pool,
+            int concurrency,
+            AllocationTracker tracker) {
+        if (graph instanceof HugeGraph) {
+            HugeGraph huge = (HugeGraph) graph;
+            return new HugeLouvain(huge, pool, concurrency, tracker);
+        }
+        return new Louvain(graph, pool, concurrency, tracker);
+    }
+}
@@ -160,6 +160,31 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
         this.seens = seens;
     }
 
+    /**
+     * Creates a MS-BFS for at most {@link #OMEGA} other sources that shares the
+     * per-thread visit/next/seen arrays of this instance, so that callers
+     * that run many batches of sources don't allocate new arrays for every batch.
+     * The returned instance must be run with {@link #run()}.
+     */
+    public HugeMultiSourceBFS forSources(
+            HugeRelationshipIterator relationships,
+            HugeBfsConsumer perNodeAction,
+            long... startNodes) {
+        long[] sources = Arrays.copyOf(startNodes, startNodes.length);
+        Arrays.sort(sources);
+        return new HugeMultiSourceBFS(
+                nodeIds,
+                relationships,
+                direction,
+                perNodeAction,
+                nodeCount,
+                visits,
+                nexts,
+                seens,
+                sources
+        );
+    }
+
     /**
      * Runs MS-BFS, possibly in parallel.
      */
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.multistepscc;
+
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicLongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel multistep coloring of a huge graph, see {@link MultiStepColoring}.
+ * <p>
+ * Every unassigned node starts with its own id as color and the highest color is propagated
+ * along the outgoing relationships. Each level only expands the nodes whose color has changed
+ * in the previous level. The nodes that have kept their own color are the roots, the nodes
+ * of their color that reach them over incoming relationships build their SCC. The predecessor
+ * sets of all roots are disjoint, so they are collected by a single parallel BFS that starts
+ * from all roots at once instead of one BFS per color.
+ */
+final class HugeMultiStepColoring {
+
+    private final HugeLongArray components;
+    private final HugeMultiStepFrontier frontier;
+    private PagedAtomicLongArray colors;
+
+    HugeMultiStepColoring(long nodeCount, HugeLongArray components, HugeMultiStepFrontier frontier, AllocationTracker tracker) {
+        this.components = components;
+        this.frontier = frontier;
+        this.colors = PagedAtomicLongArray.newArray(nodeCount, tracker);
+    }
+
+    /**
+     * Colors all unassigned nodes and assigns the SCC of every color to its root.
+     *
+     * @return the number of assigned nodes
+     */
+    long compute() {
+        frontier.forEachNode((rels, node) -> colors.set(node, node));
+        frontier.reset(node -> components.get(node) == -1L);
+        while (!frontier.isEmpty()) {
+            long level = frontier.newStamp();
+            frontier.expand((rels, node, next) -> {
+                long color = colors.get(node);
+                rels.forEachRelationship(node, Direction.OUTGOING, (source, target) -> {
+                    if (components.get(target) == -1L && raise(target, color) && frontier.mark(target, level)) {
+                        next.accept(target);
+                    }
+                    return true;
+                });
+            });
+        }
+
+        // SCC(cv) <- PREDECESSOR( V(cv), c) for all colors at once
+        long predecessors = frontier.newStamp();
+        frontier.reset(node -> components.get(node) == -1L && colors.get(node) == node);
+        frontier.forEachNode((rels, node) -> {
+            if (components.get(node) == -1L && colors.get(node) == node) {
+                frontier.mark(node, predecessors);
+            }
+        });
+        AtomicLong assigned = new AtomicLong();
+        frontier.traverse((rels, node, next) -> {
+            long color = colors.get(node);
+            components.set(node, color);
+            assigned.incrementAndGet();
+            rels.forEachRelationship(node, Direction.INCOMING, (source, target) -> {
+                if (colors.get(target) == color
+                        && components.get(target) == -1L
+                        && frontier.mark(target, predecessors)) {
+                    next.accept(target);
+                }
+                return true;
+            });
+        });
+        return assigned.get();
+    }
+
+    void release() {
+        colors = null;
+    }
+
+    /**
+     * compare and set color only if the new color is greater than the existing
+     *
+     * @return true if color was assigned, false otherwise
+     */
+    private boolean raise(long node, long color) {
+        while (true) {
+            long current = colors.get(node);
+            if (color <= current) {
+                return false;
+            }
+            if (colors.cas(node, current, color)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.multistepscc;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel ForwardBackward coloring of a huge graph, see {@link MultiStepFWBW}.
+ * <p>
+ * The descendant set of the pivot is marked by a parallel BFS over outgoing relationships.
+ * The backward BFS over incoming relationships only follows nodes that still carry the mark of
+ * the forward BFS and replaces it with its own, the nodes it reaches build the SCC of the pivot.
+ */
+final class HugeMultiStepFWBW {
+
+    private final HugeGraph graph;
+    private final HugeLongArray components;
+    private final HugeMultiStepFrontier frontier;
+    private long root = -1L;
+
+    HugeMultiStepFWBW(HugeGraph graph, HugeLongArray components, HugeMultiStepFrontier frontier) {
+        this.graph = graph;
+        this.components = components;
+        this.frontier = frontier;
+    }
+
+    /**
+     * Assigns the SCC of the pivot to the pivot.
+     *
+     * @return the size of the SCC, 0 if all nodes have already been assigned
+     */
+    long compute() {
+        root = pivot();
+        if (root == -1L) {
+            return 0L;
+        }
+        // D <- BFS( G(V,E(V)), v)
+        long forward = frontier.newStamp();
+        frontier.mark(root, forward);
+        frontier.reset(root);
+        frontier.traverse((rels, node, next) ->
+                rels.forEachRelationship(node, Direction.OUTGOING, (source, target) -> {
+                    if (components.get(target) == -1L && frontier.mark(target, forward)) {
+                        next.accept(target);
+                    }
+                    return true;
+                }));
+        // SCC <- D & BFS( G(D, E'(D)), v)
+        long backward = frontier.newStamp();
+        frontier.remark(root, forward, backward);
+        frontier.reset(root);
+        AtomicLong size = new AtomicLong();
+        frontier.traverse((rels, node, next) -> {
+            components.set(node, root);
+            size.incrementAndGet();
+            rels.forEachRelationship(node, Direction.INCOMING, (source, target) -> {
+                if (frontier.remark(target, forward, backward)) {
+                    next.accept(target);
+                }
+                return true;
+            });
+        });
+        return size.get();
+    }
+
+    /**
+     * @return the root id of the last computed SCC
+     */
+    long getRoot() {
+        return root;
+    }
+
+    /**
+     * find the unassigned node with the highest product of in- and out-degree
+     */
+    private long pivot() {
+        return frontier.maxNode(node -> components.get(node) == -1L
+                ? (long) graph.degree(node, Direction.OUTGOING) * graph.degree(node, Direction.INCOMING)
+                : -1L);
+    }
+}
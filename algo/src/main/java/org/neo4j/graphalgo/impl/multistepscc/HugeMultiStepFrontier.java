@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.multistepscc;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicLongArray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Parallel building blocks of the huge multistep steps.
+ * <p>
+ * Traversals are level synchronous: the nodes of the current frontier are split into batches
+ * which are expanded in parallel, every task collects the nodes of the next frontier in a small
+ * buffer that is flushed into the shared next frontier. Both frontiers are paged arrays of node count
+ * size, so a traversal must add every node at most once per level, which is ensured by marking it
+ * with a stamp. Every traversal or level draws a new stamp, so the marks never have to be cleared.
+ */
+final class HugeMultiStepFrontier {
+
+    static final int MIN_BATCH_SIZE = 10_000;
+    private static final int BUFFER_SIZE = 1024;
+
+    interface NodeTask {
+        /**
+         * @param rels a copy of the graph that is only used by the calling thread
+         */
+        void run(HugeGraph rels, long node);
+    }
+
+    interface Expansion {
+        /**
+         * @param next adds a node to the next frontier
+         */
+        void expand(HugeGraph rels, long node, LongConsumer next);
+    }
+
+    private final HugeGraph graph;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final TerminationFlag terminationFlag;
+    private final long nodeCount;
+    private final long batchSize;
+
+    private PagedAtomicLongArray marks;
+    private long stamp;
+    private HugeLongArray current;
+    private HugeLongArray next;
+    private long currentSize;
+    private final AtomicLong nextSize = new AtomicLong();
+
+    HugeMultiStepFrontier(
+            HugeGraph graph,
+            ExecutorService executor,
+            int concurrency,
+            TerminationFlag terminationFlag,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.terminationFlag = terminationFlag;
+        this.nodeCount = graph.nodeCount();
+        this.batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        this.marks = PagedAtomicLongArray.newArray(nodeCount, tracker);
+        this.current = HugeLongArray.newArray(nodeCount, tracker);
+        this.next = HugeLongArray.newArray(nodeCount, tracker);
+    }
+
+    /**
+     * @return a stamp that no node has been marked with
+     */
+    long newStamp() {
+        return ++stamp;
+    }
+
+    /**
+     * @return true if the node has been marked with the stamp by this call
+     */
+    boolean mark(long node, long stamp) {
+        while (true) {
+            long mark = marks.get(node);
+            if (mark == stamp) {
+                return false;
+            }
+            if (marks.cas(node, mark, stamp)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Marks the node with the new stamp only if it is currently marked with the expected one.
+     */
+    boolean remark(long node, long expected, long stamp) {
+        return marks.cas(node, expected, stamp);
+    }
+
+    boolean isMarked(long node, long stamp) {
+        return marks.get(node) == stamp;
+    }
+
+    /**
+     * Runs the task for every node in parallel.
+     */
+    void forEachNode(NodeTask task) {
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            long from = start;
+            long to = Math.min(nodeCount, start + batchSize);
+            HugeGraph rels = graph.concurrentCopy();
+            tasks.add(() -> {
+                for (long node = from; node < to && terminationFlag.running(); node++) {
+                    task.run(rels, node);
+                }
+            });
+        }
+        run(tasks);
+    }
+
+    /**
+     * @param score the score of a node, negative to skip the node
+     * @return the node with the highest score, the lowest id on ties, or -1 if all nodes have been skipped
+     */
+    long maxNode(LongUnaryOperator score) {
+        long[] best = {-1L, -1L};
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            long from = start;
+            long to = Math.min(nodeCount, start + batchSize);
+            tasks.add(() -> {
+                long bestNode = -1L;
+                long bestScore = -1L;
+                for (long node = from; node < to && terminationFlag.running(); node++) {
+                    long nodeScore = score.applyAsLong(node);
+                    if (nodeScore > bestScore) {
+                        bestScore = nodeScore;
+                        bestNode = node;
+                    }
+                }
+                synchronized (best) {
+                    if (bestScore > best[1] || (bestScore == best[1] && bestNode < best[0])) {
+                        best[0] = bestNode;
+                        best[1] = bestScore;
+                    }
+                }
+            });
+        }
+        run(tasks);
+        return best[0];
+    }
+
+    /**
+     * Replaces the frontier with all nodes that pass the filter.
+     */
+    void reset(LongPredicate filter) {
+        nextSize.set(0L);
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            long from = start;
+            long to = Math.min(nodeCount, start + batchSize);
+            tasks.add(() -> {
+                Buffer buffer = new Buffer();
+                for (long node = from; node < to && terminationFlag.running(); node++) {
+                    if (filter.test(node)) {
+                        buffer.accept(node);
+                    }
+                }
+                buffer.flush();
+            });
+        }
+        run(tasks);
+        swap();
+    }
+
+    /**
+     * Replaces the frontier with a single node.
+     */
+    void reset(long node) {
+        current.set(0L, node);
+        currentSize = 1L;
+        nextSize.set(0L);
+    }
+
+    boolean isEmpty() {
+        return currentSize == 0L;
+    }
+
+    /**
+     * Expands all nodes of the current frontier in parallel and makes the collected nodes the current frontier.
+     */
+    void expand(Expansion expansion) {
+        long levelBatchSize = ParallelUtil.adjustBatchSize(currentSize, concurrency, MIN_BATCH_SIZE);
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (long start = 0L; start < currentSize; start += levelBatchSize) {
+            long from = start;
+            long to = Math.min(currentSize, start + levelBatchSize);
+            HugeGraph rels = graph.concurrentCopy();
+            tasks.add(() -> {
+                Buffer buffer = new Buffer();
+                for (long i = from; i < to && terminationFlag.running(); i++) {
+                    expansion.expand(rels, current.get(i), buffer);
+                }
+                buffer.flush();
+            });
+        }
+        run(tasks);
+        swap();
+    }
+
+    /**
+     * Expands the frontier until it is empty.
+     */
+    void traverse(Expansion expansion) {
+        while (!isEmpty() && terminationFlag.running()) {
+            expand(expansion);
+        }
+    }
+
+    void release() {
+        marks = null;
+        current = null;
+        next = null;
+    }
+
+    private void swap() {
+        HugeLongArray tmp = current;
+        current = next;
+        next = tmp;
+        currentSize = nextSize.getAndSet(0L);
+    }
+
+    private void run(Collection<Runnable> tasks) {
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, terminationFlag, executor);
+    }
+
+    private final class Buffer implements LongConsumer {
+        private final long[] nodes = new long[BUFFER_SIZE];
+        private int size;
+
+        @Override
+        public void accept(long node) {
+            if (size == BUFFER_SIZE) {
+                flush();
+            }
+            nodes[size++] = node;
+        }
+
+        void flush() {
+            long offset = nextSize.getAndAdd(size);
+            for (int i = 0; i < size; i++) {
+                next.set(offset + i, nodes[i]);
+            }
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.multistepscc;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongLongHashMap;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Non recursive sequential Tarjan on the nodes of a huge graph that have not been assigned
+ * to a component yet, see {@link org.neo4j.graphalgo.impl.scc.HugeSCCIterativeTarjan}.
+ * <p>
+ * It only runs once the number of unassigned nodes has fallen below the cutoff,
+ * so the indices and stacks are kept in hash maps and lists of that size instead of paged arrays
+ * of node count size.
+ */
+final class HugeMultiStepTarjan {
+
+    private static final long VISIT = 0L;
+    private static final long VISIT_EDGE = 1L;
+    private static final long POST_VISIT = 2L;
+
+    private final HugeGraph graph;
+    private final HugeLongArray components;
+    private final TerminationFlag terminationFlag;
+
+    private LongLongHashMap index;
+    private LongArrayList stack;
+    private LongArrayList boundaries;
+    private LongArrayList todo;
+
+    HugeMultiStepTarjan(HugeGraph graph, HugeLongArray components, TerminationFlag terminationFlag) {
+        this.graph = graph;
+        this.components = components;
+        this.terminationFlag = terminationFlag;
+    }
+
+    /**
+     * @param remaining the number of unassigned nodes
+     */
+    void compute(long remaining) {
+        int expected = (int) Math.min(Integer.MAX_VALUE - 8, remaining);
+        index = new LongLongHashMap(expected);
+        stack = new LongArrayList(expected);
+        boundaries = new LongArrayList();
+        todo = new LongArrayList();
+        for (long node = 0L, nodeCount = graph.nodeCount(); node < nodeCount && terminationFlag.running(); node++) {
+            if (components.get(node) == -1L) {
+                strongConnect(node);
+            }
+        }
+        index = null;
+        stack = null;
+        boundaries = null;
+        todo = null;
+    }
+
+    private void strongConnect(long nodeId) {
+        push(VISIT, nodeId);
+        while (!todo.isEmpty()) {
+            final long action = pop(todo);
+            final long node = pop(todo);
+            if (action == VISIT) {
+                visit(node);
+            } else if (action == VISIT_EDGE) {
+                visitEdge(node);
+            } else {
+                postVisit(node);
+            }
+        }
+    }
+
+    private void visitEdge(long nodeId) {
+        if (!index.containsKey(nodeId)) {
+            push(VISIT, nodeId);
+        } else if (components.get(nodeId) == -1L) {
+            long nodeIndex = index.get(nodeId);
+            while (nodeIndex < peek(boundaries)) {
+                pop(boundaries);
+            }
+        }
+    }
+
+    private void postVisit(long nodeId) {
+        if (peek(boundaries) == index.get(nodeId)) {
+            pop(boundaries);
+            long element;
+            do {
+                element = pop(stack);
+                components.set(element, nodeId);
+            } while (element != nodeId);
+        }
+    }
+
+    private void visit(long nodeId) {
+        final long stackSize = stack.size();
+        index.put(nodeId, stackSize);
+        stack.add(nodeId);
+        boundaries.add(stackSize);
+        push(POST_VISIT, nodeId);
+        graph.forEachRelationship(nodeId, Direction.OUTGOING, (s, t) -> {
+            if (components.get(t) == -1L) {
+                push(VISIT_EDGE, t);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * pushes an action and a nodeId on the stack
+     */
+    private void push(long action, long value) {
+        todo.add(value);
+        todo.add(action);
+    }
+
+    private static long pop(LongArrayList list) {
+        return list.remove(list.size() - 1);
+    }
+
+    private static long peek(LongArrayList list) {
+        return list.get(list.size() - 1);
+    }
+}
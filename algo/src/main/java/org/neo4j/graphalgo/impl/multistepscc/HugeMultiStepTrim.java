@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.multistepscc;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel trimming of a huge graph, see {@link MultiStepTrim}.
+ * <p>
+ * Nodes without incoming or outgoing relationships to other nodes that have not been assigned
+ * to a component yet can only build a component on their own and are assigned to themselves.
+ * Instead of auxiliary degree arrays the relationships are checked until the first node that is still
+ * unassigned, nodes that are trimmed concurrently by other threads only lead to more trimming,
+ * which is still correct.
+ */
+final class HugeMultiStepTrim {
+
+    private final HugeLongArray components;
+    private final HugeMultiStepFrontier frontier;
+
+    HugeMultiStepTrim(HugeLongArray components, HugeMultiStepFrontier frontier) {
+        this.components = components;
+        this.frontier = frontier;
+    }
+
+    /**
+     * @param complete true: trim until no more nodes can be trimmed, does only one iteration otherwise
+     * @return the number of trimmed nodes
+     */
+    long compute(boolean complete) {
+        long trimmed = 0L;
+        long changes;
+        do {
+            AtomicLong count = new AtomicLong();
+            frontier.forEachNode((rels, node) -> {
+                if (components.get(node) == -1L
+                        && (!hasActiveNeighbour(rels, node, Direction.INCOMING)
+                        || !hasActiveNeighbour(rels, node, Direction.OUTGOING))) {
+                    components.set(node, node);
+                    count.incrementAndGet();
+                }
+            });
+            changes = count.get();
+            trimmed += changes;
+        } while (complete && changes > 0L);
+        return trimmed;
+    }
+
+    private boolean hasActiveNeighbour(HugeGraph rels, long node, Direction direction) {
+        boolean[] found = {false};
+        rels.forEachRelationship(node, direction, (source, target) -> {
+            if (target != source && components.get(target) == -1L) {
+                found[0] = true;
+                return false;
+            }
+            return true;
+        });
+        return found[0];
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.multistepscc;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphalgo.impl.scc.SCCAlgorithm;
+
+import java.util.concurrent.ExecutorService;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Multistep: parallel strongly connected component algorithm on huge graphs, see {@link MultistepSCC}.
+ * <p>
+ * The steps work on paged arrays that map every node to the root of its SCC, -1 while it
+ * is unassigned. Assigned nodes are left out by all following steps.
+ * <ol>
+ * <li>trimming assigns nodes without incoming or outgoing relationships to themselves</li>
+ * <li>ForwardBackward coloring assigns the (most likely) biggest SCC, found by a parallel BFS
+ * in both directions from the node with the highest product of in- and out-degree</li>
+ * <li>coloring assigns the SCCs of all colors in each round until the number of unassigned nodes
+ * falls under the cutoff</li>
+ * <li>sequential Tarjan assigns the remaining nodes</li>
+ * </ol>
+ * Unlike {@link MultistepSCC}, trimmed nodes are assigned as well, so every node is part of the result.
+ * The graph must be loaded with incoming and outgoing relationships.
+ */
+public class HugeMultistepSCC extends Algorithm<HugeMultistepSCC> implements SCCAlgorithm {
+
+    private HugeGraph graph;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final long cutOff;
+    private final AllocationTracker tracker;
+    private final long nodeCount;
+    // map nodeId -> root of its SCC
+    private HugeLongArray connectedComponents;
+
+    private long minSetSize;
+    private long maxSetSize;
+    private long setCount;
+
+    public HugeMultistepSCC(
+            HugeGraph graph,
+            ExecutorService executor,
+            int concurrency,
+            long cutOff,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.cutOff = cutOff;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+        this.connectedComponents = HugeLongArray.newArray(nodeCount, tracker);
+    }
+
+    @Override
+    public HugeMultistepSCC compute() {
+        connectedComponents.fill(-1L);
+        HugeMultiStepFrontier frontier = new HugeMultiStepFrontier(
+                graph,
+                executor,
+                concurrency,
+                getTerminationFlag(),
+                tracker);
+        long remaining = nodeCount;
+        // V <- simpleTrim (V)
+        remaining -= new HugeMultiStepTrim(connectedComponents, frontier).compute(false);
+        logProgress(remaining);
+        // the biggest SCC
+        remaining -= new HugeMultiStepFWBW(graph, connectedComponents, frontier).compute();
+        logProgress(remaining);
+        // coloring until cutoff threshold is reached
+        HugeMultiStepColoring coloring = new HugeMultiStepColoring(nodeCount, connectedComponents, frontier, tracker);
+        while (remaining > cutOff && running()) {
+            remaining -= coloring.compute();
+            logProgress(remaining);
+        }
+        coloring.release();
+        frontier.release();
+        // nodeSet size below threshold, do sequential tarjan
+        if (remaining > 0L && running()) {
+            new HugeMultiStepTarjan(graph, connectedComponents, getTerminationFlag()).compute(remaining);
+            logProgress(0L);
+        }
+        computeSetSizes();
+        return this;
+    }
+
+    @Override
+    public Stream<SCCAlgorithm.StreamResult> resultStream() {
+        return LongStream.range(0, nodeCount)
+                .filter(node -> connectedComponents.get(node) != -1L)
+                .mapToObj(node -> new SCCAlgorithm.StreamResult(graph.toOriginalNodeId(node), connectedComponents.get(node)));
+    }
+
+    /**
+     * get connected components as nodeId -> root of its SCC
+     */
+    @Override
+    public HugeLongArray getConnectedComponents() {
+        return connectedComponents;
+    }
+
+    @Override
+    public long getSetCount() {
+        return setCount;
+    }
+
+    @Override
+    public long getMinSetSize() {
+        return minSetSize;
+    }
+
+    @Override
+    public long getMaxSetSize() {
+        return maxSetSize;
+    }
+
+    @Override
+    public HugeMultistepSCC me() {
+        return this;
+    }
+
+    @Override
+    public HugeMultistepSCC release() {
+        graph = null;
+        connectedComponents = null;
+        return this;
+    }
+
+    private void logProgress(long remaining) {
+        getProgressLogger().logProgress((double) (nodeCount - remaining) / nodeCount);
+    }
+
+    private void computeSetSizes() {
+        HugeLongArray sizes = HugeLongArray.newArray(nodeCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            long root = connectedComponents.get(node);
+            if (root != -1L) {
+                sizes.addTo(root, 1L);
+            }
+        }
+        setCount = 0L;
+        minSetSize = Long.MAX_VALUE;
+        maxSetSize = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            long size = sizes.get(node);
+            if (size > 0L) {
+                setCount++;
+                minSetSize = Math.min(minSetSize, size);
+                maxSetSize = Math.max(maxSetSize, size);
+            }
+        }
+        sizes.release();
+    }
+}
@@ -19,8 +19,7 @@
 package org.neo4j.graphalgo.impl.spanningTrees;
 
 import org.neo4j.graphalgo.api.IdMapping;
-import org.neo4j.graphalgo.api.RelationshipIterator;
-import org.neo4j.graphalgo.api.RelationshipWeights;
+import org.neo4j.graphalgo.api.WeightedRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.container.UndirectedTree;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
@@ -44,23 +43,21 @@ import org.neo4j.graphalgo.results.AbstractResultBuilder;
 public class KSpanningTree extends Algorithm<KSpanningTree> {
 
     private IdMapping idMapping;
-    private RelationshipIterator relationshipIterator;
-    private RelationshipWeights weights;
+    private WeightedRelationshipIterator relationshipIterator;
     private final int nodeCount;
 
     private SpanningTree kSpanningTree;
 
-    public KSpanningTree(IdMapping idMapping, RelationshipIterator relationshipIterator, RelationshipWeights weights) {
+    public KSpanningTree(IdMapping idMapping, WeightedRelationshipIterator relationshipIterator) {
         this.idMapping = idMapping;
         this.relationshipIterator = relationshipIterator;
-        this.weights = weights;
         nodeCount = Math.toIntExact(idMapping.nodeCount());
     }
 
     public KSpanningTree compute(int startNode, int k, boolean max) {
 
         final ProgressLogger logger = getProgressLogger();
-        final Prim prim = new Prim(idMapping, relationshipIterator, weights)
+        final Prim prim = new Prim(idMapping, relationshipIterator)
                 .withProgressLogger(getProgressLogger())
                 .withTerminationFlag(getTerminationFlag());
 
@@ -73,12 +70,13 @@ public class KSpanningTree extends Algorithm<KSpanningTree> {
             priorityQueue = IntPriorityQueue.max();
         }
         final int[] parent = prim.getSpanningTree().parent;
+        final double[] weights = prim.getSpanningTree().weights;
         for (int i = 0; i < parent.length && running(); i++) {
             final int p = parent[i];
             if (p == -1) {
                 continue;
             }
-            priorityQueue.add(i, weights.weightOf(p, i));
+            priorityQueue.add(i, weights[i]);
             logger.logProgress(i, nodeCount, () -> "reorganization");
         }
         // remove k-1 relationships
@@ -103,7 +101,6 @@ public class KSpanningTree extends Algorithm<KSpanningTree> {
     public KSpanningTree release() {
         idMapping = null;
         relationshipIterator = null;
-        weights = null;
         kSpanningTree = null;
         return this;
     }
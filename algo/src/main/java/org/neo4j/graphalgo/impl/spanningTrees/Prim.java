@@ -37,15 +37,13 @@ import java.util.Arrays;
  */
 public class Prim extends Algorithm<Prim> {
 
-    private final RelationshipIterator relationshipIterator;
-    private final RelationshipWeights weights;
+    private final WeightedRelationshipIterator relationshipIterator;
     private final int nodeCount;
 
     private SpanningTree spanningTree;
 
-    public Prim(IdMapping idMapping, RelationshipIterator relationshipIterator, RelationshipWeights weights) {
+    public Prim(IdMapping idMapping, WeightedRelationshipIterator relationshipIterator) {
         this.relationshipIterator = relationshipIterator;
-        this.weights = weights;
         nodeCount = Math.toIntExact(idMapping.nodeCount());
     }
 
@@ -61,6 +59,7 @@ public class Prim extends Algorithm<Prim> {
 
     private SpanningTree prim(int startNode, boolean max) {
         final int[] parent = new int[nodeCount];
+        final double[] weights = new double[nodeCount];
         final IntDoubleMap cost = new IntDoubleScatterMap(nodeCount);
         final SharedIntPriorityQueue queue = SharedIntPriorityQueue.min(
                 nodeCount,
@@ -79,22 +78,23 @@ public class Prim extends Algorithm<Prim> {
             }
             effectiveNodeCount++;
             visited.put(node);
-            relationshipIterator.forEachRelationship(node, Direction.OUTGOING, (s, t, r) -> {
+            relationshipIterator.forEachRelationship(node, Direction.OUTGOING, (s, t, r, weight) -> {
                 if (visited.contains(t)) {
                     return true;
                 }
                 // invert weight to calculate maximum
-                final double w = max ? -weights.weightOf(s, t) : weights.weightOf(s, t);
+                final double w = max ? -weight : weight;
                 if (w < cost.getOrDefault(t, Double.MAX_VALUE)) {
                     cost.put(t, w);
                     queue.add(t, -1.0);
                     parent[t] = s;
+                    weights[t] = weight;
                 }
                 return true;
             });
             logger.logProgress(effectiveNodeCount, nodeCount - 1);
         }
-        return new SpanningTree(startNode, nodeCount, effectiveNodeCount, parent);
+        return new SpanningTree(startNode, nodeCount, effectiveNodeCount, parent, weights);
     }
 
     public SpanningTree getSpanningTree() {
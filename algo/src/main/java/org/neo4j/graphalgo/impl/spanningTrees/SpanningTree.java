@@ -27,12 +27,15 @@ public class SpanningTree {
     public final int nodeCount;
     public final int effectiveNodeCount;
     public final int[] parent;
+    // the weight of the relationship from parent[node] to node
+    public final double[] weights;
 
-    public SpanningTree(int head, int nodeCount, int effectiveNodeCount, int[] parent) {
+    public SpanningTree(int head, int nodeCount, int effectiveNodeCount, int[] parent, double[] weights) {
         this.head = head;
         this.nodeCount = nodeCount;
         this.effectiveNodeCount = effectiveNodeCount;
         this.parent = parent;
+        this.weights = weights;
     }
 
     public void forEach(RelationshipConsumer consumer) {
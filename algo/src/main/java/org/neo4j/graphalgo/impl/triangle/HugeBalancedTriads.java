@@ -18,6 +18,7 @@
  */
 package org.neo4j.graphalgo.impl.triangle;
 
+import com.carrotsearch.hppc.LongDoubleHashMap;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.IntersectionConsumer;
 import org.neo4j.graphalgo.api.RelationshipIntersect;
@@ -25,6 +26,7 @@ import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.PagedAtomicIntegerArray;
 import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphdb.Direction;
 
 import java.util.Collection;
 import java.util.concurrent.ExecutorService;
@@ -148,15 +150,24 @@ public class HugeBalancedTriads extends Algorithm<HugeBalancedTriads> {
     private class HugeTask implements Runnable, IntersectionConsumer {
 
         private RelationshipIntersect hg;
+        private HugeGraph relationships;
+        // the weights of the relationships of the current node and of the current second node of its triangles,
+        // triangles are reported grouped by their second node, so every adjacency is decoded once per pair
+        private final LongDoubleHashMap weightsA = new LongDoubleHashMap();
+        private final LongDoubleHashMap weightsB = new LongDoubleHashMap();
+        private long nodeB;
 
         HugeTask(HugeGraph graph) {
             hg = graph.intersection();
+            relationships = graph.concurrentCopy();
         }
 
         @Override
         public void run() {
             long node;
             while ((node = queue.getAndIncrement()) < nodeCount && running()) {
+                loadWeights(node, weightsA);
+                nodeB = -1L;
                 hg.intersectAll(node, this);
                 getProgressLogger().logProgress(visitedNodes.incrementAndGet(), nodeCount);
             }
@@ -164,7 +175,11 @@ public class HugeBalancedTriads extends Algorithm<HugeBalancedTriads> {
 
         @Override
         public void accept(final long a, final long b, final long c) {
-            if (balancedPredicate.isBalanced(graph.weightOf(a, b), graph.weightOf(a, c), graph.weightOf(b, c))) {
+            if (b != nodeB) {
+                loadWeights(b, weightsB);
+                nodeB = b;
+            }
+            if (balancedPredicate.isBalanced(weightsA.get(b), weightsA.get(c), weightsB.get(c))) {
                 balancedTriangles.add(a, 1);
                 balancedTriangles.add(b, 1);
                 balancedTriangles.add(c, 1);
@@ -176,5 +191,13 @@ public class HugeBalancedTriads extends Algorithm<HugeBalancedTriads> {
                 unbalancedTriangleCount.increment();
             }
         }
+
+        private void loadWeights(long node, LongDoubleHashMap weights) {
+            weights.clear();
+            relationships.forEachRelationship(node, Direction.OUTGOING, (source, target, weight) -> {
+                weights.put(target, weight);
+                return true;
+            });
+        }
     }
 }
@@ -0,0 +1,308 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.triangle;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicLongArray;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * TriangleCount for huge graphs that orients every relationship from the node with the
+ * lower degree to the node with the higher degree (ties are broken by the node id).
+ * <p>
+ * Every triangle is found exactly once, as the intersection of the oriented neighbours
+ * of its two lower ranked nodes. No node has more than {@code sqrt(2 * relationshipCount)}
+ * oriented neighbours, so the intersections of hubs stay small.
+ * <p>
+ * The oriented neighbours are stored in one paged array, sorted by node id and without
+ * duplicates or loops. They are processed in blocks of consecutive nodes whose
+ * neighbours fit into the cpu cache, the blocks are taken from a queue by the threads.
+ * The triangles of every node are counted in one shared array of atomic long counters, so hubs do not overflow.
+ * A thread adds the triangles of a node of its block at once, only the two higher ranked nodes
+ * of a triangle are counted one by one.
+ */
+public class HugeDegreeOrderedTriangleCount extends Algorithm<HugeDegreeOrderedTriangleCount> implements TriangleCountAlgorithm {
+
+    // number of oriented neighbours of a block, 128KB
+    private static final int BLOCK_SIZE = 1 << 14;
+    private static final long MIN_BATCH_SIZE = 10_000L;
+
+    private HugeGraph graph;
+    private ExecutorService executorService;
+    private final int concurrency;
+    private final long nodeCount;
+    private final AllocationTracker tracker;
+    private final AtomicLong visitedNodes;
+    private PagedAtomicLongArray triangles;
+    private long triangleCount;
+    private double averageClusteringCoefficient;
+
+    public HugeDegreeOrderedTriangleCount(HugeGraph graph, ExecutorService executorService, int concurrency, AllocationTracker tracker) {
+        this.graph = graph;
+        this.executorService = executorService;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.nodeCount = graph.nodeCount();
+        this.visitedNodes = new AtomicLong();
+    }
+
+    @Override
+    public long getTriangleCount() {
+        return triangleCount;
+    }
+
+    @Override
+    public double getAverageCoefficient() {
+        return averageClusteringCoefficient;
+    }
+
+    @Override
+    public PagedAtomicLongArray getTriangles() {
+        return triangles;
+    }
+
+    @Override
+    public DoubleArray getCoefficients() {
+        final DoubleArray array = DoubleArray.newArray(nodeCount, tracker);
+        double sum = 0.0;
+        for (long i = 0; i < nodeCount; i++) {
+            final double c = TriangleCountAlgorithm.calculateCoefficient(triangles.get(i), graph.degree(i, Direction.OUTGOING));
+            array.set(i, c);
+            sum += c;
+        }
+        averageClusteringCoefficient = sum / nodeCount;
+        return array;
+    }
+
+    @Override
+    public Stream<Result> resultStream() {
+        return LongStream.range(0L, nodeCount)
+                .mapToObj(i -> new Result(
+                        graph.toOriginalNodeId(i),
+                        triangles.get(i),
+                        TriangleCountAlgorithm.calculateCoefficient(triangles.get(i), graph.degree(i, Direction.OUTGOING))));
+    }
+
+    @Override
+    public HugeDegreeOrderedTriangleCount me() {
+        return this;
+    }
+
+    @Override
+    public HugeDegreeOrderedTriangleCount release() {
+        executorService = null;
+        graph = null;
+        triangles = null;
+        return this;
+    }
+
+    @Override
+    public HugeDegreeOrderedTriangleCount compute() {
+        visitedNodes.set(0L);
+        averageClusteringCoefficient = 0.0;
+        final HugeLongArray offsets = HugeLongArray.newArray(nodeCount + 1, tracker);
+        forEachBatch((relationships, from, to) -> {
+            for (long node = from; node < to; node++) {
+                offsets.set(node, orient(relationships, node, null, 0L));
+            }
+        });
+        long total = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            final long degree = offsets.get(node);
+            offsets.set(node, total);
+            total += degree;
+        }
+        offsets.set(nodeCount, total);
+        final HugeLongArray neighbours = HugeLongArray.newArray(total, tracker);
+        forEachBatch((relationships, from, to) -> {
+            for (long node = from; node < to; node++) {
+                orient(relationships, node, neighbours, offsets.get(node));
+            }
+        });
+
+        final LongArrayList blocks = blocks(offsets);
+        final AtomicInteger nextBlock = new AtomicInteger();
+        triangles = PagedAtomicLongArray.newArray(nodeCount, tracker);
+        final List<CountTask> tasks = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            tasks.add(new CountTask(offsets, neighbours, blocks, nextBlock));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, this, executorService);
+        offsets.release();
+        neighbours.release();
+
+        triangleCount = 0L;
+        for (CountTask task : tasks) {
+            triangleCount += task.triangleCount;
+        }
+        return this;
+    }
+
+    /**
+     * writes the distinct neighbours with a higher rank than the node to the neighbours array,
+     * starting at offset, or only counts them if the array is null
+     *
+     * @return the number of oriented neighbours
+     */
+    private long orient(HugeRelationshipIterator relationships, long node, HugeLongArray neighbours, long offset) {
+        final int degree = graph.degree(node, Direction.OUTGOING);
+        final long[] state = {-1L, 0L}; // last neighbour, count
+        relationships.forEachRelationship(node, Direction.OUTGOING, (source, target) -> {
+            if (target != state[0] && isOriented(node, degree, target)) {
+                if (neighbours != null) {
+                    neighbours.set(offset + state[1], target);
+                }
+                state[1]++;
+            }
+            state[0] = target;
+            return true;
+        });
+        return state[1];
+    }
+
+    private boolean isOriented(long node, int degree, long target) {
+        final int targetDegree = graph.degree(target, Direction.OUTGOING);
+        return targetDegree > degree || (targetDegree == degree && target > node);
+    }
+
+    /**
+     * splits the nodes into blocks of consecutive nodes with about BLOCK_SIZE oriented neighbours
+     */
+    private LongArrayList blocks(HugeLongArray offsets) {
+        final LongArrayList blocks = new LongArrayList();
+        blocks.add(0L);
+        long blockStart = 0L;
+        for (long node = 1L; node <= nodeCount; node++) {
+            final long offset = offsets.get(node);
+            if (offset - blockStart >= BLOCK_SIZE || node == nodeCount) {
+                blocks.add(node);
+                blockStart = offset;
+            }
+        }
+        return blocks;
+    }
+
+    private interface BatchConsumer {
+        void accept(HugeRelationshipIterator relationships, long from, long to);
+    }
+
+    private void forEachBatch(BatchConsumer consumer) {
+        final Collection<Runnable> tasks = new ArrayList<>();
+        final long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, MIN_BATCH_SIZE);
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            final long from = start;
+            final long to = Math.min(nodeCount, start + batchSize);
+            tasks.add(() -> consumer.accept(graph.concurrentCopy(), from, to));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, this, executorService);
+    }
+
+    /**
+     * a CountTask takes blocks from the queue and intersects the oriented neighbours
+     * of every node of the block with the oriented neighbours of each of them
+     */
+    private final class CountTask implements Runnable {
+
+        private final HugeLongArray offsets;
+        private final HugeLongArray neighbours;
+        private final LongArrayList blocks;
+        private final AtomicInteger nextBlock;
+        private long triangleCount;
+        private long[] buffer;
+
+        private CountTask(HugeLongArray offsets, HugeLongArray neighbours, LongArrayList blocks, AtomicInteger nextBlock) {
+            this.offsets = offsets;
+            this.neighbours = neighbours;
+            this.blocks = blocks;
+            this.nextBlock = nextBlock;
+            this.buffer = new long[0];
+        }
+
+        @Override
+        public void run() {
+            int block;
+            while ((block = nextBlock.getAndIncrement()) < blocks.size() - 1 && running()) {
+                final long from = blocks.get(block);
+                final long to = blocks.get(block + 1);
+                for (long node = from; node < to; node++) {
+                    count(node);
+                }
+                getProgressLogger().logProgress(visitedNodes.addAndGet(to - from), nodeCount);
+            }
+        }
+
+        private void count(long nodeA) {
+            final long start = offsets.get(nodeA);
+            final int length = (int) (offsets.get(nodeA + 1) - start);
+            if (length < 2) {
+                return;
+            }
+            if (buffer.length < length) {
+                buffer = new long[length];
+            }
+            final long[] neighboursA = buffer;
+            for (int i = 0; i < length; i++) {
+                neighboursA[i] = neighbours.get(start + i);
+            }
+            long found = 0L;
+            for (int i = 0; i < length; i++) {
+                final long nodeB = neighboursA[i];
+                long b = offsets.get(nodeB);
+                final long bEnd = offsets.get(nodeB + 1);
+                int a = 0;
+                while (a < length && b < bEnd) {
+                    final long nodeC = neighbours.get(b);
+                    final long candidate = neighboursA[a];
+                    if (candidate < nodeC) {
+                        ++a;
+                    } else if (candidate > nodeC) {
+                        ++b;
+                    } else {
+                        triangles.add(nodeB, 1L);
+                        triangles.add(nodeC, 1L);
+                        ++found;
+                        ++a;
+                        ++b;
+                    }
+                }
+            }
+            if (found > 0L) {
+                triangles.add(nodeA, found);
+            }
+            triangleCount += found;
+        }
+    }
+}
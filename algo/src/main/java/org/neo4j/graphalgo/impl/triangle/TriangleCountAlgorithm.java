@@ -58,6 +58,13 @@ public interface TriangleCountAlgorithm {
         return ((double) (triangles << 1)) / (degree * (degree - 1));
     }
 
+    static double calculateCoefficient(long triangles, long degree) {
+        if (triangles == 0) {
+            return 0.0;
+        }
+        return (2.0 * triangles) / ((double) degree * (degree - 1));
+    }
+
     class Result {
 
         public final long nodeId;
@@ -82,7 +89,9 @@ public interface TriangleCountAlgorithm {
     }
 
     static TriangleCountAlgorithm instance(Graph graph, ExecutorService pool, int concurrency) {
-        if (graph instanceof HugeGraph || graph instanceof HeavyGraph) {
+        if (graph instanceof HugeGraph) {
+            return new HugeDegreeOrderedTriangleCount((HugeGraph) graph, pool, concurrency, AllocationTracker.create());
+        } else if (graph instanceof HeavyGraph) {
             return new IntersectingTriangleCount(graph, pool, concurrency, AllocationTracker.create());
         } else {
             return new TriangleCountQueue(graph, pool, concurrency);
@@ -56,7 +56,8 @@ public class TopKConsumer<T> implements Consumer<T> {
     }
 
     public void accept(TopKConsumer<T> other) {
-        if (minValue == null || count < topK || other.minValue != null && comparator.compare(other.minValue,minValue) < 0) {
+        // the best item of the other consumer decides whether any of its items can be taken over
+        if (minValue == null || count < topK || other.count > 0 && comparator.compare(other.heap[0],minValue) < 0) {
             for (int i=0;i<other.count;i++) {
                 accept(other.heap[i]);
             }
@@ -0,0 +1,351 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.walking;
+
+import com.carrotsearch.hppc.sorting.IndirectSort;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node2Vec transitions over a {@link HugeGraph}.
+ * <p>
+ * The neighbours of every node are copied once into paged arrays, sorted by node id,
+ * together with an alias table (Walker, Vose) of their relationship weights, so that a first-order
+ * transition is sampled in constant time. The second-order bias of Node2Vec ({@code 1/p} to return
+ * to the previous node, {@code 1} for common neighbours of the previous node, {@code 1/q} otherwise)
+ * is applied by rejection sampling: a first-order candidate is accepted with probability
+ * {@code bias / max(bias)}, and only candidates that can't be accepted by their lower bound require
+ * a binary search in the neighbours of the previous node. Sampling a step does not allocate.
+ * <p>
+ * Parallel relationships and relationships in both directions are kept, i.e. they add up
+ * to the transition probability, just like in {@link NodeWalker.Node2VecStrategy}.
+ */
+public final class HugeNode2Vec {
+
+    private final long nodeCount;
+    // the neighbours of node n are targets[offsets[n]] until targets[offsets[n + 1]]
+    private final HugeLongArray offsets;
+    private final HugeLongArray targets;
+    // alias tables, null for unweighted transitions
+    private final DoubleArray probabilities;
+    private final HugeLongArray aliases;
+    private final double returnBias;
+    private final double inOutBias;
+    private final double maxBias;
+    private final double minBias;
+
+    private HugeNode2Vec(
+            long nodeCount,
+            HugeLongArray offsets,
+            HugeLongArray targets,
+            DoubleArray probabilities,
+            HugeLongArray aliases,
+            double returnParam,
+            double inOutParam) {
+        this.nodeCount = nodeCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.probabilities = probabilities;
+        this.aliases = aliases;
+        this.returnBias = 1d / returnParam;
+        this.inOutBias = 1d / inOutParam;
+        this.maxBias = Math.max(1d, Math.max(returnBias, inOutBias));
+        this.minBias = Math.min(1d, Math.min(returnBias, inOutBias));
+    }
+
+    /**
+     * @param weighted whether the transitions are proportional to the relationship weights, otherwise they are uniform
+     */
+    public static HugeNode2Vec of(
+            HugeGraph graph,
+            Direction direction,
+            boolean weighted,
+            double returnParam,
+            double inOutParam,
+            int concurrency,
+            TerminationFlag terminationFlag,
+            AllocationTracker tracker) {
+        if (returnParam <= 0d || inOutParam <= 0d) {
+            throw new IllegalArgumentException("The return and inOut parameters must be positive");
+        }
+        long nodeCount = graph.nodeCount();
+        HugeLongArray offsets = HugeLongArray.newArray(nodeCount + 1, tracker);
+        long relationshipCount = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            offsets.set(node, relationshipCount);
+            relationshipCount += graph.degree(node, direction);
+        }
+        offsets.set(nodeCount, relationshipCount);
+
+        HugeLongArray targets = HugeLongArray.newArray(relationshipCount, tracker);
+        DoubleArray probabilities = weighted ? DoubleArray.newArray(relationshipCount, tracker) : null;
+        HugeLongArray aliases = weighted ? HugeLongArray.newArray(relationshipCount, tracker) : null;
+
+        long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, 10_000L);
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            long from = start;
+            long to = Math.min(nodeCount, start + batchSize);
+            HugeGraph localGraph = graph.concurrentCopy();
+            tasks.add(() -> new Importer(localGraph, direction, offsets, targets, probabilities, aliases).run(from, to));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, terminationFlag, Pools.DEFAULT);
+
+        return new HugeNode2Vec(nodeCount, offsets, targets, probabilities, aliases, returnParam, inOutParam);
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    public int degree(long node) {
+        return (int) (offsets.get(node + 1) - offsets.get(node));
+    }
+
+    /**
+     * @param previous the node before the current one, or the current node itself for the first step of a walk
+     * @return the next node of the walk, or {@code -1} if the current node has no neighbours
+     */
+    public long nextNode(long current, long previous, Random random) {
+        long offset = offsets.get(current);
+        int degree = (int) (offsets.get(current + 1) - offset);
+        if (degree == 0) {
+            return -1L;
+        }
+        if (previous == current) {
+            return firstOrder(offset, degree, random);
+        }
+        long previousOffset = offsets.get(previous);
+        long previousEnd = offsets.get(previous + 1);
+        while (true) {
+            long candidate = firstOrder(offset, degree, random);
+            double threshold = random.nextDouble() * maxBias;
+            if (threshold < minBias) {
+                return candidate;
+            }
+            double bias;
+            if (candidate == previous) {
+                bias = returnBias;
+            } else if (contains(previousOffset, previousEnd, candidate)) {
+                bias = 1d;
+            } else {
+                bias = inOutBias;
+            }
+            if (threshold < bias) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * Walks at most {@code steps} steps, the walk ends early at a node without neighbours.
+     *
+     * @param nodes receives the start node and the visited nodes, must have room for {@code steps + 1} nodes
+     * @return the number of nodes in the walk, including the start node
+     */
+    public int walk(long start, int steps, long[] nodes, Random random) {
+        nodes[0] = start;
+        long previous = start;
+        long current = start;
+        for (int i = 1; i <= steps; i++) {
+            long next = nextNode(current, previous, random);
+            if (next == -1L) {
+                return i;
+            }
+            previous = current;
+            current = next;
+            nodes[i] = current;
+        }
+        return steps + 1;
+    }
+
+    public void release(AllocationTracker tracker) {
+        tracker.remove(offsets.release());
+        tracker.remove(targets.release());
+        if (probabilities != null) {
+            tracker.remove(probabilities.release());
+            tracker.remove(aliases.release());
+        }
+    }
+
+    private long firstOrder(long offset, int degree, Random random) {
+        int index = random.nextInt(degree);
+        if (probabilities != null && random.nextDouble() >= probabilities.get(offset + index)) {
+            index = (int) aliases.get(offset + index);
+        }
+        return targets.get(offset + index);
+    }
+
+    private boolean contains(long from, long to, long node) {
+        long low = from, high = to - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long value = targets.get(mid);
+            if (value < node) {
+                low = mid + 1;
+            } else if (value > node) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the neighbours of a batch of nodes and builds their alias tables, the buffers are reused between nodes.
+     */
+    private static final class Importer {
+        private final HugeGraph graph;
+        private final Direction direction;
+        private final HugeLongArray offsets;
+        private final HugeLongArray targets;
+        private final DoubleArray probabilities;
+        private final HugeLongArray aliases;
+
+        private long[] neighbours = new long[0];
+        private double[] weights = new double[0];
+        private int[] small = new int[0];
+        private int[] large = new int[0];
+        private int size;
+
+        Importer(HugeGraph graph, Direction direction, HugeLongArray offsets, HugeLongArray targets, DoubleArray probabilities, HugeLongArray aliases) {
+            this.graph = graph;
+            this.direction = direction;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.probabilities = probabilities;
+            this.aliases = aliases;
+        }
+
+        void run(long from, long to) {
+            for (long node = from; node < to; node++) {
+                long offset = offsets.get(node);
+                int degree = (int) (offsets.get(node + 1) - offset);
+                if (degree == 0) {
+                    continue;
+                }
+                if (neighbours.length < degree) {
+                    neighbours = new long[degree];
+                    weights = new double[degree];
+                    small = new int[degree];
+                    large = new int[degree];
+                }
+                size = 0;
+                graph.forEachRelationship(node, direction, (source, target, weight) -> {
+                    neighbours[size] = target;
+                    weights[size] = weight;
+                    size++;
+                    return true;
+                });
+                sort(degree);
+                for (int i = 0; i < degree; i++) {
+                    targets.set(offset + i, neighbours[i]);
+                }
+                if (probabilities != null) {
+                    buildAliasTable(offset, degree);
+                }
+            }
+        }
+
+        private void sort(int degree) {
+            boolean sorted = true;
+            for (int i = 1; i < degree && sorted; i++) {
+                sorted = neighbours[i - 1] <= neighbours[i];
+            }
+            if (sorted) {
+                return;
+            }
+            if (probabilities == null) {
+                Arrays.sort(neighbours, 0, degree);
+                return;
+            }
+            // the weights have to follow their neighbours, which is rare enough to allocate
+            long[] keys = neighbours;
+            int[] order = IndirectSort.mergesort(0, degree, (a, b) -> Long.compare(keys[a], keys[b]));
+            long[] sortedNeighbours = new long[neighbours.length];
+            double[] sortedWeights = new double[weights.length];
+            for (int i = 0; i < degree; i++) {
+                sortedNeighbours[i] = neighbours[order[i]];
+                sortedWeights[i] = weights[order[i]];
+            }
+            neighbours = sortedNeighbours;
+            weights = sortedWeights;
+        }
+
+        private void buildAliasTable(long offset, int degree) {
+            double sum = 0d;
+            for (int i = 0; i < degree; i++) {
+                sum += Math.max(0d, weights[i]);
+            }
+            if (sum <= 0d) {
+                // no positive weights, the transitions are uniform
+                for (int i = 0; i < degree; i++) {
+                    probabilities.set(offset + i, 1d);
+                    aliases.set(offset + i, i);
+                }
+                return;
+            }
+            int smallSize = 0, largeSize = 0;
+            for (int i = 0; i < degree; i++) {
+                weights[i] = Math.max(0d, weights[i]) * degree / sum;
+                if (weights[i] < 1d) {
+                    small[smallSize++] = i;
+                } else {
+                    large[largeSize++] = i;
+                }
+            }
+            while (smallSize > 0 && largeSize > 0) {
+                int less = small[--smallSize];
+                int more = large[--largeSize];
+                probabilities.set(offset + less, weights[less]);
+                aliases.set(offset + less, more);
+                weights[more] = (weights[more] + weights[less]) - 1d;
+                if (weights[more] < 1d) {
+                    small[smallSize++] = more;
+                } else {
+                    large[largeSize++] = more;
+                }
+            }
+            // the remaining entries are 1 up to rounding errors
+            while (largeSize > 0) {
+                int index = large[--largeSize];
+                probabilities.set(offset + index, 1d);
+                aliases.set(offset + index, index);
+            }
+            while (smallSize > 0) {
+                int index = small[--smallSize];
+                probabilities.set(offset + index, 1d);
+                aliases.set(offset + index, index);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.walking;
+
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
+import org.neo4j.graphalgo.core.utils.paged.PageUtil;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One float vector of a fixed number of dimensions per node, stored in pages of about 32 KB.
+ * <p>
+ * A page holds the vectors of a power of two number of nodes, so that a vector never
+ * spans two pages and is addressed by its page and the offset within the page.
+ */
+public final class NodeEmbeddings {
+
+    private final long nodeCount;
+    private final int dimensions;
+    private final int pageShift;
+    private final int pageMask;
+    private float[][] pages;
+
+    private NodeEmbeddings(long nodeCount, int dimensions, int pageShift, float[][] pages) {
+        this.nodeCount = nodeCount;
+        this.dimensions = dimensions;
+        this.pageShift = pageShift;
+        this.pageMask = (1 << pageShift) - 1;
+        this.pages = pages;
+    }
+
+    public static NodeEmbeddings of(long nodeCount, int dimensions, AllocationTracker tracker) {
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("The number of dimensions must be positive, but was " + dimensions);
+        }
+        int floatsPerPage = PageUtil.pageSizeFor(Float.BYTES);
+        int nodesPerPage = Integer.highestOneBit(Math.max(1, floatsPerPage / dimensions));
+        int pageShift = Integer.numberOfTrailingZeros(nodesPerPage);
+        int numPages = PageUtil.numPagesFor(nodeCount, nodesPerPage);
+        float[][] pages = new float[numPages][];
+        tracker.add(MemoryUsage.sizeOfObjectArray(numPages));
+        for (int i = 0; i < numPages; i++) {
+            long nodes = Math.min(nodesPerPage, nodeCount - ((long) i << pageShift));
+            pages[i] = new float[Math.toIntExact(nodes * dimensions)];
+            tracker.add(MemoryUsage.sizeOfFloatArray(pages[i].length));
+        }
+        return new NodeEmbeddings(nodeCount, dimensions, pageShift, pages);
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * @return the page that contains the vector of the node, see {@link #offset(long)}
+     */
+    float[] page(long node) {
+        return pages[(int) (node >>> pageShift)];
+    }
+
+    /**
+     * @return the offset of the first dimension of the node's vector within its page
+     */
+    int offset(long node) {
+        return (int) (node & pageMask) * dimensions;
+    }
+
+    int pageCount() {
+        return pages.length;
+    }
+
+    float[] pageAt(int pageIndex) {
+        return pages[pageIndex];
+    }
+
+    /**
+     * @return a copy of the vector of the node
+     */
+    public float[] get(long node) {
+        float[] vector = new float[dimensions];
+        System.arraycopy(page(node), offset(node), vector, 0, dimensions);
+        return vector;
+    }
+
+    public List<Double> toList(long node) {
+        float[] page = page(node);
+        int offset = offset(node);
+        List<Double> vector = new ArrayList<>(dimensions);
+        for (int i = offset, end = offset + dimensions; i < end; i++) {
+            vector.add((double) page[i]);
+        }
+        return vector;
+    }
+
+    public void release(AllocationTracker tracker) {
+        if (pages != null) {
+            for (float[] page : pages) {
+                tracker.remove(MemoryUsage.sizeOfFloatArray(page.length));
+            }
+            tracker.remove(MemoryUsage.sizeOfObjectArray(pages.length));
+            pages = null;
+        }
+    }
+
+    /**
+     * Writes the vectors as float array properties.
+     */
+    public static class Translator implements PropertyTranslator<NodeEmbeddings> {
+
+        public static final PropertyTranslator<NodeEmbeddings> INSTANCE = new Translator();
+
+        @Override
+        public Value toProperty(int propertyId, NodeEmbeddings data, long nodeId) {
+            return Values.floatArray(data.get(nodeId));
+        }
+    }
+}
@@ -19,40 +19,45 @@
 package org.neo4j.graphalgo.impl.walking;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.Degrees;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.QueueBasedSpliterator;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphdb.*;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Name;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class NodeWalker {
 
+    private static final long MAX_BATCH_SIZE = 100_000L;
 
-    public Stream<long[]> randomWalk(Graph graph, @Name(value = "steps", defaultValue = "80") int steps, NodeWalker.NextNodeStrategy strategy, TerminationFlag terminationFlag, int concurrency, int limit, PrimitiveIterator.OfInt idStream) {
+    /**
+     * Streams the walks while they are computed, the strategy is released once all walks are done.
+     */
+    public Stream<long[]> randomWalk(Graph graph, @Name(value = "steps", defaultValue = "80") int steps, NodeWalker.NextNodeStrategy strategy, TerminationFlag terminationFlag, int concurrency, long limit, PrimitiveIterator.OfLong idStream) {
         int timeout = 100;
         int queueSize = 1000;
 
-        int batchSize = ParallelUtil.adjustBatchSize(limit, concurrency, 100);
-        Collection<Runnable> tasks = new ArrayList<>((limit / batchSize) + 1);
+        int batchSize = (int) ParallelUtil.adjustBatchSize(limit, concurrency, 100L, MAX_BATCH_SIZE);
+        Collection<Runnable> tasks = new ArrayList<>();
 
         ArrayBlockingQueue<long[]> queue = new ArrayBlockingQueue<>(queueSize);
         long[] TOMB = new long[0];
 
         while (idStream.hasNext()) {
-            int[] ids = new int[batchSize];
+            long[] ids = new long[batchSize];
             int i=0;
             while (i<batchSize && idStream.hasNext()) {
-                ids[i++]=idStream.nextInt();
+                ids[i++]=idStream.nextLong();
             }
             int size = i;
             tasks.add(() -> {
@@ -62,14 +67,49 @@ public class NodeWalker {
             });
         }
         new Thread(() -> {
-            ParallelUtil.runWithConcurrency(concurrency, tasks, terminationFlag, Pools.DEFAULT);
-            put(queue,TOMB);
+            try {
+                ParallelUtil.runWithConcurrency(concurrency, tasks, terminationFlag, Pools.DEFAULT);
+            } finally {
+                strategy.release();
+                put(queue,TOMB);
+            }
         }).start();
 
         QueueBasedSpliterator<long[]> spliterator = new QueueBasedSpliterator<>(queue, TOMB, terminationFlag, timeout);
         return StreamSupport.stream(spliterator, false);
     }
 
+    /**
+     * Writes the walks to a corpus instead of streaming them, every task writes through its own buffer.
+     * The strategy is released once all walks are done.
+     */
+    public void randomWalk(Graph graph, int steps, NodeWalker.NextNodeStrategy strategy, TerminationFlag terminationFlag, int concurrency, long limit, PrimitiveIterator.OfLong idStream, WalkCorpus corpus) {
+        int batchSize = (int) ParallelUtil.adjustBatchSize(limit, concurrency, 100L, MAX_BATCH_SIZE);
+        Collection<Runnable> tasks = new ArrayList<>();
+
+        while (idStream.hasNext()) {
+            long[] ids = new long[batchSize];
+            int i=0;
+            while (i<batchSize && idStream.hasNext()) {
+                ids[i++]=idStream.nextLong();
+            }
+            int size = i;
+            tasks.add(() -> {
+                long[] nodeIds = new long[steps + 1];
+                try (WalkCorpus.Writer writer = corpus.newWriter()) {
+                    for (int j = 0; j < size; j++) {
+                        writer.write(nodeIds, doWalk(ids[j], steps, strategy, graph, terminationFlag, nodeIds));
+                    }
+                }
+            });
+        }
+        try {
+            ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, terminationFlag, Pools.DEFAULT);
+        } finally {
+            strategy.release();
+        }
+    }
+
     private static <T> void put(BlockingQueue<T> queue, T items) {
         try {
             queue.put(items);
@@ -78,28 +118,41 @@ public class NodeWalker {
         }
     }
 
-    private long[] doWalk(int startNodeId, int steps, NodeWalker.NextNodeStrategy nextNodeStrategy, Graph graph, TerminationFlag terminationFlag) {
+    private long[] doWalk(long startNodeId, int steps, NodeWalker.NextNodeStrategy nextNodeStrategy, Graph graph, TerminationFlag terminationFlag) {
         long[] nodeIds = new long[steps + 1];
-        int currentNodeId = startNodeId;
-        int previousNodeId = currentNodeId;
+        int length = doWalk(startNodeId, steps, nextNodeStrategy, graph, terminationFlag, nodeIds);
+        return length == nodeIds.length ? nodeIds : Arrays.copyOf(nodeIds, length);
+    }
+
+    /**
+     * @return the number of nodes written to {@code nodeIds}, which is 1 if the walk ended early
+     */
+    private int doWalk(long startNodeId, int steps, NodeWalker.NextNodeStrategy nextNodeStrategy, Graph graph, TerminationFlag terminationFlag, long[] nodeIds) {
+        long currentNodeId = startNodeId;
+        long previousNodeId = currentNodeId;
         nodeIds[0] = toOriginalNodeId(graph, currentNodeId);
         for(int i = 1; i <= steps; i++){
-            int nextNodeId = nextNodeStrategy.getNextNode(currentNodeId, previousNodeId);
+            long nextNodeId = nextNodeStrategy.getNextNode(currentNodeId, previousNodeId);
             previousNodeId = currentNodeId;
             currentNodeId = nextNodeId;
 
             if (currentNodeId == -1 || !terminationFlag.running()) {
                 // End walk when there is no way out and return empty result
-                return Arrays.copyOf(nodeIds,1);
+                return 1;
             }
             nodeIds[i] = toOriginalNodeId(graph, currentNodeId);
         }
 
-        return nodeIds;
+        return steps + 1;
     }
 
-    private long toOriginalNodeId(Graph graph, int currentNodeId) {
-        return currentNodeId == -1 ? -1 : graph.toOriginalNodeId(currentNodeId);
+    private long toOriginalNodeId(Graph graph, long currentNodeId) {
+        if (currentNodeId == -1) {
+            return -1;
+        }
+        return graph instanceof HugeGraph
+                ? ((HugeGraph) graph).toOriginalNodeId(currentNodeId)
+                : graph.toOriginalNodeId((int) currentNodeId);
     }
 
     /*
@@ -139,16 +192,39 @@ public class NodeWalker {
         }
 
         @Override
-        public int getNextNode(int currentNodeId, int previousNodeId) {
-            int degree = degrees.degree(currentNodeId, Direction.BOTH);
+        public long getNextNode(long currentNodeId, long previousNodeId) {
+            int degree = degrees.degree((int) currentNodeId, Direction.BOTH);
             if (degree == 0) {
                 return -1;
             }
             int randomEdgeIndex = ThreadLocalRandom.current().nextInt(degree);
 
-            return graph.getTarget(currentNodeId, randomEdgeIndex, Direction.BOTH);
+            return graph.getTarget((int) currentNodeId, randomEdgeIndex, Direction.BOTH);
+        }
+
+    }
+
+    /**
+     * Random walks on huge graphs, with node ids beyond the int range.
+     */
+    public static class HugeRandomNextNodeStrategy extends NextNodeStrategy {
+        private final HugeGraph hugeGraph;
+
+        public HugeRandomNextNodeStrategy(HugeGraph graph) {
+            super(graph, graph);
+            this.hugeGraph = graph;
         }
 
+        @Override
+        public long getNextNode(long currentNodeId, long previousNodeId) {
+            int degree = hugeGraph.degree(currentNodeId, Direction.BOTH);
+            if (degree == 0) {
+                return -1;
+            }
+            int randomEdgeIndex = ThreadLocalRandom.current().nextInt(degree);
+
+            return hugeGraph.getTarget(currentNodeId, randomEdgeIndex, Direction.BOTH);
+        }
     }
 
     public static class Node2VecStrategy extends NextNodeStrategy {
@@ -161,16 +237,18 @@ public class NodeWalker {
             this.inOutParam = inOutParam;
         }
 
-        public int getNextNode(int currentNodeId, int previousNodeId) {
-            int degree = degrees.degree(currentNodeId, Direction.BOTH);
+        @Override
+        public long getNextNode(long currentNodeId, long previousNodeId) {
+            int current = (int) currentNodeId;
+            int degree = degrees.degree(current, Direction.BOTH);
             if (degree == 0) {
                 return -1;
             }
 
-            double[] distribution = buildProbabilityDistribution(currentNodeId, previousNodeId, returnParam, inOutParam, degree);
+            double[] distribution = buildProbabilityDistribution(current, (int) previousNodeId, returnParam, inOutParam, degree);
             int neighbourIndex = pickIndexFromDistribution(distribution, ThreadLocalRandom.current().nextDouble());
 
-            return graph.getTarget(currentNodeId, neighbourIndex, Direction.BOTH);
+            return graph.getTarget(current, neighbourIndex, Direction.BOTH);
         }
 
         private double[] buildProbabilityDistribution(int currentNodeId, int previousNodeId,
@@ -246,6 +324,30 @@ public class NodeWalker {
         }
     }
 
+    /**
+     * Node2Vec on huge graphs, see {@link HugeNode2Vec}. Releasing the strategy releases the alias tables.
+     */
+    public static class HugeNode2VecStrategy extends NextNodeStrategy {
+        private final HugeNode2Vec node2Vec;
+        private final AllocationTracker tracker;
+
+        public HugeNode2VecStrategy(HugeGraph graph, HugeNode2Vec node2Vec, AllocationTracker tracker) {
+            super(graph, graph);
+            this.node2Vec = node2Vec;
+            this.tracker = tracker;
+        }
+
+        @Override
+        public long getNextNode(long currentNodeId, long previousNodeId) {
+            return node2Vec.nextNode(currentNodeId, previousNodeId, ThreadLocalRandom.current());
+        }
+
+        @Override
+        public void release() {
+            node2Vec.release(tracker);
+        }
+    }
+
     /**
      * @author mh
      * @since 03.07.18
@@ -259,6 +361,15 @@ public class NodeWalker {
             this.degrees = degrees;
         }
 
-        public abstract int getNextNode(int currentNodeId, int previousNodeId);
+        /**
+         * @return the next node of the walk or -1 if the walk ends at the current node
+         */
+        public abstract long getNextNode(long currentNodeId, long previousNodeId);
+
+        /**
+         * Releases the resources of the strategy once all walks are done.
+         */
+        public void release() {
+        }
     }
 }
@@ -0,0 +1,374 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.walking;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
+import org.neo4j.graphalgo.impl.Algorithm;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trains node embeddings with skip-gram and negative sampling (Mikolov et al.: Distributed Representations
+ * of Words and Phrases and their Compositionality) on random walks, as in DeepWalk and Node2Vec.
+ * <p>
+ * Every task generates its walks with the {@link NodeWalker.NextNodeStrategy} and trains on each walk
+ * right after it has been generated, so the walks are never buffered or exported. The tasks update the
+ * shared vectors without any synchronization (Hogwild, Recht et al.): the updates of a single walk touch
+ * only a few vectors of a large graph, so conflicting writes are rare and only lose an update.
+ * <p>
+ * The negative samples are drawn proportional to {@code degree^0.75}, which is the frequency of a node
+ * in random walks on an undirected graph smoothed like the unigram distribution of word2vec.
+ * The learning rate decays linearly with the number of trained walks.
+ */
+public final class SkipGram extends Algorithm<SkipGram> {
+
+    public static final int DEFAULT_DIMENSIONS = 128;
+    public static final int DEFAULT_WALK_LENGTH = 80;
+    public static final int DEFAULT_WALKS_PER_NODE = 10;
+    public static final int DEFAULT_WINDOW_SIZE = 10;
+    public static final int DEFAULT_NEGATIVE_SAMPLES = 5;
+    public static final double DEFAULT_LEARNING_RATE = 0.025;
+    public static final double DEFAULT_MIN_LEARNING_RATE = 0.0001;
+
+    private static final long SEED = 42L;
+    private static final double UNIGRAM_POWER = 0.75;
+    private static final int MAX_EXP = 6;
+    private static final int EXP_TABLE_SIZE = 1000;
+    private static final float[] SIGMOID = new float[EXP_TABLE_SIZE];
+
+    static {
+        for (int i = 0; i < EXP_TABLE_SIZE; i++) {
+            double exp = Math.exp((i / (double) EXP_TABLE_SIZE * 2 - 1) * MAX_EXP);
+            SIGMOID[i] = (float) (exp / (exp + 1));
+        }
+    }
+
+    private final Graph graph;
+    private final NodeWalker.NextNodeStrategy strategy;
+    private final Direction direction;
+    private final int nodeCount;
+    private final int dimensions;
+    private final int walkLength;
+    private final int walksPerNode;
+    private final int windowSize;
+    private final int negativeSamples;
+    private final double learningRate;
+    private final double minLearningRate;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+
+    private final AtomicLong trainedWalks = new AtomicLong();
+    private final AtomicLong trainedNodes = new AtomicLong();
+    private NodeEmbeddings embeddings;
+
+    /**
+     * @param direction the direction of the walks, used for the degrees of the negative sampling
+     */
+    public SkipGram(
+            Graph graph,
+            NodeWalker.NextNodeStrategy strategy,
+            Direction direction,
+            int dimensions,
+            int walkLength,
+            int walksPerNode,
+            int windowSize,
+            int negativeSamples,
+            double learningRate,
+            double minLearningRate,
+            int concurrency,
+            AllocationTracker tracker) {
+        if (walkLength <= 0 || walksPerNode <= 0 || windowSize <= 0 || negativeSamples < 0) {
+            throw new IllegalArgumentException("The walk length, walks per node and window size must be positive and the negative samples must not be negative");
+        }
+        if (learningRate <= 0d || minLearningRate <= 0d || minLearningRate > learningRate) {
+            throw new IllegalArgumentException("The learning rates must be positive and the minimum must not exceed the initial learning rate");
+        }
+        this.graph = graph;
+        this.strategy = strategy;
+        this.direction = direction;
+        this.nodeCount = Math.toIntExact(graph.nodeCount());
+        this.dimensions = dimensions;
+        this.walkLength = walkLength;
+        this.walksPerNode = walksPerNode;
+        this.windowSize = windowSize;
+        this.negativeSamples = negativeSamples;
+        this.learningRate = learningRate;
+        this.minLearningRate = minLearningRate;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+    }
+
+    public SkipGram compute() {
+        NodeEmbeddings vectors = NodeEmbeddings.of(nodeCount, dimensions, tracker);
+        NodeEmbeddings contexts = NodeEmbeddings.of(nodeCount, dimensions, tracker);
+        // the output vectors start at zero, the input vectors uniformly in [-0.5, 0.5) / dimensions
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (int pageIndex = 0; pageIndex < vectors.pageCount(); pageIndex++) {
+            float[] page = vectors.pageAt(pageIndex);
+            Random random = new Random(SEED + pageIndex);
+            tasks.add(() -> {
+                for (int i = 0; i < page.length; i++) {
+                    page[i] = (random.nextFloat() - 0.5f) / dimensions;
+                }
+            });
+        }
+        run(tasks);
+
+        NegativeSampler sampler = new NegativeSampler(graph, direction, nodeCount, tracker);
+        long totalWalks = (long) walksPerNode * nodeCount;
+        int batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, 100);
+        tasks.clear();
+        int taskIndex = 0;
+        for (int round = 0; round < walksPerNode; round++) {
+            for (int start = 0; start < nodeCount; start += batchSize) {
+                int from = start;
+                int to = Math.min(nodeCount, start + batchSize);
+                Random random = new Random(SEED + taskIndex++);
+                tasks.add(() -> new Trainer(vectors, contexts, sampler, random, totalWalks).run(from, to));
+            }
+        }
+        run(tasks);
+
+        sampler.release(tracker);
+        contexts.release(tracker);
+        embeddings = vectors;
+        return this;
+    }
+
+    private void run(Collection<Runnable> tasks) {
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, getTerminationFlag(), Pools.DEFAULT);
+    }
+
+    public NodeEmbeddings embeddings() {
+        return embeddings;
+    }
+
+    /**
+     * @return the number of walks that have been trained on, walks of isolated nodes are skipped
+     */
+    public long walks() {
+        return trainedWalks.get();
+    }
+
+    /**
+     * @return the number of nodes in all walks that have been trained on
+     */
+    public long nodes() {
+        return trainedNodes.get();
+    }
+
+    @Override
+    public SkipGram me() {
+        return this;
+    }
+
+    @Override
+    public SkipGram release() {
+        if (embeddings != null) {
+            embeddings.release(tracker);
+            embeddings = null;
+        }
+        return this;
+    }
+
+    private final class Trainer {
+        private final NodeEmbeddings vectors;
+        private final NodeEmbeddings contexts;
+        private final NegativeSampler sampler;
+        private final Random random;
+        private final long totalWalks;
+        private final int[] walk;
+        private final float[] gradient;
+
+        Trainer(NodeEmbeddings vectors, NodeEmbeddings contexts, NegativeSampler sampler, Random random, long totalWalks) {
+            this.vectors = vectors;
+            this.contexts = contexts;
+            this.sampler = sampler;
+            this.random = random;
+            this.totalWalks = totalWalks;
+            this.walk = new int[walkLength + 1];
+            this.gradient = new float[dimensions];
+        }
+
+        void run(int from, int to) {
+            for (int node = from; node < to && running(); node++) {
+                int length = walk(node);
+                if (length > 1) {
+                    double progress = (double) trainedWalks.getAndIncrement() / totalWalks;
+                    float alpha = (float) Math.max(minLearningRate, learningRate * (1d - progress));
+                    train(length, alpha);
+                    trainedNodes.addAndGet(length);
+                }
+            }
+        }
+
+        /**
+         * @return the number of nodes in the walk, which ends early at a node without neighbours
+         */
+        private int walk(int start) {
+            walk[0] = start;
+            int previous = start;
+            int current = start;
+            for (int i = 1; i <= walkLength; i++) {
+                int next = Math.toIntExact(strategy.getNextNode(current, previous));
+                if (next == -1) {
+                    return i;
+                }
+                previous = current;
+                current = next;
+                walk[i] = current;
+            }
+            return walkLength + 1;
+        }
+
+        private void train(int length, float alpha) {
+            for (int position = 0; position < length; position++) {
+                int target = walk[position];
+                // a random window size weights near nodes higher than distant ones
+                int span = windowSize - random.nextInt(windowSize);
+                for (int i = Math.max(0, position - span), end = Math.min(length - 1, position + span); i <= end; i++) {
+                    if (i != position) {
+                        trainPair(walk[i], target, alpha);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Moves the input vector of the context node towards the output vector of the target node
+         * and away from the output vectors of the negative samples.
+         */
+        private void trainPair(int context, int target, float alpha) {
+            float[] input = vectors.page(context);
+            int inputOffset = vectors.offset(context);
+            Arrays.fill(gradient, 0f);
+            for (int sample = 0; sample <= negativeSamples; sample++) {
+                int output;
+                float label;
+                if (sample == 0) {
+                    output = target;
+                    label = 1f;
+                } else {
+                    output = sampler.sample(random);
+                    if (output == target) {
+                        continue;
+                    }
+                    label = 0f;
+                }
+                float[] outputPage = contexts.page(output);
+                int outputOffset = contexts.offset(output);
+                float dot = 0f;
+                for (int d = 0; d < dimensions; d++) {
+                    dot += input[inputOffset + d] * outputPage[outputOffset + d];
+                }
+                float g;
+                if (dot > MAX_EXP) {
+                    g = (label - 1f) * alpha;
+                } else if (dot < -MAX_EXP) {
+                    g = label * alpha;
+                } else {
+                    g = (label - SIGMOID[(int) ((dot + MAX_EXP) * (EXP_TABLE_SIZE / MAX_EXP / 2))]) * alpha;
+                }
+                for (int d = 0; d < dimensions; d++) {
+                    gradient[d] += g * outputPage[outputOffset + d];
+                    outputPage[outputOffset + d] += g * input[inputOffset + d];
+                }
+            }
+            for (int d = 0; d < dimensions; d++) {
+                input[inputOffset + d] += gradient[d];
+            }
+        }
+    }
+
+    /**
+     * Samples nodes proportional to {@code degree^0.75} in constant time with an alias table (Walker, Vose).
+     */
+    private static final class NegativeSampler {
+        private final float[] probabilities;
+        private final int[] aliases;
+
+        NegativeSampler(Graph graph, Direction direction, int nodeCount, AllocationTracker tracker) {
+            probabilities = new float[nodeCount];
+            aliases = new int[nodeCount];
+            tracker.add(MemoryUsage.sizeOfFloatArray(nodeCount) + MemoryUsage.sizeOfIntArray(nodeCount));
+
+            double[] weights = new double[nodeCount];
+            double sum = 0d;
+            for (int node = 0; node < nodeCount; node++) {
+                weights[node] = Math.pow(graph.degree(node, direction), UNIGRAM_POWER);
+                sum += weights[node];
+            }
+            if (sum == 0d) {
+                // without relationships there is no walk to train on, any distribution will do
+                Arrays.fill(weights, 1d);
+                sum = nodeCount;
+            }
+            int[] small = new int[nodeCount];
+            int[] large = new int[nodeCount];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                weights[node] = weights[node] * nodeCount / sum;
+                if (weights[node] < 1d) {
+                    small[smallCount++] = node;
+                } else {
+                    large[largeCount++] = node;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                probabilities[less] = (float) weights[less];
+                aliases[less] = more;
+                weights[more] = weights[more] + weights[less] - 1d;
+                if (weights[more] < 1d) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            // the remaining entries are only off by rounding errors
+            while (largeCount > 0) {
+                probabilities[large[--largeCount]] = 1f;
+            }
+            while (smallCount > 0) {
+                probabilities[small[--smallCount]] = 1f;
+            }
+        }
+
+        int sample(Random random) {
+            int node = random.nextInt(probabilities.length);
+            return random.nextFloat() < probabilities[node] ? node : aliases[node];
+        }
+
+        void release(AllocationTracker tracker) {
+            tracker.remove(MemoryUsage.sizeOfFloatArray(probabilities.length) + MemoryUsage.sizeOfIntArray(aliases.length));
+        }
+    }
+}
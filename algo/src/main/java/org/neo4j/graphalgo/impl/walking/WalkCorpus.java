@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.walking;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A file of random walks, one record per walk.
+ * <p>
+ * The file starts with the magic number {@code WLK1} and the format. With {@link Format#VARINT}
+ * a record is the number of nodes followed by the zig-zag encoded differences of consecutive
+ * node ids, all as variable length longs (7 bits per byte, the high bit marks that more bytes follow).
+ * With {@link Format#FIXED} a record is the number of nodes as int followed by the node ids as longs.
+ * <p>
+ * Every thread writes through its own {@link Writer}, which buffers whole records and appends
+ * them to the shared channel, so records of different threads are never interleaved.
+ */
+public final class WalkCorpus implements Closeable {
+
+    private static final int MAGIC = 0x574C4B31;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    public enum Format {
+        VARINT, FIXED;
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown format '" + format + "', use 'varint' or 'fixed'");
+            }
+        }
+    }
+
+    private final FileChannel channel;
+    private final Format format;
+    private final AtomicLong walks = new AtomicLong();
+    private final AtomicLong nodes = new AtomicLong();
+
+    private WalkCorpus(FileChannel channel, Format format) {
+        this.channel = channel;
+        this.format = format;
+    }
+
+    /**
+     * Creates the file, an existing file is only truncated if {@code overwrite} is set.
+     *
+     * @throws IllegalArgumentException if the file exists and {@code overwrite} is not set
+     */
+    public static WalkCorpus create(Path file, Format format, boolean overwrite) throws IOException {
+        FileChannel channel;
+        try {
+            channel = overwrite
+                    ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                    : FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (FileAlreadyExistsException e) {
+            throw new IllegalArgumentException("File " + file + " already exists, use overwrite:true to replace it");
+        }
+        ByteBuffer header = ByteBuffer.allocate(8);
+        header.putInt(MAGIC).putInt(format.ordinal()).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        return new WalkCorpus(channel, format);
+    }
+
+    /**
+     * @return a writer, which must only be used by a single thread and closed before the corpus
+     */
+    public Writer newWriter() {
+        return new Writer();
+    }
+
+    public long walks() {
+        return walks.get();
+    }
+
+    public long nodes() {
+        return nodes.get();
+    }
+
+    public long bytes() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads all walks of a file, the array passed to the consumer is reused.
+     *
+     * @param consumer receives the nodes of a walk and the number of nodes
+     */
+    public static void read(Path file, WalkConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.limit(0);
+            Input input = new Input(channel, buffer);
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not a walk file: " + file);
+            }
+            Format format = Format.values()[input.readInt()];
+            long[] walk = new long[0];
+            while (input.hasMore()) {
+                int length = format == Format.VARINT ? (int) input.readVLong() : input.readInt();
+                if (walk.length < length) {
+                    walk = new long[length];
+                }
+                long previous = 0L;
+                for (int i = 0; i < length; i++) {
+                    if (format == Format.VARINT) {
+                        long zigZag = input.readVLong();
+                        previous += (zigZag >>> 1) ^ -(zigZag & 1);
+                        walk[i] = previous;
+                    } else {
+                        walk[i] = input.readLong();
+                    }
+                }
+                consumer.accept(walk, length);
+            }
+        }
+    }
+
+    /**
+     * Reads all walks of a file into new arrays.
+     */
+    public static void readWalks(Path file, Consumer<long[]> consumer) throws IOException {
+        read(file, (walk, length) -> {
+            long[] copy = new long[length];
+            System.arraycopy(walk, 0, copy, 0, length);
+            consumer.accept(copy);
+        });
+    }
+
+    public interface WalkConsumer {
+        void accept(long[] walk, int length);
+    }
+
+    public final class Writer implements AutoCloseable {
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private Writer() {
+        }
+
+        public void write(long[] walk, int length) {
+            int maxSize = format == Format.VARINT ? 10 * (length + 1) : 4 + 8 * length;
+            if (buffer.remaining() < maxSize) {
+                flush();
+                if (buffer.capacity() < maxSize) {
+                    buffer = ByteBuffer.allocate(maxSize);
+                }
+            }
+            if (format == Format.VARINT) {
+                putVLong(length);
+                long previous = 0L;
+                for (int i = 0; i < length; i++) {
+                    long delta = walk[i] - previous;
+                    putVLong((delta << 1) ^ (delta >> 63));
+                    previous = walk[i];
+                }
+            } else {
+                buffer.putInt(length);
+                for (int i = 0; i < length; i++) {
+                    buffer.putLong(walk[i]);
+                }
+            }
+            walks.incrementAndGet();
+            nodes.addAndGet(length);
+        }
+
+        private void putVLong(long value) {
+            while ((value & ~0x7FL) != 0L) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                // FileChannel appends are not guaranteed to write everything at once
+                synchronized (channel) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
+
+    private static final class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        Input(FileChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        boolean hasMore() throws IOException {
+            return ensure(1);
+        }
+
+        int readInt() throws IOException {
+            require(4);
+            return buffer.getInt();
+        }
+
+        long readLong() throws IOException {
+            require(8);
+            return buffer.getLong();
+        }
+
+        long readVLong() throws IOException {
+            long value = 0L;
+            for (int shift = 0; ; shift += 7) {
+                require(1);
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        private void require(int bytes) throws IOException {
+            if (!ensure(bytes)) {
+                throw new EOFException("Truncated walk file");
+            }
+        }
+
+        private boolean ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) == -1) {
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer.remaining() >= bytes;
+        }
+    }
+}
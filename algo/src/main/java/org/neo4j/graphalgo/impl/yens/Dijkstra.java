@@ -18,20 +18,20 @@
  */
 package org.neo4j.graphalgo.impl.yens;
 
-import com.carrotsearch.hppc.*;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.core.utils.Pointer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
-import org.neo4j.graphalgo.core.utils.queue.IntPriorityQueue;
-import org.neo4j.graphalgo.core.utils.queue.SharedIntPriorityQueue;
-import org.neo4j.graphalgo.core.utils.traverse.SimpleBitSet;
+import org.neo4j.graphalgo.impl.DijkstraSearchState;
 import org.neo4j.graphdb.Direction;
 
-import java.util.Arrays;
 import java.util.Optional;
 
 /**
  * specialized dijkstra impl. for YensKShortestPath
+ * <p>
+ * Every computation takes its search state from the pool of the graph,
+ * see {@link DijkstraSearchState}.
  *
  * @author mknblch
  */
@@ -40,39 +40,20 @@ public class Dijkstra {
     // initial weighted path capacity
     public static final int INITIAL_CAPACITY = 64;
 
-    private static final int PATH_END = -1;
+    private static final int PATH_END = DijkstraSearchState.NO_PREDECESSOR;
 
     private final Graph graph;
-    private final int nodeCount;
 
     private TerminationFlag terminationFlag = TerminationFlag.RUNNING_TRUE;
 
-    // node to cost map
-    private final IntDoubleMap costs;
-    // next node priority queue
-    private final IntPriorityQueue queue;
-    // auxiliary path map
-    private final IntIntMap path;
-    // visited set
-    private final BitSet visited;
     // visited filter
     private RelationshipConsumer filter = (sourceNodeId, targetNodeId, relationId) -> true;
     // traverse direction
     private Direction direction = Direction.BOTH;
-    // iteration depth
-    private int[] depth;
 
 
     public Dijkstra(Graph graph) {
         this.graph = graph;
-        nodeCount = Math.toIntExact(graph.nodeCount());
-        costs = new IntDoubleScatterMap(nodeCount);
-        queue = SharedIntPriorityQueue.min(nodeCount,
-                costs,
-                Double.MAX_VALUE);
-        path = new IntIntScatterMap(nodeCount);
-        visited = new BitSet(nodeCount);
-        depth = new int[nodeCount];
     }
 
     /**
@@ -132,76 +113,69 @@ public class Dijkstra {
      * @return an optional path
      */
     public Optional<WeightedPath> compute(int sourceNode, int targetNode, int maxDepth) {
-        if (!dijkstra(sourceNode, targetNode, direction, maxDepth)) {
-            return Optional.empty();
-        }
-        int last = targetNode;
-        final WeightedPath resultPath = new WeightedPath(INITIAL_CAPACITY);
-        while (last != PATH_END) {
+        DijkstraSearchState state = DijkstraSearchState.acquire(graph);
+        try {
+            if (!dijkstra(state, sourceNode, targetNode, direction, maxDepth)) {
+                return Optional.empty();
+            }
+            int last = targetNode;
+            final WeightedPath resultPath = new WeightedPath(INITIAL_CAPACITY);
             resultPath.append(last);
-            last = path.getOrDefault(last, PATH_END);
+            int predecessor;
+            while ((predecessor = state.predecessor(last)) != PATH_END) {
+                resultPath.append(predecessor, weight(predecessor, last));
+                last = predecessor;
+            }
+            return Optional.of(resultPath
+                    .withWeight(state.cost(targetNode))
+                    .reverse());
+        } finally {
+            DijkstraSearchState.release(graph, state);
         }
-        return Optional.of(resultPath
-                .withWeight(costs.get(targetNode))
-                .reverse());
+    }
+
+    /**
+     * the weight of the cheapest relationship from source to target that passes the filter,
+     * which is the relationship the search followed
+     */
+    private double weight(int source, int target) {
+        final Pointer.DoublePointer weight = Pointer.wrap(Double.POSITIVE_INFINITY);
+        graph.forEachRelationship(source, direction, (s, t, relId, w) -> {
+            if (t == target && w < weight.v && filter.accept(s, t, relId)) {
+                weight.v = w;
+            }
+            return true;
+        });
+        return weight.v;
     }
 
     /**
      * calc path
      * @return true if a path has been found, false otherwise
      */
-    private boolean dijkstra(int source, int target, Direction direction, int maxDepth) {
-        costs.clear();
-        queue.clear();
-        path.clear();
-        visited.clear();
-        costs.put(source, 0.0);
-        queue.add(source, 0.0);
-        Arrays.fill(depth, 1);
-        while (!queue.isEmpty() && terminationFlag.running()) {
-            int node = queue.pop();
-            final int d = depth[node];
+    private boolean dijkstra(DijkstraSearchState state, int source, int target, Direction direction, int maxDepth) {
+        state.start(source);
+        while (!state.isEmpty() && terminationFlag.running()) {
+            int node = state.pop();
+            final int d = state.depth(node);
             if (d >= maxDepth) {
                 continue;
             }
             if (node == target) {
                 return true;
             }
-            visited.set(node);
-            double costs = this.costs.getOrDefault(node, Double.MAX_VALUE);
+            double costs = state.cost(node);
             graph.forEachRelationship(
                     node,
-                    direction, (s, t, relId) -> {
+                    direction, (s, t, relId, w) -> {
                         if (!filter.accept(s, t, relId)) {
                             return true;
                         }
-                        final double w = graph.weightOf(s, t);
-                        final boolean updateCosts = updateCosts(s, t, w + costs);
-                        if (!visited.get(t)) {
-                            depth[t] = d + 1;
-                            if (updateCosts) {
-                                queue.update(t);
-                            } else {
-                                queue.add(t, w);
-                            }
-                        }
+                        state.relax(t, s, w + costs, d + 1);
                         return terminationFlag.running();
                     });
         }
         return false;
     }
 
-    /**
-     * update cost map
-     */
-    private boolean updateCosts(int source, int target, double newCosts) {
-        double oldCosts = costs.getOrDefault(target, Double.MAX_VALUE);
-        if (newCosts < oldCosts) {
-            costs.put(target, newCosts);
-            path.put(target, source);
-            return oldCosts < Double.MAX_VALUE;
-        }
-        return false;
-    }
-
 }
@@ -20,7 +20,6 @@ package org.neo4j.graphalgo.impl.yens;
 
 import org.apache.lucene.util.ArrayUtil;
 import org.neo4j.graphalgo.api.Graph;
-import org.neo4j.graphalgo.api.RelationshipWeights;
 import org.neo4j.graphalgo.core.utils.RawValues;
 
 import java.util.Arrays;
@@ -30,6 +29,9 @@ import java.util.function.IntPredicate;
 
 /**
  * array based container for node chains
+ * <p>
+ * Every node is stored with the cost of the relationship from its predecessor,
+ * so that the costs of a path are known without looking up the relationship weights.
  *
  * @author mknblch
  */
@@ -39,7 +41,13 @@ public class WeightedPath {
         void accept(int sourceNode, int targetNode);
     }
 
+    public interface WeightedEdgeConsumer {
+        void accept(int sourceNode, int targetNode, double cost);
+    }
+
     private int[] nodes;
+    // costs[i] is the cost of the relationship from nodes[i - 1] to nodes[i]
+    private double[] costs;
     private int offset = 0;
     private double weight = .0;
 
@@ -48,13 +56,27 @@ public class WeightedPath {
     }
 
     public WeightedPath(int[] data, int offset) {
+        this(data, new double[data.length], offset);
+    }
+
+    private WeightedPath(int[] data, double[] costs, int offset) {
         nodes = data;
+        this.costs = costs;
         this.offset = offset;
     }
 
     public void append(int nodeId) {
+        append(nodeId, .0);
+    }
+
+    /**
+     * append a node together with the cost of the relationship from the current last node
+     */
+    public void append(int nodeId, double cost) {
         nodes = ArrayUtil.grow(nodes, offset + 1);
-        nodes[offset++] = nodeId;
+        costs = ArrayUtil.grow(costs, offset + 1);
+        nodes[offset] = nodeId;
+        costs[offset++] = cost;
     }
 
     /**
@@ -70,6 +92,13 @@ public class WeightedPath {
         return nodes[index];
     }
 
+    /**
+     * @return the cost of the relationship from node {@code index - 1} to node {@code index}
+     */
+    public double cost(int index) {
+        return costs[index];
+    }
+
     public int size() {
         return offset;
     }
@@ -102,17 +131,27 @@ public class WeightedPath {
         }
     }
 
+    public void forEachEdge(WeightedEdgeConsumer consumer) {
+        for (int i = 0; i < offset - 1; i++) {
+            consumer.accept(nodes[i], nodes[i + 1], costs[i + 1]);
+        }
+    }
+
     public void forEachDo(IntConsumer consumer) {
         for (int i = 0; i < offset; i++) {
             consumer.accept(nodes[i]);
         }
     }
 
-    public WeightedPath evaluateAndSetCost(RelationshipWeights weights) {
+    /**
+     * set the weight of this path to the sum of its relationship costs
+     * @return this
+     */
+    public WeightedPath evaluateAndSetCost() {
         this.weight = 0.;
-        forEachEdge((a, b) -> {
-            this.weight += weights.weightOf(a, b);
-        });
+        for (int i = 1; i < offset; i++) {
+            this.weight += costs[i];
+        }
         return this;
     }
 
@@ -124,7 +163,7 @@ public class WeightedPath {
         if (end > size()) {
             throw new ArrayIndexOutOfBoundsException();
         }
-        return new WeightedPath(Arrays.copyOf(nodes, end + 1), end + 1);
+        return new WeightedPath(Arrays.copyOf(nodes, end + 1), Arrays.copyOf(costs, end + 1), end + 1);
     }
 
     public long edge(int i) {
@@ -141,6 +180,13 @@ public class WeightedPath {
             nodes[i] = nodes[offset - 1 - i];
             nodes[offset - 1 - i] = temp;
         }
+        // the cost of a relationship moves to the node that becomes its target
+        costs[0] = .0;
+        for (int i = 1, j = offset - 1; i < j; i++, j--) {
+            double temp = costs[i];
+            costs[i] = costs[j];
+            costs[j] = temp;
+        }
         return this;
     }
 
@@ -198,12 +244,32 @@ public class WeightedPath {
      */
     public WeightedPath concat(WeightedPath other) {
         nodes = ArrayUtil.grow(nodes, offset + other.size());
+        costs = ArrayUtil.grow(costs, offset + other.size());
         System.arraycopy(other.nodes, 0, nodes, offset, other.size());
+        System.arraycopy(other.costs, 0, costs, offset, other.size());
         offset += other.size();
         this.weight += other.weight;
         return this;
     }
 
+    /**
+     * appends another path that starts with the last node of this path, the shared node is kept once
+     * @return this
+     */
+    public WeightedPath join(WeightedPath other) {
+        if (other.size() == 0) {
+            return this;
+        }
+        int length = other.size() - 1;
+        nodes = ArrayUtil.grow(nodes, offset + length);
+        costs = ArrayUtil.grow(costs, offset + length);
+        System.arraycopy(other.nodes, 1, nodes, offset, length);
+        System.arraycopy(other.costs, 1, costs, offset, length);
+        offset += length;
+        this.weight += other.weight;
+        return this;
+    }
+
     public static Comparator<WeightedPath> comparator() {
         return Comparator.comparingDouble(WeightedPath::getCost);
     }
@@ -19,7 +19,6 @@
 package org.neo4j.graphalgo.impl.yens;
 
 import org.neo4j.graphalgo.api.IdMapping;
-import org.neo4j.graphalgo.api.RelationshipWeights;
 import org.neo4j.graphalgo.core.utils.ExceptionUtil;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pointer;
@@ -42,7 +41,6 @@ import java.util.stream.Stream;
 public class WeightedPathExporter extends StatementApi {
 
     private final IdMapping idMapping;
-    private final RelationshipWeights relationshipWeights;
     private final String relPrefix;
     private final ExecutorService executorService;
     private final String propertyName;
@@ -50,13 +48,11 @@ public class WeightedPathExporter extends StatementApi {
     public WeightedPathExporter(GraphDatabaseAPI api,
                                 ExecutorService executorService,
                                 IdMapping idMapping,
-                                RelationshipWeights relationshipWeights,
                                 String relPrefix,
                                 String propertyName) {
         super(api);
         this.executorService = executorService;
         this.idMapping = idMapping;
-        this.relationshipWeights = relationshipWeights;
         this.relPrefix = relPrefix;
         this.propertyName = propertyName;
     }
@@ -79,7 +75,7 @@ public class WeightedPathExporter extends StatementApi {
             if (relId == -1) {
                 throw new IllegalStateException("no write property id is set");
             }
-            path.forEachEdge((s, t) -> {
+            path.forEachEdge((s, t, cost) -> {
                 try {
                     long relationshipId = statement.dataWrite().relationshipCreate(
                             idMapping.toOriginalNodeId(s),
@@ -90,7 +86,7 @@ public class WeightedPathExporter extends StatementApi {
                     statement.dataWrite().relationshipSetProperty(
                             relationshipId,
                             getOrCreatePropertyId(propertyName),
-                            Values.doubleValue(relationshipWeights.weightOf(s, t)));
+                            Values.doubleValue(cost));
                 } catch (KernelException e) {
                     ExceptionUtil.throwKernelException(e);
                 }
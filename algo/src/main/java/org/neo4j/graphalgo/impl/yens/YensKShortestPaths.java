@@ -113,7 +113,7 @@ public class YensKShortestPaths extends Algorithm<YensKShortestPaths> {
                 // The sequence of nodes from the source to the spur node of the previous k-shortest path.
                 final WeightedPath rootPath = basePath
                         .pathTo(i)
-                        .evaluateAndSetCost(graph);
+                        .evaluateAndSetCost();
                 // check each of the known shortest paths
                 for (Iterator<WeightedPath> iterator = shortestPaths.iterator(); iterator.hasNext(); ) {
                     final WeightedPath p = iterator.next();
@@ -136,8 +136,7 @@ public class YensKShortestPaths extends Algorithm<YensKShortestPaths> {
                 }
                 // new candidate is the concatenation of rootPath and the spurPath.
                 final WeightedPath concatenation = rootPath
-                        .dropTail()
-                        .concat(spurPathOpt.get());
+                        .join(spurPathOpt.get());
                 // already found?
                 if (!candidates.contains(concatenation)) {
                     progressLogger.log(String.format("found candidate: %d nodes / %.2f weight",
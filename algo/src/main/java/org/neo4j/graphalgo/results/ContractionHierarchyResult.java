@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+public class ContractionHierarchyResult {
+
+    public final Long computeMillis;
+    public final String graph;
+    public final Long nodes;
+    public final Long shortcuts;
+
+    public ContractionHierarchyResult(Long computeMillis,
+                                      String graph,
+                                      Long nodes,
+                                      Long shortcuts) {
+        this.computeMillis = computeMillis;
+        this.graph = graph;
+        this.nodes = nodes;
+        this.shortcuts = shortcuts;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder extends AbstractResultBuilder<ContractionHierarchyResult> {
+
+        private String graph;
+        private long nodes;
+        private long shortcuts;
+
+        public Builder withGraph(String graph) {
+            this.graph = graph;
+            return this;
+        }
+
+        public Builder withNodes(long nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder withShortcuts(long shortcuts) {
+            this.shortcuts = shortcuts;
+            return this;
+        }
+
+        @Override
+        public ContractionHierarchyResult build() {
+            return new ContractionHierarchyResult(evalDuration,
+                    graph,
+                    nodes,
+                    shortcuts);
+        }
+    }
+}
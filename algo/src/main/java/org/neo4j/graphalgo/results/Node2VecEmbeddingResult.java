@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+public class Node2VecEmbeddingResult {
+
+    public final Long loadMillis;
+    public final Long computeMillis;
+    public final Long writeMillis;
+    public final Long nodes;
+    public final Long walks;
+    public final Long walkNodes;
+    public final Long dimensions;
+    public final Boolean write;
+    public final String writeProperty;
+
+    public Node2VecEmbeddingResult(Long loadMillis,
+                                   Long computeMillis,
+                                   Long writeMillis,
+                                   Long nodes,
+                                   Long walks,
+                                   Long walkNodes,
+                                   Long dimensions,
+                                   Boolean write,
+                                   String writeProperty) {
+        this.loadMillis = loadMillis;
+        this.computeMillis = computeMillis;
+        this.writeMillis = writeMillis;
+        this.nodes = nodes;
+        this.walks = walks;
+        this.walkNodes = walkNodes;
+        this.dimensions = dimensions;
+        this.write = write;
+        this.writeProperty = writeProperty;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder extends AbstractResultBuilder<Node2VecEmbeddingResult> {
+
+        private long nodes;
+        private long walks;
+        private long walkNodes;
+        private long dimensions;
+        private boolean write;
+        private String writeProperty;
+
+        public Builder withNodes(long nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder withWalks(long walks) {
+            this.walks = walks;
+            return this;
+        }
+
+        public Builder withWalkNodes(long walkNodes) {
+            this.walkNodes = walkNodes;
+            return this;
+        }
+
+        public Builder withDimensions(long dimensions) {
+            this.dimensions = dimensions;
+            return this;
+        }
+
+        public Builder withWrite(boolean write) {
+            this.write = write;
+            return this;
+        }
+
+        public Builder withWriteProperty(String writeProperty) {
+            this.writeProperty = writeProperty;
+            return this;
+        }
+
+        @Override
+        public Node2VecEmbeddingResult build() {
+            return new Node2VecEmbeddingResult(loadDuration,
+                    evalDuration,
+                    writeDuration,
+                    nodes,
+                    walks,
+                    walkNodes,
+                    dimensions,
+                    write,
+                    writeProperty);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+public class UnionFindUpdateResult {
+
+    public final Long computeMillis;
+    public final Long updateMillis;
+    public final String graph;
+    public final Long nodes;
+    public final Long relationships;
+    public final Long merges;
+    public final Long skipped;
+
+    public UnionFindUpdateResult(Long computeMillis,
+                                 Long updateMillis,
+                                 String graph,
+                                 Long nodes,
+                                 Long relationships,
+                                 Long merges,
+                                 Long skipped) {
+        this.computeMillis = computeMillis;
+        this.updateMillis = updateMillis;
+        this.graph = graph;
+        this.nodes = nodes;
+        this.relationships = relationships;
+        this.merges = merges;
+        this.skipped = skipped;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The components are computed in the eval phase and updated in the write phase.
+     */
+    public static final class Builder extends AbstractResultBuilder<UnionFindUpdateResult> {
+
+        private String graph;
+        private long nodes;
+        private long relationships;
+        private long merges;
+        private long skipped;
+
+        public Builder withGraph(String graph) {
+            this.graph = graph;
+            return this;
+        }
+
+        public Builder withNodes(long nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder withRelationships(long relationships) {
+            this.relationships = relationships;
+            return this;
+        }
+
+        public Builder withMerges(long merges) {
+            this.merges = merges;
+            return this;
+        }
+
+        public Builder withSkipped(long skipped) {
+            this.skipped = skipped;
+            return this;
+        }
+
+        @Override
+        public UnionFindUpdateResult build() {
+            return new UnionFindUpdateResult(evalDuration,
+                    writeDuration,
+                    graph,
+                    nodes,
+                    relationships,
+                    merges,
+                    skipped);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.results;
+
+public class WalkCorpusResult {
+
+    public final Long loadMillis;
+    public final Long computeMillis;
+    public final String file;
+    public final String format;
+    public final Long walks;
+    public final Long nodes;
+    public final Long bytes;
+
+    public WalkCorpusResult(Long loadMillis,
+                            Long computeMillis,
+                            String file,
+                            String format,
+                            Long walks,
+                            Long nodes,
+                            Long bytes) {
+        this.loadMillis = loadMillis;
+        this.computeMillis = computeMillis;
+        this.file = file;
+        this.format = format;
+        this.walks = walks;
+        this.nodes = nodes;
+        this.bytes = bytes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder extends AbstractResultBuilder<WalkCorpusResult> {
+
+        private String file;
+        private String format;
+        private long walks;
+        private long nodes;
+        private long bytes;
+
+        public Builder withFile(String file) {
+            this.file = file;
+            return this;
+        }
+
+        public Builder withFormat(String format) {
+            this.format = format;
+            return this;
+        }
+
+        public Builder withWalks(long walks) {
+            this.walks = walks;
+            return this;
+        }
+
+        public Builder withNodes(long nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder withBytes(long bytes) {
+            this.bytes = bytes;
+            return this;
+        }
+
+        @Override
+        public WalkCorpusResult build() {
+            return new WalkCorpusResult(loadDuration,
+                    evalDuration,
+                    file,
+                    format,
+                    walks,
+                    nodes,
+                    bytes);
+        }
+    }
+}
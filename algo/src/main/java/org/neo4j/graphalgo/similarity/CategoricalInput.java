@@ -2,7 +2,7 @@ package org.neo4j.graphalgo.similarity;
 
 import org.neo4j.graphalgo.core.utils.Intersections;
 
-class CategoricalInput implements  Comparable<CategoricalInput> {
+class CategoricalInput implements SimilarityInput, Comparable<CategoricalInput> {
     long id;
     long[] targets;
 
@@ -11,19 +11,32 @@ class CategoricalInput implements  Comparable<CategoricalInput> {
         this.targets = targets;
     }
 
+    @Override
+    public long getId() {
+        return id;
+    }
+
     @Override
     public int compareTo(CategoricalInput o) {
         return Long.compare(id, o.id);
     }
 
-    SimilarityResult jaccard(double similarityCutoff, CategoricalInput e2) {
+    double jaccard(double similarityCutoff, CategoricalInput e2) {
         long intersection = Intersections.intersection3(targets, e2.targets);
-        if (similarityCutoff >= 0d && intersection == 0) return null;
+        if (similarityCutoff >= 0d && intersection == 0) return Double.NaN;
         int count1 = targets.length;
         int count2 = e2.targets.length;
         long denominator = count1 + count2 - intersection;
         double jaccard = denominator == 0 ? 0 : (double)intersection / denominator;
-        if (jaccard < similarityCutoff) return null;
+        if (jaccard < similarityCutoff) return Double.NaN;
+        return jaccard;
+    }
+
+    SimilarityResult result(CategoricalInput e2, double jaccard) {
+        int count1 = targets.length;
+        int count2 = e2.targets.length;
+        // jaccard = intersection / (count1 + count2 - intersection), so the targets don't have to be intersected again
+        long intersection = Math.round(jaccard * (count1 + count2) / (1 + jaccard));
         return new SimilarityResult(id, e2.id, count1, count2, intersection, jaccard);
     }
 }
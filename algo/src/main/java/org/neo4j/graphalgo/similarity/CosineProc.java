@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.similarity;
 
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.utils.Intersections;
 import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
@@ -31,7 +32,7 @@ import java.util.stream.Stream;
 public class CosineProc extends SimilarityProc {
 
     @Procedure(name = "algo.similarity.cosine.stream", mode = Mode.READ)
-    @Description("CALL algo.similarity.cosine.stream([{source:id, weights:[weights]}], {similarityCutoff:-1,degreeCutoff:0}) " +
+    @Description("CALL algo.similarity.cosine.stream([{source:id, weights:[weights]}], {similarityCutoff:-1,degreeCutoff:0,candidates:'all/index/nndescent',sourceIds:null,targetIds:null,k:10,sampleRate:0.5,iterations:10,delta:0.001,indexName:null}) " +
             "YIELD item1, item2, count1, count2, intersection, similarity - computes cosine distance")
     // todo count1,count2 = could be the non-null values, intersection the values where both are non-null?
     public Stream<SimilarityResult> cosineStream(
@@ -51,13 +52,13 @@ public class CosineProc extends SimilarityProc {
         int topN = getTopN(configuration);
         int topK = getTopK(configuration);
 
-        Stream<SimilarityResult> stream = topN(similarityStream(inputs, computer, configuration, similarityCutoff, topK), topN);
+        Stream<SimilarityResult> stream = topN(cosineSquaresStream(inputs, computer, configuration, similarityCutoff, topK), topN);
 
         return stream.map(SimilarityResult::squareRooted);
     }
 
     @Procedure(name = "algo.similarity.cosine", mode = Mode.WRITE)
-    @Description("CALL algo.similarity.cosine([{item:id, weights:[weights]}], {similarityCutoff:-1,degreeCutoff:0}) " +
+    @Description("CALL algo.similarity.cosine([{item:id, weights:[weights]}], {similarityCutoff:-1,degreeCutoff:0,candidates:'all/index/nndescent',sourceIds:null,targetIds:null,k:10,sampleRate:0.5,iterations:10,delta:0.001,indexName:null}) " +
             "YIELD p50, p75, p90, p99, p999, p100 - computes cosine similarities")
     public Stream<SimilaritySummaryResult> cosine(
             @Name(value = "data", defaultValue = "null") List<Map<String, Object>> data,
@@ -76,7 +77,7 @@ public class CosineProc extends SimilarityProc {
         int topN = getTopN(configuration);
         int topK = getTopK(configuration);
 
-        Stream<SimilarityResult> stream = topN(similarityStream(inputs, computer, configuration, similarityCutoff, topK), topN)
+        Stream<SimilarityResult> stream = topN(cosineSquaresStream(inputs, computer, configuration, similarityCutoff, topK), topN)
                 .map(SimilarityResult::squareRooted);
 
 
@@ -84,5 +85,20 @@ public class CosineProc extends SimilarityProc {
         return writeAndAggregateResults(configuration, stream, inputs.length, write);
     }
 
-
+    private Stream<SimilarityResult> cosineSquaresStream(WeightedInput[] inputs, SimilarityComputer<WeightedInput> computer, ProcedureConfiguration configuration, double similarityCutoff, int topK) {
+        SimilarityResults results = (s, t, similarity) -> inputs[s].result(inputs[t], similarity);
+        String candidates = configuration.getString("candidates", "all");
+        switch (candidates.toLowerCase()) {
+            case "all":
+                return similarityStream(inputs, computer, results, configuration, similarityCutoff, topK);
+            case "index":
+                // exact, but only pairs with at least one common non-zero dimension are visited
+                return similarityStream(inputs.length, InvertedIndex.of(inputs).cosineSquares(inputs), results, configuration, similarityCutoff, topK);
+            case "nndescent":
+                SimilarityCandidates neighbours = approximateNeighbours(inputs, "cosine", (s, t) -> Intersections.cosineSquare(s.page, s.offset, t.page, t.offset, Math.min(s.length, t.length)), configuration, topK);
+                return similarityStream(inputs, neighbours, computer, results, configuration, similarityCutoff, topK);
+            default:
+                throw new IllegalArgumentException("Unknown candidates '" + candidates + "', use 'all', 'index' or 'nndescent'");
+        }
+    }
 }
@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.similarity;
 
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.utils.Intersections;
 import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
@@ -31,7 +32,7 @@ import java.util.stream.Stream;
 public class EuclideanProc extends SimilarityProc {
 
     @Procedure(name = "algo.similarity.euclidean.stream", mode = Mode.READ)
-    @Description("CALL algo.similarity.euclidean.stream([{source:id, weights:[weights]}], {similarityCutoff:-1,degreeCutoff:0}) " +
+    @Description("CALL algo.similarity.euclidean.stream([{source:id, weights:[weights]}], {similarityCutoff:-1,degreeCutoff:0,candidates:'all/nndescent',sourceIds:null,targetIds:null,k:10,sampleRate:0.5,iterations:10,delta:0.001,indexName:null}) " +
             "YIELD item1, item2, count1, count2, intersection, similarity - computes euclidean distance")
     // todo count1,count2 = could be the non-null values, intersection the values where both are non-null?
     public Stream<SimilarityResult> euclideanStream(
@@ -51,13 +52,13 @@ public class EuclideanProc extends SimilarityProc {
         int topN = -getTopN(configuration);
         int topK = -getTopK(configuration);
 
-        Stream<SimilarityResult> stream = topN(similarityStream(inputs, computer, configuration, similarityCutoff, topK), topN);
+        Stream<SimilarityResult> stream = topN(sumSquareDeltaStream(inputs, computer, configuration, similarityCutoff, topK), topN);
 
         return stream.map(SimilarityResult::squareRooted);
     }
 
     @Procedure(name = "algo.similarity.euclidean", mode = Mode.WRITE)
-    @Description("CALL algo.similarity.euclidean([{item:id, weights:[weights]}], {similarityCutoff:-1,degreeCutoff:0}) " +
+    @Description("CALL algo.similarity.euclidean([{item:id, weights:[weights]}], {similarityCutoff:-1,degreeCutoff:0,candidates:'all/nndescent',sourceIds:null,targetIds:null,k:10,sampleRate:0.5,iterations:10,delta:0.001,indexName:null}) " +
             "YIELD p50, p75, p90, p99, p999, p100 - computes euclidean similarities")
     public Stream<SimilaritySummaryResult> euclidean(
             @Name(value = "data", defaultValue = "null") List<Map<String, Object>> data,
@@ -76,12 +77,24 @@ public class EuclideanProc extends SimilarityProc {
         int topN = -getTopN(configuration);
         int topK = -getTopK(configuration);
 
-        Stream<SimilarityResult> stream = topN(similarityStream(inputs, computer, configuration, similarityCutoff, topK), topN)
+        Stream<SimilarityResult> stream = topN(sumSquareDeltaStream(inputs, computer, configuration, similarityCutoff, topK), topN)
                 .map(SimilarityResult::squareRooted);
 
         boolean write = configuration.isWriteFlag(false); //  && similarityCutoff != 0.0;
         return writeAndAggregateResults(configuration, stream, inputs.length, write);
     }
 
-
+    private Stream<SimilarityResult> sumSquareDeltaStream(WeightedInput[] inputs, SimilarityComputer<WeightedInput> computer, ProcedureConfiguration configuration, double similarityCutoff, int topK) {
+        SimilarityResults results = (s, t, similarity) -> inputs[s].result(inputs[t], similarity);
+        String candidates = configuration.getString("candidates", "all");
+        switch (candidates.toLowerCase()) {
+            case "all":
+                return similarityStream(inputs, computer, results, configuration, similarityCutoff, topK);
+            case "nndescent":
+                SimilarityCandidates neighbours = approximateNeighbours(inputs, "euclidean", (s, t) -> -Intersections.sumSquareDelta(s.page, s.offset, t.page, t.offset, Math.min(s.length, t.length)), configuration, topK);
+                return similarityStream(inputs, neighbours, computer, results, configuration, similarityCutoff, topK);
+            default:
+                throw new IllegalArgumentException("Unknown candidates '" + candidates + "', use 'all' or 'nndescent'");
+        }
+    }
 }
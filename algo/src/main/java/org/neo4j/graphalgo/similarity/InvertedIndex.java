@@ -0,0 +1,212 @@
+package org.neo4j.graphalgo.similarity;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Maps every category to the inputs that contain it, ordered by input index.
+ * <p>
+ * Instead of comparing a source with all other inputs, the similarity
+ * computers walk the postings of the source's categories and accumulate
+ * the overlap in per-thread counter arrays. Only pairs that share at least one
+ * category are visited, all other pairs have a similarity of zero and are not returned,
+ * regardless of the {@code similarityCutoff}.
+ */
+final class InvertedIndex {
+
+    private final int length;
+    // postings of category c are postings[offsets[c]] until postings[offsets[c + 1]]
+    private final int[] offsets;
+    private final int[] postings;
+    // the weight of each posting, null for categorical inputs
+    private final double[] weights;
+    // the dense category ids of each input, null for weighted inputs
+    private final int[][] categories;
+
+    private InvertedIndex(int length, int[] offsets, int[] postings, double[] weights, int[][] categories) {
+        this.length = length;
+        this.offsets = offsets;
+        this.postings = postings;
+        this.weights = weights;
+        this.categories = categories;
+    }
+
+    /**
+     * Indexes the categories of categorical inputs, the node ids are mapped to dense category ids.
+     */
+    static InvertedIndex of(CategoricalInput[] inputs) {
+        LongIntHashMap categoryIds = new LongIntHashMap();
+        int[][] categories = new int[inputs.length][];
+        for (int i = 0; i < inputs.length; i++) {
+            long[] targets = inputs[i].targets;
+            int[] mapped = new int[targets.length];
+            for (int j = 0; j < targets.length; j++) {
+                int id = categoryIds.getOrDefault(targets[j], -1);
+                if (id == -1) {
+                    id = categoryIds.size();
+                    categoryIds.put(targets[j], id);
+                }
+                mapped[j] = id;
+            }
+            categories[i] = mapped;
+        }
+
+        int categoryCount = categoryIds.size();
+        int[] offsets = new int[categoryCount + 1];
+        for (int[] mapped : categories) {
+            for (int category : mapped) {
+                offsets[category + 1]++;
+            }
+        }
+        for (int c = 0; c < categoryCount; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] postings = new int[offsets[categoryCount]];
+        int[] positions = Arrays.copyOf(offsets, categoryCount);
+        for (int i = 0; i < categories.length; i++) {
+            for (int category : categories[i]) {
+                postings[positions[category]++] = i;
+            }
+        }
+        return new InvertedIndex(inputs.length, offsets, postings, null, categories);
+    }
+
+    /**
+     * Indexes the dimensions with a non-zero weight of weighted inputs.
+     */
+    static InvertedIndex of(WeightedInput[] inputs) {
+        int dimensions = 0;
+        for (WeightedInput input : inputs) {
+            dimensions = Math.max(dimensions, input.length);
+        }
+        int[] offsets = new int[dimensions + 1];
+        for (WeightedInput input : inputs) {
+            for (int d = 0; d < input.length; d++) {
+                if (input.weight(d) != 0d) offsets[d + 1]++;
+            }
+        }
+        for (int d = 0; d < dimensions; d++) {
+            offsets[d + 1] += offsets[d];
+        }
+        int[] postings = new int[offsets[dimensions]];
+        double[] weights = new double[postings.length];
+        int[] positions = Arrays.copyOf(offsets, dimensions);
+        for (int i = 0; i < inputs.length; i++) {
+            WeightedInput input = inputs[i];
+            for (int d = 0; d < input.length; d++) {
+                double weight = input.weight(d);
+                if (weight != 0d) {
+                    int position = positions[d]++;
+                    postings[position] = i;
+                    weights[position] = weight;
+                }
+            }
+        }
+        return new InvertedIndex(inputs.length, offsets, postings, weights, null);
+    }
+
+    /**
+     * @return a supplier of per-thread computers of jaccard similarities, equal to {@link CategoricalInput#jaccard(double, CategoricalInput)}
+     */
+    Supplier<SimilarityProc.SourceSimilarityComputer> jaccard(CategoricalInput[] inputs) {
+        return () -> {
+            int[] counts = new int[length];
+            IntArrayList touched = new IntArrayList();
+            return (sourceId, cutoff, consumer) -> {
+                for (int category : categories[sourceId]) {
+                    for (int p = firstPostingAfter(category, sourceId), end = offsets[category + 1]; p < end; p++) {
+                        int targetId = postings[p];
+                        if (counts[targetId]++ == 0) touched.add(targetId);
+                    }
+                }
+                int[] targets = touched.buffer;
+                int targetCount = touched.size();
+                Arrays.sort(targets, 0, targetCount);
+                CategoricalInput source = inputs[sourceId];
+                for (int i = 0; i < targetCount; i++) {
+                    int targetId = targets[i];
+                    long intersection = counts[targetId];
+                    counts[targetId] = 0;
+                    CategoricalInput target = inputs[targetId];
+                    int count1 = source.targets.length;
+                    int count2 = target.targets.length;
+                    double jaccard = (double) intersection / (count1 + count2 - intersection);
+                    if (jaccard >= cutoff) {
+                        consumer.accept(sourceId, targetId, jaccard);
+                    }
+                }
+                touched.clear();
+            };
+        };
+    }
+
+    /**
+     * @return a supplier of per-thread computers of squared cosine similarities, equal to {@link WeightedInput#cosineSquares(double, WeightedInput)}
+     */
+    Supplier<SimilarityProc.SourceSimilarityComputer> cosineSquares(WeightedInput[] inputs) {
+        double[] squaredLengths = new double[length];
+        for (int i = 0; i < length; i++) {
+            squaredLengths[i] = squaredLength(inputs[i], inputs[i].length);
+        }
+        return () -> {
+            double[] dotProducts = new double[length];
+            boolean[] seen = new boolean[length];
+            IntArrayList touched = new IntArrayList();
+            return (sourceId, cutoff, consumer) -> {
+                WeightedInput source = inputs[sourceId];
+                for (int d = 0; d < source.length; d++) {
+                    double weight = source.weight(d);
+                    if (weight == 0d) continue;
+                    for (int p = firstPostingAfter(d, sourceId), end = offsets[d + 1]; p < end; p++) {
+                        int targetId = postings[p];
+                        if (!seen[targetId]) {
+                            seen[targetId] = true;
+                            touched.add(targetId);
+                        }
+                        dotProducts[targetId] += weight * weights[p];
+                    }
+                }
+                int[] targets = touched.buffer;
+                int targetCount = touched.size();
+                Arrays.sort(targets, 0, targetCount);
+                for (int i = 0; i < targetCount; i++) {
+                    int targetId = targets[i];
+                    double dotProduct = dotProducts[targetId];
+                    dotProducts[targetId] = 0d;
+                    seen[targetId] = false;
+                    WeightedInput target = inputs[targetId];
+                    double xLength = squaredLengths[sourceId];
+                    double yLength = squaredLengths[targetId];
+                    if (source.length != target.length) {
+                        // vectors of different length are only compared on their common prefix
+                        int len = Math.min(source.length, target.length);
+                        xLength = squaredLength(source, len);
+                        yLength = squaredLength(target, len);
+                    }
+                    if (xLength == 0d || yLength == 0d) continue;
+                    double cosineSquares = dotProduct * dotProduct / xLength / yLength;
+                    if (cosineSquares == 0 || cosineSquares < cutoff) continue;
+                    consumer.accept(sourceId, targetId, cosineSquares);
+                }
+                touched.clear();
+            };
+        };
+    }
+
+    private int firstPostingAfter(int category, int sourceId) {
+        int index = Arrays.binarySearch(postings, offsets[category], offsets[category + 1], sourceId + 1);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private static double squaredLength(WeightedInput input, int len) {
+        double[] page = input.page;
+        double sum = 0d;
+        for (int i = input.offset, end = input.offset + len; i < end; i++) {
+            sum += page[i] * page[i];
+        }
+        return sum;
+    }
+}
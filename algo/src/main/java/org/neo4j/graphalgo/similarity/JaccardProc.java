@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.similarity;
 
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.procedure.*;
 
 import java.util.*;
@@ -29,7 +30,7 @@ import static org.neo4j.graphalgo.impl.util.TopKConsumer.topK;
 public class JaccardProc extends SimilarityProc {
 
     @Procedure(name = "algo.similarity.jaccard.stream", mode = Mode.READ)
-    @Description("CALL algo.similarity.jaccard.stream([{source:id, targets:[ids]}], {similarityCutoff:-1,degreeCutoff:0}) " +
+    @Description("CALL algo.similarity.jaccard.stream([{source:id, targets:[ids]}], {similarityCutoff:-1,degreeCutoff:0,candidates:'all/index/minhash',sourceIds:null,targetIds:null,signatureLength:128,bands:32}) " +
             "YIELD item1, item2, count1, count2, intersection, similarity - computes jaccard similarities")
     public Stream<SimilarityResult> similarityStream(
             @Name(value = "data", defaultValue = "null") List<Map<String,Object>> data,
@@ -41,11 +42,11 @@ public class JaccardProc extends SimilarityProc {
 
         CategoricalInput[] inputs = prepareCategories(data, getDegreeCutoff(configuration));
 
-        return topN(similarityStream(inputs, computer, configuration, getSimilarityCutoff(configuration), getTopK(configuration)), getTopN(configuration));
+        return topN(jaccardStream(inputs, computer, configuration, getSimilarityCutoff(configuration), getTopK(configuration)), getTopN(configuration));
     }
 
     @Procedure(name = "algo.similarity.jaccard", mode = Mode.WRITE)
-    @Description("CALL algo.similarity.jaccard([{source:id, targets:[ids]}], {similarityCutoff:-1,degreeCutoff:0}) " +
+    @Description("CALL algo.similarity.jaccard([{source:id, targets:[ids]}], {similarityCutoff:-1,degreeCutoff:0,candidates:'all/index/minhash',sourceIds:null,targetIds:null,signatureLength:128,bands:32}) " +
             "YIELD p50, p75, p90, p99, p999, p100 - computes jaccard similarities")
     public Stream<SimilaritySummaryResult> jaccard(
             @Name(value = "data", defaultValue = "null") List<Map<String, Object>> data,
@@ -58,11 +59,35 @@ public class JaccardProc extends SimilarityProc {
         CategoricalInput[] inputs = prepareCategories(data, getDegreeCutoff(configuration));
 
         double similarityCutoff = getSimilarityCutoff(configuration);
-        Stream<SimilarityResult> stream = topN(similarityStream(inputs, computer, configuration, similarityCutoff, getTopK(configuration)), getTopN(configuration));
+        Stream<SimilarityResult> stream = topN(jaccardStream(inputs, computer, configuration, similarityCutoff, getTopK(configuration)), getTopN(configuration));
 
         boolean write = configuration.isWriteFlag(false) && similarityCutoff > 0.0;
         return writeAndAggregateResults(configuration, stream, inputs.length, write);
     }
 
+    private Stream<SimilarityResult> jaccardStream(CategoricalInput[] inputs, SimilarityComputer<CategoricalInput> computer, ProcedureConfiguration configuration, double similarityCutoff, int topK) {
+        SimilarityResults results = (s, t, similarity) -> inputs[s].result(inputs[t], similarity);
+        if (configuration.getString("candidates", "all").equalsIgnoreCase("index")) {
+            // exact, but only pairs with at least one common category are visited
+            return similarityStream(inputs.length, InvertedIndex.of(inputs).jaccard(inputs), results, configuration, similarityCutoff, topK);
+        }
+        return similarityStream(inputs, candidates(inputs, configuration), computer, results, configuration, similarityCutoff, topK);
+    }
+
+    private SimilarityCandidates candidates(CategoricalInput[] inputs, ProcedureConfiguration configuration) {
+        String candidates = configuration.getString("candidates", "all");
+        switch (candidates.toLowerCase()) {
+            case "all":
+                return SimilarityCandidates.ALL_PAIRS;
+            case "minhash":
+                MinHashLsh lsh = new MinHashLsh(
+                        configuration.getInt("signatureLength", MinHashLsh.DEFAULT_SIGNATURE_LENGTH),
+                        configuration.getInt("bands", MinHashLsh.DEFAULT_BANDS),
+                        configuration.getNumber("seed", MinHashLsh.DEFAULT_SEED).longValue());
+                return lsh.candidates(inputs, configuration.getConcurrency(), TerminationFlag.wrap(transaction));
+            default:
+                throw new IllegalArgumentException("Unknown candidates '" + candidates + "', use 'all', 'index' or 'minhash'");
+        }
+    }
 
 }
@@ -0,0 +1,128 @@
+package org.neo4j.graphalgo.similarity;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds candidate pairs for the Jaccard similarity with MinHash signatures and
+ * locality-sensitive hashing.
+ * <p>
+ * The signature of an input is the minimum of each of {@code signatureLength} hash functions
+ * over its categories. Two inputs agree on a single signature value with a probability
+ * equal to their Jaccard similarity. The signature is divided into {@code bands} of
+ * {@code signatureLength / bands} rows, and inputs that agree on all rows of at least one
+ * band become a candidate pair. A pair with similarity {@code s} is found with a probability of
+ * {@code 1 - (1 - s^rows)^bands}, the threshold of this S-curve is at about
+ * {@code (1 / bands)^(1 / rows)}. More bands find pairs of lower similarity at the
+ * cost of more candidates.
+ * <p>
+ * The bands are computed one after another, so only a single band of hash values
+ * is kept in memory at once.
+ */
+final class MinHashLsh {
+
+    static final int DEFAULT_SIGNATURE_LENGTH = 128;
+    static final int DEFAULT_BANDS = 32;
+    static final long DEFAULT_SEED = 42L;
+
+    private final int bands;
+    private final int rows;
+    private final long[] hashSeeds;
+
+    MinHashLsh(int signatureLength, int bands, long seed) {
+        if (signatureLength <= 0 || bands <= 0 || signatureLength % bands != 0) {
+            throw new IllegalArgumentException(String.format(
+                    "The signature length (%d) must be a positive multiple of the number of bands (%d)",
+                    signatureLength,
+                    bands));
+        }
+        this.bands = bands;
+        this.rows = signatureLength / bands;
+        this.hashSeeds = new long[signatureLength];
+        long state = seed;
+        for (int i = 0; i < signatureLength; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            hashSeeds[i] = mix(state);
+        }
+    }
+
+    SimilarityCandidates candidates(
+            CategoricalInput[] inputs,
+            int concurrency,
+            TerminationFlag terminationFlag) {
+        int length = inputs.length;
+        long[] bandHashes = new long[length];
+        LongHashSet pairs = new LongHashSet();
+
+        int batchSize = ParallelUtil.adjustBatchSize(length, concurrency, 1);
+        for (int band = 0; band < bands; band++) {
+            int firstRow = band * rows;
+            Collection<Runnable> tasks = new ArrayList<>();
+            for (int start = 0; start < length; start += batchSize) {
+                int from = start;
+                int to = Math.min(length, start + batchSize);
+                tasks.add(() -> {
+                    for (int i = from; i < to; i++) {
+                        bandHashes[i] = bandHash(inputs[i].targets, firstRow);
+                    }
+                });
+            }
+            ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, terminationFlag, Pools.DEFAULT);
+
+            LongObjectHashMap<IntArrayList> buckets = new LongObjectHashMap<>();
+            for (int i = 0; i < length; i++) {
+                if (inputs[i].targets.length == 0) {
+                    continue;
+                }
+                IntArrayList bucket = buckets.get(bandHashes[i]);
+                if (bucket == null) {
+                    bucket = new IntArrayList(2);
+                    buckets.put(bandHashes[i], bucket);
+                }
+                bucket.add(i);
+            }
+            for (ObjectCursor<IntArrayList> cursor : buckets.values()) {
+                IntArrayList bucket = cursor.value;
+                int[] ids = bucket.buffer;
+                for (int i = 0, size = bucket.size(); i < size; i++) {
+                    for (int j = i + 1; j < size; j++) {
+                        pairs.add(SimilarityCandidates.pair(ids[i], ids[j]));
+                    }
+                }
+            }
+        }
+        return SimilarityCandidates.of(pairs, length);
+    }
+
+    private long bandHash(long[] targets, int firstRow) {
+        long hash = firstRow;
+        for (int row = firstRow, end = firstRow + rows; row < end; row++) {
+            long seed = hashSeeds[row];
+            long min = Long.MAX_VALUE;
+            for (long target : targets) {
+                long value = mix(target ^ seed);
+                if (value < min) {
+                    min = value;
+                }
+            }
+            hash = mix(hash * 31L + min);
+        }
+        return hash;
+    }
+
+    // finalizer of SplitMix64, see http://xorshift.di.unimi.it/splitmix64.c
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,307 @@
+package org.neo4j.graphalgo.similarity;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongHashSet;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds an approximate k-nearest-neighbour graph over weighted inputs with NN-Descent
+ * (Dong, Charikar, Li: Efficient K-Nearest Neighbor Graph Construction for Generic Similarity Measures).
+ * <p>
+ * Every input starts with {@code k} random neighbours. In each iteration the neighbours
+ * of neighbours, in both directions, are compared with each other and the better ones replace
+ * the current neighbours. Only a {@code sampleRate} share of the neighbours that have been
+ * added in the last iteration is joined, and the iterations stop early once fewer than
+ * {@code delta * n * k} neighbours have changed. A higher {@code k}, sample rate and number of
+ * iterations increase the recall at the cost of more comparisons.
+ * <p>
+ * The resulting graph is used as candidates for the exact similarity computation,
+ * so that only {@code O(n * k)} pairs instead of all pairs are compared.
+ */
+final class NNDescent {
+
+    static final int DEFAULT_K = 10;
+    static final double DEFAULT_SAMPLE_RATE = 0.5;
+    static final int DEFAULT_ITERATIONS = 10;
+    static final double DEFAULT_DELTA = 0.001;
+    static final long DEFAULT_SEED = 42L;
+
+    /**
+     * Scores a pair of inputs, higher scores are more similar.
+     */
+    interface Metric {
+        double score(WeightedInput input1, WeightedInput input2);
+    }
+
+    private final int k;
+    private final double sampleRate;
+    private final int iterations;
+    private final double delta;
+    private final long seed;
+
+    NNDescent(int k, double sampleRate, int iterations, double delta, long seed) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("The number of neighbours (k) must be positive, but was " + k);
+        }
+        if (sampleRate <= 0d || sampleRate > 1d) {
+            throw new IllegalArgumentException("The sample rate must be in (0, 1], but was " + sampleRate);
+        }
+        this.k = k;
+        this.sampleRate = sampleRate;
+        this.iterations = iterations;
+        this.delta = delta;
+        this.seed = seed;
+    }
+
+    /**
+     * @return true if both build the same candidates for the same inputs
+     */
+    boolean hasSameParameters(NNDescent other) {
+        return k == other.k
+                && Double.compare(sampleRate, other.sampleRate) == 0
+                && iterations == other.iterations
+                && Double.compare(delta, other.delta) == 0
+                && seed == other.seed;
+    }
+
+    SimilarityCandidates candidates(
+            WeightedInput[] inputs,
+            Metric metric,
+            int concurrency,
+            TerminationFlag terminationFlag) {
+        int length = inputs.length;
+        int k = Math.min(this.k, length - 1);
+        if (k <= 0) {
+            return SimilarityCandidates.of(new LongHashSet(), length);
+        }
+
+        Neighbours neighbours = new Neighbours(length, k);
+        runBatches(length, concurrency, terminationFlag, (from, to) -> {
+            Random random = new Random(seed + from);
+            for (int node = from; node < to; node++) {
+                while (neighbours.size(node) < k) {
+                    int other = random.nextInt(length);
+                    if (other != node) {
+                        neighbours.add(node, other, metric.score(inputs[node], inputs[other]));
+                    }
+                }
+            }
+        });
+
+        int sampleSize = Math.max(1, (int) Math.ceil(sampleRate * k));
+        long threshold = (long) (delta * length * k);
+        for (int iteration = 0; iteration < iterations && terminationFlag.running(); iteration++) {
+            Random random = new Random(seed + iteration);
+            IntArrayList[] oldNeighbours = new IntArrayList[length];
+            IntArrayList[] newNeighbours = new IntArrayList[length];
+            for (int node = 0; node < length; node++) {
+                oldNeighbours[node] = new IntArrayList();
+                newNeighbours[node] = new IntArrayList();
+            }
+            // sample the new neighbours, they are joined only once
+            for (int node = 0; node < length; node++) {
+                neighbours.sample(node, sampleSize, random, oldNeighbours[node], newNeighbours[node]);
+            }
+            IntArrayList[] reverseOld = reverse(oldNeighbours, sampleSize, random);
+            IntArrayList[] reverseNew = reverse(newNeighbours, sampleSize, random);
+
+            AtomicLong updates = new AtomicLong();
+            runBatches(length, concurrency, terminationFlag, (from, to) -> {
+                long localUpdates = 0L;
+                for (int node = from; node < to; node++) {
+                    IntArrayList news = union(newNeighbours[node], reverseNew[node]);
+                    IntArrayList olds = union(oldNeighbours[node], reverseOld[node]);
+                    int[] newIds = news.buffer;
+                    int[] oldIds = olds.buffer;
+                    for (int i = 0; i < news.size(); i++) {
+                        int u1 = newIds[i];
+                        for (int j = i + 1; j < news.size(); j++) {
+                            localUpdates += join(neighbours, inputs, metric, u1, newIds[j]);
+                        }
+                        for (int j = 0; j < olds.size(); j++) {
+                            localUpdates += join(neighbours, inputs, metric, u1, oldIds[j]);
+                        }
+                    }
+                }
+                updates.addAndGet(localUpdates);
+            });
+            if (updates.get() <= threshold) {
+                break;
+            }
+        }
+
+        LongHashSet pairs = new LongHashSet(length * k);
+        for (int node = 0; node < length; node++) {
+            int[] ids = neighbours.ids;
+            for (int i = node * k, end = i + neighbours.size(node); i < end; i++) {
+                pairs.add(SimilarityCandidates.pair(node, ids[i]));
+            }
+        }
+        return SimilarityCandidates.of(pairs, length);
+    }
+
+    private static int join(Neighbours neighbours, WeightedInput[] inputs, Metric metric, int u1, int u2) {
+        if (u1 == u2) {
+            return 0;
+        }
+        double score = metric.score(inputs[u1], inputs[u2]);
+        int updates = 0;
+        if (neighbours.add(u1, u2, score)) updates++;
+        if (neighbours.add(u2, u1, score)) updates++;
+        return updates;
+    }
+
+    private static IntArrayList[] reverse(IntArrayList[] lists, int sampleSize, Random random) {
+        IntArrayList[] reversed = new IntArrayList[lists.length];
+        int[] seen = new int[lists.length];
+        for (int node = 0; node < lists.length; node++) {
+            reversed[node] = new IntArrayList();
+        }
+        for (int node = 0; node < lists.length; node++) {
+            IntArrayList list = lists[node];
+            for (int i = 0; i < list.size(); i++) {
+                int neighbour = list.get(i);
+                IntArrayList target = reversed[neighbour];
+                // reservoir sampling keeps at most sampleSize reverse neighbours
+                int count = ++seen[neighbour];
+                if (count <= sampleSize) {
+                    target.add(node);
+                } else {
+                    int index = random.nextInt(count);
+                    if (index < sampleSize) {
+                        target.set(index, node);
+                    }
+                }
+            }
+        }
+        return reversed;
+    }
+
+    private static IntArrayList union(IntArrayList list, IntArrayList other) {
+        IntArrayList union = new IntArrayList(list.size() + other.size());
+        union.addAll(list);
+        for (int i = 0; i < other.size(); i++) {
+            int value = other.get(i);
+            if (!union.contains(value)) {
+                union.add(value);
+            }
+        }
+        return union;
+    }
+
+    private interface BatchTask {
+        void run(int from, int to);
+    }
+
+    private static void runBatches(int length, int concurrency, TerminationFlag terminationFlag, BatchTask task) {
+        int batchSize = ParallelUtil.adjustBatchSize(length, concurrency, 1);
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (int start = 0; start < length; start += batchSize) {
+            int from = start;
+            int to = Math.min(length, start + batchSize);
+            tasks.add(() -> task.run(from, to));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, terminationFlag, Pools.DEFAULT);
+    }
+
+    /**
+     * The current k best neighbours of every input, sorted by descending score
+     * in slices of {@code k} entries of parallel arrays. Updates of a node's slice
+     * are synchronized on the node's lock.
+     */
+    private static final class Neighbours {
+        private final int k;
+        private final int[] ids;
+        private final double[] scores;
+        // whether the neighbour has been added since it has last been sampled
+        private final boolean[] isNew;
+        private final int[] sizes;
+        private final Object[] locks;
+
+        Neighbours(int length, int k) {
+            this.k = k;
+            this.ids = new int[length * k];
+            this.scores = new double[length * k];
+            this.isNew = new boolean[length * k];
+            this.sizes = new int[length];
+            this.locks = new Object[length];
+            for (int i = 0; i < length; i++) {
+                locks[i] = new Object();
+            }
+        }
+
+        int size(int node) {
+            synchronized (locks[node]) {
+                return sizes[node];
+            }
+        }
+
+        /**
+         * @return true if the neighbour has been added to the k best neighbours of the node
+         */
+        boolean add(int node, int neighbour, double score) {
+            synchronized (locks[node]) {
+                int offset = node * k;
+                int size = sizes[node];
+                if (size == k && score <= scores[offset + size - 1]) {
+                    return false;
+                }
+                for (int i = offset; i < offset + size; i++) {
+                    if (ids[i] == neighbour) {
+                        return false;
+                    }
+                }
+                int position = offset + (size == k ? size - 1 : size);
+                while (position > offset && scores[position - 1] < score) {
+                    ids[position] = ids[position - 1];
+                    scores[position] = scores[position - 1];
+                    isNew[position] = isNew[position - 1];
+                    position--;
+                }
+                ids[position] = neighbour;
+                scores[position] = score;
+                isNew[position] = true;
+                if (size < k) {
+                    sizes[node] = size + 1;
+                }
+                return true;
+            }
+        }
+
+        /**
+         * Collects the old neighbours and a sample of at most {@code sampleSize} new neighbours,
+         * the sampled neighbours are no longer new.
+         */
+        void sample(int node, int sampleSize, Random random, IntArrayList olds, IntArrayList news) {
+            int offset = node * k;
+            int size = sizes[node];
+            IntArrayList candidates = new IntArrayList();
+            for (int i = offset; i < offset + size; i++) {
+                if (isNew[i]) {
+                    candidates.add(i);
+                } else {
+                    olds.add(ids[i]);
+                }
+            }
+            // partial Fisher-Yates shuffle of the new neighbours
+            int[] positions = candidates.buffer;
+            int sampled = Math.min(sampleSize, candidates.size());
+            for (int i = 0; i < sampled; i++) {
+                int j = i + random.nextInt(candidates.size() - i);
+                int position = positions[j];
+                positions[j] = positions[i];
+                positions[i] = position;
+                news.add(ids[position]);
+                isNew[position] = false;
+            }
+        }
+    }
+}
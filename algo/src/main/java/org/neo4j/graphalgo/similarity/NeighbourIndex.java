@@ -0,0 +1,89 @@
+package org.neo4j.graphalgo.similarity;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Approximate neighbour candidates that are kept in memory under a name,
+ * so that repeated queries over the same inputs skip building them.
+ * <p>
+ * An index is only reused for the same metric, the same parameters of {@link NNDescent}
+ * and the same inputs in the same order, otherwise it is rebuilt and replaced.
+ * The weights of the inputs are compared by a fingerprint instead of keeping a copy of them.
+ */
+final class NeighbourIndex {
+
+    private static final ConcurrentHashMap<String, NeighbourIndex> indexes = new ConcurrentHashMap<>();
+
+    private final String metric;
+    private final NNDescent nnDescent;
+    private final long[] ids;
+    private final long fingerprint;
+    private final SimilarityCandidates candidates;
+
+    private NeighbourIndex(String metric, NNDescent nnDescent, long[] ids, long fingerprint, SimilarityCandidates candidates) {
+        this.metric = metric;
+        this.nnDescent = nnDescent;
+        this.ids = ids;
+        this.fingerprint = fingerprint;
+        this.candidates = candidates;
+    }
+
+    static SimilarityCandidates getOrBuild(
+            String name,
+            String metric,
+            NNDescent nnDescent,
+            WeightedInput[] inputs,
+            Supplier<SimilarityCandidates> build) {
+        long fingerprint = fingerprint(inputs);
+        NeighbourIndex index = indexes.get(name);
+        if (index != null && index.matches(metric, nnDescent, inputs, fingerprint)) {
+            return index.candidates;
+        }
+        long[] ids = new long[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            ids[i] = inputs[i].id;
+        }
+        SimilarityCandidates candidates = build.get();
+        indexes.put(name, new NeighbourIndex(metric, nnDescent, ids, fingerprint, candidates));
+        return candidates;
+    }
+
+    static boolean remove(String name) {
+        return indexes.remove(name) != null;
+    }
+
+    private boolean matches(String metric, NNDescent nnDescent, WeightedInput[] inputs, long fingerprint) {
+        if (!this.metric.equals(metric)
+                || !this.nnDescent.hasSameParameters(nnDescent)
+                || this.fingerprint != fingerprint
+                || ids.length != inputs.length) {
+            return false;
+        }
+        for (int i = 0; i < inputs.length; i++) {
+            if (ids[i] != inputs[i].id) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the weights of all inputs in order, a changed weight or vector length changes the hash.
+     */
+    private static long fingerprint(WeightedInput[] inputs) {
+        long hash = inputs.length;
+        for (WeightedInput input : inputs) {
+            hash = mix(hash, input.length);
+            for (int i = 0; i < input.length; i++) {
+                hash = mix(hash, Double.doubleToLongBits(input.weight(i)));
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,61 @@
+package org.neo4j.graphalgo.similarity;
+
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.cursors.LongCursor;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Selects the pairs of inputs whose similarity is computed.
+ * Only pairs with {@code sourceId < targetId} are selected, the
+ * reverse pair is covered by the same computation.
+ */
+interface SimilarityCandidates {
+
+    SimilarityCandidates ALL_PAIRS = (sourceId, length) -> IntStream.range(sourceId + 1, length);
+
+    /**
+     * @return the ids of the targets to compare with the given source, all greater than {@code sourceId}
+     */
+    IntStream targets(int sourceId, int length);
+
+    /**
+     * Builds candidates from pairs that are encoded with {@link #pair(int, int)}.
+     */
+    static SimilarityCandidates of(LongHashSet pairs, int length) {
+        int[] offsets = new int[length + 1];
+        for (LongCursor cursor : pairs) {
+            offsets[source(cursor.value) + 1]++;
+        }
+        for (int i = 0; i < length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[pairs.size()];
+        int[] positions = Arrays.copyOf(offsets, length);
+        for (LongCursor cursor : pairs) {
+            targets[positions[source(cursor.value)]++] = target(cursor.value);
+        }
+        for (int i = 0; i < length; i++) {
+            Arrays.sort(targets, offsets[i], offsets[i + 1]);
+        }
+        return (sourceId, ignore) -> Arrays.stream(targets, offsets[sourceId], offsets[sourceId + 1]);
+    }
+
+    /**
+     * Encodes a pair of ids, regardless of their order.
+     */
+    static long pair(int id1, int id2) {
+        return id1 < id2
+                ? ((long) id1 << 32) | (long) id2
+                : ((long) id2 << 32) | (long) id1;
+    }
+
+    static int source(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    static int target(long pair) {
+        return (int) pair;
+    }
+}
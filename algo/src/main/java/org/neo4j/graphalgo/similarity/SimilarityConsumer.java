@@ -1,5 +1,5 @@
 package org.neo4j.graphalgo.similarity;
 
 interface SimilarityConsumer {
-    void accept(int sourceIndex, int targetIndex, SimilarityResult result);
+    void accept(int sourceIndex, int targetIndex, double similarity);
 }
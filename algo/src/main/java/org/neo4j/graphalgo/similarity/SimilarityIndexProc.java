@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.similarity;
+
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.stream.Stream;
+
+public class SimilarityIndexProc {
+
+    @Procedure(name = "algo.similarity.removeIndex", mode = Mode.READ)
+    @Description("CALL algo.similarity.removeIndex(name:String) YIELD name, removed" +
+            " - removes an approximate neighbour index that has been kept with indexName")
+    public Stream<RemovedIndex> removeIndex(@Name("name") String name) {
+        return Stream.of(new RemovedIndex(name, NeighbourIndex.remove(name)));
+    }
+
+    public static final class RemovedIndex {
+        public final String name;
+        public final boolean removed;
+
+        public RemovedIndex(String name, boolean removed) {
+            this.name = name;
+            this.removed = removed;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.neo4j.graphalgo.similarity;
+
+/**
+ * An input of the similarity procedures, identified by the {@code item} of its row.
+ */
+interface SimilarityInput {
+    long getId();
+}
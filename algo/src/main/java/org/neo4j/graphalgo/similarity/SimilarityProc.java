@@ -6,7 +6,6 @@ import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.QueueBasedSpliterator;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
-import org.neo4j.graphalgo.impl.util.TopKConsumer;
 import org.neo4j.graphalgo.impl.yens.SimilarityExporter;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -16,8 +15,10 @@ import org.neo4j.procedure.*;
 import java.util.*;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -25,6 +26,10 @@ import java.util.stream.StreamSupport;
 import static org.neo4j.graphalgo.impl.util.TopKConsumer.topK;
 
 public class SimilarityProc {
+    static final String SOURCE_IDS = "sourceIds";
+    static final String TARGET_IDS = "targetIds";
+    private static final int WEIGHTS_PAGE_SIZE = 1 << 26;
+
     @Context
     public GraphDatabaseAPI api;
     @Context
@@ -32,15 +37,6 @@ public class SimilarityProc {
     @Context
     public KernelTransaction transaction;
 
-    private static TopKConsumer<SimilarityResult>[] initializeTopKConsumers(int length, int topK) {
-        Comparator<SimilarityResult> comparator = topK > 0 ? SimilarityResult.DESCENDING : SimilarityResult.ASCENDING;
-        topK = Math.abs(topK);
-
-        TopKConsumer<SimilarityResult>[] results = new TopKConsumer[length];
-        for (int i = 0; i < results.length; i++) results[i] = new TopKConsumer<>(topK, comparator);
-        return results;
-    }
-
     static Stream<SimilarityResult> topN(Stream<SimilarityResult> stream, int topN) {
         if (topN == 0) {
             return stream;
@@ -91,49 +87,103 @@ public class SimilarityProc {
         return configuration.get("similarityCutoff", -1D);
     }
 
-    <T> Stream<SimilarityResult> similarityStream(T[] inputs, SimilarityComputer<T> computer, ProcedureConfiguration configuration, double cutoff, int topK) {
+    SimilarityCandidates approximateNeighbours(WeightedInput[] inputs, String metricName, NNDescent.Metric metric, ProcedureConfiguration configuration, int topK) {
+        NNDescent nnDescent = new NNDescent(
+                configuration.getInt("k", Math.max(Math.abs(topK), NNDescent.DEFAULT_K)),
+                configuration.getNumber("sampleRate", NNDescent.DEFAULT_SAMPLE_RATE).doubleValue(),
+                configuration.getIterations(NNDescent.DEFAULT_ITERATIONS),
+                configuration.getNumber("delta", NNDescent.DEFAULT_DELTA).doubleValue(),
+                configuration.getNumber("seed", NNDescent.DEFAULT_SEED).longValue());
+        Supplier<SimilarityCandidates> candidates = () -> nnDescent.candidates(inputs, metric, configuration.getConcurrency(), TerminationFlag.wrap(transaction));
+        Optional<String> indexName = configuration.getString("indexName");
+        return indexName.isPresent()
+                ? NeighbourIndex.getOrBuild(indexName.get(), metricName, nnDescent, inputs, candidates)
+                : candidates.get();
+    }
+
+    <T extends SimilarityInput> Stream<SimilarityResult> similarityStream(T[] inputs, SimilarityComputer<T> computer, SimilarityResults results, ProcedureConfiguration configuration, double cutoff, int topK) {
+        return similarityStream(inputs, SimilarityCandidates.ALL_PAIRS, computer, results, configuration, cutoff, topK);
+    }
+
+    <T extends SimilarityInput> Stream<SimilarityResult> similarityStream(T[] inputs, SimilarityCandidates candidates, SimilarityComputer<T> computer, SimilarityResults results, ProcedureConfiguration configuration, double cutoff, int topK) {
+        int length = inputs.length;
+        if (hasSourceOrTargetIds(configuration)) {
+            if (candidates != SimilarityCandidates.ALL_PAIRS) {
+                throw new IllegalArgumentException("sourceIds and targetIds can only be used with candidates:'all'");
+            }
+            int[] sourceIndexes = indexes(inputs, configuration.get(SOURCE_IDS, null));
+            int[] targetIndexes = indexes(inputs, configuration.get(TARGET_IDS, null));
+            Supplier<SourceSimilarityComputer> computers = () -> (sourceId, similarityCutoff, consumer) -> {
+                for (int targetId : targetIndexes) {
+                    if (targetId == sourceId) continue;
+                    double similarity = computer.similarity(inputs[sourceId], inputs[targetId], similarityCutoff);
+                    if (!Double.isNaN(similarity)) {
+                        consumer.accept(sourceId, targetId, similarity);
+                    }
+                }
+            };
+            return similarityStream(sourceIndexes, false, computers, results, configuration, cutoff, topK);
+        }
+        return similarityStream(length, () -> (sourceId, similarityCutoff, consumer) -> computeSimilarityForSourceIndex(sourceId, inputs, candidates, length, similarityCutoff, consumer, computer), results, configuration, cutoff, topK);
+    }
+
+    Stream<SimilarityResult> similarityStream(int length, Supplier<SourceSimilarityComputer> computers, SimilarityResults results, ProcedureConfiguration configuration, double cutoff, int topK) {
+        if (hasSourceOrTargetIds(configuration)) {
+            throw new IllegalArgumentException("sourceIds and targetIds can only be used with candidates:'all'");
+        }
+        return similarityStream(IntStream.range(0, length).toArray(), true, computers, results, configuration, cutoff, topK);
+    }
+
+    /**
+     * @param sources   the indexes of the inputs that are compared with their targets
+     * @param symmetric whether the sources are all inputs and every result also counts for its target, reversed
+     */
+    private Stream<SimilarityResult> similarityStream(int[] sources, boolean symmetric, Supplier<SourceSimilarityComputer> computers, SimilarityResults results, ProcedureConfiguration configuration, double cutoff, int topK) {
         TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
         int concurrency = configuration.getConcurrency();
 
-        int length = inputs.length;
         if (concurrency == 1) {
             if (topK != 0) {
-                return similarityStreamTopK(inputs, length, cutoff, topK, computer);
+                return similarityStreamTopK(computers.get(), sources, symmetric, results, cutoff, topK);
             } else {
-                return similarityStream(inputs, length, cutoff, computer);
+                return similarityStream(computers.get(), sources, results, cutoff);
             }
         } else {
             if (topK != 0) {
-                return similarityParallelStreamTopK(inputs, length, terminationFlag, concurrency, cutoff, topK, computer);
+                return similarityParallelStreamTopK(computers, sources, symmetric, results, terminationFlag, concurrency, cutoff, topK);
             } else {
-                return similarityParallelStream(inputs, length, terminationFlag, concurrency, cutoff, computer);
+                return similarityParallelStream(computers, sources, results, terminationFlag, concurrency, cutoff);
             }
         }
     }
 
-    private <T> Stream<SimilarityResult> similarityStream(T[] inputs, int length, double similiarityCutoff, SimilarityComputer<T> computer) {
-        return IntStream.range(0, length)
-                .boxed().flatMap(sourceId -> IntStream.range(sourceId + 1, length)
-                        .mapToObj(targetId -> computer.similarity(inputs[sourceId],inputs[targetId],similiarityCutoff)).filter(Objects::nonNull));
+    private Stream<SimilarityResult> similarityStream(SourceSimilarityComputer computer, int[] sources, SimilarityResults results, double similiarityCutoff) {
+        return Arrays.stream(sources)
+                .boxed().flatMap(sourceId -> {
+                    List<SimilarityResult> sourceResults = new ArrayList<>();
+                    computer.computeSimilarities(sourceId, similiarityCutoff, (s, t, similarity) -> sourceResults.add(results.result(s, t, similarity)));
+                    return sourceResults.stream();
+                });
     }
 
-    private <T> Stream<SimilarityResult> similarityStreamTopK(T[] inputs, int length, double cutoff, int topK, SimilarityComputer<T> computer) {
-        TopKConsumer<SimilarityResult>[] topKHolder = initializeTopKConsumers(length, topK);
-
-        for (int sourceId = 0;sourceId < length;sourceId++) {
-            computeSimilarityForSourceIndex(sourceId, inputs, length, cutoff, (sourceIndex, targetIndex, similarityResult) -> {
-                topKHolder[sourceIndex].accept(similarityResult);
-                topKHolder[targetIndex].accept(similarityResult.reverse());
-            }, computer);
+    private Stream<SimilarityResult> similarityStreamTopK(SourceSimilarityComputer computer, int[] sources, boolean symmetric, SimilarityResults results, double cutoff, int topK) {
+        TopKSimilarities topKs = new TopKSimilarities(sources.length, topK);
+        for (int index = 0; index < sources.length; index++) {
+            int position = index;
+            computer.computeSimilarities(sources[index], cutoff, (sourceIndex, targetIndex, similarity) -> {
+                topKs.accept(position, targetIndex, similarity);
+                if (symmetric) topKs.accept(targetIndex, sourceIndex, similarity);
+            });
         }
-        return Arrays.stream(topKHolder).flatMap(TopKConsumer::stream);
+        return topKs.stream(sources, results);
     }
 
-    private <T> Stream<SimilarityResult> similarityParallelStream(T[] inputs, int length, TerminationFlag terminationFlag, int concurrency, double cutoff, SimilarityComputer<T> computer) {
+    private Stream<SimilarityResult> similarityParallelStream(Supplier<SourceSimilarityComputer> computers, int[] sources, SimilarityResults results, TerminationFlag terminationFlag, int concurrency, double cutoff) {
 
         int timeout = 100;
         int queueSize = 1000;
 
+        int length = sources.length;
         int batchSize = ParallelUtil.adjustBatchSize(length, concurrency, 1);
         int taskCount = (length / batchSize) + (length % batchSize > 0 ? 1 : 0);
         Collection<Runnable> tasks = new ArrayList<>(taskCount);
@@ -144,17 +194,18 @@ public class SimilarityProc {
         for (int taskId = 0; taskId < taskCount; taskId++) {
             int taskOffset = taskId;
             tasks.add(() -> {
+                SourceSimilarityComputer computer = computers.get();
                 for (int offset = 0; offset < batchSize; offset++) {
-                    int sourceId = taskOffset * multiplier + offset;
-                    if (sourceId < length)
-                        computeSimilarityForSourceIndex(sourceId, inputs, length, cutoff, (s, t, result) -> put(queue, result), computer);
+                    int index = taskOffset * multiplier + offset;
+                    if (index < length)
+                        computer.computeSimilarities(sources[index], cutoff, (s, t, similarity) -> put(queue, results.result(s, t, similarity)));
                 }
             });
         }
 
         new Thread(() -> {
             try {
-                ParallelUtil.runWithConcurrency(concurrency, tasks, terminationFlag, Pools.DEFAULT);
+                ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, terminationFlag, Pools.DEFAULT);
             } finally {
                 put(queue, SimilarityResult.TOMB);
             }
@@ -164,29 +215,66 @@ public class SimilarityProc {
         return StreamSupport.stream(spliterator, false);
     }
 
-    private <T> Stream<SimilarityResult> similarityParallelStreamTopK(T[] inputs, int length, TerminationFlag terminationFlag, int concurrency, double cutoff, int topK, SimilarityComputer<T> computer) {
+    private Stream<SimilarityResult> similarityParallelStreamTopK(Supplier<SourceSimilarityComputer> computers, int[] sources, boolean symmetric, SimilarityResults results, TerminationFlag terminationFlag, int concurrency, double cutoff, int topK) {
+        int length = sources.length;
         int batchSize = ParallelUtil.adjustBatchSize(length, concurrency, 1);
         int taskCount = (length / batchSize) + (length % batchSize > 0 ? 1 : 0);
-        Collection<TopKTask> tasks = new ArrayList<>(taskCount);
+        List<TopKTask> tasks = new ArrayList<>(taskCount);
 
         int multiplier = batchSize < length ? batchSize : 1;
         for (int taskId = 0; taskId < taskCount; taskId++) {
-            tasks.add(new TopKTask(batchSize, taskId, multiplier, length, inputs, cutoff, topK, computer));
+            tasks.add(new TopKTask(batchSize, taskId, multiplier, sources, symmetric, computers, cutoff, topK));
         }
-        ParallelUtil.runWithConcurrency(concurrency, tasks, terminationFlag, Pools.DEFAULT);
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 10L, TimeUnit.MICROSECONDS, terminationFlag, Pools.DEFAULT);
 
-        TopKConsumer<SimilarityResult>[] topKConsumers = initializeTopKConsumers(length, topK);
-        for (Runnable task : tasks) ((TopKTask)task).mergeInto(topKConsumers);
-        return Arrays.stream(topKConsumers).flatMap(TopKConsumer::stream);
+        if (tasks.isEmpty()) {
+            return Stream.empty();
+        }
+        TopKSimilarities topKs = tasks.get(0).topKs;
+        for (int i = 1; i < tasks.size(); i++) topKs.merge(tasks.get(i).topKs);
+        return topKs.stream(sources, results);
     }
 
-    private <T> void computeSimilarityForSourceIndex(int sourceId, T[] inputs, int length, double cutoff, SimilarityConsumer consumer, SimilarityComputer<T> computer) {
-        for (int targetId=sourceId+1;targetId<length;targetId++) {
-            SimilarityResult similarity = computer.similarity(inputs[sourceId], inputs[targetId],cutoff);
-            if (similarity != null) {
-                consumer.accept(sourceId, targetId, similarity);
+    private static boolean hasSourceOrTargetIds(ProcedureConfiguration configuration) {
+        return configuration.get(SOURCE_IDS) != null || configuration.get(TARGET_IDS) != null;
+    }
+
+    /**
+     * @return the indexes of the inputs with the given ids in ascending order, all inputs if the ids are {@code null}
+     */
+    private static int[] indexes(SimilarityInput[] inputs, List<Number> ids) {
+        if (ids == null) {
+            return IntStream.range(0, inputs.length).toArray();
+        }
+        long[] sortedIds = new long[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            sortedIds[i] = inputs[i].getId();
+        }
+        // unknown ids and ids of inputs that have been removed by the degreeCutoff are ignored
+        return ids.stream()
+                .mapToInt(id -> Arrays.binarySearch(sortedIds, id.longValue()))
+                .filter(index -> index >= 0)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private <T> void computeSimilarityForSourceIndex(int sourceId, T[] inputs, SimilarityCandidates candidates, int length, double cutoff, SimilarityConsumer consumer, SimilarityComputer<T> computer) {
+        if (candidates == SimilarityCandidates.ALL_PAIRS) {
+            for (int targetId=sourceId+1;targetId<length;targetId++) {
+                double similarity = computer.similarity(inputs[sourceId], inputs[targetId],cutoff);
+                if (!Double.isNaN(similarity)) {
+                    consumer.accept(sourceId, targetId, similarity);
+                }
             }
+            return;
         }
+        candidates.targets(sourceId, length).forEach(targetId -> {
+            double similarity = computer.similarity(inputs[sourceId], inputs[targetId],cutoff);
+            if (!Double.isNaN(similarity)) {
+                consumer.accept(sourceId, targetId, similarity);
+            }
+        });
     }
 
     CategoricalInput[] prepareCategories(List<Map<String, Object>> data, long degreeCutoff) {
@@ -211,24 +299,43 @@ public class SimilarityProc {
     }
 
     WeightedInput[] prepareWeights(List<Map<String, Object>> data, long degreeCutoff) {
-        WeightedInput[] inputs = new WeightedInput[data.size()];
-        int idx = 0;
+        List<Map.Entry<Long, List<Number>>> rows = new ArrayList<>(data.size());
+        long totalLength = 0L;
+        int maxLength = 0;
         for (Map<String, Object> row : data) {
 
             List<Number> weightList = extractValues(row.get("weights"));
 
             int size = weightList.size();
             if ( size > degreeCutoff) {
-                double[] weights = new double[size];
-                int i=0;
-                for (Number value : weightList) {
-                    weights[i++]=value.doubleValue();
-                }
-                inputs[idx++] = new WeightedInput((Long) row.get("item"), weights);
+                rows.add(new AbstractMap.SimpleImmutableEntry<>((Long) row.get("item"), weightList));
+                totalLength += size;
+                maxLength = Math.max(maxLength, size);
+            }
+        }
+        rows.sort(Map.Entry.comparingByKey());
+
+        // the weights of consecutive inputs are stored next to each other in a few large pages
+        int pageSize = Math.max(maxLength, WEIGHTS_PAGE_SIZE);
+        WeightedInput[] inputs = new WeightedInput[rows.size()];
+        double[] page = new double[0];
+        int offset = 0;
+        long remaining = totalLength;
+        for (int idx = 0; idx < inputs.length; idx++) {
+            List<Number> weightList = rows.get(idx).getValue();
+            int size = weightList.size();
+            if (offset + size > page.length) {
+                page = new double[(int) Math.max(size, Math.min(remaining, pageSize))];
+                offset = 0;
+            }
+            int i = offset;
+            for (Number value : weightList) {
+                page[i++]=value.doubleValue();
             }
+            inputs[idx] = new WeightedInput(rows.get(idx).getKey(), page, offset, size);
+            offset += size;
+            remaining -= size;
         }
-        if (idx != inputs.length) inputs = Arrays.copyOf(inputs, idx);
-        Arrays.sort(inputs);
         return inputs;
     }
 
@@ -262,47 +369,61 @@ public class SimilarityProc {
         return configuration.getInt("top",0);
     }
 
+    /**
+     * Computes the similarity of a pair, or {@code NaN} if the pair does not pass the cutoff.
+     */
     interface SimilarityComputer<T> {
-        SimilarityResult similarity(T source, T target, double cutoff);
+        double similarity(T source, T target, double cutoff);
     }
 
-    private class TopKTask<T> implements Runnable {
+    /**
+     * Creates the result of a pair of input indexes from its similarity, only called for results that are emitted.
+     */
+    interface SimilarityResults {
+        SimilarityResult result(int sourceIndex, int targetIndex, double similarity);
+    }
+
+    /**
+     * Computes the similarities of a source to all of its targets with an id greater than the source.
+     * An instance is only used by a single thread and can keep state between sources.
+     */
+    interface SourceSimilarityComputer {
+        void computeSimilarities(int sourceId, double cutoff, SimilarityConsumer consumer);
+    }
+
+    private class TopKTask implements Runnable {
         private final int batchSize;
         private final int taskOffset;
         private final int multiplier;
-        private final int length;
-        private final T[] ids;
+        private final int[] sources;
+        private final boolean symmetric;
+        private final Supplier<SourceSimilarityComputer> computers;
         private final double similiarityCutoff;
-        private final SimilarityComputer computer;
-        private final TopKConsumer<SimilarityResult>[] topKConsumers;
+        private final TopKSimilarities topKs;
 
-        TopKTask(int batchSize, int taskOffset, int multiplier, int length, T[] ids, double similiarityCutoff, int topK, SimilarityComputer computer) {
+        TopKTask(int batchSize, int taskOffset, int multiplier, int[] sources, boolean symmetric, Supplier<SourceSimilarityComputer> computers, double similiarityCutoff, int topK) {
             this.batchSize = batchSize;
             this.taskOffset = taskOffset;
             this.multiplier = multiplier;
-            this.length = length;
-            this.ids = ids;
+            this.sources = sources;
+            this.symmetric = symmetric;
+            this.computers = computers;
             this.similiarityCutoff = similiarityCutoff;
-            this.computer = computer;
-            topKConsumers = initializeTopKConsumers(length, topK);
+            topKs = new TopKSimilarities(sources.length, topK);
         }
 
         @Override
         public void run() {
+            SourceSimilarityComputer computer = computers.get();
             for (int offset = 0; offset < batchSize; offset++) {
-                int sourceId = taskOffset * multiplier + offset;
-                if (sourceId < length) {
-                    computeSimilarityForSourceIndex(sourceId, ids, length, similiarityCutoff, (s, t, result) -> {
-                        topKConsumers[s].accept(result);
-                        topKConsumers[t].accept(result.reverse());
-                    }, computer);
+                int index = taskOffset * multiplier + offset;
+                if (index < sources.length) {
+                    computer.computeSimilarities(sources[index], similiarityCutoff, (s, t, similarity) -> {
+                        topKs.accept(index, t, similarity);
+                        if (symmetric) topKs.accept(t, s, similarity);
+                    });
                 }
             }
         }
-        void mergeInto(TopKConsumer<SimilarityResult>[] target) {
-            for (int i = 0; i < target.length; i++) {
-                target[i].accept(topKConsumers[i]);
-            }
-        }
     }
 }
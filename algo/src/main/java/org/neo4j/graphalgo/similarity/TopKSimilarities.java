@@ -0,0 +1,125 @@
+package org.neo4j.graphalgo.similarity;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The best {@code k} targets of many sources, kept in bounded heaps of (target index, similarity)
+ * that are stored in slices of {@code k} entries of parallel arrays.
+ * <p>
+ * Positive values of {@code topK} keep the highest similarities, negative values the lowest ones.
+ * Ties are broken by the lower target index, so that the result does not depend on the order
+ * in which the similarities are accepted or merged. The root of every heap is its worst entry.
+ * {@link SimilarityResult}s are only created when the results are streamed.
+ */
+final class TopKSimilarities {
+
+    private final int k;
+    private final boolean descending;
+    private final int[] targets;
+    private final double[] similarities;
+    private final int[] sizes;
+
+    TopKSimilarities(int length, int topK) {
+        this.k = Math.abs(topK);
+        this.descending = topK > 0;
+        this.targets = new int[length * k];
+        this.similarities = new double[length * k];
+        this.sizes = new int[length];
+    }
+
+    void accept(int position, int target, double similarity) {
+        int offset = position * k;
+        int size = sizes[position];
+        if (size < k) {
+            sizes[position] = size + 1;
+            siftUp(offset, size, target, similarity);
+        } else if (better(similarity, target, similarities[offset], targets[offset])) {
+            siftDown(offset, size, 0, target, similarity);
+        }
+    }
+
+    /**
+     * Accepts all entries of the other heaps, which must have been created with the same length and topK.
+     */
+    void merge(TopKSimilarities other) {
+        for (int position = 0; position < sizes.length; position++) {
+            int offset = position * k;
+            for (int i = offset, end = offset + other.sizes[position]; i < end; i++) {
+                accept(position, other.targets[i], other.similarities[i]);
+            }
+        }
+    }
+
+    /**
+     * Streams the results of every source, best first. The heaps are sorted in place and must not be used afterwards.
+     *
+     * @param sources the source index of every position
+     */
+    Stream<SimilarityResult> stream(int[] sources, SimilarityProc.SimilarityResults results) {
+        return IntStream.range(0, sizes.length).boxed().flatMap(position -> {
+            int size = sort(position);
+            int offset = position * k;
+            SimilarityResult[] sourceResults = new SimilarityResult[size];
+            for (int i = 0; i < size; i++) {
+                sourceResults[i] = results.result(sources[position], targets[offset + i], similarities[offset + i]);
+            }
+            return Stream.of(sourceResults);
+        });
+    }
+
+    /**
+     * Heap sort of a slice, which leaves the best entry first.
+     */
+    private int sort(int position) {
+        int offset = position * k;
+        int size = sizes[position];
+        for (int last = size - 1; last > 0; last--) {
+            int worstTarget = targets[offset];
+            double worstSimilarity = similarities[offset];
+            siftDown(offset, last, 0, targets[offset + last], similarities[offset + last]);
+            targets[offset + last] = worstTarget;
+            similarities[offset + last] = worstSimilarity;
+        }
+        return size;
+    }
+
+    private void siftUp(int offset, int index, int target, double similarity) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(similarities[offset + parent], targets[offset + parent], similarity, target)) {
+                break;
+            }
+            targets[offset + index] = targets[offset + parent];
+            similarities[offset + index] = similarities[offset + parent];
+            index = parent;
+        }
+        targets[offset + index] = target;
+        similarities[offset + index] = similarity;
+    }
+
+    private void siftDown(int offset, int size, int index, int target, double similarity) {
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && better(similarities[offset + child], targets[offset + child], similarities[offset + child + 1], targets[offset + child + 1])) {
+                child++;
+            }
+            if (!better(similarity, target, similarities[offset + child], targets[offset + child])) {
+                break;
+            }
+            targets[offset + index] = targets[offset + child];
+            similarities[offset + index] = similarities[offset + child];
+            index = child;
+        }
+        targets[offset + index] = target;
+        similarities[offset + index] = similarity;
+    }
+
+    private boolean better(double similarity1, int target1, double similarity2, int target2) {
+        int compare = Double.compare(similarity1, similarity2);
+        if (compare == 0) {
+            return target1 < target2;
+        }
+        return descending ? compare > 0 : compare < 0;
+    }
+}
@@ -2,48 +2,65 @@ package org.neo4j.graphalgo.similarity;
 
 import org.neo4j.graphalgo.core.utils.Intersections;
 
-import java.util.stream.DoubleStream;
-
-class WeightedInput implements  Comparable<WeightedInput> {
+/**
+ * The weights of an input are a slice of a page that is shared by many inputs,
+ * see {@link SimilarityProc#prepareWeights(java.util.List, long)}.
+ */
+class WeightedInput implements SimilarityInput, Comparable<WeightedInput> {
     long id;
-    double[] weights;
+    double[] page;
+    int offset;
+    int length;
     int count;
 
     public WeightedInput(long id, double[] weights) {
+        this(id, weights, 0, weights.length);
+    }
+
+    public WeightedInput(long id, double[] page, int offset, int length) {
         this.id = id;
-        this.weights = weights;
-        for (double weight : weights) {
-            if (weight!=0d) this.count++;
+        this.page = page;
+        this.offset = offset;
+        this.length = length;
+        for (int i = offset; i < offset + length; i++) {
+            if (page[i]!=0d) this.count++;
         }
     }
 
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    double weight(int index) {
+        return page[offset + index];
+    }
+
     @Override
     public int compareTo(WeightedInput o) {
         return Long.compare(id, o.id);
     }
 
-    SimilarityResult sumSquareDelta(double similarityCutoff, WeightedInput other) {
-        int len = Math.min(weights.length, other.weights.length);
-        double sumSquareDelta = Intersections.sumSquareDelta(weights, other.weights, len);
-        long intersection = 0;
-        /* todo
-        for (int i = 0; i < len; i++) {
-            if (weights[i] == other.weights[i] && weights[i] != 0d) intersection++;
-        }
-        */
-        if (similarityCutoff >= 0d && sumSquareDelta > similarityCutoff) return null;
-        return new SimilarityResult(id, other.id, count, other.count, intersection, sumSquareDelta);
+    double sumSquareDelta(double similarityCutoff, WeightedInput other) {
+        int len = Math.min(length, other.length);
+        double sumSquareDelta = Intersections.sumSquareDelta(page, offset, other.page, other.offset, len);
+        if (similarityCutoff >= 0d && sumSquareDelta > similarityCutoff) return Double.NaN;
+        return sumSquareDelta;
     }
-    SimilarityResult cosineSquares(double similarityCutoff, WeightedInput other) {
-        int len = Math.min(weights.length, other.weights.length);
-        double cosineSquares = Intersections.cosineSquare(weights, other.weights, len);
+    double cosineSquares(double similarityCutoff, WeightedInput other) {
+        int len = Math.min(length, other.length);
+        double cosineSquares = Intersections.cosineSquare(page, offset, other.page, other.offset, len);
+        if (similarityCutoff >= 0d && (cosineSquares == 0 || cosineSquares < similarityCutoff)) return Double.NaN;
+        return cosineSquares;
+    }
+
+    SimilarityResult result(WeightedInput other, double similarity) {
         long intersection = 0;
         /* todo
         for (int i = 0; i < len; i++) {
             if (weights[i] == other.weights[i] && weights[i] != 0d) intersection++;
         }
         */
-        if (similarityCutoff >= 0d && (cosineSquares == 0 || cosineSquares < similarityCutoff)) return null;
-        return new SimilarityResult(id, other.id, count, other.count, intersection, cosineSquares);
+        return new SimilarityResult(id, other.id, count, other.count, intersection, similarity);
     }
 }
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.walking;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.impl.walking.EmbeddingResult;
+import org.neo4j.graphalgo.impl.walking.HugeNode2Vec;
+import org.neo4j.graphalgo.impl.walking.NodeEmbeddings;
+import org.neo4j.graphalgo.impl.walking.NodeWalker;
+import org.neo4j.graphalgo.impl.walking.SkipGram;
+import org.neo4j.graphalgo.results.Node2VecEmbeddingResult;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public final class Node2VecEmbeddingProc {
+
+    public static final String CONFIG_DIMENSIONS = "dimensions";
+    public static final String CONFIG_WALK_LENGTH = "walkLength";
+    public static final String CONFIG_WALKS_PER_NODE = "walksPerNode";
+    public static final String CONFIG_WINDOW_SIZE = "windowSize";
+    public static final String CONFIG_NEGATIVE_SAMPLES = "negativeSamples";
+    public static final String CONFIG_LEARNING_RATE = "learningRate";
+    public static final String CONFIG_MIN_LEARNING_RATE = "minLearningRate";
+    public static final String DEFAULT_WRITE_PROPERTY = "embedding";
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Context
+    public Log log;
+
+    @Context
+    public KernelTransaction transaction;
+
+    @Procedure(value = "algo.embedding.node2vec", mode = Mode.WRITE)
+    @Description("CALL algo.embedding.node2vec(label:String, relationship:String, " +
+            "{dimensions:128, walkLength:80, walksPerNode:10, windowSize:10, negativeSamples:5, learningRate:0.025, minLearningRate:0.0001, " +
+            "return:1.0, inOut:1.0, weightProperty:null, graph:'heavy/huge/cypher', direction:'BOTH', concurrency:4, write:true, writeProperty:'embedding'}) " +
+            "YIELD loadMillis, computeMillis, writeMillis, nodes, walks, walkNodes, dimensions, write, writeProperty" +
+            " - trains node2vec embeddings on random walks and potentially writes them back as float array properties")
+    public Stream<Node2VecEmbeddingResult> node2vec(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config)
+                .overrideNodeLabelOrQuery(label)
+                .overrideRelationshipTypeOrQuery(relationship);
+
+        Node2VecEmbeddingResult.Builder builder = Node2VecEmbeddingResult.builder();
+        AllocationTracker tracker = AllocationTracker.create();
+
+        final Graph graph;
+        try (ProgressTimer timer = builder.timeLoad()) {
+            graph = load(configuration, tracker);
+        }
+        builder.withNodes(graph.nodeCount());
+
+        if (graph.nodeCount() == 0) {
+            graph.release();
+            return Stream.of(builder.build());
+        }
+
+        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        SkipGram skipGram;
+        try (ProgressTimer timer = builder.timeEval()) {
+            skipGram = train(graph, configuration, terminationFlag, tracker);
+        }
+        NodeEmbeddings embeddings = skipGram.embeddings();
+        builder.withWalks(skipGram.walks())
+                .withWalkNodes(skipGram.nodes())
+                .withDimensions(embeddings.dimensions());
+
+        log.info("Node2Vec embedding: overall memory usage: %s", tracker.getUsageString());
+
+        if (configuration.isWriteFlag()) {
+            String writeProperty = configuration.getWriteProperty(DEFAULT_WRITE_PROPERTY);
+            builder.withWrite(true).withWriteProperty(writeProperty);
+            builder.timeWrite(() -> Exporter.of(api, graph)
+                    .withLog(log)
+                    .parallel(Pools.DEFAULT, configuration.getConcurrency(), terminationFlag)
+                    .build()
+                    .write(writeProperty, embeddings, NodeEmbeddings.Translator.INSTANCE));
+        }
+
+        skipGram.release();
+        graph.release();
+        return Stream.of(builder.build());
+    }
+
+    @Procedure(value = "algo.embedding.node2vec.stream", mode = Mode.READ)
+    @Description("CALL algo.embedding.node2vec.stream(label:String, relationship:String, " +
+            "{dimensions:128, walkLength:80, walksPerNode:10, windowSize:10, negativeSamples:5, learningRate:0.025, minLearningRate:0.0001, " +
+            "return:1.0, inOut:1.0, weightProperty:null, graph:'heavy/huge/cypher', direction:'BOTH', concurrency:4}) " +
+            "YIELD nodeId, embedding - trains node2vec embeddings on random walks and streams them")
+    public Stream<EmbeddingResult> node2vecStream(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config)
+                .overrideNodeLabelOrQuery(label)
+                .overrideRelationshipTypeOrQuery(relationship);
+
+        AllocationTracker tracker = AllocationTracker.create();
+        Graph graph = load(configuration, tracker);
+
+        if (graph.nodeCount() == 0) {
+            graph.release();
+            return Stream.empty();
+        }
+
+        SkipGram skipGram = train(graph, configuration, TerminationFlag.wrap(transaction), tracker);
+        NodeEmbeddings embeddings = skipGram.embeddings();
+
+        log.info("Node2Vec embedding: overall memory usage: %s", tracker.getUsageString());
+
+        return IntStream.range(0, Math.toIntExact(graph.nodeCount()))
+                .mapToObj(node -> new EmbeddingResult(graph.toOriginalNodeId(node), embeddings.toList(node)));
+    }
+
+    private Graph load(ProcedureConfiguration configuration, AllocationTracker tracker) {
+        return new GraphLoader(api, Pools.DEFAULT)
+                .init(log, configuration.getNodeLabelOrQuery(), configuration.getRelationshipOrQuery(), configuration)
+                .withAllocationTracker(tracker)
+                .withDirection(configuration.getDirection(Direction.BOTH))
+                .withoutNodeProperties()
+                .withoutNodeWeights()
+                .withOptionalRelationshipWeightsFromProperty(configuration.getWeightProperty(), configuration.getWeightPropertyDefaultValue(1.0))
+                .load(configuration.getGraphImpl());
+    }
+
+    private SkipGram train(Graph graph, ProcedureConfiguration configuration, TerminationFlag terminationFlag, AllocationTracker tracker) {
+        Direction direction = configuration.getDirection(Direction.BOTH);
+        int concurrency = configuration.getConcurrency();
+        double returnParam = configuration.getNumber("return", 1d).doubleValue();
+        double inOutParam = configuration.getNumber("inOut", 1d).doubleValue();
+
+        NodeWalker.NextNodeStrategy strategy;
+        if (graph instanceof HugeGraph) {
+            HugeNode2Vec node2Vec = HugeNode2Vec.of((HugeGraph) graph, direction, configuration.hasWeightProperty(), returnParam, inOutParam, concurrency, terminationFlag, tracker);
+            strategy = new NodeWalker.HugeNode2VecStrategy((HugeGraph) graph, node2Vec, tracker);
+        } else {
+            strategy = new NodeWalker.Node2VecStrategy(graph, graph, returnParam, inOutParam);
+        }
+
+        try {
+            return new SkipGram(
+                    graph,
+                    strategy,
+                    direction,
+                    configuration.getInt(CONFIG_DIMENSIONS, SkipGram.DEFAULT_DIMENSIONS),
+                    configuration.getInt(CONFIG_WALK_LENGTH, SkipGram.DEFAULT_WALK_LENGTH),
+                    configuration.getInt(CONFIG_WALKS_PER_NODE, SkipGram.DEFAULT_WALKS_PER_NODE),
+                    configuration.getInt(CONFIG_WINDOW_SIZE, SkipGram.DEFAULT_WINDOW_SIZE),
+                    configuration.getInt(CONFIG_NEGATIVE_SAMPLES, SkipGram.DEFAULT_NEGATIVE_SAMPLES),
+                    configuration.getNumber(CONFIG_LEARNING_RATE, SkipGram.DEFAULT_LEARNING_RATE).doubleValue(),
+                    configuration.getNumber(CONFIG_MIN_LEARNING_RATE, SkipGram.DEFAULT_MIN_LEARNING_RATE).doubleValue(),
+                    concurrency,
+                    tracker)
+                    .withLog(log)
+                    .withTerminationFlag(terminationFlag)
+                    .compute();
+        } finally {
+            strategy.release();
+        }
+    }
+}
@@ -19,15 +19,19 @@
 package org.neo4j.graphalgo.walking;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.utils.*;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.impl.walking.HugeNode2Vec;
 import org.neo4j.graphalgo.impl.walking.NodeWalker;
+import org.neo4j.graphalgo.impl.walking.WalkCorpus;
 import org.neo4j.graphalgo.impl.walking.WalkPath;
 import org.neo4j.graphalgo.impl.walking.WalkResult;
 import org.neo4j.graphalgo.results.PageRankScore;
+import org.neo4j.graphalgo.results.WalkCorpusResult;
 import org.neo4j.graphdb.*;
 import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -35,6 +39,8 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.stream.*;
@@ -52,7 +58,7 @@ public class NodeWalkerProc  {
 
 
     @Procedure(name = "algo.randomWalk.stream", mode = Mode.READ)
-    @Description("CALL algo.randomWalk.stream(start:null=all/[ids]/label, steps, walks, {graph: 'heavy/cypher', nodeQuery:nodeLabel/query, relationshipQuery:relType/query, mode:random/node2vec, return:1.0, inOut:1.0, path:false/true concurrency:4, direction:'BOTH'}) " +
+    @Description("CALL algo.randomWalk.stream(start:null=all/[ids]/label, steps, walks, {graph: 'heavy/huge/cypher', nodeQuery:nodeLabel/query, relationshipQuery:relType/query, mode:random/node2vec, return:1.0, inOut:1.0, weightProperty:null, path:false/true concurrency:4, direction:'BOTH'}) " +
             "YIELD nodes, path - computes random walks from given starting points")
     public Stream<WalkResult> randomWalk(
             @Name(value = "start", defaultValue = "null") Object start,
@@ -73,7 +79,7 @@ public class NodeWalkerProc  {
 
         final Graph graph = load(label, relationship, tracker, configuration.getGraphImpl(), statsBuilder, configuration);
 
-        int nodeCount = Math.toIntExact(graph.nodeCount());
+        long nodeCount = graph.nodeCount();
 
         if(nodeCount == 0) {
             graph.release();
@@ -81,21 +87,17 @@ public class NodeWalkerProc  {
         }
 
 
-        Number returnParam = configuration.get("return", 1d);
-        Number inOut = configuration.get("inOut", 1d);
-        NodeWalker.NextNodeStrategy strategy = configuration.get("mode","random").equalsIgnoreCase("random") ?
-                new NodeWalker.RandomNextNodeStrategy(graph, graph) :
-                new NodeWalker.Node2VecStrategy(graph,graph, returnParam.doubleValue(), inOut.doubleValue());
-
         TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
 
         int concurrency = configuration.getConcurrency();
 
+        NodeWalker.NextNodeStrategy strategy = strategy(graph, configuration, direction, terminationFlag, tracker);
+
         Boolean returnPath = configuration.get("path", false);
 
-        int limit = (walks == -1) ? nodeCount : Math.toIntExact(walks);
+        long limit = (walks == -1) ? nodeCount : walks;
 
-        PrimitiveIterator.OfInt idStream = IntStream.range(0, limit).unordered().parallel().flatMap((s) -> idStream(start, graph, limit)).limit(limit).iterator();
+        PrimitiveIterator.OfLong idStream = LongStream.range(0, limit).unordered().parallel().flatMap((s) -> idStream(start, graph, limit)).limit(limit).iterator();
 
         Stream<long[]> randomWalks = new NodeWalker().randomWalk(graph, (int) steps, strategy, terminationFlag, concurrency, limit, idStream);
         return randomWalks
@@ -103,8 +105,82 @@ public class NodeWalkerProc  {
     }
 
 
-    private IntStream idStream(@Name(value = "start", defaultValue = "null") Object start, Graph graph, int limit) {
-        int nodeCount = Math.toIntExact(graph.nodeCount());
+    @Procedure(name = "algo.randomWalk", mode = Mode.WRITE)
+    @Description("CALL algo.randomWalk(start:null=all/[ids]/label, steps, walks, {file:'walks.bin', overwrite:false, format:'varint/fixed', graph: 'heavy/huge/cypher', nodeQuery:nodeLabel/query, relationshipQuery:relType/query, mode:random/node2vec, return:1.0, inOut:1.0, weightProperty:null, concurrency:4, direction:'BOTH'}) " +
+            "YIELD loadMillis, computeMillis, file, format, walks, nodes, bytes - writes random walks from given starting points to a binary file, " +
+            "the file is resolved against the directory configured with " + GraphFileDirectory.SETTING)
+    public Stream<WalkCorpusResult> randomWalkToFile(
+            @Name(value = "start", defaultValue = "null") Object start,
+            @Name(value = "steps", defaultValue = "10") long steps,
+            @Name(value = "walks", defaultValue = "1") long walks,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) throws IOException {
+
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+
+        String file = configuration.getString("file")
+                .orElseThrow(() -> new IllegalArgumentException("The file to write the walks to is missing, set it with {file:'...'}"));
+        Path path = GraphFileDirectory.resolve(api, file);
+        boolean overwrite = configuration.get("overwrite", false);
+        WalkCorpus.Format format = WalkCorpus.Format.parse(configuration.getString("format", "varint"));
+
+        WalkCorpusResult.Builder builder = WalkCorpusResult.builder();
+        builder.withFile(path.toString()).withFormat(format.name().toLowerCase());
+
+        AllocationTracker tracker = AllocationTracker.create();
+
+        Direction direction = configuration.getDirection(Direction.BOTH);
+
+        String label = configuration.getNodeLabelOrQuery();
+        String relationship = configuration.getRelationshipOrQuery();
+
+        final Graph graph;
+        try (ProgressTimer timer = builder.timeLoad()) {
+            graph = load(label, relationship, tracker, configuration.getGraphImpl(), new PageRankScore.Stats.Builder(), configuration);
+        }
+
+        long nodeCount = graph.nodeCount();
+
+        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+
+        int concurrency = configuration.getConcurrency();
+
+        try (ProgressTimer timer = builder.timeEval();
+             WalkCorpus corpus = WalkCorpus.create(path, format, overwrite)) {
+            if (nodeCount > 0) {
+                NodeWalker.NextNodeStrategy strategy = strategy(graph, configuration, direction, terminationFlag, tracker);
+
+                long limit = (walks == -1) ? nodeCount : walks;
+
+                PrimitiveIterator.OfLong idStream = LongStream.range(0, limit).unordered().parallel().flatMap((s) -> idStream(start, graph, limit)).limit(limit).iterator();
+
+                new NodeWalker().randomWalk(graph, (int) steps, strategy, terminationFlag, concurrency, limit, idStream, corpus);
+            }
+            builder.withWalks(corpus.walks()).withNodes(corpus.nodes()).withBytes(corpus.bytes());
+        } finally {
+            graph.release();
+        }
+
+        return Stream.of(builder.build());
+    }
+
+    private NodeWalker.NextNodeStrategy strategy(Graph graph, ProcedureConfiguration configuration, Direction direction, TerminationFlag terminationFlag, AllocationTracker tracker) {
+        Number returnParam = configuration.get("return", 1d);
+        Number inOut = configuration.get("inOut", 1d);
+        if (configuration.get("mode","random").equalsIgnoreCase("random")) {
+            if (graph instanceof HugeGraph) {
+                return new NodeWalker.HugeRandomNextNodeStrategy((HugeGraph) graph);
+            }
+            return new NodeWalker.RandomNextNodeStrategy(graph, graph);
+        } else if (graph instanceof HugeGraph) {
+            HugeNode2Vec node2Vec = HugeNode2Vec.of((HugeGraph) graph, direction, configuration.hasWeightProperty(), returnParam.doubleValue(), inOut.doubleValue(), configuration.getConcurrency(), terminationFlag, tracker);
+            return new NodeWalker.HugeNode2VecStrategy((HugeGraph) graph, node2Vec, tracker);
+        } else {
+            return new NodeWalker.Node2VecStrategy(graph,graph, returnParam.doubleValue(), inOut.doubleValue());
+        }
+    }
+
+    private LongStream idStream(@Name(value = "start", defaultValue = "null") Object start, Graph graph, long limit) {
+        long nodeCount = graph.nodeCount();
         if (start instanceof String) {
             String label = start.toString();
             int labelId = transaction.tokenRead().nodeLabel(label);
@@ -117,23 +193,29 @@ public class NodeWalkerProc  {
                 ids = LongStream.range(0, countWithLabel).map( i -> cursor.next() ? cursor.nodeReference() : -1L );
             } else {
                 int[] indexes = ThreadLocalRandom.current().ints(limit + 1, 0, countWithLabel).sorted().toArray();
-                IntStream deltas = IntStream.range(0, limit).map(i -> indexes[i + 1] - indexes[i]);
+                IntStream deltas = IntStream.range(0, Math.toIntExact(limit)).map(i -> indexes[i + 1] - indexes[i]);
                 ids = deltas.mapToLong(delta -> { while (delta > 0 && cursor.next()) delta--;return cursor.nodeReference(); });
             }
-            return ids.mapToInt(graph::toMappedNodeId).onClose(cursor::close);
+            return ids.map(nodeId -> toMappedNodeId(graph, nodeId)).onClose(cursor::close);
         } else if (start instanceof Collection) {
-            return ((Collection)start).stream().mapToLong(e -> ((Number)e).longValue()).mapToInt(graph::toMappedNodeId);
+            return ((Collection)start).stream().mapToLong(e -> ((Number)e).longValue()).map(nodeId -> toMappedNodeId(graph, (long) nodeId));
         } else if (start instanceof Number) {
-            return LongStream.of(((Number)start).longValue()).mapToInt(graph::toMappedNodeId);
+            return LongStream.of(((Number)start).longValue()).map(nodeId -> toMappedNodeId(graph, nodeId));
         } else {
             if (nodeCount < limit) {
-                return IntStream.range(0,nodeCount).limit(limit);
+                return LongStream.range(0,nodeCount).limit(limit);
             } else {
-                return IntStream.generate(() -> ThreadLocalRandom.current().nextInt(nodeCount)).limit(limit);
+                return LongStream.generate(() -> ThreadLocalRandom.current().nextLong(nodeCount)).limit(limit);
             }
         }
     }
 
+    private static long toMappedNodeId(Graph graph, long nodeId) {
+        return graph instanceof HugeGraph
+                ? ((HugeGraph) graph).toHugeMappedNodeId(nodeId)
+                : graph.toMappedNodeId(nodeId);
+    }
+
     private Graph load(
             String label,
             String relationship,
@@ -147,7 +229,7 @@ public class NodeWalkerProc  {
                 .withDirection(configuration.getDirection(Direction.BOTH))
                 .withoutNodeProperties()
                 .withoutNodeWeights()
-                .withoutRelationshipWeights();
+                .withOptionalRelationshipWeightsFromProperty(configuration.getWeightProperty(), configuration.getWeightPropertyDefaultValue(1.0));
 
 
         try (ProgressTimer timer = ProgressTimer.start()) {
@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.bench;
 
 import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
 import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
@@ -26,7 +27,8 @@ import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
 public enum GraphImpl {
     HEAVY(HeavyGraphFactory.class),
     VIEW(GraphViewFactory.class),
-    HUGE(HugeGraphFactory.class);
+    HUGE(HugeGraphFactory.class),
+    CYPHER(HeavyCypherGraphFactory.class);
 
     final Class<? extends GraphFactory> impl;
 
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.bench;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads generated graphs (see {@link SyntheticGraph}), so that the loaders can be
+ * compared without network access.
+ * <p>
+ * Besides the load time, every iteration reports the generated relationships loaded per second
+ * and the peak heap usage during the load. The allocation rate is reported by the
+ * {@link GCProfiler}, which is enabled when running the benchmark with {@link #main(String[])}
+ * or by passing {@code -prof gc} to the benchmarks jar.
+ */
+@Threads(1)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g", "-XX:+UseG1GC"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GraphLoadSynthetic {
+
+    @Param({"HUGE", "HEAVY", "CYPHER"})
+    GraphImpl graph;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    SyntheticGraph.Distribution distribution;
+
+    @Param({"100000", "1000000"})
+    int nodeCount;
+
+    @Param({"10"})
+    int averageDegree;
+
+    @Param({"true", "false"})
+    boolean weighted;
+
+    @Param({"42"})
+    long seed;
+
+    private GraphDatabaseAPI db;
+    private GraphLoader loader;
+
+    @Setup
+    public void setup() throws IOException {
+        db = SyntheticGraph.openDb(distribution, nodeCount, averageDegree, seed);
+        String weight = weighted ? SyntheticGraph.WEIGHT : null;
+        loader = new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.OUTGOING)
+                .withOptionalRelationshipWeightsFromProperty(weight, 1.0);
+        if (graph == GraphImpl.CYPHER) {
+            loader
+                    .withLabel("MATCH (n:Node) RETURN id(n) AS id")
+                    .withRelationshipType(weighted
+                            ? "MATCH (n:Node)-[r:TYPE]->(m:Node) RETURN id(n) AS source, id(m) AS target, r.weight AS weight"
+                            : "MATCH (n:Node)-[r:TYPE]->(m:Node) RETURN id(n) AS source, id(m) AS target");
+        } else {
+            loader
+                    .withLabel(SyntheticGraph.LABEL)
+                    .withRelationshipType(SyntheticGraph.TYPE);
+        }
+    }
+
+    @TearDown
+    public void shutdown() {
+        db.shutdown();
+        Pools.DEFAULT.shutdownNow();
+    }
+
+    @Benchmark
+    public void load(LoadCounters counters, Blackhole bh) {
+        Graph graph = loader.load(this.graph.impl);
+        counters.loaded((long) nodeCount * averageDegree);
+        bh.consume(graph);
+        graph.release();
+    }
+
+    /**
+     * Counters that are reported next to the load time of every iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class LoadCounters {
+        public double relationshipsPerSecond;
+        public double peakHeapMb;
+
+        private long start;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                }
+            }
+            relationshipsPerSecond = 0;
+            peakHeapMb = 0;
+            start = System.nanoTime();
+        }
+
+        void loaded(long relationships) {
+            long nanos = System.nanoTime() - start;
+            relationshipsPerSecond = relationships * 1e9 / nanos;
+            long peak = 0L;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            peakHeapMb = peak / (1024.0 * 1024.0);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GraphLoadSynthetic.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
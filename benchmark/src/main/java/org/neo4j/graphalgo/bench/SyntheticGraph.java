@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.bench;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.unsafe.batchinsert.BatchInserter;
+import org.neo4j.unsafe.batchinsert.BatchInserters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Generates reproducible random graphs into an embedded database, so that
+ * benchmarks can run without downloading a dataset (see {@link LdbcDownloader}).
+ * <p>
+ * All nodes have the label {@code Node}, all relationships the type {@code TYPE}
+ * and a random {@code weight} between 0 and 1. The sources of the relationships are
+ * chosen uniformly, so every node has about {@code averageDegree} outgoing relationships.
+ * The targets are either chosen uniformly as well, or following a power law, where the
+ * in-degree of the node at rank {@code i} is proportional to {@code i^(-2/3)}.
+ * This is a degree distribution with an exponent of about 2.5, as it is typical for
+ * social networks.
+ * <p>
+ * The same parameters and seed always produce the same graph. Generated stores are kept
+ * in the temp directory and reused by later runs.
+ */
+public final class SyntheticGraph {
+
+    public static final Label LABEL = Label.label("Node");
+    public static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+    public static final String WEIGHT = "weight";
+
+    public enum Distribution {
+        UNIFORM {
+            @Override
+            long target(Random random, long nodeCount) {
+                return (long) (random.nextDouble() * nodeCount);
+            }
+        },
+        POWER_LAW {
+            @Override
+            long target(Random random, long nodeCount) {
+                double rank = Math.pow(random.nextDouble(), POWER_LAW_EXPONENT);
+                return Math.min(nodeCount - 1L, (long) (rank * nodeCount));
+            }
+        };
+
+        abstract long target(Random random, long nodeCount);
+    }
+
+    // sampling u^3 picks the node at rank i with a probability proportional to i^(-2/3)
+    private static final double POWER_LAW_EXPONENT = 3.0;
+
+    private SyntheticGraph() {
+    }
+
+    static synchronized GraphDatabaseAPI openDb(
+            Distribution distribution,
+            int nodeCount,
+            int averageDegree,
+            long seed) throws IOException {
+        String id = String.format("%s-%d-%d-%d", distribution, nodeCount, averageDegree, seed);
+        Path graphDir = Paths.get(System.getProperty("java.io.tmpdir"), "org.neo4j", "synthetic", id);
+        Path graphDbDir = graphDir.resolve("graph.db");
+        Path done = graphDir.resolve("complete");
+        if (!Files.exists(done)) {
+            deleteRecursively(graphDbDir);
+            Files.createDirectories(graphDbDir);
+            generate(graphDbDir, distribution, nodeCount, averageDegree, seed);
+            Files.createFile(done);
+        }
+        return (GraphDatabaseAPI) new GraphDatabaseFactory()
+                .newEmbeddedDatabaseBuilder(graphDbDir.toFile())
+                .setConfig(GraphDatabaseSettings.pagecache_memory, "2G")
+                .newGraphDatabase();
+    }
+
+    private static void generate(
+            Path graphDbDir,
+            Distribution distribution,
+            int nodeCount,
+            int averageDegree,
+            long seed) throws IOException {
+        Random random = new Random(seed);
+        BatchInserter inserter = BatchInserters.inserter(graphDbDir.toFile());
+        try {
+            long[] nodes = new long[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                nodes[i] = inserter.createNode(Collections.emptyMap(), LABEL);
+            }
+            long relationshipCount = (long) nodeCount * averageDegree;
+            for (long i = 0L; i < relationshipCount; i++) {
+                long source = nodes[(int) (random.nextDouble() * nodeCount)];
+                long target = nodes[(int) distribution.target(random, nodeCount)];
+                inserter.createRelationship(
+                        source,
+                        target,
+                        TYPE,
+                        Collections.singletonMap(WEIGHT, random.nextDouble()));
+            }
+        } finally {
+            inserter.shutdown();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        Files.walk(dir)
+                .sorted(Collections.reverseOrder())
+                .forEach(path -> path.toFile().delete());
+    }
+}
@@ -19,8 +19,6 @@
 package org.neo4j.graphalgo.api;
 
 import org.neo4j.graphalgo.core.GraphDimensions;
-import org.neo4j.graphalgo.core.HugeNullWeightMap;
-import org.neo4j.graphalgo.core.HugeWeightMap;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.NodeImporter;
 import org.neo4j.graphalgo.core.NullWeightMap;
@@ -32,6 +30,7 @@ import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
@@ -69,6 +68,31 @@ public abstract class GraphFactory {
 
     public abstract Graph build();
 
+    /**
+     * @return the estimated memory that {@link #build()} requires to load the graph
+     * @throws UnsupportedOperationException if the graph implementation can not estimate its memory
+     */
+    public MemoryRange memoryEstimation() {
+        throw new UnsupportedOperationException(String.format(
+                "%s does not support memory estimation, use graph:'huge' instead",
+                getClass().getSimpleName()));
+    }
+
+    /**
+     * @return the estimated memory that the loaded graph keeps outside of the heap,
+     * it is not part of {@link #memoryEstimation()}
+     */
+    public MemoryRange offHeapMemoryEstimation() {
+        return MemoryRange.empty();
+    }
+
+    /**
+     * @return the number of nodes the graph is expected to contain, based on the counts store
+     */
+    public long nodeCount() {
+        return dimensions.hugeNodeCount();
+    }
+
     protected ImportProgress importProgress(
             ProgressLogger progressLogger,
             GraphDimensions dimensions,
@@ -115,15 +139,6 @@ public abstract class GraphFactory {
                 : new WeightMap(dimensions.nodeCount(), defaultValue, propertyId);
     }
 
-    protected HugeWeightMapping hugeWeightMapping(
-            AllocationTracker tracker,
-            int propertyId,
-            double defaultValue) {
-        return propertyId == StatementConstants.NO_SUCH_PROPERTY_KEY
-                    ? new HugeNullWeightMap(defaultValue)
-                    : new HugeWeightMap(dimensions.hugeNodeCount(), defaultValue, tracker);
-    }
-
     private static ProgressLogger progressLogger(Log log, long time, TimeUnit unit) {
         if (log == NullLog.getInstance()) {
             return ProgressLogger.NULL_LOGGER;
@@ -20,7 +20,9 @@ package org.neo4j.graphalgo.api;
 
 import org.neo4j.graphalgo.PropertyMapping;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.huge.WeightEncoding;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.NullLog;
@@ -85,6 +87,12 @@ public class GraphSetup {
 
     public final PropertyMapping[] nodePropertyMappings;
 
+    // where the data of huge graphs is stored
+    public final MemoryBackend memoryBackend;
+
+    // how the relationship weights of huge graphs are stored
+    public final WeightEncoding weightEncoding;
+
     /**
      * main ctor
      *
@@ -104,6 +112,8 @@ public class GraphSetup {
      * @param batchSize                  batch size for parallel loading
      * @param accumulateWeights          true if relationship-weights should be summed within the loader
      * @param sort                       true if relationships should stored in sorted ascending order
+     * @param memoryBackend              where the data of huge graphs is stored
+     * @param weightEncoding             how the relationship weights of huge graphs are stored
      */
     public GraphSetup(
             String startLabel,
@@ -127,7 +137,9 @@ public class GraphSetup {
             boolean loadAsUndirected,
             AllocationTracker tracker,
             String name,
-            PropertyMapping[] nodePropertyMappings) {
+            PropertyMapping[] nodePropertyMappings,
+            MemoryBackend memoryBackend,
+            WeightEncoding weightEncoding) {
 
         this.startLabel = startLabel;
         this.endLabel = endLabel;
@@ -152,6 +164,8 @@ public class GraphSetup {
         this.tracker = tracker;
         this.name = name;
         this.nodePropertyMappings = nodePropertyMappings;
+        this.memoryBackend = memoryBackend == null ? MemoryBackend.HEAP : memoryBackend;
+        this.weightEncoding = weightEncoding == null ? WeightEncoding.DOUBLE : weightEncoding;
     }
 
     /**
@@ -199,7 +213,9 @@ public class GraphSetup {
                 false,
                 AllocationTracker.EMPTY,
                 null,
-                new PropertyMapping[0]
+                new PropertyMapping[0],
+                MemoryBackend.HEAP,
+                WeightEncoding.DOUBLE
         );
     }
 
@@ -22,10 +22,12 @@ import org.neo4j.graphalgo.PropertyMapping;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.huge.WeightEncoding;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.RelationshipType;
@@ -84,6 +86,8 @@ public class GraphLoader {
     private boolean sort = false;
     private boolean loadAsUndirected = false;
     private PropertyMapping[] nodePropertyMappings = new PropertyMapping[0];
+    private MemoryBackend memoryBackend = MemoryBackend.HEAP;
+    private WeightEncoding weightEncoding = WeightEncoding.DOUBLE;
 
     /**
      * Creates a new serial GraphLoader.
@@ -477,8 +481,20 @@ public class GraphLoader {
      * @return the freshly loaded graph
      */
     public Graph load(Class<? extends GraphFactory> factoryType) {
+        return build(factoryType).build();
+    }
+
+    /**
+     * Creates the factory that loads the graph, without loading it yet.
+     * The factory can be used to inspect the {@link GraphFactory#nodeCount() node count}
+     * or the {@link GraphFactory#memoryEstimation() memory estimation} of the graph before it is built.
+     *
+     * @param factoryType a class that implements {@link GraphFactory}
+     * @return the factory that loads the graph on {@link GraphFactory#build()}
+     */
+    public GraphFactory build(Class<? extends GraphFactory> factoryType) {
         final MethodHandle constructor = findConstructor(factoryType);
-        return invokeConstructor(constructor).build();
+        return invokeConstructor(constructor);
     }
 
     private MethodHandle findConstructor(Class<?> factoryType) {
@@ -513,7 +529,9 @@ public class GraphLoader {
                 loadAsUndirected,
                 tracker,
                 name,
-                nodePropertyMappings);
+                nodePropertyMappings,
+                memoryBackend,
+                weightEncoding);
 
         try {
             return (GraphFactory) constructor.invoke(api, setup);
@@ -566,13 +584,60 @@ public class GraphLoader {
         return this;
     }
 
+    /**
+     * Store the graph in the given {@link MemoryBackend}. Only supported by the huge graph.
+     * Off-heap graphs must be {@link org.neo4j.graphalgo.api.Graph#release() released},
+     * their memory is not reclaimed by the garbage collector.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withMemoryBackend(MemoryBackend memoryBackend) {
+        this.memoryBackend = Objects.requireNonNull(memoryBackend);
+        return this;
+    }
+
+    /**
+     * Store the relationship weights with the given {@link WeightEncoding}. Only supported by the huge graph.
+     * {@link WeightEncoding#FLOAT} halves the memory used for weights at the cost of precision.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withWeightEncoding(WeightEncoding weightEncoding) {
+        this.weightEncoding = Objects.requireNonNull(weightEncoding);
+        return this;
+    }
+
+    /**
+     * Applies the common configuration of a procedure. Graphs that are loaded for a single
+     * procedure call are always stored on the heap, as off-heap memory is only reclaimed by
+     * an explicit release, which not every procedure reaches on every path.
+     *
+     * @throws IllegalArgumentException if the configuration asks for another {@link MemoryBackend}
+     */
     public GraphLoader init(Log log, String label, String relationship, ProcedureConfiguration config) {
+        if (config.getMemoryBackend() != MemoryBackend.HEAP) {
+            throw new IllegalArgumentException("Only named graphs can be stored off-heap, load the graph with algo.graph.load and release it with algo.graph.remove");
+        }
+        return initCommon(log, label, relationship, config);
+    }
+
+    /**
+     * Applies the common configuration of a procedure that loads a named graph, including the {@link MemoryBackend}.
+     * The graph has to be released once it is removed, see {@link org.neo4j.graphalgo.core.loading.LoadGraphFactory#remove(String)}.
+     */
+    public GraphLoader initNamedGraph(Log log, String label, String relationship, ProcedureConfiguration config) {
+        return initCommon(log, label, relationship, config)
+                .withMemoryBackend(config.getMemoryBackend());
+    }
+
+    private GraphLoader initCommon(Log log, String label, String relationship, ProcedureConfiguration config) {
         return withLog(log)
                 .withName(config.getGraphName(null))
                 .withOptionalLabel(label).withOptionalRelationshipType(relationship)
                 .withConcurrency(config.getConcurrency())
                 .withBatchSize(config.getBatchSize())
-                .withParams(config.getParams());
+                .withParams(config.getParams())
+                .withWeightEncoding(config.getWeightEncoding());
     }
 
     public GraphLoader withOptionalNodeProperties(PropertyMapping... nodePropertyMappings) {
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WeightMapping for node properties of huge graphs.
+ * The values are stored in a paged array, indexed by the mapped node id.
+ * Nodes without a value are marked with {@code NaN}.
+ */
+public final class HugeNodePropertyMap implements WeightMapping {
+
+    private DoubleArray properties;
+    // the graphs that share this map, the values are released by the last of them
+    private final AtomicInteger owners = new AtomicInteger(1);
+    private final double defaultValue;
+    private final int propertyId;
+
+    public static HugeNodePropertyMap of(
+            long capacity,
+            double defaultValue,
+            int propertyId,
+            AllocationTracker tracker) {
+        DoubleArray properties = DoubleArray.newArray(capacity, tracker);
+        properties.fill(Double.NaN);
+        return new HugeNodePropertyMap(properties, defaultValue, propertyId);
+    }
+
+    private HugeNodePropertyMap(DoubleArray properties, double defaultValue, int propertyId) {
+        this.properties = properties;
+        this.defaultValue = defaultValue;
+        this.propertyId = propertyId;
+    }
+
+    @Override
+    public double get(long id) {
+        return get(id, defaultValue);
+    }
+
+    @Override
+    public double get(long id, double defaultValue) {
+        if (id >= properties.size()) {
+            // nodes that have been added to the graph after it was loaded
+            return defaultValue;
+        }
+        double value = properties.get(id);
+        return Double.isNaN(value) ? defaultValue : value;
+    }
+
+    @Override
+    public double get(int id) {
+        return get((long) id, defaultValue);
+    }
+
+    @Override
+    public double get(int id, double defaultValue) {
+        return get((long) id, defaultValue);
+    }
+
+    public void put(long id, double value) {
+        properties.set(id, value);
+    }
+
+    public double defaultValue() {
+        return defaultValue;
+    }
+
+    public int propertyId() {
+        return propertyId;
+    }
+
+    /**
+     * @return the capacity of this map, capped at {@link Integer#MAX_VALUE}
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, properties.size());
+    }
+
+    /**
+     * Adds an owner to this map, every owner has to call {@link #release()}.
+     */
+    public HugeNodePropertyMap retain() {
+        owners.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Releases one owner of this map, the values are released with the last owner.
+     *
+     * @return the released memory, {@code 0} if the map still has other owners
+     */
+    public synchronized long release() {
+        if (properties != null && owners.decrementAndGet() == 0) {
+            long freed = properties.release();
+            properties = null;
+            return freed;
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.logging.Log;
+
+import java.util.function.LongFunction;
+
+import static org.neo4j.graphalgo.core.utils.paged.AllocationTracker.humanReadable;
+
+/**
+ * The estimated memory of loading a graph and running an algorithm on it,
+ * compared to the heap that is currently available.
+ * The memory that an off-heap graph keeps outside of the heap is reported separately
+ * and is not part of the {@link #total()}.
+ */
+public final class MemoryRecommendation {
+
+    private final long nodeCount;
+    private final MemoryRange graph;
+    private final MemoryRange algorithm;
+    private final MemoryRange offHeap;
+    private final long availableHeap;
+
+    /**
+     * @param factory   the factory that is going to load the graph, see {@link GraphLoader#build(Class)}
+     * @param algorithm the memory estimation of the algorithm for a given node count
+     */
+    public static MemoryRecommendation of(GraphFactory factory, LongFunction<MemoryRange> algorithm) {
+        long nodeCount = factory.nodeCount();
+        return new MemoryRecommendation(
+                nodeCount,
+                factory.memoryEstimation(),
+                algorithm.apply(nodeCount),
+                factory.offHeapMemoryEstimation(),
+                freeHeap());
+    }
+
+    /**
+     * @param nodeCount the node count of a graph that has already been loaded
+     * @param algorithm the memory estimation of the algorithm
+     */
+    public static MemoryRecommendation ofLoadedGraph(long nodeCount, MemoryRange algorithm) {
+        return new MemoryRecommendation(nodeCount, MemoryRange.empty(), algorithm, freeHeap());
+    }
+
+    MemoryRecommendation(long nodeCount, MemoryRange graph, MemoryRange algorithm, long availableHeap) {
+        this(nodeCount, graph, algorithm, MemoryRange.empty(), availableHeap);
+    }
+
+    MemoryRecommendation(long nodeCount, MemoryRange graph, MemoryRange algorithm, MemoryRange offHeap, long availableHeap) {
+        this.nodeCount = nodeCount;
+        this.graph = graph;
+        this.algorithm = algorithm;
+        this.offHeap = offHeap;
+        this.availableHeap = availableHeap;
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    public MemoryRange graph() {
+        return graph;
+    }
+
+    public MemoryRange algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return the memory that the graph keeps outside of the heap once it has been loaded
+     */
+    public MemoryRange offHeap() {
+        return offHeap;
+    }
+
+    public MemoryRange total() {
+        return graph.add(algorithm);
+    }
+
+    public long availableHeap() {
+        return availableHeap;
+    }
+
+    /**
+     * @return true if even the maximum estimation fits into the available heap
+     */
+    public boolean fitsInHeap() {
+        return total().max() <= availableHeap;
+    }
+
+    /**
+     * Refuses to start the task if the minimum estimation exceeds the available heap,
+     * as the task would certainly fail with an {@link OutOfMemoryError}.
+     * Only logs a warning if the maximum estimation exceeds the available heap.
+     *
+     * @throws IllegalStateException if the minimum estimation exceeds the available heap
+     */
+    public void assertFitsInHeap(String task, Log log) {
+        MemoryRange total = total();
+        if (total.min() > availableHeap) {
+            throw new IllegalStateException(String.format(
+                    "%s requires at least %s of heap but only %s are available, estimated memory usage: %s",
+                    task,
+                    humanReadable(total.min()),
+                    humanReadable(availableHeap),
+                    total));
+        }
+        if (total.max() > availableHeap) {
+            log.warn(
+                    "%s might require up to %s of heap but only %s are available",
+                    task,
+                    humanReadable(total.max()),
+                    humanReadable(availableHeap));
+        }
+    }
+
+    /**
+     * @return the heap that can still be allocated, including garbage that has not been collected yet
+     */
+    public static long freeHeap() {
+        Runtime rt = Runtime.getRuntime();
+        long max = rt.maxMemory(); // max allocated
+        long total = rt.totalMemory(); // currently allocated
+        long free = rt.freeMemory(); // unused portion of currently allocated
+        return max - total + free;
+    }
+}
@@ -31,6 +31,8 @@ import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
 import org.neo4j.graphalgo.core.utils.Directions;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.huge.WeightEncoding;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Collections;
@@ -276,6 +278,33 @@ public class ProcedureConfiguration {
         return Directions.fromString(getDirectionName(defaultDirection.name()));
     }
 
+    /**
+     * return where huge graphs store their data, either {@code heap} (the default) or {@code offheap}
+     *
+     * @return the memory backend
+     */
+    public MemoryBackend getMemoryBackend() {
+        return MemoryBackend.parse(get(ProcedureConstants.MEMORY_BACKEND));
+    }
+
+    /**
+     * return how huge graphs store relationship weights, either {@code double} (the default) or {@code float}
+     *
+     * @return the weight encoding
+     */
+    public WeightEncoding getWeightEncoding() {
+        return WeightEncoding.parse(get(ProcedureConstants.WEIGHT_ENCODING));
+    }
+
+    /**
+     * return whether the procedure should refuse to start if its estimated memory exceeds the free heap
+     *
+     * @return true if the memory should be checked, false by default
+     */
+    public boolean shouldCheckMemory() {
+        return get(ProcedureConstants.CHECK_MEMORY, false);
+    }
+
     public String getGraphName(String defaultValue) {
         return getString(ProcedureConstants.GRAPH_IMPL_PARAM, defaultValue);
     }
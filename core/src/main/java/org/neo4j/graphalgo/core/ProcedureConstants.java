@@ -61,4 +61,10 @@ public class ProcedureConstants {
 
     public static final String CONCURRENCY = "concurrency";
 
+    public static final String MEMORY_BACKEND = "memory";
+
+    public static final String WEIGHT_ENCODING = "weightEncoding";
+
+    public static final String CHECK_MEMORY = "checkMemory";
+
 }
@@ -28,24 +28,44 @@ final class AdjacencyCompression {
 
     static final int CHUNK_SIZE = 64;
 
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
     static abstract class IntValue {
         int value;
     }
 
     private long[] ids;
+    private double[] weights;
     private int length;
 
+    private long[] sortIds;
+    private double[] sortWeights;
+
     AdjacencyCompression() {
         this.ids = new long[0];
+        this.sortIds = new long[0];
+        this.sortWeights = new double[0];
     }
 
     void copyFrom(long[] targets, int length) {
+        copyFrom(targets, null, length);
+    }
+
+    /**
+     * @param weights the weight of each target, kept at the same position as their target; {@code null} for no weights
+     */
+    void copyFrom(long[] targets, double[] weights, int length) {
         ids = targets;
+        this.weights = weights;
         this.length = length;
     }
 
     int applyDeltaEncodingAndCalculateRequiredBytes() {
-        Arrays.sort(ids, 0, length);
+        if (weights == null) {
+            Arrays.sort(ids, 0, length);
+        } else {
+            sortWithWeights(ids, weights, length);
+        }
         return applyDeltaAndCalculateRequiredBytes(ids, length);
     }
 
@@ -62,9 +82,42 @@ final class AdjacencyCompression {
         out[3 + offset] = (byte) (value >>> 24);
         return 4 + offset;
     }
+
+    int writeWeights(byte[] out, int offset, WeightEncoding encoding) {
+        double[] weights = this.weights;
+        int length = this.length;
+        if (encoding == WeightEncoding.FLOAT) {
+            for (int i = 0; i < length; i++) {
+                int value = Float.floatToIntBits((float) weights[i]);
+                out[    offset] = (byte) (value);
+                out[1 + offset] = (byte) (value >>> 8);
+                out[2 + offset] = (byte) (value >>> 16);
+                out[3 + offset] = (byte) (value >>> 24);
+                offset += 4;
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                long value = Double.doubleToLongBits(weights[i]);
+                out[    offset] = (byte) (value);
+                out[1 + offset] = (byte) (value >>> 8);
+                out[2 + offset] = (byte) (value >>> 16);
+                out[3 + offset] = (byte) (value >>> 24);
+                out[4 + offset] = (byte) (value >>> 32);
+                out[5 + offset] = (byte) (value >>> 40);
+                out[6 + offset] = (byte) (value >>> 48);
+                out[7 + offset] = (byte) (value >>> 56);
+                offset += 8;
+            }
+        }
+        return offset;
+    }
     //@formatter:on
 
+    /**
+     * Removes duplicate targets, keeping the weight of the first occurrence.
+     */
     private int applyDeltaAndCalculateRequiredBytes(long values[], int length) {
+        double[] weights = this.weights;
         long value = values[0], delta;
         int in = 1, out = 1, bytes = encodedVLongSize(value);
         for (; in < length; ++in) {
@@ -72,6 +125,9 @@ final class AdjacencyCompression {
             value = values[in];
             if (delta > 0L) {
                 bytes += encodedVLongSize(delta);
+                if (weights != null) {
+                    weights[out] = weights[in];
+                }
                 values[out++] = delta;
             }
         }
@@ -82,4 +138,80 @@ final class AdjacencyCompression {
     int degree() {
         return length;
     }
+
+    /**
+     * Stable merge sort of the targets that moves the weights along.
+     */
+    private void sortWithWeights(long[] ids, double[] weights, int length) {
+        if (length <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(ids, weights, 0, length);
+            return;
+        }
+        for (int from = 0; from < length; from += INSERTION_SORT_THRESHOLD) {
+            insertionSort(ids, weights, from, Math.min(from + INSERTION_SORT_THRESHOLD, length));
+        }
+        if (sortIds.length < length) {
+            sortIds = new long[length];
+            sortWeights = new double[length];
+        }
+        long[] srcIds = ids, dstIds = sortIds;
+        double[] srcWeights = weights, dstWeights = sortWeights;
+        for (int width = INSERTION_SORT_THRESHOLD; width < length; width <<= 1) {
+            for (int lo = 0; lo < length; lo += width << 1) {
+                int mid = Math.min(lo + width, length);
+                int hi = Math.min(lo + (width << 1), length);
+                merge(srcIds, srcWeights, dstIds, dstWeights, lo, mid, hi);
+            }
+            long[] swapIds = srcIds;
+            srcIds = dstIds;
+            dstIds = swapIds;
+            double[] swapWeights = srcWeights;
+            srcWeights = dstWeights;
+            dstWeights = swapWeights;
+        }
+        if (srcIds != ids) {
+            System.arraycopy(srcIds, 0, ids, 0, length);
+            System.arraycopy(srcWeights, 0, weights, 0, length);
+        }
+    }
+
+    private static void insertionSort(long[] ids, double[] weights, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long id = ids[i];
+            double weight = weights[i];
+            int j = i - 1;
+            while (j >= from && ids[j] > id) {
+                ids[j + 1] = ids[j];
+                weights[j + 1] = weights[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            weights[j + 1] = weight;
+        }
+    }
+
+    private static void merge(
+            long[] ids,
+            double[] weights,
+            long[] outIds,
+            double[] outWeights,
+            int lo,
+            int mid,
+            int hi) {
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            if (ids[j] < ids[i]) {
+                outIds[k] = ids[j];
+                outWeights[k++] = weights[j++];
+            } else {
+                outIds[k] = ids[i];
+                outWeights[k++] = weights[i++];
+            }
+        }
+        System.arraycopy(ids, i, outIds, k, mid - i);
+        System.arraycopy(weights, i, outWeights, k, mid - i);
+        k += mid - i;
+        System.arraycopy(ids, j, outIds, k, hi - j);
+        System.arraycopy(weights, j, outWeights, k, hi - j);
+    }
 }
@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.core.huge;
 
 import org.neo4j.graphalgo.core.huge.AdjacencyCompression.IntValue;
+import org.neo4j.graphalgo.core.utils.paged.NativeMemory;
 
 import java.util.Arrays;
 
@@ -29,8 +30,8 @@ final class AdjacencyDecompression {
 
     private final long[] block;
     private int pos;
-    private byte[] array;
-    private int offset;
+    private Object base;
+    private long offset;
 
     AdjacencyDecompression() {
         this.block = new long[CHUNK_SIZE];
@@ -39,27 +40,54 @@ final class AdjacencyDecompression {
     void copyFrom(AdjacencyDecompression other) {
         System.arraycopy(other.block, 0, block, 0, CHUNK_SIZE);
         pos = other.pos;
-        array = other.array;
+        base = other.base;
         offset = other.offset;
     }
 
-    int reset(byte[] array, int offset) {
-        this.array = array;
-        int remaining = readInt(array, offset);
-        this.offset = decodeDeltaVLongs(0L, array, 4 + offset, Math.min(remaining, CHUNK_SIZE), block);
+    /**
+     * @param base        the {@code byte[]} page or {@code null} for native memory
+     * @param offset      the offset into the page object or the native address, see {@link NativeMemory}
+     * @param weightBytes the size of a weight that is stored in front of the targets, {@code 0} for no weights
+     */
+    int reset(Object base, long offset, int weightBytes) {
+        this.base = base;
+        int remaining = readInt(base, offset);
+        long targetsOffset = 4L + offset + (long) remaining * weightBytes;
+        this.offset = decodeDeltaVLongs(0L, base, targetsOffset, Math.min(remaining, CHUNK_SIZE), block);
         pos = 0;
         return remaining;
     }
 
     //@formatter:off
-    static int readInt(byte[] array, int offset) {
-        return   array[    offset] & 255        |
-                (array[1 + offset] & 255) <<  8 |
-                (array[2 + offset] & 255) << 16 |
-                (array[3 + offset] & 255) << 24;
+    static int readInt(Object base, long offset) {
+        return   NativeMemory.getByte(base,      offset) & 255        |
+                (NativeMemory.getByte(base, 1L + offset) & 255) <<  8 |
+                (NativeMemory.getByte(base, 2L + offset) & 255) << 16 |
+                (NativeMemory.getByte(base, 3L + offset) & 255) << 24;
+    }
+
+    static long readLong(Object base, long offset) {
+        return   NativeMemory.getByte(base,      offset) & 255L        |
+                (NativeMemory.getByte(base, 1L + offset) & 255L) <<  8 |
+                (NativeMemory.getByte(base, 2L + offset) & 255L) << 16 |
+                (NativeMemory.getByte(base, 3L + offset) & 255L) << 24 |
+                (NativeMemory.getByte(base, 4L + offset) & 255L) << 32 |
+                (NativeMemory.getByte(base, 5L + offset) & 255L) << 40 |
+                (NativeMemory.getByte(base, 6L + offset) & 255L) << 48 |
+                (NativeMemory.getByte(base, 7L + offset) & 255L) << 56;
     }
     //@formatter:on
 
+    /**
+     * Reads a weight as it was written by {@link AdjacencyCompression#writeWeights(byte[], int, WeightEncoding)}.
+     */
+    static double readWeight(Object base, long offset, int weightBytes) {
+        if (weightBytes == Float.BYTES) {
+            return Float.intBitsToFloat(readInt(base, offset));
+        }
+        return Double.longBitsToDouble(readLong(base, offset));
+    }
+
     long next(int remaining) {
         int pos = this.pos++;
         if (pos < CHUNK_SIZE) {
@@ -70,7 +98,7 @@ final class AdjacencyDecompression {
 
     private long readNextBlock(int remaining) {
         pos = 1;
-        offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], array, offset, Math.min(remaining, CHUNK_SIZE), block);
+        offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], base, offset, Math.min(remaining, CHUNK_SIZE), block);
         return block[0];
     }
 
@@ -83,7 +111,7 @@ final class AdjacencyDecompression {
         while (available > CHUNK_SIZE - pos && block[CHUNK_SIZE - 1] <= target) {
             int skippedInThisBlock = CHUNK_SIZE - pos;
             int needToDecode = Math.min(CHUNK_SIZE, available - skippedInThisBlock);
-            offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], array, offset, needToDecode, block);
+            offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], base, offset, needToDecode, block);
             available -= skippedInThisBlock;
             pos = 0;
         }
@@ -106,7 +134,7 @@ final class AdjacencyDecompression {
         while (available > CHUNK_SIZE - pos && block[CHUNK_SIZE - 1] < target) {
             int skippedInThisBlock = CHUNK_SIZE - pos;
             int needToDecode = Math.min(CHUNK_SIZE, available - skippedInThisBlock);
-            offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], array, offset, needToDecode, block);
+            offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], base, offset, needToDecode, block);
             available -= skippedInThisBlock;
             pos = 0;
         }
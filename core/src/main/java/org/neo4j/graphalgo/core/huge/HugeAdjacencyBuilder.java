@@ -19,30 +19,41 @@
 package org.neo4j.graphalgo.core.huge;
 
 import org.neo4j.graphalgo.api.HugeGraph;
-import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
+
+import java.util.Map;
 
 class HugeAdjacencyBuilder {
 
     private final HugeAdjacencyListBuilder adjacency;
+    private final WeightEncoding weightEncoding;
 
     private HugeAdjacencyListBuilder.Allocator allocator;
     private AdjacencyCompression compression;
 
     private final AllocationTracker tracker;
 
-    HugeAdjacencyBuilder(AllocationTracker tracker) {
+    /**
+     * @param weightEncoding how weights are stored, {@code null} if the adjacency has no weights
+     */
+    HugeAdjacencyBuilder(AllocationTracker tracker, WeightEncoding weightEncoding) {
         adjacency = HugeAdjacencyListBuilder.newBuilder(tracker);
+        this.weightEncoding = weightEncoding;
         this.tracker = tracker;
     }
 
     HugeAdjacencyBuilder(
             HugeAdjacencyListBuilder adjacency,
+            WeightEncoding weightEncoding,
             HugeAdjacencyListBuilder.Allocator allocator,
             AdjacencyCompression compression,
             AllocationTracker tracker) {
         this.adjacency = adjacency;
+        this.weightEncoding = weightEncoding;
         this.allocator = allocator;
         this.compression = compression;
         this.tracker = tracker;
@@ -51,6 +62,7 @@ class HugeAdjacencyBuilder {
     final HugeAdjacencyBuilder threadLocalCopy() {
         return new HugeAdjacencyBuilder(
                 adjacency,
+                weightEncoding,
                 adjacency.newAllocator(),
                 new AdjacencyCompression(),
                 tracker);
@@ -60,11 +72,29 @@ class HugeAdjacencyBuilder {
         allocator.prepare();
     }
 
+    final boolean hasWeights() {
+        return weightEncoding != null;
+    }
+
     final long applyVariableDeltaEncoding(long[] targets, int length) {
-        compression.copyFrom(targets, length);
+        return applyVariableDeltaEncoding(targets, null, length);
+    }
+
+    /**
+     * @param weights the weight of each target, ignored if the adjacency has no weights
+     */
+    final long applyVariableDeltaEncoding(long[] targets, double[] weights, int length) {
+        WeightEncoding weightEncoding = this.weightEncoding;
+        compression.copyFrom(targets, weightEncoding != null ? weights : null, length);
         int requiredBytes = compression.applyDeltaEncodingAndCalculateRequiredBytes();
+        if (weightEncoding != null) {
+            requiredBytes += compression.degree() * weightEncoding.bytes;
+        }
         long address = allocator.allocate(4 + requiredBytes);
         int offset = compression.writeDegree(allocator.page, allocator.offset);
+        if (weightEncoding != null) {
+            offset = compression.writeWeights(allocator.page, offset, weightEncoding);
+        }
         offset = compression.compress(allocator.page, offset);
         allocator.offset = offset;
         return address;
@@ -72,25 +102,47 @@ class HugeAdjacencyBuilder {
 
     static HugeGraph apply(
             final AllocationTracker tracker,
-            final HugeIdMap idMapping,
-            final HugeWeightMapping weights,
+            final HugeIdMapping idMapping,
+            final double defaultWeight,
+            final Map<String, WeightMapping> nodeProperties,
             final HugeAdjacencyBuilder inAdjacency,
             final HugeAdjacencyBuilder outAdjacency,
             final HugeLongArray inOffsets,
             final HugeLongArray outOffsets) {
+        return apply(
+                tracker, idMapping, defaultWeight, nodeProperties,
+                inAdjacency, outAdjacency, inOffsets, outOffsets,
+                MemoryBackend.HEAP);
+    }
+
+    static HugeGraph apply(
+            final AllocationTracker tracker,
+            final HugeIdMapping idMapping,
+            final double defaultWeight,
+            final Map<String, WeightMapping> nodeProperties,
+            final HugeAdjacencyBuilder inAdjacency,
+            final HugeAdjacencyBuilder outAdjacency,
+            final HugeLongArray inOffsets,
+            final HugeLongArray outOffsets,
+            final MemoryBackend backend) {
 
         HugeAdjacencyList outAdjacencyList = null;
         if (outAdjacency != null) {
-            outAdjacencyList = outAdjacency.adjacency.build();
+            outAdjacencyList = outAdjacency.build(backend);
         }
         HugeAdjacencyList inAdjacencyList = null;
         if (inAdjacency != null) {
-            inAdjacencyList = inAdjacency.adjacency.build();
+            inAdjacencyList = inAdjacency.build(backend);
         }
 
         return new HugeGraphImpl(
-                tracker, idMapping, weights,
+                tracker, idMapping, defaultWeight, nodeProperties,
                 inAdjacencyList, outAdjacencyList, inOffsets, outOffsets
         );
     }
+
+    private HugeAdjacencyList build(MemoryBackend backend) {
+        int weightBytes = weightEncoding != null ? weightEncoding.bytes : 0;
+        return adjacency.build(weightBytes, backend);
+    }
 }
@@ -18,11 +18,35 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
 import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
+import org.neo4j.graphalgo.core.utils.paged.NativeMemory;
 
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.neo4j.graphalgo.core.utils.paged.NativeMemory.BYTE_ARRAY_BASE_OFFSET;
 import static org.neo4j.graphalgo.core.utils.paged.PageUtil.indexInPage;
 import static org.neo4j.graphalgo.core.utils.paged.PageUtil.pageIndex;
 
+/**
+ * The compressed adjacency of a {@link org.neo4j.graphalgo.api.HugeGraph}.
+ * <p>
+ * The adjacency of a node starts with its degree, followed by the weight of every target
+ * if the list has weights (see {@link WeightEncoding}), followed by the delta and vlong encoded targets.
+ * Weights are stored in the same order as the sorted targets.
+ * <p>
+ * Pages are either {@code byte[]}s on the heap, blocks of native memory, see
+ * {@link #offHeapCopyOf(byte[][], int, AllocationTracker)}, or regions of memory mapped files, see
+ * {@link #mapped(int[], long[], List, int)}. Every page is addressed by a base object
+ * and an offset, which are {@code (page, BYTE_ARRAY_BASE_OFFSET)} for heap pages and
+ * {@code (null, address)} for native pages, so that decoding works the same for both.
+ * <p>
+ * Graphs that are derived from each other by {@link HugeGraphImpl#update(HugeGraphUpdate, boolean)}
+ * share the list, each of them {@link #retain() owns} it and the pages are released when the last owner releases them.
+ */
 final class HugeAdjacencyList {
 
     static final int PAGE_SHIFT = 18;
@@ -30,13 +54,112 @@ final class HugeAdjacencyList {
     static final long PAGE_MASK = 262143L; // PAGE_SIZE - 1
 
     private final long allocatedMemory;
-    private byte[][] pages;
+    private final boolean offHeap;
+    private final int weightBytes;
+    private final int[] lengths;
+    // the graphs that share this list, the pages are released by the last of them
+    private final AtomicInteger owners = new AtomicInteger(1);
+    private Object[] bases;
+    private long[] offsets;
+    // the mapped buffers of the pages, which are unmapped once they are no longer reachable
+    private List<ByteBuffer> mappings;
 
-    HugeAdjacencyList(byte[][] pages) {
-        this.pages = pages;
+    HugeAdjacencyList(byte[][] pages, int weightBytes) {
+        this.offHeap = false;
+        this.weightBytes = weightBytes;
+        this.lengths = new int[pages.length];
+        this.bases = new Object[pages.length];
+        this.offsets = new long[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            byte[] page = pages[i];
+            lengths[i] = page != null ? page.length : -1;
+            bases[i] = page;
+            offsets[i] = BYTE_ARRAY_BASE_OFFSET;
+        }
         this.allocatedMemory = memoryOfPages(pages);
     }
 
+    private HugeAdjacencyList(int[] lengths, long[] addresses, int weightBytes, long allocatedMemory) {
+        this.offHeap = true;
+        this.weightBytes = weightBytes;
+        this.lengths = lengths;
+        this.bases = new Object[lengths.length];
+        this.offsets = addresses;
+        this.allocatedMemory = allocatedMemory;
+    }
+
+    /**
+     * Creates a list over pages that are read in place from memory mapped files.
+     * The list keeps the buffers that contain the pages reachable until it is released.
+     */
+    static HugeAdjacencyList mapped(int[] lengths, long[] addresses, List<ByteBuffer> mappings, int weightBytes) {
+        long memory = MemoryUsage.sizeOfObjectArray(lengths.length)
+                + MemoryUsage.sizeOfIntArray(lengths.length)
+                + MemoryUsage.sizeOfLongArray(lengths.length);
+        HugeAdjacencyList adjacency = new HugeAdjacencyList(lengths, addresses, weightBytes, memory);
+        adjacency.mappings = mappings;
+        return adjacency;
+    }
+
+    /**
+     * Moves the given pages into native memory, one page at a time.
+     * The entries of {@code pages} are cleared, so that the heap pages can be collected while the remaining pages are copied.
+     * The heap memory of the pages is removed from the tracker and the native memory is added.
+     */
+    static HugeAdjacencyList offHeapCopyOf(byte[][] pages, int weightBytes, AllocationTracker tracker) {
+        int[] lengths = new int[pages.length];
+        long[] addresses = new long[pages.length];
+        long memory = MemoryUsage.sizeOfObjectArray(pages.length)
+                + MemoryUsage.sizeOfIntArray(pages.length)
+                + MemoryUsage.sizeOfLongArray(pages.length);
+        tracker.add(memory - MemoryUsage.sizeOfObjectArray(pages.length));
+        for (int i = 0; i < pages.length; i++) {
+            byte[] page = pages[i];
+            if (page == null) {
+                lengths[i] = -1;
+            } else {
+                lengths[i] = page.length;
+                addresses[i] = NativeMemory.copyOf(page, page.length, tracker);
+                memory += page.length;
+                tracker.remove(MemoryUsage.sizeOfByteArray(page.length));
+                pages[i] = null;
+            }
+        }
+        return new HugeAdjacencyList(lengths, addresses, weightBytes, memory);
+    }
+
+    /**
+     * Estimates the memory of an adjacency list that holds {@code relationshipCount} targets,
+     * distributed over {@code nodeCount} nodes and written by {@code concurrency} importers.
+     * The minimum assumes that every delta fits into a single byte,
+     * the maximum that every delta needs as many bytes as the highest node id
+     * and that every importer leaves one page partially filled.
+     */
+    static MemoryRange estimateMemoryUsage(
+            long nodeCount,
+            long relationshipCount,
+            int weightBytes,
+            int concurrency) {
+        int maxTargetBytes = Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(Math.max(0L, nodeCount - 1L)) + 6) / 7);
+        long minBytes = 4L * Math.min(nodeCount, relationshipCount) + relationshipCount * (1L + weightBytes);
+        long maxBytes = 4L * nodeCount + relationshipCount * (long) (maxTargetBytes + weightBytes);
+        long maxPages = pagesFor(maxBytes) + Math.max(1, concurrency);
+        return MemoryRange.of(
+                memoryOfPages(pagesFor(minBytes)),
+                memoryOfPages(maxPages));
+    }
+
+    private static long pagesFor(long bytes) {
+        // the first byte of the first page is never used, see HugeAdjacencyListBuilder.Allocator#prepare
+        return (bytes + 1L + PAGE_MASK) >>> PAGE_SHIFT;
+    }
+
+    private static long memoryOfPages(long numPages) {
+        return MemoryUsage.shallowSizeOfInstance(HugeAdjacencyList.class)
+                + MemoryUsage.sizeOfObjectArray((int) numPages)
+                + numPages * MemoryUsage.sizeOfByteArray(PAGE_SIZE);
+    }
+
     private static long memoryOfPages(byte[][] pages) {
         long memory = MemoryUsage.sizeOfObjectArray(pages.length);
         for (byte[] page : pages) {
@@ -48,20 +171,128 @@ final class HugeAdjacencyList {
     }
 
     int getDegree(long index) {
+        int pageIndex = pageIndex(index, PAGE_SHIFT);
         return AdjacencyDecompression.readInt(
-                pages[pageIndex(index, PAGE_SHIFT)],
-                indexInPage(index, PAGE_MASK));
+                bases[pageIndex],
+                offsets[pageIndex] + indexInPage(index, PAGE_MASK));
+    }
+
+    /**
+     * @return the number of bytes of a single weight, {@code 0} if this list has no weights
+     */
+    int weightBytes() {
+        return weightBytes;
+    }
+
+    /**
+     * Returns the weight of the target at the given position of the adjacency at {@code index}.
+     * Must only be called if this list has weights.
+     */
+    double weight(long index, int position) {
+        int pageIndex = pageIndex(index, PAGE_SHIFT);
+        long offset = offsets[pageIndex] + indexInPage(index, PAGE_MASK);
+        return AdjacencyDecompression.readWeight(
+                bases[pageIndex],
+                offset + 4L + (long) position * weightBytes,
+                weightBytes);
+    }
+
+    /**
+     * Returns the position of the given target in the adjacency at {@code index}, or {@code -1} if it is not contained.
+     * Decodes the targets one by one without allocating, hence it is safe to call concurrently.
+     */
+    int positionOf(long index, long target) {
+        int pageIndex = pageIndex(index, PAGE_SHIFT);
+        Object base = bases[pageIndex];
+        long offset = offsets[pageIndex] + indexInPage(index, PAGE_MASK);
+        int degree = AdjacencyDecompression.readInt(base, offset);
+        offset += 4L + (long) degree * weightBytes;
+        long value = 0L, delta = 0L, input;
+        int position = 0, shift = 0;
+        while (position < degree) {
+            input = (long) NativeMemory.getByte(base, offset++);
+            delta += (input & 127L) << shift;
+            if ((input & 128L) == 128L) {
+                value += delta;
+                if (value >= target) {
+                    return value == target ? position : -1;
+                }
+                ++position;
+                delta = 0L;
+                shift = 0;
+            } else {
+                shift += 7;
+            }
+        }
+        return -1;
+    }
+
+    int pageCount() {
+        return lengths.length;
+    }
+
+    /**
+     * @return the length of the page or {@code -1} if there is no such page
+     */
+    int pageLength(int pageIndex) {
+        return lengths[pageIndex];
+    }
+
+    /**
+     * Returns the content of a page. Heap pages are returned as they are, native pages are copied onto the heap.
+     */
+    byte[] page(int pageIndex) {
+        int length = lengths[pageIndex];
+        if (length < 0) {
+            return null;
+        }
+        if (!offHeap) {
+            return (byte[]) bases[pageIndex];
+        }
+        byte[] page = new byte[length];
+        NativeMemory.copyTo(offsets[pageIndex], page, length);
+        return page;
+    }
+
+    /**
+     * @return whether the pages have been allocated in native memory, mapped pages are not
+     */
+    boolean isOffHeap() {
+        return offHeap && mappings == null;
     }
 
     Cursor newCursor() {
-        return new Cursor(pages);
+        return new Cursor(bases, offsets, weightBytes);
     }
 
-    public final long release() {
-        if (pages == null) {
+    /**
+     * Adds an owner to this list, every owner has to call {@link #release()}.
+     */
+    HugeAdjacencyList retain() {
+        owners.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Releases one owner of this list. The pages are released with the last owner, native pages are freed immediately,
+     * hence no cursor of this list must be used afterwards.
+     *
+     * @return the released memory, {@code 0} if the list still has other owners
+     */
+    public final synchronized long release() {
+        if (bases == null || owners.decrementAndGet() > 0) {
             return 0L;
         }
-        pages = null;
+        if (offHeap && mappings == null) {
+            for (int i = 0; i < lengths.length; i++) {
+                if (lengths[i] >= 0) {
+                    NativeMemory.free(offsets[i], lengths[i]);
+                }
+            }
+        }
+        bases = null;
+        offsets = null;
+        mappings = null;
         return allocatedMemory;
     }
 
@@ -72,14 +303,20 @@ final class HugeAdjacencyList {
     public static final class Cursor extends AdjacencyCompression.IntValue {
 
         // TODO: free
-        private byte[][] pages;
+        private Object[] bases;
+        private long[] offsets;
+        private final int weightBytes;
         private final AdjacencyDecompression decompress;
 
         private int maxTargets;
         private int currentTarget;
+        private Object weightsBase;
+        private long weightsOffset;
 
-        private Cursor(byte[][] pages) {
-            this.pages = pages;
+        private Cursor(Object[] bases, long[] offsets, int weightBytes) {
+            this.bases = bases;
+            this.offsets = offsets;
+            this.weightBytes = weightBytes;
             this.decompress = new AdjacencyDecompression();
         }
 
@@ -90,6 +327,8 @@ final class HugeAdjacencyList {
             decompress.copyFrom(other.decompress);
             currentTarget = other.currentTarget;
             maxTargets = other.maxTargets;
+            weightsBase = other.weightsBase;
+            weightsOffset = other.weightsOffset;
         }
 
         /**
@@ -149,10 +388,24 @@ final class HugeAdjacencyList {
             return value;
         }
 
+        /**
+         * Return the weight of the target that has been returned last by {@link #nextVLong()},
+         * {@link #skipUntil(long)}, or {@link #advance(long)}.
+         * It is undefined behavior if the list has no weights or if no target has been returned yet.
+         */
+        double weight() {
+            return AdjacencyDecompression.readWeight(
+                    weightsBase,
+                    weightsOffset + (long) (currentTarget - 1) * weightBytes,
+                    weightBytes);
+        }
+
         Cursor init(long fromIndex) {
-            maxTargets = decompress.reset(
-                    pages[pageIndex(fromIndex, PAGE_SHIFT)],
-                    indexInPage(fromIndex, PAGE_MASK));
+            int pageIndex = pageIndex(fromIndex, PAGE_SHIFT);
+            weightsBase = bases[pageIndex];
+            long offset = offsets[pageIndex] + indexInPage(fromIndex, PAGE_MASK);
+            weightsOffset = 4L + offset;
+            maxTargets = decompress.reset(weightsBase, offset, weightBytes);
             currentTarget = 0;
             return this;
         }
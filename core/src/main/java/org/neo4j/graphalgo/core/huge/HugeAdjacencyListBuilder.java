@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.core.huge;
 
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
 
 import java.util.Arrays;
@@ -67,8 +68,15 @@ final class HugeAdjacencyListBuilder {
         return new Allocator(this);
     }
 
-    public HugeAdjacencyList build() {
-        return new HugeAdjacencyList(pages);
+    /**
+     * Builds the list in the given backend. Off-heap lists take over the pages
+     * of this builder, which must not be used afterwards.
+     */
+    HugeAdjacencyList build(int weightBytes, MemoryBackend backend) {
+        if (backend == MemoryBackend.OFF_HEAP) {
+            return HugeAdjacencyList.offHeapCopyOf(pages, weightBytes, tracker);
+        }
+        return new HugeAdjacencyList(pages, weightBytes);
     }
 
     private long allocateNewPages(Allocator into) {
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongLongHashMap;
+import org.neo4j.graphalgo.api.HugeIdMapping;
+
+/**
+ * Id mapping of a graph whose nodes have been extended after it was loaded.
+ * The added nodes get the mapped ids following the nodes of the original mapping.
+ */
+final class HugeAppendedIdMapping implements HugeIdMapping {
+
+    private final HugeIdMapping base;
+    private final long baseNodeCount;
+    private final long[] appended;
+    private final LongLongHashMap appendedIds;
+
+    /**
+     * @return a mapping that contains all nodes of {@code mapping} followed by the given nodes
+     */
+    static HugeIdMapping append(HugeIdMapping mapping, LongArrayList nodeIds) {
+        if (nodeIds.isEmpty()) {
+            return mapping;
+        }
+        HugeIdMapping base = mapping;
+        LongArrayList appended = new LongArrayList();
+        if (mapping instanceof HugeAppendedIdMapping) {
+            HugeAppendedIdMapping previous = (HugeAppendedIdMapping) mapping;
+            base = previous.base;
+            appended.add(previous.appended);
+        }
+        appended.addAll(nodeIds);
+        return new HugeAppendedIdMapping(base, appended.toArray());
+    }
+
+    private HugeAppendedIdMapping(HugeIdMapping base, long[] appended) {
+        this.base = base;
+        this.baseNodeCount = base.nodeCount();
+        this.appended = appended;
+        this.appendedIds = new LongLongHashMap(appended.length);
+        for (int i = 0; i < appended.length; i++) {
+            appendedIds.put(appended[i], baseNodeCount + i);
+        }
+    }
+
+    @Override
+    public long toHugeMappedNodeId(long nodeId) {
+        return appendedIds.containsKey(nodeId)
+                ? appendedIds.get(nodeId)
+                : base.toHugeMappedNodeId(nodeId);
+    }
+
+    @Override
+    public long toOriginalNodeId(long nodeId) {
+        return nodeId < baseNodeCount
+                ? base.toOriginalNodeId(nodeId)
+                : appended[Math.toIntExact(nodeId - baseNodeCount)];
+    }
+
+    @Override
+    public boolean contains(long nodeId) {
+        return appendedIds.containsKey(nodeId) || base.contains(nodeId);
+    }
+
+    @Override
+    public long nodeCount() {
+        return baseNodeCount + appended.length;
+    }
+}
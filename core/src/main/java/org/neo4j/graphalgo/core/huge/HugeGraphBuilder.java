@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Builds a {@link HugeGraph} from adjacency data that is already in memory,
+ * e.g. a graph that an algorithm derives from another graph.
+ * <p>
+ * Node ids are used as they are (see {@link HugeDirectIdMapping}) and only the
+ * outgoing adjacency is written, just like for graphs that are loaded
+ * with {@code asUndirected(true)}. The targets of a node are compressed
+ * with the same delta and vlong encoding as during the import.
+ * <p>
+ * Every thread has to use its own {@link Importer}. Parallel relationships
+ * are collapsed into a single relationship that keeps the first of their weights,
+ * so weights must be aggregated by the caller beforehand.
+ */
+public final class HugeGraphBuilder {
+
+    private final long nodeCount;
+    private final double defaultWeight;
+    private final AllocationTracker tracker;
+    private final HugeAdjacencyBuilder adjacency;
+    private final HugeLongArray offsets;
+    private final boolean loadWeights;
+
+    public HugeGraphBuilder(
+            long nodeCount,
+            boolean loadWeights,
+            double defaultWeight,
+            AllocationTracker tracker) {
+        this.nodeCount = nodeCount;
+        this.defaultWeight = defaultWeight;
+        this.tracker = tracker;
+        this.adjacency = new HugeAdjacencyBuilder(tracker, loadWeights ? WeightEncoding.DOUBLE : null);
+        this.offsets = HugeLongArray.newArray(nodeCount, tracker);
+        this.loadWeights = loadWeights;
+    }
+
+    /**
+     * @return a new importer, which must only be used by a single thread
+     */
+    public Importer newImporter() {
+        HugeAdjacencyBuilder localAdjacency = adjacency.threadLocalCopy();
+        localAdjacency.prepare();
+        return new Importer(localAdjacency);
+    }
+
+    /**
+     * Builds the graph. No importer must be used after this call.
+     */
+    public HugeGraph build() {
+        return HugeAdjacencyBuilder.apply(
+                tracker,
+                new HugeDirectIdMapping(nodeCount),
+                defaultWeight,
+                Collections.emptyMap(),
+                null,
+                adjacency,
+                null,
+                offsets
+        );
+    }
+
+    public final class Importer {
+
+        private final HugeAdjacencyBuilder adjacency;
+        private double[] defaultWeights = new double[0];
+
+        private Importer(HugeAdjacencyBuilder adjacency) {
+            this.adjacency = adjacency;
+        }
+
+        /**
+         * Sets the outgoing relationships of a node. Must be called at most once per node.
+         *
+         * @param nodeId  the source node
+         * @param targets the target nodes, in any order; the array is overwritten during compression
+         * @param values  the weight of each target or {@code null}; the array is overwritten during compression
+         * @param degree  the number of valid entries in {@code targets} and {@code values}
+         */
+        public void add(long nodeId, long[] targets, double[] values, int degree) {
+            if (degree <= 0) {
+                return;
+            }
+            if (loadWeights && values == null) {
+                values = defaultWeights(degree);
+            }
+            long address = adjacency.applyVariableDeltaEncoding(targets, values, degree);
+            offsets.set(nodeId, address);
+        }
+
+        private double[] defaultWeights(int degree) {
+            if (defaultWeights.length < degree) {
+                defaultWeights = new double[degree];
+                Arrays.fill(defaultWeights, defaultWeight);
+            }
+            return defaultWeights;
+        }
+    }
+}
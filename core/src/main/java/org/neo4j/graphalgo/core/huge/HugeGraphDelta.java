@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongObjectHashMap;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Relationship changes on top of the compressed adjacency of a {@link HugeGraphImpl}.
+ * <p>
+ * For every changed node and direction, a {@link NodeDelta} holds the changed targets in
+ * ascending order, so that it can be merged with the (also ascending) targets of the adjacency
+ * while iterating. A delta is immutable, applying an update creates a new delta that shares
+ * the unchanged nodes with the previous one, so that algorithms that are running on a graph
+ * are not affected by later updates.
+ */
+final class HugeGraphDelta {
+
+    static final HugeGraphDelta EMPTY = new HugeGraphDelta(
+            new LongObjectHashMap<>(),
+            new LongObjectHashMap<>(),
+            0L);
+
+    private final LongObjectHashMap<NodeDelta> outgoing;
+    private final LongObjectHashMap<NodeDelta> incoming;
+    private final long changes;
+
+    private HugeGraphDelta(
+            LongObjectHashMap<NodeDelta> outgoing,
+            LongObjectHashMap<NodeDelta> incoming,
+            long changes) {
+        this.outgoing = outgoing;
+        this.incoming = incoming;
+        this.changes = changes;
+    }
+
+    /**
+     * @return the changes of the node or {@code null} if the node has not been changed
+     */
+    NodeDelta get(long node, Direction direction) {
+        return direction == Direction.OUTGOING ? outgoing.get(node) : incoming.get(node);
+    }
+
+    /**
+     * @return the number of relationship changes that have been applied
+     */
+    long changes() {
+        return changes;
+    }
+
+    boolean isEmpty() {
+        return outgoing.isEmpty() && incoming.isEmpty();
+    }
+
+    /**
+     * @return a new delta in which the given nodes replace their previous changes
+     */
+    HugeGraphDelta with(
+            LongObjectHashMap<NodeDelta> outgoingChanges,
+            LongObjectHashMap<NodeDelta> incomingChanges,
+            long changeCount) {
+        LongObjectHashMap<NodeDelta> outgoing = this.outgoing;
+        if (!outgoingChanges.isEmpty()) {
+            outgoing = new LongObjectHashMap<>(this.outgoing);
+            outgoing.putAll(outgoingChanges);
+        }
+        LongObjectHashMap<NodeDelta> incoming = this.incoming;
+        if (!incomingChanges.isEmpty()) {
+            incoming = new LongObjectHashMap<>(this.incoming);
+            incoming.putAll(incomingChanges);
+        }
+        return new HugeGraphDelta(outgoing, incoming, changes + changeCount);
+    }
+
+    /**
+     * The changed targets of a single node, weights of removed targets are {@code NaN}.
+     */
+    static final class NodeDelta {
+        final long[] targets;
+        final double[] weights;
+        final int degree;
+
+        NodeDelta(long[] targets, double[] weights, int degree) {
+            this.targets = targets;
+            this.weights = weights;
+            this.degree = degree;
+        }
+
+        /**
+         * @return the position of the target or a negative value if the target has not been changed
+         */
+        int indexOf(long target) {
+            return Arrays.binarySearch(targets, target);
+        }
+    }
+}
@@ -18,26 +18,39 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.PropertyMapping;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.HugeGraph;
-import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.GraphDimensions;
-import org.neo4j.graphalgo.core.HugeWeightMap;
+import org.neo4j.graphalgo.core.HugeNodePropertyMap;
+import org.neo4j.graphalgo.core.NullWeightMap;
+import org.neo4j.graphalgo.core.loading.ReadHelper;
 import org.neo4j.graphalgo.core.utils.ApproximatedImportProgress;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.StatementAction;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.NodeCursor;
+import org.neo4j.internal.kernel.api.PropertyCursor;
 import org.neo4j.internal.kernel.api.Read;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
 public final class HugeGraphFactory extends GraphFactory {
@@ -51,6 +64,69 @@ public final class HugeGraphFactory extends GraphFactory {
         return importGraph();
     }
 
+    /**
+     * Estimates the heap that is required to load the graph, based on the counts store.
+     * The adjacency lists of off-heap graphs are imported into the heap before they are
+     * copied off-heap, so they are part of the estimation, their offsets are not.
+     * See {@link #offHeapMemoryEstimation()} for the memory that off-heap graphs keep outside of the heap.
+     */
+    @Override
+    public MemoryRange memoryEstimation() {
+        long nodeCount = dimensions.hugeNodeCount();
+
+        MemoryRange memory = HugeIdMap
+                .estimateMemoryUsage(nodeCount, dimensions.allNodesCount())
+                .add(MemoryUsage.shallowSizeOfInstance(HugeGraphImpl.class))
+                .add(adjacencyMemoryEstimation());
+        if (setup.memoryBackend == MemoryBackend.HEAP) {
+            memory = memory.add(offsetsMemoryEstimation());
+        }
+
+        for (PropertyMapping propertyMapping : setup.nodePropertyMappings) {
+            if (dimensions.nodePropertyKeyId(propertyMapping.type) != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+                memory = memory
+                        .add(DoubleArray.estimateMemoryUsage(nodeCount))
+                        .add(MemoryUsage.shallowSizeOfInstance(HugeNodePropertyMap.class));
+            }
+        }
+        return memory;
+    }
+
+    /**
+     * @return the adjacency lists and offsets of off-heap graphs, empty for graphs on the heap
+     */
+    @Override
+    public MemoryRange offHeapMemoryEstimation() {
+        if (setup.memoryBackend != MemoryBackend.OFF_HEAP) {
+            return MemoryRange.empty();
+        }
+        return adjacencyMemoryEstimation().add(offsetsMemoryEstimation());
+    }
+
+    private MemoryRange adjacencyMemoryEstimation() {
+        long nodeCount = dimensions.hugeNodeCount();
+        long relationshipCount = dimensions.maxRelCount();
+        int concurrency = setup.concurrency();
+        int weightBytes = dimensions.relWeightId() == StatementConstants.NO_SUCH_PROPERTY_KEY
+                ? 0
+                : setup.weightEncoding.bytes;
+        if (setup.loadAsUndirected) {
+            return HugeAdjacencyList.estimateMemoryUsage(nodeCount, relationshipCount << 1, weightBytes, concurrency);
+        }
+        return HugeAdjacencyList
+                .estimateMemoryUsage(nodeCount, relationshipCount, weightBytes, concurrency)
+                .times(directions());
+    }
+
+    private MemoryRange offsetsMemoryEstimation() {
+        long directions = setup.loadAsUndirected ? 1L : directions();
+        return MemoryRange.of(HugeLongArray.estimateMemoryUsage(dimensions.hugeNodeCount())).times(directions);
+    }
+
+    private long directions() {
+        return (setup.loadIncoming ? 1L : 0L) + (setup.loadOutgoing ? 1L : 0L);
+    }
+
     @Override
     protected ImportProgress importProgress(
             final ProgressLogger progressLogger,
@@ -79,17 +155,47 @@ public final class HugeGraphFactory extends GraphFactory {
     private HugeGraph importGraph() {
         int concurrency = setup.concurrency();
         AllocationTracker tracker = setup.tracker;
-        HugeWeightMapping weights = hugeWeightMapping(tracker, dimensions.relWeightId(), setup.relationDefaultWeight);
         HugeIdMap mapping = loadHugeIdMap(tracker);
-        HugeGraph graph = loadRelationships(dimensions, mapping, weights, concurrency, tracker, progress);
+        Map<String, WeightMapping> nodeProperties = loadNodeProperties(mapping, concurrency, tracker);
+        HugeGraph graph = loadRelationships(dimensions, mapping, nodeProperties, concurrency, tracker, progress);
         progressLogger.logDone(tracker);
         return graph;
     }
 
+    private Map<String, WeightMapping> loadNodeProperties(
+            HugeIdMap mapping,
+            int concurrency,
+            AllocationTracker tracker) {
+        Map<String, WeightMapping> nodeProperties = new HashMap<>();
+        List<HugeNodePropertyMap> propertiesToLoad = new ArrayList<>();
+        for (PropertyMapping propertyMapping : setup.nodePropertyMappings) {
+            int propertyId = dimensions.nodePropertyKeyId(propertyMapping.type);
+            if (propertyId == StatementConstants.NO_SUCH_PROPERTY_KEY) {
+                nodeProperties.put(propertyMapping.type, new NullWeightMap(propertyMapping.defaultValue));
+            } else {
+                HugeNodePropertyMap properties = HugeNodePropertyMap.of(
+                        mapping.nodeCount(),
+                        propertyMapping.defaultValue,
+                        propertyId,
+                        tracker);
+                nodeProperties.put(propertyMapping.type, properties);
+                propertiesToLoad.add(properties);
+            }
+        }
+        if (!propertiesToLoad.isEmpty()) {
+            HugeNodePropertyMap[] properties = propertiesToLoad.toArray(new HugeNodePropertyMap[0]);
+            NodeQueue nodes = new NodeQueue(mapping.nodeCount());
+            HugeNodePropertiesImporter[] tasks = new HugeNodePropertiesImporter[concurrency];
+            Arrays.setAll(tasks, i -> new HugeNodePropertiesImporter(api, i, nodes, mapping, properties));
+            ParallelUtil.run(Arrays.asList(tasks), threadPool);
+        }
+        return nodeProperties;
+    }
+
     private HugeGraph loadRelationships(
             GraphDimensions dimensions,
             HugeIdMap mapping,
-            HugeWeightMapping weights,
+            Map<String, WeightMapping> nodeProperties,
             int concurrency,
             AllocationTracker tracker,
             ImportProgress progress) {
@@ -97,7 +203,7 @@ public final class HugeGraphFactory extends GraphFactory {
             return loadUndirectedRelationships(
                     dimensions,
                     mapping,
-                    weights,
+                    nodeProperties,
                     concurrency,
                     tracker,
                     progress);
@@ -106,18 +212,19 @@ public final class HugeGraphFactory extends GraphFactory {
         final long nodeCount = dimensions.hugeNodeCount();
         final int[] relationId = dimensions.relationshipTypeId();
         final int weightId = dimensions.relWeightId();
+        final WeightEncoding weightEncoding = weightEncoding(weightId);
 
         HugeLongArray inOffsets = null;
         HugeLongArray outOffsets = null;
         HugeAdjacencyBuilder inAdjacency = null;
         HugeAdjacencyBuilder outAdjacency = null;
         if (setup.loadIncoming) {
-            inOffsets = HugeLongArray.newArray(nodeCount, tracker);
-            inAdjacency = new HugeAdjacencyBuilder(tracker);
+            inOffsets = HugeLongArray.newArray(nodeCount, setup.memoryBackend, tracker);
+            inAdjacency = new HugeAdjacencyBuilder(tracker, weightEncoding);
         }
         if (setup.loadOutgoing) {
-            outOffsets = HugeLongArray.newArray(nodeCount, tracker);
-            outAdjacency = new HugeAdjacencyBuilder(tracker);
+            outOffsets = HugeLongArray.newArray(nodeCount, setup.memoryBackend, tracker);
+            outAdjacency = new HugeAdjacencyBuilder(tracker, weightEncoding);
         }
         if (setup.loadIncoming || setup.loadOutgoing) {
             // needs final b/c of reference from lambda
@@ -141,7 +248,7 @@ public final class HugeGraphFactory extends GraphFactory {
                     false,
                     relationId,
                     weightId,
-                    weights
+                    setup.relationDefaultWeight
             ));
             ParallelUtil.run(Arrays.asList(tasks), threadPool);
         }
@@ -149,18 +256,20 @@ public final class HugeGraphFactory extends GraphFactory {
         return HugeAdjacencyBuilder.apply(
                 tracker,
                 mapping,
-                weights,
+                setup.relationDefaultWeight,
+                nodeProperties,
                 inAdjacency,
                 outAdjacency,
                 inOffsets,
-                outOffsets
+                outOffsets,
+                setup.memoryBackend
         );
     }
 
     private HugeGraph loadUndirectedRelationships(
             GraphDimensions dimensions,
             HugeIdMap mapping,
-            HugeWeightMapping weights,
+            Map<String, WeightMapping> nodeProperties,
             int concurrency,
             AllocationTracker tracker,
             ImportProgress progress) {
@@ -168,8 +277,8 @@ public final class HugeGraphFactory extends GraphFactory {
         final int[] relationId = dimensions.relationshipTypeId();
         final int weightId = dimensions.relWeightId();
 
-        HugeLongArray offsets = HugeLongArray.newArray(nodeCount, tracker);
-        HugeAdjacencyBuilder adjacency = new HugeAdjacencyBuilder(tracker);
+        HugeLongArray offsets = HugeLongArray.newArray(nodeCount, setup.memoryBackend, tracker);
+        HugeAdjacencyBuilder adjacency = new HugeAdjacencyBuilder(tracker, weightEncoding(weightId));
 
         NodeQueue nodes = new NodeQueue(nodeCount);
         HugeRelationshipImporter[] tasks = new HugeRelationshipImporter[concurrency];
@@ -186,21 +295,27 @@ public final class HugeGraphFactory extends GraphFactory {
                 true,
                 relationId,
                 weightId,
-                weights
+                setup.relationDefaultWeight
         ));
         ParallelUtil.run(Arrays.asList(tasks), threadPool);
 
         return HugeAdjacencyBuilder.apply(
                 tracker,
                 mapping,
-                weights,
+                setup.relationDefaultWeight,
+                nodeProperties,
                 null,
                 adjacency,
                 null,
-                offsets
+                offsets,
+                setup.memoryBackend
         );
     }
 
+    private WeightEncoding weightEncoding(int weightId) {
+        return weightId == StatementConstants.NO_SUCH_PROPERTY_KEY ? null : setup.weightEncoding;
+    }
+
     private static final class NodeQueue {
         private final AtomicLong current = new AtomicLong();
         private final long max;
@@ -215,6 +330,60 @@ public final class HugeGraphFactory extends GraphFactory {
         }
     }
 
+    private static final class HugeNodePropertiesImporter extends StatementAction {
+        private final int batchIndex;
+        private final NodeQueue nodes;
+        private final HugeIdMap idMap;
+        private final HugeNodePropertyMap[] properties;
+
+        HugeNodePropertiesImporter(
+                GraphDatabaseAPI api,
+                int batchIndex,
+                NodeQueue nodes,
+                HugeIdMap idMap,
+                HugeNodePropertyMap[] properties) {
+            super(api);
+            this.batchIndex = batchIndex;
+            this.nodes = nodes;
+            this.idMap = idMap;
+            this.properties = properties;
+        }
+
+        @Override
+        public String threadName() {
+            return "HugeNodePropertiesImport-" + batchIndex;
+        }
+
+        @Override
+        public void accept(final KernelTransaction transaction) {
+            Read readOp = transaction.dataRead();
+            CursorFactory cursors = transaction.cursors();
+            HugeNodePropertyMap[] properties = this.properties;
+            try (NodeCursor nodeCursor = cursors.allocateNodeCursor();
+                 PropertyCursor propertyCursor = cursors.allocatePropertyCursor()) {
+                NodeQueue nodes = this.nodes;
+                long nodeId;
+                while ((nodeId = nodes.next()) != -1L) {
+                    readOp.singleNode(idMap.toOriginalNodeId(nodeId), nodeCursor);
+                    if (nodeCursor.next()) {
+                        nodeCursor.properties(propertyCursor);
+                        while (propertyCursor.next()) {
+                            int propertyKey = propertyCursor.propertyKey();
+                            for (HugeNodePropertyMap property : properties) {
+                                if (property.propertyId() == propertyKey) {
+                                    double value = ReadHelper.extractValue(
+                                            propertyCursor.propertyValue(),
+                                            property.defaultValue());
+                                    property.put(nodeId, value);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     private static final class HugeRelationshipImporter extends StatementAction {
         private final int batchIndex;
         private final ImportProgress progress;
@@ -226,7 +395,7 @@ public final class HugeGraphFactory extends GraphFactory {
         private final HugeAdjacencyBuilder outAllocator;
         private final int[] relationId;
         private final int weightId;
-        private final HugeWeightMapping weights;
+        private final double defaultWeight;
         private final boolean undirected;
 
         HugeRelationshipImporter(
@@ -242,7 +411,7 @@ public final class HugeGraphFactory extends GraphFactory {
                 boolean undirected,
                 int[] relationId,
                 int weightId,
-                HugeWeightMapping weights) {
+                double defaultWeight) {
             super(api);
             this.batchIndex = batchIndex;
             this.progress = progress;
@@ -254,7 +423,7 @@ public final class HugeGraphFactory extends GraphFactory {
             this.outAllocator = outAdjacency != null ? outAdjacency.threadLocalCopy() : null;
             this.relationId = relationId;
             this.weightId = weightId;
-            this.weights = weights;
+            this.defaultWeight = defaultWeight;
             this.undirected = undirected;
         }
 
@@ -267,8 +436,7 @@ public final class HugeGraphFactory extends GraphFactory {
         public void accept(final KernelTransaction transaction) {
             Read readOp = transaction.dataRead();
             CursorFactory cursors = transaction.cursors();
-            boolean shouldLoadWeights = weightId >= 0;
-            HugeWeightMap weightMap = shouldLoadWeights ? (HugeWeightMap) weights : null;
+            boolean shouldLoadWeights = weightId != StatementConstants.NO_SUCH_PROPERTY_KEY;
 
             final RelationshipLoader loader;
             if (undirected) {
@@ -279,8 +447,8 @@ public final class HugeGraphFactory extends GraphFactory {
                 final VisitRelationship visitIn;
                 final VisitRelationship visitOut;
                 if (shouldLoadWeights) {
-                    visitIn = new VisitIncomingNoWeight(idMap);
-                    visitOut = new VisitUndirectedOutgoingWithWeight(readOp, cursors, idMap, weightMap, weightId);
+                    visitIn = new VisitIncomingWithWeight(readOp, cursors, idMap, defaultWeight, weightId);
+                    visitOut = new VisitOutgoingWithWeight(readOp, cursors, idMap, defaultWeight, weightId);
                 } else {
                     visitIn = new VisitIncomingNoWeight(idMap);
                     visitOut = new VisitOutgoingNoWeight(idMap);
@@ -292,7 +460,7 @@ public final class HugeGraphFactory extends GraphFactory {
                     outAllocator.prepare();
                     final VisitRelationship visitOut;
                     if (shouldLoadWeights) {
-                        visitOut = new VisitOutgoingWithWeight(readOp, cursors, idMap, weightMap, weightId);
+                        visitOut = new VisitOutgoingWithWeight(readOp, cursors, idMap, defaultWeight, weightId);
                     } else {
                         visitOut = new VisitOutgoingNoWeight(idMap);
                     }
@@ -302,7 +470,7 @@ public final class HugeGraphFactory extends GraphFactory {
                     inAllocator.prepare();
                     final VisitRelationship visitIn;
                     if (shouldLoadWeights) {
-                        visitIn = new VisitIncomingWithWeight(readOp, cursors, idMap, weightMap, weightId);
+                        visitIn = new VisitIncomingWithWeight(readOp, cursors, idMap, defaultWeight, weightId);
                     } else {
                         visitIn = new VisitIncomingNoWeight(idMap);
                     }
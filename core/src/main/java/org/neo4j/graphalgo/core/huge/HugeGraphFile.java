@@ -0,0 +1,524 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.HugeNodePropertyMap;
+import org.neo4j.graphalgo.core.NullWeightMap;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
+import org.neo4j.graphalgo.core.utils.paged.NativeMemory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfIntArray;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfLongArray;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfObjectArray;
+
+/**
+ * Reads and writes a {@link HugeGraph} from and to a single binary file.
+ * <p>
+ * The file contains the id mapping, the compressed adjacency pages and
+ * offsets of every loaded direction, including the relationship weights that
+ * are stored next to the targets, and all node properties. All numbers are written
+ * in big-endian byte order. The adjacency pages are written as they are,
+ * so opening a file does neither touch the Neo4j store nor compress any
+ * relationships again. Graphs with nodes that have been removed by a sync cannot be written,
+ * as the removed nodes would be opened as live nodes again.
+ * <p>
+ * Files are opened with memory-mapped windows of at most {@value #WINDOW_SIZE} bytes.
+ * The adjacency pages and the original node ids are read in place from the mapped file,
+ * only the offsets and node properties are copied into the heap structures of the graph.
+ * The mappings are kept alive by the graph, so the file must neither be changed nor
+ * deleted while the graph is open. Writing a file only replaces an existing file if that is
+ * requested, graphs that have been opened from the previous file keep reading the previous one.
+ * <p>
+ * Layout of the current {@code VERSION}:
+ * <pre>
+ * header       magic:int, version:int, nodeCount:long
+ * id mapping   type:byte, [sorted:byte, originalIds:long[nodeCount], [mappedIds:long[nodeCount] ordered by original id, if not sorted]]
+ * adjacency    directions:byte, per direction: weightBytes:byte, offsets:long[nodeCount], pageCount:int, (length:int, bytes)*
+ * weights      defaultWeight:double
+ * properties   count:int, (typeLength:int, type:utf8, kind:byte, defaultValue:double, [propertyId:int, values:double[nodeCount]])*
+ * </pre>
+ */
+public final class HugeGraphFile {
+
+    static final int MAGIC = 0x4E47_4146; // NGAF
+    static final int VERSION = 3;
+
+    private static final int WINDOW_SIZE = 1 << 26;
+
+    private static final byte DIRECT_ID_MAPPING = 0;
+    private static final byte HUGE_ID_MAP = 1;
+
+    private static final byte INCOMING = 1;
+    private static final byte OUTGOING = 2;
+
+    private static final byte NULL_PROPERTIES = 0;
+    private static final byte PAGED_PROPERTIES = 1;
+
+    private HugeGraphFile() {
+        throw new UnsupportedOperationException("No instances");
+    }
+
+    /**
+     * Writes the graph into the given file.
+     * The file is written into a temporary file first and moved into place afterwards.
+     *
+     * @param overwrite whether an existing file is replaced, otherwise writing fails if the file exists
+     * @return the number of bytes that have been written
+     */
+    public static long write(HugeGraph graph, Path file, boolean overwrite) {
+        if (!(graph instanceof HugeGraphImpl)) {
+            throw new IllegalArgumentException("Only huge graphs can be saved, got " + graph.getType());
+        }
+        if (((HugeGraphImpl) graph).hasRemovedNodes()) {
+            throw new IllegalArgumentException("Graphs with nodes that have been removed by a sync cannot be saved, load the graph again before saving it");
+        }
+        Path absolute = file.toAbsolutePath();
+        if (!overwrite && Files.exists(absolute)) {
+            throw new IllegalArgumentException("File " + absolute + " already exists, use overwrite:true to replace it");
+        }
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            // pending updates are written as part of the compressed adjacency,
+            // the merged copy is only temporary and can stay on the heap
+            HugeGraphImpl huge = ((HugeGraphImpl) graph).merge(MemoryBackend.HEAP);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temp), 1 << 16))) {
+                new Writer(huge, out).write();
+            } finally {
+                if (huge != graph) {
+                    huge.release();
+                }
+            }
+            if (overwrite) {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                // an atomic move may replace the target, a plain move fails if the file has been created in the meantime
+                Files.move(temp, absolute);
+            }
+            return Files.size(absolute);
+        } catch (FileAlreadyExistsException e) {
+            // procedures report the message of the root cause, so the cause is not kept
+            deleteTemporary(temp, e);
+            throw new IllegalArgumentException("File " + absolute + " already exists, use overwrite:true to replace it");
+        } catch (IOException e) {
+            deleteTemporary(temp, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteTemporary(temp, e);
+            throw e;
+        }
+    }
+
+    private static void deleteTemporary(Path temp, Exception cause) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException suppressed) {
+            cause.addSuppressed(suppressed);
+        }
+    }
+
+    /**
+     * Opens a graph that has been written with {@link #write(HugeGraph, Path, boolean)}.
+     */
+    public static HugeGraph open(Path file, AllocationTracker tracker) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Reader(new MappedInput(channel), tracker).read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Unexpected end of graph file " + file, e);
+        }
+    }
+
+    private static final class Writer {
+        private final HugeGraphImpl graph;
+        private final DataOutputStream out;
+        private final long nodeCount;
+
+        private Writer(HugeGraphImpl graph, DataOutputStream out) {
+            this.graph = graph;
+            this.out = out;
+            this.nodeCount = graph.nodeCount();
+        }
+
+        void write() throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(nodeCount);
+            writeIdMapping(graph.idMapping());
+            writeAdjacency();
+            out.writeDouble(graph.defaultWeight());
+            writeNodeProperties(graph.nodePropertyMappings());
+        }
+
+        private void writeIdMapping(HugeIdMapping idMapping) throws IOException {
+            if (idMapping instanceof HugeDirectIdMapping) {
+                out.writeByte(DIRECT_ID_MAPPING);
+                return;
+            }
+            out.writeByte(HUGE_ID_MAP);
+            long highestId = -1L;
+            boolean sorted = true;
+            for (long node = 0L; node < nodeCount; node++) {
+                long originalId = idMapping.toOriginalNodeId(node);
+                sorted &= originalId > highestId;
+                highestId = Math.max(highestId, originalId);
+            }
+            out.writeBoolean(sorted);
+            for (long node = 0L; node < nodeCount; node++) {
+                out.writeLong(idMapping.toOriginalNodeId(node));
+            }
+            if (!sorted) {
+                // the mapped ids in the order of their original ids, see HugeMappedIdMapping
+                for (long originalId = 0L; originalId <= highestId; originalId++) {
+                    if (idMapping.contains(originalId)) {
+                        out.writeLong(idMapping.toHugeMappedNodeId(originalId));
+                    }
+                }
+            }
+        }
+
+        private void writeAdjacency() throws IOException {
+            HugeAdjacencyList in = graph.inAdjacency();
+            HugeAdjacencyList out = graph.outAdjacency();
+            int directions = (in != null ? INCOMING : 0) | (out != null ? OUTGOING : 0);
+            this.out.writeByte(directions);
+            if (in != null) {
+                writeAdjacency(graph.inOffsets(), in);
+            }
+            if (out != null) {
+                writeAdjacency(graph.outOffsets(), out);
+            }
+        }
+
+        private void writeAdjacency(HugeLongArray offsets, HugeAdjacencyList adjacency) throws IOException {
+            out.writeByte(adjacency.weightBytes());
+            writeLongs(offsets);
+            int pageCount = adjacency.pageCount();
+            out.writeInt(pageCount);
+            for (int i = 0; i < pageCount; i++) {
+                byte[] page = adjacency.page(i);
+                if (page == null) {
+                    out.writeInt(-1);
+                } else {
+                    out.writeInt(page.length);
+                    out.write(page);
+                }
+            }
+        }
+
+        private void writeLongs(HugeLongArray array) throws IOException {
+            try (HugeLongArray.Cursor cursor = array.cursor(array.newCursor())) {
+                while (cursor.next()) {
+                    long[] values = cursor.array;
+                    int limit = (int) Math.min(cursor.limit, nodeCount - cursor.base);
+                    for (int i = cursor.offset; i < limit; i++) {
+                        out.writeLong(values[i]);
+                    }
+                }
+            }
+        }
+
+        private void writeNodeProperties(Map<String, WeightMapping> properties) throws IOException {
+            out.writeInt(properties.size());
+            for (Map.Entry<String, WeightMapping> entry : properties.entrySet()) {
+                byte[] type = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(type.length);
+                out.write(type);
+                WeightMapping mapping = entry.getValue();
+                if (mapping instanceof HugeNodePropertyMap) {
+                    HugeNodePropertyMap values = (HugeNodePropertyMap) mapping;
+                    out.writeByte(PAGED_PROPERTIES);
+                    out.writeDouble(values.defaultValue());
+                    out.writeInt(values.propertyId());
+                    for (long node = 0L; node < nodeCount; node++) {
+                        out.writeDouble(values.get(node, Double.NaN));
+                    }
+                } else {
+                    out.writeByte(NULL_PROPERTIES);
+                    out.writeDouble(mapping.get(0L));
+                }
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final MappedInput in;
+        private final AllocationTracker tracker;
+        private long nodeCount;
+
+        private Reader(MappedInput in, AllocationTracker tracker) {
+            this.in = in;
+            this.tracker = tracker;
+        }
+
+        HugeGraph read() throws IOException {
+            int magic = in.readInt();
+            if (magic != MAGIC) {
+                throw new IllegalArgumentException("Not a graph file, unexpected magic number " + Integer.toHexString(magic));
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(String.format(
+                        "Unsupported graph file version %d, expected version %d",
+                        version,
+                        VERSION));
+            }
+            nodeCount = in.readLong();
+            HugeIdMapping idMapping = readIdMapping();
+
+            byte directions = in.readByte();
+            HugeLongArray inOffsets = null;
+            HugeLongArray outOffsets = null;
+            HugeAdjacencyList inAdjacency = null;
+            HugeAdjacencyList outAdjacency = null;
+            if ((directions & INCOMING) != 0) {
+                int weightBytes = in.readByte();
+                inOffsets = readLongs();
+                inAdjacency = readAdjacency(weightBytes);
+            }
+            if ((directions & OUTGOING) != 0) {
+                int weightBytes = in.readByte();
+                outOffsets = readLongs();
+                outAdjacency = readAdjacency(weightBytes);
+            }
+
+            double defaultWeight = in.readDouble();
+            Map<String, WeightMapping> nodeProperties = readNodeProperties();
+
+            return new HugeGraphImpl(
+                    tracker,
+                    idMapping,
+                    defaultWeight,
+                    nodeProperties,
+                    inAdjacency,
+                    outAdjacency,
+                    inOffsets,
+                    outOffsets
+            );
+        }
+
+        private HugeIdMapping readIdMapping() throws IOException {
+            byte type = in.readByte();
+            if (type == DIRECT_ID_MAPPING) {
+                return new HugeDirectIdMapping(nodeCount);
+            }
+            boolean sorted = in.readByte() != 0;
+            LongBuffer[] originalIds = in.mapLongs(nodeCount);
+            LongBuffer[] sortedMappedIds = sorted ? null : in.mapLongs(nodeCount);
+            return new HugeMappedIdMapping(nodeCount, originalIds, sortedMappedIds);
+        }
+
+        private HugeLongArray readLongs() throws IOException {
+            HugeLongArray array = HugeLongArray.newArray(nodeCount, tracker);
+            try (HugeLongArray.Cursor cursor = array.cursor(array.newCursor())) {
+                while (cursor.next()) {
+                    int limit = (int) Math.min(cursor.limit, nodeCount - cursor.base);
+                    in.readLongs(cursor.array, cursor.offset, limit - cursor.offset);
+                }
+            }
+            return array;
+        }
+
+        private HugeAdjacencyList readAdjacency(int weightBytes) throws IOException {
+            int pageCount = in.readInt();
+            int[] lengths = new int[pageCount];
+            long[] addresses = new long[pageCount];
+            List<ByteBuffer> mappings = new ArrayList<>();
+            for (int i = 0; i < pageCount; i++) {
+                int length = in.readInt();
+                lengths[i] = length;
+                if (length >= 0) {
+                    addresses[i] = in.mapBytes(length, mappings);
+                }
+            }
+            HugeAdjacencyList adjacency = HugeAdjacencyList.mapped(lengths, addresses, mappings, weightBytes);
+            tracker.add(sizeOfObjectArray(pageCount) + sizeOfIntArray(pageCount) + sizeOfLongArray(pageCount));
+            return adjacency;
+        }
+
+        private Map<String, WeightMapping> readNodeProperties() throws IOException {
+            int count = in.readInt();
+            Map<String, WeightMapping> properties = new HashMap<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] type = new byte[in.readInt()];
+                in.readBytes(type, 0, type.length);
+                byte kind = in.readByte();
+                double defaultValue = in.readDouble();
+                WeightMapping mapping;
+                if (kind == PAGED_PROPERTIES) {
+                    int propertyId = in.readInt();
+                    HugeNodePropertyMap values = HugeNodePropertyMap.of(nodeCount, defaultValue, propertyId, tracker);
+                    for (long node = 0L; node < nodeCount; node++) {
+                        double value = in.readDouble();
+                        if (!Double.isNaN(value)) {
+                            values.put(node, value);
+                        }
+                    }
+                    mapping = values;
+                } else {
+                    mapping = new NullWeightMap(defaultValue);
+                }
+                properties.put(new String(type, StandardCharsets.UTF_8), mapping);
+            }
+            return properties;
+        }
+    }
+
+    /**
+     * Sequential reader over a file that maps a window of the file at a time.
+     * A single {@link MappedByteBuffer} cannot be larger than 2 GiB, so larger
+     * files are read through a sliding window.
+     */
+    private static final class MappedInput {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        private MappedInput(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0L);
+        }
+
+        byte readByte() throws IOException {
+            ensure(Byte.BYTES);
+            return window.get();
+        }
+
+        int readInt() throws IOException {
+            ensure(Integer.BYTES);
+            return window.getInt();
+        }
+
+        long readLong() throws IOException {
+            ensure(Long.BYTES);
+            return window.getLong();
+        }
+
+        double readDouble() throws IOException {
+            ensure(Double.BYTES);
+            return window.getDouble();
+        }
+
+        void readLongs(long[] dest, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensure(Long.BYTES);
+                int chunk = Math.min(length, window.remaining() / Long.BYTES);
+                window.asLongBuffer().get(dest, offset, chunk);
+                window.position(window.position() + chunk * Long.BYTES);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        void readBytes(byte[] dest, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensure(Byte.BYTES);
+                int chunk = Math.min(length, window.remaining());
+                window.get(dest, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        /**
+         * Returns the address of the next {@code length} bytes and skips them.
+         * The bytes are always within a single window, which is added to {@code mappings}
+         * and has to stay reachable as long as the address is used.
+         */
+        long mapBytes(int length, List<ByteBuffer> mappings) throws IOException {
+            ensure(length);
+            if (mappings.isEmpty() || mappings.get(mappings.size() - 1) != window) {
+                mappings.add(window);
+            }
+            long address = NativeMemory.addressOf(window) + window.position();
+            window.position(window.position() + length);
+            return address;
+        }
+
+        /**
+         * Maps the next {@code count} longs into buffers of at most {@link HugeMappedIdMapping#CHUNK_SIZE} longs
+         * and skips them. The buffers keep their mappings alive.
+         */
+        LongBuffer[] mapLongs(long count) throws IOException {
+            long position = windowStart + window.position();
+            long bytes = count * Long.BYTES;
+            if (position + bytes > size) {
+                throw new BufferUnderflowException();
+            }
+            int chunks = (int) ((count + HugeMappedIdMapping.CHUNK_SIZE - 1L) >>> HugeMappedIdMapping.CHUNK_SHIFT);
+            LongBuffer[] buffers = new LongBuffer[chunks];
+            for (int i = 0; i < chunks; i++) {
+                long start = (long) i << HugeMappedIdMapping.CHUNK_SHIFT;
+                long length = Math.min(HugeMappedIdMapping.CHUNK_SIZE, count - start);
+                buffers[i] = channel
+                        .map(FileChannel.MapMode.READ_ONLY, position + start * Long.BYTES, length * Long.BYTES)
+                        .asLongBuffer();
+            }
+            map(position + bytes);
+            return buffers;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                map(windowStart + window.position());
+                if (window.remaining() < bytes) {
+                    throw new BufferUnderflowException();
+                }
+            }
+        }
+
+        private void map(long position) throws IOException {
+            long length = Math.min(WINDOW_SIZE, size - position);
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+    }
+}
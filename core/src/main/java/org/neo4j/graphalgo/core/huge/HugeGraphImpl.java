@@ -18,22 +18,36 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongDoubleHashMap;
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.LongObjectCursor;
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterable;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
 import org.neo4j.graphalgo.api.RelationshipIntersect;
-import org.neo4j.graphalgo.api.HugeWeightMapping;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.HugeNodePropertyMap;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.NodeCursor;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.LongPredicate;
 
 /**
@@ -51,6 +65,10 @@ import java.util.function.LongPredicate;
  * (the neo kernel api returns an int for {@link org.neo4j.internal.kernel.api.helpers.Nodes#countAll(NodeCursor, CursorFactory)}).
  * Every target ID is first sorted, then delta encoded, and finally written as variable-length vlongs.
  * The delta encoding does not write the actual value but only the difference to the previous value, which plays very nice with the vlong encoding.
+ * If the graph is loaded with relationship weights, the weights of all targets are written
+ * between the degree and the first target, in the same order as the targets
+ * (see {@link HugeAdjacencyList}). Cursors return a target together with its weight,
+ * while {@link #weightOf(long, long)} has to scan the adjacency of the source node.
  * <p>
  * The seconds data structure is a LongArray, which is a long[] addressable by longs
  * and capable of storing about 2^43 (~9k bn) longs – or 64 TiB worth of 64 bit longs.
@@ -80,10 +98,11 @@ import java.util.function.LongPredicate;
  */
 public class HugeGraphImpl implements HugeGraph {
 
-    private final HugeIdMap idMapping;
+    private final HugeIdMapping idMapping;
     private final AllocationTracker tracker;
 
-    private HugeWeightMapping weights;
+    private final double defaultWeight;
+    private Map<String, WeightMapping> nodeProperties;
     private HugeAdjacencyList inAdjacency;
     private HugeAdjacencyList outAdjacency;
     private HugeLongArray inOffsets;
@@ -91,23 +110,47 @@ public class HugeGraphImpl implements HugeGraph {
     private HugeAdjacencyList.Cursor empty;
     private HugeAdjacencyList.Cursor inCache;
     private HugeAdjacencyList.Cursor outCache;
+    private final HugeGraphDelta delta;
     private boolean canRelease = true;
+    // every owner releases the shared adjacency and node properties only once
+    private boolean released = false;
+    // mapped ids of the nodes that have been removed by an update, null if there are none
+    private LongHashSet removedNodes;
+    // concurrent copies keep the graph they have been created from reachable
+    private HugeGraphImpl parent;
 
     HugeGraphImpl(
             final AllocationTracker tracker,
-            final HugeIdMap idMapping,
-            final HugeWeightMapping weights,
+            final HugeIdMapping idMapping,
+            final double defaultWeight,
+            final Map<String, WeightMapping> nodeProperties,
             final HugeAdjacencyList inAdjacency,
             final HugeAdjacencyList outAdjacency,
             final HugeLongArray inOffsets,
             final HugeLongArray outOffsets) {
+        this(tracker, idMapping, defaultWeight, nodeProperties,
+                inAdjacency, outAdjacency, inOffsets, outOffsets, HugeGraphDelta.EMPTY);
+    }
+
+    private HugeGraphImpl(
+            final AllocationTracker tracker,
+            final HugeIdMapping idMapping,
+            final double defaultWeight,
+            final Map<String, WeightMapping> nodeProperties,
+            final HugeAdjacencyList inAdjacency,
+            final HugeAdjacencyList outAdjacency,
+            final HugeLongArray inOffsets,
+            final HugeLongArray outOffsets,
+            final HugeGraphDelta delta) {
         this.idMapping = idMapping;
         this.tracker = tracker;
-        this.weights = weights;
+        this.defaultWeight = defaultWeight;
+        this.nodeProperties = nodeProperties;
         this.inAdjacency = inAdjacency;
         this.outAdjacency = outAdjacency;
         this.inOffsets = inOffsets;
         this.outOffsets = outOffsets;
+        this.delta = delta;
         inCache = newCursor(this.inAdjacency);
         outCache = newCursor(this.outAdjacency);
         empty = inCache == null ? newCursor(this.outAdjacency) : newCursor(this.inAdjacency);
@@ -118,24 +161,126 @@ public class HugeGraphImpl implements HugeGraph {
         return idMapping.nodeCount();
     }
 
+    HugeIdMapping idMapping() {
+        return idMapping;
+    }
+
+    double defaultWeight() {
+        return defaultWeight;
+    }
+
+    Map<String, WeightMapping> nodePropertyMappings() {
+        return nodeProperties;
+    }
+
+    HugeAdjacencyList inAdjacency() {
+        return inAdjacency;
+    }
+
+    HugeAdjacencyList outAdjacency() {
+        return outAdjacency;
+    }
+
+    HugeLongArray inOffsets() {
+        return inOffsets;
+    }
+
+    HugeLongArray outOffsets() {
+        return outOffsets;
+    }
+
+    /**
+     * @return true if the node has been removed by an update, removed nodes keep their mapped id
+     * but are skipped when iterating over the nodes
+     */
+    public boolean isRemoved(long nodeId) {
+        return removedNodes != null && removedNodes.contains(nodeId);
+    }
+
+    public boolean hasRemovedNodes() {
+        return removedNodes != null;
+    }
+
     @Override
     public Collection<PrimitiveLongIterable> hugeBatchIterables(final int batchSize) {
-        return idMapping.hugeBatchIterables(batchSize);
+        if (removedNodes == null) {
+            return LazyBatchCollection.of(
+                    nodeCount(),
+                    batchSize,
+                    HugeIdMap.IdIterable::new);
+        }
+        return LazyBatchCollection.of(
+                nodeCount(),
+                batchSize,
+                (start, length) -> () -> PrimitiveLongCollections.filter(
+                        new HugeIdMap.IdIterator(start, length),
+                        node -> !isRemoved(node)));
     }
 
     @Override
     public void forEachNode(LongPredicate consumer) {
-        idMapping.forEachNode(consumer);
+        final long count = nodeCount();
+        for (long i = 0L; i < count; i++) {
+            if (!isRemoved(i) && !consumer.test(i)) {
+                return;
+            }
+        }
     }
 
     @Override
     public PrimitiveLongIterator hugeNodeIterator() {
-        return idMapping.hugeNodeIterator();
+        if (removedNodes == null) {
+            return new HugeIdMap.IdIterator(nodeCount());
+        }
+        return PrimitiveLongCollections.filter(
+                new HugeIdMap.IdIterator(nodeCount()),
+                node -> !isRemoved(node));
     }
 
     @Override
     public double weightOf(final long sourceNodeId, final long targetNodeId) {
-        return weights.weight(sourceNodeId, targetNodeId);
+        if (hasWeights(outAdjacency)) {
+            return weightOf(sourceNodeId, targetNodeId, Direction.OUTGOING, outOffsets, outAdjacency);
+        }
+        if (hasWeights(inAdjacency)) {
+            return weightOf(targetNodeId, sourceNodeId, Direction.INCOMING, inOffsets, inAdjacency);
+        }
+        return defaultWeight;
+    }
+
+    private double weightOf(
+            long node,
+            long target,
+            Direction direction,
+            HugeLongArray offsets,
+            HugeAdjacencyList adjacency) {
+        HugeGraphDelta.NodeDelta nodeDelta = delta.get(node, direction);
+        if (nodeDelta != null) {
+            int index = nodeDelta.indexOf(target);
+            if (index >= 0) {
+                double weight = nodeDelta.weights[index];
+                return Double.isNaN(weight) ? defaultWeight : weight;
+            }
+        }
+        if (node >= offsets.size()) {
+            return defaultWeight;
+        }
+        long offset = offsets.get(node);
+        if (offset == 0L) {
+            return defaultWeight;
+        }
+        int position = adjacency.positionOf(offset, target);
+        return position == -1 ? defaultWeight : adjacency.weight(offset, position);
+    }
+
+    @Override
+    public WeightMapping nodeProperties(final String type) {
+        return nodeProperties.get(type);
+    }
+
+    @Override
+    public Set<String> availableNodeProperties() {
+        return nodeProperties.keySet();
     }
 
     @Override
@@ -143,6 +288,11 @@ public class HugeGraphImpl implements HugeGraph {
         runForEach(nodeId, direction, consumer, /* reuseCursor */ true);
     }
 
+    @Override
+    public void forEachRelationship(long nodeId, Direction direction, HugeWeightedRelationshipConsumer consumer) {
+        runForEach(nodeId, direction, consumer, /* reuseCursor */ true);
+    }
+
     @Override
     public void forEachRelationship(int nodeId, Direction direction, RelationshipConsumer consumer) {
         switch (direction) {
@@ -183,14 +333,15 @@ public class HugeGraphImpl implements HugeGraph {
             final Direction direction) {
         switch (direction) {
             case INCOMING:
-                return degree(node, inOffsets, inAdjacency);
+                return degree(node, Direction.INCOMING, inOffsets, inAdjacency);
 
             case OUTGOING:
-                return degree(node, outOffsets, outAdjacency);
+                return degree(node, Direction.OUTGOING, outOffsets, outAdjacency);
 
             case BOTH:
-                return degree(node, inOffsets, inAdjacency) + degree(
+                return degree(node, Direction.INCOMING, inOffsets, inAdjacency) + degree(
                         node,
+                        Direction.OUTGOING,
                         outOffsets,
                         outAdjacency);
 
@@ -201,7 +352,8 @@ public class HugeGraphImpl implements HugeGraph {
 
     @Override
     public long toHugeMappedNodeId(long nodeId) {
-        return idMapping.toHugeMappedNodeId(nodeId);
+        long mappedId = idMapping.toHugeMappedNodeId(nodeId);
+        return isRemoved(mappedId) ? HugeIdMap.NOT_FOUND : mappedId;
     }
 
     @Override
@@ -211,7 +363,7 @@ public class HugeGraphImpl implements HugeGraph {
 
     @Override
     public boolean contains(final long nodeId) {
-        return idMapping.contains(nodeId);
+        return idMapping.contains(nodeId) && !isRemoved(idMapping.toHugeMappedNodeId(nodeId));
     }
 
     @Override
@@ -262,21 +414,241 @@ public class HugeGraphImpl implements HugeGraph {
         );
     }
 
+    /**
+     * Returns a view of this graph for another thread. The view does not own the adjacency,
+     * releasing it has no effect and it must not be used after this graph has been released.
+     * The view keeps this graph reachable, see {@link #releaseAction()}.
+     */
     @Override
     public HugeGraph concurrentCopy() {
-        return new HugeGraphImpl(
+        HugeGraphImpl copy = new HugeGraphImpl(
                 tracker,
                 idMapping,
-                weights,
+                defaultWeight,
+                nodeProperties,
                 inAdjacency,
                 outAdjacency,
                 inOffsets,
-                outOffsets
+                outOffsets,
+                delta
         );
+        copy.canRelease = false;
+        copy.removedNodes = removedNodes;
+        copy.parent = parent != null ? parent : this;
+        return copy;
+    }
+
+    /**
+     * Applies the changes on top of this graph. The returned graph shares the adjacency
+     * with this graph, which is not affected by the update. Both graphs own the shared adjacency
+     * and node properties, which are released once both graphs have been released.
+     * Added nodes get the next mapped ids, node properties return their default value for them.
+     * Removed nodes keep their mapped id, but are no longer contained in the graph and are skipped
+     * when iterating over the nodes. A removed node that is added again gets its previous mapped id back.
+     *
+     * @param undirected whether the graph has been loaded as undirected,
+     *                   in which case every relationship is changed in both directions
+     */
+    public HugeGraphImpl update(HugeGraphUpdate update, boolean undirected) {
+        LongArrayList addedNodes = new LongArrayList();
+        LongHashSet seen = new LongHashSet();
+        LongHashSet removed = removedNodes != null ? new LongHashSet(removedNodes) : new LongHashSet();
+        for (int i = 0; i < update.nodeCount(); i++) {
+            long nodeId = update.node(i);
+            if (idMapping.contains(nodeId)) {
+                removed.remove(idMapping.toHugeMappedNodeId(nodeId));
+            } else if (seen.add(nodeId)) {
+                addedNodes.add(nodeId);
+            }
+        }
+        HugeIdMapping mapping = HugeAppendedIdMapping.append(idMapping, addedNodes);
+
+        LongObjectHashMap<LongDoubleHashMap> outgoing = new LongObjectHashMap<>();
+        LongObjectHashMap<LongDoubleHashMap> incoming = new LongObjectHashMap<>();
+        long changes = 0L;
+        for (int i = 0; i < update.relationshipCount(); i++) {
+            long source = update.source(i);
+            long target = update.target(i);
+            if (!mapping.contains(source) || !mapping.contains(target)) {
+                continue;
+            }
+            source = mapping.toHugeMappedNodeId(source);
+            target = mapping.toHugeMappedNodeId(target);
+            if (removed.contains(source) || removed.contains(target)) {
+                continue;
+            }
+            double weight = update.weight(i);
+            if (undirected) {
+                change(outgoing, source, target, weight);
+                change(outgoing, target, source, weight);
+            } else {
+                if (outAdjacency != null) {
+                    change(outgoing, source, target, weight);
+                }
+                if (inAdjacency != null) {
+                    change(incoming, target, source, weight);
+                }
+            }
+            changes++;
+        }
+        // relationships of removed nodes are removed as part of the same update
+        for (int i = 0; i < update.removedNodeCount(); i++) {
+            long nodeId = update.removedNode(i);
+            if (mapping.contains(nodeId)) {
+                removed.add(mapping.toHugeMappedNodeId(nodeId));
+            }
+        }
+
+        HugeGraphImpl graph = new HugeGraphImpl(
+                tracker, mapping, defaultWeight, nodeProperties,
+                inAdjacency, outAdjacency, inOffsets, outOffsets, delta);
+        HugeGraphDelta updated = delta.with(
+                graph.nodeDeltas(outgoing, Direction.OUTGOING),
+                graph.nodeDeltas(incoming, Direction.INCOMING),
+                changes);
+        retainNodeProperties();
+        HugeGraphImpl updatedGraph = new HugeGraphImpl(
+                tracker, mapping, defaultWeight, nodeProperties,
+                retain(inAdjacency), retain(outAdjacency), inOffsets, outOffsets, updated);
+        updatedGraph.removedNodes = removed.isEmpty() ? null : removed;
+        return updatedGraph;
+    }
+
+    /**
+     * Writes the adjacency of this graph, including all updates, into a new compressed adjacency.
+     *
+     * @return a graph without pending updates or this graph if there is nothing to merge
+     */
+    public HugeGraphImpl merge() {
+        boolean offHeap = (inAdjacency != null && inAdjacency.isOffHeap())
+                || (outAdjacency != null && outAdjacency.isOffHeap());
+        return merge(offHeap ? MemoryBackend.OFF_HEAP : MemoryBackend.HEAP);
+    }
+
+    HugeGraphImpl merge(MemoryBackend backend) {
+        long nodeCount = nodeCount();
+        if (delta.isEmpty() && covers(inOffsets, nodeCount) && covers(outOffsets, nodeCount)) {
+            return this;
+        }
+        HugeGraphImpl source = (HugeGraphImpl) concurrentCopy();
+        HugeAdjacencyBuilder inBuilder = null;
+        HugeAdjacencyBuilder outBuilder = null;
+        HugeLongArray newInOffsets = null;
+        HugeLongArray newOutOffsets = null;
+        if (inAdjacency != null) {
+            inBuilder = new HugeAdjacencyBuilder(tracker, WeightEncoding.of(inAdjacency.weightBytes()));
+            newInOffsets = HugeLongArray.newArray(nodeCount, tracker);
+            source.mergeInto(Direction.INCOMING, inBuilder.threadLocalCopy(), newInOffsets);
+        }
+        if (outAdjacency != null) {
+            outBuilder = new HugeAdjacencyBuilder(tracker, WeightEncoding.of(outAdjacency.weightBytes()));
+            newOutOffsets = HugeLongArray.newArray(nodeCount, tracker);
+            source.mergeInto(Direction.OUTGOING, outBuilder.threadLocalCopy(), newOutOffsets);
+        }
+        // the merged graph owns the new adjacency and shares the node properties with this graph
+        retainNodeProperties();
+        HugeGraphImpl merged = (HugeGraphImpl) HugeAdjacencyBuilder.apply(
+                tracker, idMapping, defaultWeight, nodeProperties,
+                inBuilder, outBuilder, newInOffsets, newOutOffsets, backend);
+        merged.removedNodes = removedNodes;
+        return merged;
+    }
+
+    private static HugeAdjacencyList retain(HugeAdjacencyList adjacency) {
+        return adjacency != null ? adjacency.retain() : null;
+    }
+
+    private void retainNodeProperties() {
+        for (WeightMapping properties : nodeProperties.values()) {
+            if (properties instanceof HugeNodePropertyMap) {
+                ((HugeNodePropertyMap) properties).retain();
+            }
+        }
+    }
+
+    /**
+     * @return the number of relationship changes that have been applied since the graph was loaded or merged
+     */
+    public long pendingUpdates() {
+        return delta.changes();
+    }
+
+    private static void change(
+            LongObjectHashMap<LongDoubleHashMap> changes,
+            long source,
+            long target,
+            double weight) {
+        LongDoubleHashMap targets = changes.get(source);
+        if (targets == null) {
+            targets = new LongDoubleHashMap();
+            changes.put(source, targets);
+        }
+        targets.put(target, weight);
+    }
+
+    private LongObjectHashMap<HugeGraphDelta.NodeDelta> nodeDeltas(
+            LongObjectHashMap<LongDoubleHashMap> changes,
+            Direction direction) {
+        LongObjectHashMap<HugeGraphDelta.NodeDelta> deltas = new LongObjectHashMap<>(changes.size());
+        for (LongObjectCursor<LongDoubleHashMap> cursor : changes) {
+            long node = cursor.key;
+            LongDoubleHashMap nodeChanges = new LongDoubleHashMap();
+            HugeGraphDelta.NodeDelta previous = delta.get(node, direction);
+            if (previous != null) {
+                for (int i = 0; i < previous.targets.length; i++) {
+                    nodeChanges.put(previous.targets[i], previous.weights[i]);
+                }
+            }
+            nodeChanges.putAll(cursor.value);
+
+            long[] targets = nodeChanges.keys().toArray();
+            Arrays.sort(targets);
+            double[] weights = new double[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                weights[i] = nodeChanges.get(targets[i]);
+            }
+
+            HugeGraphDelta.NodeDelta nodeDelta = new HugeGraphDelta.NodeDelta(targets, weights, 0);
+            int[] degree = {0};
+            consumeNodes(
+                    node,
+                    forEachCursor(node, direction, /* reuseCursor */ true),
+                    false,
+                    nodeDelta,
+                    (s, t, w) -> {
+                        degree[0]++;
+                        return true;
+                    });
+            deltas.put(node, new HugeGraphDelta.NodeDelta(targets, weights, degree[0]));
+        }
+        return deltas;
+    }
+
+    private void mergeInto(Direction direction, HugeAdjacencyBuilder adjacency, HugeLongArray offsets) {
+        adjacency.prepare();
+        RelationshipCollector relationships = new RelationshipCollector();
+        long nodeCount = nodeCount();
+        for (long node = 0L; node < nodeCount; node++) {
+            relationships.length = 0;
+            runForEach(node, direction, relationships, /* reuseCursor */ true);
+            if (relationships.length > 0) {
+                offsets.set(node, adjacency.applyVariableDeltaEncoding(
+                        relationships.targets,
+                        relationships.weights,
+                        relationships.length));
+            }
+        }
+    }
+
+    private static boolean covers(HugeLongArray offsets, long nodeCount) {
+        return offsets == null || offsets.size() >= nodeCount;
     }
 
     @Override
     public RelationshipIntersect intersection() {
+        if (!delta.isEmpty()) {
+            throw new IllegalStateException("Intersections require a graph without pending updates, merge the updates first");
+        }
         return new HugeGraphIntersectImpl(outAdjacency, outOffsets);
     }
 
@@ -356,9 +728,36 @@ public class HugeGraphImpl implements HugeGraph {
             return;
         }
         HugeAdjacencyList.Cursor cursor = forEachCursor(sourceNodeId, direction, reuseCursor);
+        HugeGraphDelta.NodeDelta nodeDelta = delta.get(sourceNodeId, direction);
+        if (nodeDelta != null) {
+            consumeNodes(sourceNodeId, cursor, false, nodeDelta, (s, t, w) -> consumer.accept(s, t));
+            return;
+        }
         consumeNodes(sourceNodeId, cursor, consumer);
     }
 
+    private void runForEach(
+            long sourceNodeId,
+            Direction direction,
+            HugeWeightedRelationshipConsumer consumer,
+            boolean reuseCursor) {
+        if (direction == Direction.BOTH) {
+            runForEach(sourceNodeId, Direction.OUTGOING, consumer, reuseCursor);
+            runForEach(sourceNodeId, Direction.INCOMING, consumer, reuseCursor);
+            return;
+        }
+        HugeAdjacencyList.Cursor cursor = forEachCursor(sourceNodeId, direction, reuseCursor);
+        HugeAdjacencyList adjacency = direction == Direction.OUTGOING ? outAdjacency : inAdjacency;
+        HugeGraphDelta.NodeDelta nodeDelta = delta.get(sourceNodeId, direction);
+        if (nodeDelta != null) {
+            consumeNodes(sourceNodeId, cursor, hasWeights(adjacency), nodeDelta, consumer);
+        } else if (hasWeights(adjacency)) {
+            consumeWeightedNodes(sourceNodeId, cursor, consumer);
+        } else {
+            consumeNodes(sourceNodeId, cursor, consumer, defaultWeight);
+        }
+    }
+
     private HugeAdjacencyList.Cursor forEachCursor(
             long sourceNodeId,
             Direction direction,
@@ -385,33 +784,69 @@ public class HugeGraphImpl implements HugeGraph {
 
     @Override
     public void release() {
-        if (!canRelease) return;
-        if (inAdjacency != null) {
-            tracker.remove(inAdjacency.release());
-            tracker.remove(inOffsets.release());
-            inAdjacency = null;
-            inOffsets = null;
-        }
-        if (outAdjacency != null) {
-            tracker.remove(outAdjacency.release());
-            tracker.remove(outOffsets.release());
-            outAdjacency = null;
-            outOffsets = null;
-        }
-        if (weights != null) {
-            tracker.remove(weights.release());
-        }
+        if (!canRelease || released) return;
+        released = true;
+        releaseAction().run();
+        inAdjacency = null;
+        inOffsets = null;
+        outAdjacency = null;
+        outOffsets = null;
         empty = null;
         inCache = null;
         outCache = null;
-        weights = null;
+    }
+
+    /**
+     * Returns an action that releases this graph's share of the adjacency and node properties.
+     * The action does not reference the graph, so that it can be run once the graph
+     * is no longer reachable, when no algorithm is using it anymore.
+     * It must be run at most once and only if {@link #release()} is never called.
+     */
+    public Runnable releaseAction() {
+        return releaseAction(tracker, inAdjacency, inOffsets, outAdjacency, outOffsets, nodeProperties);
+    }
+
+    private static Runnable releaseAction(
+            AllocationTracker tracker,
+            HugeAdjacencyList inAdjacency,
+            HugeLongArray inOffsets,
+            HugeAdjacencyList outAdjacency,
+            HugeLongArray outOffsets,
+            Map<String, WeightMapping> nodeProperties) {
+        return () -> {
+            // the offsets are shared together with the adjacency and released with its last owner
+            release(tracker, inAdjacency, inOffsets);
+            release(tracker, outAdjacency, outOffsets);
+            for (WeightMapping properties : nodeProperties.values()) {
+                if (properties instanceof HugeNodePropertyMap) {
+                    tracker.remove(((HugeNodePropertyMap) properties).release());
+                }
+            }
+        };
+    }
+
+    private static void release(AllocationTracker tracker, HugeAdjacencyList adjacency, HugeLongArray offsets) {
+        if (adjacency != null) {
+            long released = adjacency.release();
+            if (released > 0L) {
+                tracker.remove(released);
+                tracker.remove(offsets.release());
+            }
+        }
     }
 
     private HugeAdjacencyList.Cursor newCursor(final HugeAdjacencyList adjacency) {
         return adjacency != null ? adjacency.newCursor() : null;
     }
 
-    private int degree(long node, HugeLongArray offsets, HugeAdjacencyList array) {
+    private int degree(long node, Direction direction, HugeLongArray offsets, HugeAdjacencyList array) {
+        HugeGraphDelta.NodeDelta nodeDelta = delta.get(node, direction);
+        if (nodeDelta != null) {
+            return nodeDelta.degree;
+        }
+        if (node >= offsets.size()) {
+            return 0;
+        }
         long offset = offsets.get(node);
         if (offset == 0L) {
             return 0;
@@ -424,6 +859,10 @@ public class HugeGraphImpl implements HugeGraph {
             HugeAdjacencyList.Cursor reuse,
             HugeLongArray offsets,
             HugeAdjacencyList array) {
+        if (node >= offsets.size()) {
+            // nodes that have been added by an update
+            return empty;
+        }
         final long offset = offsets.get(node);
         if (offset == 0L) {
             return empty;
@@ -439,6 +878,65 @@ public class HugeGraphImpl implements HugeGraph {
         while (cursor.hasNextVLong() && consumer.accept(startNode, cursor.nextVLong())) ;
     }
 
+    private void consumeWeightedNodes(
+            long startNode,
+            HugeAdjacencyList.Cursor cursor,
+            HugeWeightedRelationshipConsumer consumer) {
+        //noinspection StatementWithEmptyBody
+        while (cursor.hasNextVLong() && consumer.accept(startNode, cursor.nextVLong(), cursor.weight())) ;
+    }
+
+    private void consumeNodes(
+            long startNode,
+            HugeAdjacencyList.Cursor cursor,
+            HugeWeightedRelationshipConsumer consumer,
+            double weight) {
+        //noinspection StatementWithEmptyBody
+        while (cursor.hasNextVLong() && consumer.accept(startNode, cursor.nextVLong(), weight)) ;
+    }
+
+    /**
+     * Merges the targets of the cursor with the changed targets of the node, both in ascending order.
+     * Changed targets replace the weight of an existing target, or remove it if their weight is {@code NaN}.
+     */
+    private void consumeNodes(
+            long startNode,
+            HugeAdjacencyList.Cursor cursor,
+            boolean weighted,
+            HugeGraphDelta.NodeDelta nodeDelta,
+            HugeWeightedRelationshipConsumer consumer) {
+        long[] targets = nodeDelta.targets;
+        double[] weights = nodeDelta.weights;
+        int index = 0;
+        while (cursor.hasNextVLong()) {
+            long target = cursor.nextVLong();
+            double weight = weighted ? cursor.weight() : defaultWeight;
+            for (; index < targets.length && targets[index] < target; index++) {
+                if (!Double.isNaN(weights[index]) && !consumer.accept(startNode, targets[index], weights[index])) {
+                    return;
+                }
+            }
+            if (index < targets.length && targets[index] == target) {
+                weight = weights[index++];
+                if (Double.isNaN(weight)) {
+                    continue;
+                }
+            }
+            if (!consumer.accept(startNode, target, weight)) {
+                return;
+            }
+        }
+        for (; index < targets.length; index++) {
+            if (!Double.isNaN(weights[index]) && !consumer.accept(startNode, targets[index], weights[index])) {
+                return;
+            }
+        }
+    }
+
+    private static boolean hasWeights(HugeAdjacencyList adjacency) {
+        return adjacency != null && adjacency.weightBytes() > 0;
+    }
+
     private HugeRelationshipConsumer toHugeOutConsumer(RelationshipConsumer consumer) {
         return (s, t) -> consumer.accept(
                 (int) s,
@@ -453,26 +951,20 @@ public class HugeGraphImpl implements HugeGraph {
                 RawValues.combineIntInt((int) t, (int) s));
     }
 
-    private HugeRelationshipConsumer toHugeOutConsumer(WeightedRelationshipConsumer consumer) {
-        return (s, t) -> {
-            double weight = weightOf(s, t);
-            return consumer.accept(
-                    (int) s,
-                    (int) t,
-                    RawValues.combineIntInt((int) s, (int) t),
-                    weight);
-        };
+    private HugeWeightedRelationshipConsumer toHugeOutConsumer(WeightedRelationshipConsumer consumer) {
+        return (s, t, w) -> consumer.accept(
+                (int) s,
+                (int) t,
+                RawValues.combineIntInt((int) s, (int) t),
+                w);
     }
 
-    private HugeRelationshipConsumer toHugeInConsumer(WeightedRelationshipConsumer consumer) {
-        return (s, t) -> {
-            double weight = weightOf(t, s);
-            return consumer.accept(
-                    (int) s,
-                    (int) t,
-                    RawValues.combineIntInt((int) t, (int) s),
-                    weight);
-        };
+    private HugeWeightedRelationshipConsumer toHugeInConsumer(WeightedRelationshipConsumer consumer) {
+        return (s, t, w) -> consumer.accept(
+                (int) s,
+                (int) t,
+                RawValues.combineIntInt((int) t, (int) s),
+                w);
     }
 
     private static class GetTargetConsumer implements HugeRelationshipConsumer {
@@ -493,6 +985,25 @@ public class HugeGraphImpl implements HugeGraph {
         }
     }
 
+    private static final class RelationshipCollector implements HugeWeightedRelationshipConsumer {
+        private long[] targets = new long[0];
+        private double[] weights = new double[0];
+        private int length;
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId, double weight) {
+            if (length == targets.length) {
+                int newLength = Math.max(16, length + (length >> 1));
+                targets = Arrays.copyOf(targets, newLength);
+                weights = Arrays.copyOf(weights, newLength);
+            }
+            targets[length] = targetNodeId;
+            weights[length] = weight;
+            length++;
+            return true;
+        }
+    }
+
     private static class ExistsConsumer implements HugeRelationshipConsumer {
         private final long targetNodeId;
         private boolean found = false;
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+
+/**
+ * A batch of changes to a huge graph, expressed in original node ids,
+ * e.g. the changes of a committed transaction.
+ * Changes are applied in the order in which they were added,
+ * see {@link HugeGraphImpl#update(HugeGraphUpdate, boolean)}.
+ */
+public final class HugeGraphUpdate {
+
+    private final LongArrayList nodes = new LongArrayList();
+    private final LongArrayList removedNodes = new LongArrayList();
+    private final LongArrayList sources = new LongArrayList();
+    private final LongArrayList targets = new LongArrayList();
+    private final DoubleArrayList weights = new DoubleArrayList();
+
+    /**
+     * Adds a node to the graph, nodes that are already part of the graph are ignored.
+     */
+    public void addNode(long nodeId) {
+        nodes.add(nodeId);
+    }
+
+    /**
+     * Removes a node from the graph, its relationships have to be removed as part of the same update.
+     * Nodes that are not part of the graph are ignored.
+     */
+    public void removeNode(long nodeId) {
+        removedNodes.add(nodeId);
+    }
+
+    /**
+     * Adds a relationship or replaces the weight of an existing relationship.
+     * Relationships with a source or target outside of the graph are ignored.
+     */
+    public void addRelationship(long sourceNodeId, long targetNodeId, double weight) {
+        if (Double.isNaN(weight)) {
+            throw new IllegalArgumentException("Relationship weight must not be NaN");
+        }
+        sources.add(sourceNodeId);
+        targets.add(targetNodeId);
+        weights.add(weight);
+    }
+
+    public void removeRelationship(long sourceNodeId, long targetNodeId) {
+        sources.add(sourceNodeId);
+        targets.add(targetNodeId);
+        weights.add(Double.NaN);
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty() && removedNodes.isEmpty() && sources.isEmpty();
+    }
+
+    /**
+     * @return true if the update removes any node
+     */
+    public boolean removesNodes() {
+        return !removedNodes.isEmpty();
+    }
+
+    /**
+     * Appends the changes of a later update, so that both are applied at once.
+     * Node removals are applied after all other changes of an update,
+     * so neither update must remove nodes.
+     */
+    public void addAll(HugeGraphUpdate other) {
+        if (removesNodes() || other.removesNodes()) {
+            throw new IllegalArgumentException("Updates that remove nodes cannot be combined");
+        }
+        nodes.addAll(other.nodes);
+        sources.addAll(other.sources);
+        targets.addAll(other.targets);
+        weights.addAll(other.weights);
+    }
+
+    /**
+     * @return true if the update removes any relationship or node
+     */
+    public boolean removesRelationships() {
+        if (!removedNodes.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < weights.size(); i++) {
+            if (Double.isNaN(weights.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes the added relationships and the relationships whose weight has changed
+     * to the consumer, in original node ids.
+     */
+    public void forEachAddedRelationship(HugeRelationshipConsumer consumer) {
+        for (int i = 0; i < sources.size(); i++) {
+            if (!Double.isNaN(weights.get(i)) && !consumer.accept(sources.get(i), targets.get(i))) {
+                return;
+            }
+        }
+    }
+
+    int nodeCount() {
+        return nodes.size();
+    }
+
+    long node(int index) {
+        return nodes.get(index);
+    }
+
+    int removedNodeCount() {
+        return removedNodes.size();
+    }
+
+    long removedNode(int index) {
+        return removedNodes.get(index);
+    }
+
+    int relationshipCount() {
+        return sources.size();
+    }
+
+    long source(int index) {
+        return sources.get(index);
+    }
+
+    long target(int index) {
+        return targets.get(index);
+    }
+
+    /**
+     * @return the weight of the relationship or {@code NaN} if it has been removed
+     */
+    double weight(int index) {
+        return weights.get(index);
+    }
+}
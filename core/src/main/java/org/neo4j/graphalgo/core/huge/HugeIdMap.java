@@ -26,6 +26,8 @@ import org.neo4j.graphalgo.api.HugeNodeIterator;
 import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
 import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
 
@@ -55,6 +57,17 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
         nodeToGraphIds = SparseLongArray.newArray(fullCapacity, tracker);
     }
 
+    /**
+     * Estimates the memory of an id map for {@code nodeCount} nodes whose
+     * original ids are lower than {@code highestNodeId}.
+     */
+    static MemoryRange estimateMemoryUsage(long nodeCount, long highestNodeId) {
+        return SparseLongArray
+                .estimateMemoryUsage(highestNodeId, nodeCount)
+                .add(HugeLongArray.estimateMemoryUsage(nodeCount))
+                .add(MemoryUsage.shallowSizeOfInstance(HugeIdMap.class));
+    }
+
     void add(long longValue) {
         long internalId = nextGraphId++;
         nodeToGraphIds.set(longValue, internalId);
@@ -104,11 +117,11 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
                 IdIterable::new);
     }
 
-    private static final class IdIterable implements PrimitiveLongIterable {
+    static final class IdIterable implements PrimitiveLongIterable {
         private final long start;
         private final long length;
 
-        private IdIterable(long start, long length) {
+        IdIterable(long start, long length) {
             this.start = start;
             this.length = length;
         }
@@ -119,17 +132,17 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
         }
     }
 
-    private static final class IdIterator implements PrimitiveLongIterator {
+    static final class IdIterator implements PrimitiveLongIterator {
 
         private long current;
         private long limit; // exclusive upper bound
 
-        private IdIterator(long length) {
+        IdIterator(long length) {
             this.current = 0;
             this.limit = length;
         }
 
-        private IdIterator(long start, long length) {
+        IdIterator(long start, long length) {
             this.current = start;
             this.limit = start + length;
         }
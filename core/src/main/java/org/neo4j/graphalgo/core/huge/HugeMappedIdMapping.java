@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.HugeIdMapping;
+
+import java.nio.LongBuffer;
+
+/**
+ * Id mapping of a graph file, which reads the original ids from the memory mapped file instead of copying them.
+ * <p>
+ * The original ids are stored in the order of their mapped ids. Unless they are ascending, they are followed
+ * by the mapped ids in the order of their original ids, which is searched to map an original id.
+ * The arrays are split into buffers of at most {@code 2^27} longs, a mapped buffer cannot be larger than 2 GiB.
+ */
+final class HugeMappedIdMapping implements HugeIdMapping {
+
+    static final int CHUNK_SHIFT = 27;
+    static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1L;
+
+    private final long nodeCount;
+    private final LongBuffer[] originalIds;
+    // null if the original ids are ascending
+    private final LongBuffer[] sortedMappedIds;
+
+    HugeMappedIdMapping(long nodeCount, LongBuffer[] originalIds, LongBuffer[] sortedMappedIds) {
+        this.nodeCount = nodeCount;
+        this.originalIds = originalIds;
+        this.sortedMappedIds = sortedMappedIds;
+    }
+
+    @Override
+    public long toHugeMappedNodeId(long nodeId) {
+        long low = 0L;
+        long high = nodeCount - 1L;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long mappedId = sortedMappedIds == null ? mid : get(sortedMappedIds, mid);
+            long originalId = get(originalIds, mappedId);
+            if (originalId < nodeId) {
+                low = mid + 1L;
+            } else if (originalId > nodeId) {
+                high = mid - 1L;
+            } else {
+                return mappedId;
+            }
+        }
+        return HugeIdMap.NOT_FOUND;
+    }
+
+    @Override
+    public long toOriginalNodeId(long nodeId) {
+        return get(originalIds, nodeId);
+    }
+
+    @Override
+    public boolean contains(long nodeId) {
+        return toHugeMappedNodeId(nodeId) != HugeIdMap.NOT_FOUND;
+    }
+
+    @Override
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    private static long get(LongBuffer[] chunks, long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+}
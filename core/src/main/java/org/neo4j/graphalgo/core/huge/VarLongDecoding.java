@@ -18,6 +18,8 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.core.utils.paged.NativeMemory;
+
 final class VarLongDecoding {
 
     static int decodeDeltaVLongs(
@@ -44,6 +46,34 @@ final class VarLongDecoding {
         return offset;
     }
 
+    /**
+     * Same as {@link #decodeDeltaVLongs(long, byte[], int, int, long[])} for a {@code base} and {@code offset}
+     * as they are used by {@link NativeMemory}, which covers on-heap and off-heap pages.
+     */
+    static long decodeDeltaVLongs(
+            long startValue,
+            Object base,
+            long offset,
+            int limit,
+            long[] out) {
+        long input, value = 0L;
+        int into = 0, shift = 0;
+        while (into < limit) {
+            input = (long) NativeMemory.getByte(base, offset++);
+            value += (input & 127L) << shift;
+            if ((input & 128L) == 128L) {
+                startValue += value;
+                out[into++] = startValue;
+                value = 0L;
+                shift = 0;
+            } else {
+                shift += 7;
+            }
+        }
+
+        return offset;
+    }
+
     static int zigZagUncompress(byte[] array, int limit, long[] out) {
         long input, startValue = 0L, value = 0L;
         int into = 0, offset = 0, shift = 0;
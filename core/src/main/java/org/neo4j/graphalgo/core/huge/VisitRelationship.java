@@ -18,7 +18,6 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
-import org.neo4j.graphalgo.core.HugeWeightMap;
 import org.neo4j.graphalgo.core.loading.ReadHelper;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.PropertyCursor;
@@ -29,10 +28,13 @@ import org.neo4j.internal.kernel.api.helpers.RelationshipSelectionCursor;
 abstract class VisitRelationship {
 
     private static final long[] EMPTY_LONGS = new long[0];
+    private static final double[] EMPTY_DOUBLES = new double[0];
 
     private final HugeIdMap idMap;
+    private final boolean loadsWeights;
 
     private long[] targets;
+    private double[] weights;
     private int length;
     private long prevNode;
     private boolean isSorted;
@@ -40,9 +42,11 @@ abstract class VisitRelationship {
     long prevTarget;
     long sourceGraphId;
 
-    VisitRelationship(final HugeIdMap idMap) {
+    VisitRelationship(final HugeIdMap idMap, final boolean loadsWeights) {
         this.idMap = idMap;
+        this.loadsWeights = loadsWeights;
         this.targets = EMPTY_LONGS;
+        this.weights = EMPTY_DOUBLES;
     }
 
     abstract void visit(RelationshipSelectionCursor cursor);
@@ -61,6 +65,9 @@ abstract class VisitRelationship {
             // avoid generous over-allocation for larger degrees
             int newSize = Math.max(32, 1 + degree);
             targets = new long[newSize];
+            if (loadsWeights) {
+                weights = new double[newSize];
+            }
         }
     }
 
@@ -71,6 +78,7 @@ abstract class VisitRelationship {
         prevNode = other.prevNode;
         isSorted = other.isSorted;
         targets = other.targets;
+        weights = other.weights;
     }
 
     final boolean addNode(final long nodeId) {
@@ -90,46 +98,28 @@ abstract class VisitRelationship {
         return true;
     }
 
-    final long flush(HugeAdjacencyBuilder builder) {
-        return builder.applyVariableDeltaEncoding(targets, length);
+    /**
+     * Sets the weight of the target that has been added last.
+     */
+    final void setWeight(double weight) {
+        weights[length - 1] = weight;
     }
 
-    static void visitWeight(
-            Read readOp,
-            CursorFactory cursors,
-            long sourceGraphId,
-            long targetGraphId,
-            HugeWeightMap weights,
-            int weightProperty,
-            long propertiesRef,
-            long relationshipId) {
-        try (PropertyCursor pc = cursors.allocatePropertyCursor()) {
-            readOp.relationshipProperties(relationshipId, propertiesRef, pc);
-            double weight = ReadHelper.readProperty(pc, weightProperty, weights.defaultValue());
-            if (weight != weights.defaultValue()) {
-                weights.put(sourceGraphId, targetGraphId, weight);
-            }
-        }
+    final long flush(HugeAdjacencyBuilder builder) {
+        return builder.applyVariableDeltaEncoding(targets, weights, length);
     }
 
-    static void visitUndirectedWeight(
+    static double readWeight(
             Read readOp,
             CursorFactory cursors,
-            long sourceGraphId,
-            long targetGraphId,
-            HugeWeightMap weights,
+            double defaultWeight,
             int weightProperty,
             long propertiesRef,
             long relationshipId) {
-
         // TODO: make access to rel properties better
         try (PropertyCursor pc = cursors.allocatePropertyCursor()) {
             readOp.relationshipProperties(relationshipId, propertiesRef, pc);
-            double weight = ReadHelper.readProperty(pc, weightProperty, weights.defaultValue());
-            if (weight != weights.defaultValue()) {
-                weights.put(sourceGraphId, targetGraphId, weight);
-                weights.put(targetGraphId, sourceGraphId, weight);
-            }
+            return ReadHelper.readProperty(pc, weightProperty, defaultWeight);
         }
     }
 }
@@ -137,7 +127,7 @@ abstract class VisitRelationship {
 final class VisitOutgoingNoWeight extends VisitRelationship {
 
     VisitOutgoingNoWeight(final HugeIdMap idMap) {
-        super(idMap);
+        super(idMap, false);
     }
 
     @Override
@@ -149,7 +139,7 @@ final class VisitOutgoingNoWeight extends VisitRelationship {
 final class VisitIncomingNoWeight extends VisitRelationship {
 
     VisitIncomingNoWeight(final HugeIdMap idMap) {
-        super(idMap);
+        super(idMap, false);
     }
 
     @Override
@@ -162,34 +152,32 @@ final class VisitOutgoingWithWeight extends VisitRelationship {
 
     private final Read readOp;
     private final CursorFactory cursors;
-    private final HugeWeightMap weights;
+    private final double defaultWeight;
     private final int weightProperty;
 
     VisitOutgoingWithWeight(
             final Read readOp,
             final CursorFactory cursors,
             final HugeIdMap idMap,
-            final HugeWeightMap weights,
+            final double defaultWeight,
             final int weightProperty) {
-        super(idMap);
+        super(idMap, true);
         this.readOp = readOp;
         this.cursors = cursors;
-        this.weights = weights;
+        this.defaultWeight = defaultWeight;
         this.weightProperty = weightProperty;
     }
 
     @Override
     public void visit(final RelationshipSelectionCursor cursor) {
         if (addNode(cursor.targetNodeReference())) {
-            visitWeight(
+            setWeight(readWeight(
                     readOp,
                     cursors,
-                    sourceGraphId,
-                    prevTarget,
-                    weights,
+                    defaultWeight,
                     weightProperty,
                     cursor.propertiesReference(),
-                    cursor.relationshipReference());
+                    cursor.relationshipReference()));
         }
     }
 }
@@ -198,70 +186,32 @@ final class VisitIncomingWithWeight extends VisitRelationship {
 
     private final Read readOp;
     private final CursorFactory cursors;
-    private final HugeWeightMap weights;
+    private final double defaultWeight;
     private final int weightProperty;
 
     VisitIncomingWithWeight(
             final Read readOp,
             final CursorFactory cursors,
             final HugeIdMap idMap,
-            final HugeWeightMap weights,
+            final double defaultWeight,
             final int weightProperty) {
-        super(idMap);
+        super(idMap, true);
         this.readOp = readOp;
         this.cursors = cursors;
-        this.weights = weights;
+        this.defaultWeight = defaultWeight;
         this.weightProperty = weightProperty;
     }
 
     @Override
     public void visit(final RelationshipSelectionCursor cursor) {
         if (addNode(cursor.sourceNodeReference())) {
-            visitWeight(
-                    readOp,
-                    cursors,
-                    prevTarget,
-                    sourceGraphId,
-                    weights,
-                    weightProperty,
-                    cursor.propertiesReference(),
-                    cursor.relationshipReference());
-        }
-    }
-}
-
-final class VisitUndirectedOutgoingWithWeight extends VisitRelationship {
-
-    private final Read readOp;
-    private final CursorFactory cursors;
-    private final HugeWeightMap weights;
-    private final int weightProperty;
-
-    VisitUndirectedOutgoingWithWeight(
-            final Read readOp,
-            final CursorFactory cursors,
-            final HugeIdMap idMap,
-            final HugeWeightMap weights,
-            final int weightProperty) {
-        super(idMap);
-        this.readOp = readOp;
-        this.cursors = cursors;
-        this.weights = weights;
-        this.weightProperty = weightProperty;
-    }
-
-    @Override
-    public void visit(final RelationshipSelectionCursor cursor) {
-        if (addNode(cursor.targetNodeReference())) {
-            visitUndirectedWeight(
+            setWeight(readWeight(
                     readOp,
                     cursors,
-                    sourceGraphId,
-                    prevTarget,
-                    weights,
+                    defaultWeight,
                     weightProperty,
                     cursor.propertiesReference(),
-                    cursor.relationshipReference());
+                    cursor.relationshipReference()));
         }
     }
 }
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import java.util.Locale;
+
+/**
+ * How relationship weights of a huge graph are stored.
+ * The weights of a node are stored next to its compressed targets, one value per target.
+ * {@link #FLOAT} halves the memory required for weights at the cost of precision.
+ */
+public enum WeightEncoding {
+    DOUBLE(Double.BYTES),
+    FLOAT(Float.BYTES);
+
+    final int bytes;
+
+    WeightEncoding(int bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the encoding that stores weights with the given number of bytes, {@code null} for unweighted adjacencies
+     */
+    static WeightEncoding of(int bytes) {
+        for (WeightEncoding encoding : values()) {
+            if (encoding.bytes == bytes) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the {@code weightEncoding} configuration value, {@code null} selects {@link #DOUBLE}.
+     *
+     * @throws IllegalArgumentException if the value is neither {@code double} nor {@code float}
+     */
+    public static WeightEncoding parse(Object value) {
+        if (value == null) {
+            return DOUBLE;
+        }
+        if (value instanceof WeightEncoding) {
+            return (WeightEncoding) value;
+        }
+        String name = value.toString().trim().toUpperCase(Locale.ENGLISH);
+        for (WeightEncoding encoding : values()) {
+            if (encoding.name().equals(name)) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException(String.format(
+                "Unknown weight encoding '%s', expected one of [double, float]",
+                value));
+    }
+}
@@ -0,0 +1,508 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.huge.HugeGraphImpl;
+import org.neo4j.graphalgo.core.huge.HugeGraphUpdate;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.helpers.NamedThreadFactory;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a named huge graph in sync with the database.
+ * <p>
+ * The changes of every committed transaction that match the label and relationship type of the graph
+ * are applied as an update on top of the compressed adjacency (see {@link HugeGraphImpl#update(HugeGraphUpdate, boolean)})
+ * and the named graph is replaced with the updated graph. Algorithms that are already running keep
+ * using the graph they started with, the replaced graph is released once it is no longer used.
+ * Once the updates exceed the merge threshold, they are merged into a new compressed adjacency in the background.
+ * <p>
+ * Committing transactions only queue their changes, a single background thread per graph applies them
+ * in the order of their transaction ids, so the named graph is eventually consistent with the database.
+ * Transactions that change the same nodes or relationships hold their locks until their changes are queued,
+ * so their changes are never applied out of order. Changes that are queued together are applied as a single update.
+ * <p>
+ * The sync is {@link #register() registered} before the graph is loaded and queues the changes
+ * until the graph has been loaded and the sync is {@link #start() started}. Changes that have been committed
+ * during the load might already be part of the loaded graph and are applied again, which does not change the result,
+ * as every change sets the state of a node or relationship instead of modifying it.
+ * <p>
+ * Created nodes and nodes that get the label are added to the graph. Deleted nodes and nodes that
+ * lose the label are removed from the graph together with their relationships. Removed nodes keep
+ * their mapped id, so the node count of the graph does not decrease, but they are skipped when
+ * iterating over the nodes and when writing results back (see {@link HugeGraphImpl#isRemoved(long)}).
+ * Changes of node properties are not synced.
+ */
+public final class HugeGraphSync implements TransactionEventHandler<HugeGraphUpdate> {
+
+    private static final ConcurrentHashMap<String, HugeGraphSync> syncs = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final GraphDatabaseAPI api;
+    private final Log log;
+    private final Label label;
+    private final RelationshipType relationshipType;
+    private final String weightProperty;
+    private final double defaultWeight;
+    private final boolean undirected;
+    private final long mergeThreshold;
+
+    private final Object mergeLock = new Object();
+    private final AtomicBoolean merging = new AtomicBoolean();
+    // updates that have been committed while a merge is running, guarded by this
+    private List<HugeGraphUpdate> updatesDuringMerge;
+
+    // committed updates that have not been applied yet, ordered by transaction id
+    private final PriorityBlockingQueue<CommittedUpdate> queue = new PriorityBlockingQueue<>();
+    private final ExecutorService applier;
+    private final AtomicBoolean applying = new AtomicBoolean();
+    private volatile boolean started;
+    private final Object progress = new Object();
+    // the number of queued and applied updates, guarded by progress
+    private long queued;
+    private long applied;
+
+    /**
+     * @param label            the label of the nodes in the graph or {@code null} for all nodes
+     * @param relationshipType the type of the relationships in the graph or {@code null} for all relationships
+     * @param weightProperty   the relationship property that is loaded as weight or {@code null}
+     * @param mergeThreshold   the number of relationship changes after which they are merged into the adjacency
+     */
+    public HugeGraphSync(
+            String name,
+            GraphDatabaseAPI api,
+            Log log,
+            String label,
+            String relationshipType,
+            String weightProperty,
+            double defaultWeight,
+            boolean undirected,
+            long mergeThreshold) {
+        this.name = name;
+        this.api = api;
+        this.log = log;
+        this.label = label == null || label.isEmpty() ? null : Label.label(label);
+        this.relationshipType = relationshipType == null || relationshipType.isEmpty()
+                ? null
+                : RelationshipType.withName(relationshipType);
+        this.weightProperty = weightProperty == null || weightProperty.isEmpty() ? null : weightProperty;
+        this.defaultWeight = defaultWeight;
+        this.undirected = undirected;
+        this.mergeThreshold = mergeThreshold;
+        this.applier = Executors.newSingleThreadExecutor(NamedThreadFactory.daemon("algo-sync-" + name));
+    }
+
+    /**
+     * Starts to queue the changes of committed transactions. Has to be called before the graph is loaded,
+     * so that no transaction that commits during the load is missed.
+     */
+    public void register() {
+        if (syncs.putIfAbsent(name, this) != null) {
+            applier.shutdown();
+            throw new IllegalStateException("Graph " + name + " is already kept in sync");
+        }
+        api.registerTransactionEventHandler(this);
+    }
+
+    /**
+     * Starts to apply the queued changes to the named graph, which must have been loaded as a huge graph.
+     * The sync is {@link #unregister(String) unregistered} if the graph is not a huge graph.
+     */
+    public void start() {
+        if (!(LoadGraphFactory.get(name) instanceof HugeGraphImpl)) {
+            unregister(name);
+            throw new IllegalArgumentException("Only loaded huge graphs can be kept in sync, but " + name + " is not");
+        }
+        started = true;
+        schedule();
+    }
+
+    /**
+     * Stops to sync the named graph, the graph itself is not removed.
+     * Changes that have not been applied yet are discarded.
+     *
+     * @return true if the graph has been kept in sync
+     */
+    public static boolean unregister(String name) {
+        HugeGraphSync sync = name == null ? null : syncs.remove(name);
+        if (sync != null) {
+            sync.api.unregisterTransactionEventHandler(sync);
+            sync.applier.shutdown();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Waits until all changes that have been committed before this call are applied.
+     *
+     * @return true if the changes have been applied, false if the timeout elapsed before
+     */
+    public boolean awaitUpdates(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (progress) {
+            long target = queued;
+            while (applied < target) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0L) {
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    public static HugeGraphSync get(String name) {
+        return name == null ? null : syncs.get(name);
+    }
+
+    /**
+     * Collects the changes while the transaction can still be read,
+     * in order to check whether parallel relationships remain after a deletion.
+     */
+    @Override
+    public HugeGraphUpdate beforeCommit(TransactionData data) {
+        HugeGraphUpdate update = new HugeGraphUpdate();
+        for (Node node : data.createdNodes()) {
+            if (label == null || node.hasLabel(label)) {
+                update.addNode(node.getId());
+            }
+        }
+        if (label != null) {
+            for (LabelEntry entry : data.assignedLabels()) {
+                if (label.equals(entry.label()) && !data.isDeleted(entry.node())) {
+                    update.addNode(entry.node().getId());
+                }
+            }
+        }
+        LongHashSet deletedNodes = new LongHashSet();
+        for (Node node : data.deletedNodes()) {
+            deletedNodes.add(node.getId());
+        }
+        LongHashSet created = new LongHashSet();
+        for (Relationship relationship : data.createdRelationships()) {
+            if (matches(relationship)) {
+                created.add(relationship.getId());
+                update.addRelationship(
+                        relationship.getStartNodeId(),
+                        relationship.getEndNodeId(),
+                        weightOf(relationship));
+            }
+        }
+        for (Relationship relationship : data.deletedRelationships()) {
+            if (matches(relationship)) {
+                Relationship remaining = remainingRelationship(deletedNodes, relationship);
+                if (remaining == null) {
+                    update.removeRelationship(relationship.getStartNodeId(), relationship.getEndNodeId());
+                } else {
+                    // huge graphs keep one of the parallel relationships
+                    update.addRelationship(
+                            remaining.getStartNodeId(),
+                            remaining.getEndNodeId(),
+                            weightOf(remaining));
+                }
+            }
+        }
+        // the relationships of deleted nodes have been deleted in the same transaction
+        for (LongCursor cursor : deletedNodes) {
+            update.removeNode(cursor.value);
+        }
+        if (label != null) {
+            for (LabelEntry entry : data.removedLabels()) {
+                if (label.equals(entry.label()) && !data.isDeleted(entry.node())) {
+                    removeNode(entry.node(), update);
+                }
+            }
+        }
+        if (weightProperty != null) {
+            for (PropertyEntry<Relationship> entry : data.assignedRelationshipProperties()) {
+                changeWeight(data, created, entry, update);
+            }
+            for (PropertyEntry<Relationship> entry : data.removedRelationshipProperties()) {
+                changeWeight(data, created, entry, update);
+            }
+        }
+        return update.isEmpty() ? null : update;
+    }
+
+    /**
+     * Only queues the update, the committing thread does not wait until it has been applied.
+     */
+    @Override
+    public void afterCommit(TransactionData data, HugeGraphUpdate update) {
+        if (update == null) {
+            return;
+        }
+        synchronized (progress) {
+            queued++;
+        }
+        queue.add(new CommittedUpdate(data.getTransactionId(), update));
+        if (started) {
+            schedule();
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, HugeGraphUpdate update) {
+    }
+
+    /**
+     * Merges all updates into a new compressed adjacency and replaces the named graph.
+     * Transactions can still be committed during the merge,
+     * their updates are applied to the merged graph afterwards.
+     */
+    public void merge() {
+        synchronized (mergeLock) {
+            HugeGraphImpl graph;
+            synchronized (this) {
+                graph = current();
+                if (graph == null) {
+                    return;
+                }
+                updatesDuringMerge = new ArrayList<>();
+            }
+            try {
+                HugeGraphImpl merged = graph.merge();
+                synchronized (this) {
+                    for (HugeGraphUpdate update : updatesDuringMerge) {
+                        HugeGraphImpl updated = merged.update(update, undirected);
+                        releaseUnused(graph, merged);
+                        merged = updated;
+                    }
+                    HugeGraphImpl current = current();
+                    if (current == null || !LoadGraphFactory.replace(name, current, merged, null)) {
+                        releaseUnused(graph, merged);
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    updatesDuringMerge = null;
+                }
+            }
+        }
+    }
+
+    private void schedule() {
+        if (applying.compareAndSet(false, true)) {
+            try {
+                applier.execute(this::applyQueued);
+            } catch (RejectedExecutionException e) {
+                // the sync has been unregistered
+                applying.set(false);
+            }
+        }
+    }
+
+    private void applyQueued() {
+        try {
+            List<CommittedUpdate> updates = new ArrayList<>();
+            // the queue is drained in the order of the transaction ids
+            while (queue.drainTo(updates) > 0) {
+                applyInOrder(updates);
+                synchronized (progress) {
+                    applied += updates.size();
+                    progress.notifyAll();
+                }
+                updates.clear();
+            }
+        } finally {
+            applying.set(false);
+        }
+        // updates that have been queued after the queue was found to be empty
+        if (!queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    /**
+     * Applies consecutive updates as a single update, only updates that remove nodes are applied on their own.
+     */
+    private void applyInOrder(List<CommittedUpdate> updates) {
+        HugeGraphUpdate combined = new HugeGraphUpdate();
+        for (CommittedUpdate committed : updates) {
+            if (committed.update.removesNodes()) {
+                tryApply(combined);
+                tryApply(committed.update);
+                combined = new HugeGraphUpdate();
+            } else {
+                combined.addAll(committed.update);
+            }
+        }
+        tryApply(combined);
+    }
+
+    private void tryApply(HugeGraphUpdate update) {
+        if (update.isEmpty()) {
+            return;
+        }
+        try {
+            apply(update);
+        } catch (RuntimeException e) {
+            log.error("Could not update graph " + name, e);
+        }
+    }
+
+    private synchronized void apply(HugeGraphUpdate update) {
+        HugeGraphImpl graph = current();
+        if (graph == null) {
+            return;
+        }
+        HugeGraphImpl updated = graph.update(update, undirected);
+        if (!LoadGraphFactory.replace(name, graph, updated, update)) {
+            updated.release();
+            return;
+        }
+        if (updatesDuringMerge != null) {
+            updatesDuringMerge.add(update);
+        } else if (updated.pendingUpdates() >= mergeThreshold && merging.compareAndSet(false, true)) {
+            Pools.DEFAULT.execute(this::mergeInBackground);
+        }
+    }
+
+    private void mergeInBackground() {
+        try {
+            merge();
+        } catch (RuntimeException e) {
+            log.error("Could not merge the updates of graph " + name, e);
+        } finally {
+            merging.set(false);
+        }
+    }
+
+    /**
+     * Releases a graph that has been created during a merge but is not going to replace the named graph.
+     */
+    private static void releaseUnused(HugeGraphImpl graph, HugeGraphImpl created) {
+        if (created != graph) {
+            created.release();
+        }
+    }
+
+    /**
+     * @return the named graph or {@code null} if the graph is no longer kept in sync
+     */
+    private HugeGraphImpl current() {
+        if (syncs.get(name) != this) {
+            return null;
+        }
+        Graph graph = LoadGraphFactory.get(name);
+        return graph instanceof HugeGraphImpl ? (HugeGraphImpl) graph : null;
+    }
+
+    private boolean matches(Relationship relationship) {
+        return relationshipType == null || relationship.isType(relationshipType);
+    }
+
+    /**
+     * Removes a node that is no longer part of the graph, but still exists in the database,
+     * together with all of its relationships.
+     */
+    private void removeNode(Node node, HugeGraphUpdate update) {
+        Iterable<Relationship> relationships = relationshipType == null
+                ? node.getRelationships(Direction.BOTH)
+                : node.getRelationships(relationshipType, Direction.BOTH);
+        for (Relationship relationship : relationships) {
+            update.removeRelationship(relationship.getStartNodeId(), relationship.getEndNodeId());
+        }
+        update.removeNode(node.getId());
+    }
+
+    private Relationship remainingRelationship(LongHashSet deletedNodes, Relationship deleted) {
+        long startNodeId = deleted.getStartNodeId();
+        long endNodeId = deleted.getEndNodeId();
+        // deleted nodes can no longer be read
+        if (deletedNodes.contains(startNodeId) || deletedNodes.contains(endNodeId)) {
+            return null;
+        }
+        Node startNode = api.getNodeById(startNodeId);
+        Iterable<Relationship> relationships = relationshipType == null
+                ? startNode.getRelationships(Direction.OUTGOING)
+                : startNode.getRelationships(relationshipType, Direction.OUTGOING);
+        for (Relationship relationship : relationships) {
+            if (relationship.getEndNodeId() == endNodeId) {
+                return relationship;
+            }
+        }
+        return null;
+    }
+
+    private void changeWeight(
+            TransactionData data,
+            LongHashSet created,
+            PropertyEntry<Relationship> entry,
+            HugeGraphUpdate update) {
+        Relationship relationship = entry.entity();
+        if (weightProperty.equals(entry.key())
+                && !created.contains(relationship.getId())
+                && !data.isDeleted(relationship)
+                && matches(relationship)) {
+            update.addRelationship(
+                    relationship.getStartNodeId(),
+                    relationship.getEndNodeId(),
+                    weightOf(relationship));
+        }
+    }
+
+    private double weightOf(Relationship relationship) {
+        if (weightProperty == null) {
+            return defaultWeight;
+        }
+        Object value = relationship.getProperty(weightProperty, null);
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultWeight;
+    }
+
+    private static final class CommittedUpdate implements Comparable<CommittedUpdate> {
+        private final long transactionId;
+        private final HugeGraphUpdate update;
+
+        private CommittedUpdate(long transactionId, HugeGraphUpdate update) {
+            this.transactionId = transactionId;
+            this.update = update;
+        }
+
+        @Override
+        public int compareTo(CommittedUpdate other) {
+            return Long.compare(transactionId, other.transactionId);
+        }
+    }
+}
@@ -18,16 +18,35 @@
  */
 package org.neo4j.graphalgo.core.loading;
 
+import com.carrotsearch.hppc.LongArrayList;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphFile;
+import org.neo4j.graphalgo.core.huge.HugeGraphImpl;
+import org.neo4j.graphalgo.core.huge.HugeGraphUpdate;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.file.Path;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 public final class LoadGraphFactory extends GraphFactory {
 
     private final static ConcurrentHashMap<String, Graph> graphs = new ConcurrentHashMap<>();
+    private final static ConcurrentHashMap<String, PagedAtomicDisjointSetStruct> components = new ConcurrentHashMap<>();
+    // the relationships that have been unioned into the components, as pairs of neo4j node ids, guarded by the class
+    private final static ConcurrentHashMap<String, LongArrayList> componentRelationships = new ConcurrentHashMap<>();
+    // graphs that have been replaced, they are released once they are no longer reachable
+    private final static ReferenceQueue<Graph> unreachableGraphs = new ReferenceQueue<>();
+    private final static Set<ReplacedGraph> replacedGraphs = ConcurrentHashMap.newKeySet();
 
     public LoadGraphFactory(
             final GraphDatabaseAPI api,
@@ -40,6 +59,29 @@ public final class LoadGraphFactory extends GraphFactory {
         return get(setup.name);
     }
 
+    @Override
+    public long nodeCount() {
+        Graph graph = get(setup.name);
+        return graph == null ? 0L : graph.nodeCount();
+    }
+
+    /**
+     * Named graphs are already loaded and don't require any additional memory.
+     * The algorithms only estimate their memory on huge graphs, so the estimation
+     * is only supported for named huge graphs.
+     */
+    @Override
+    public MemoryRange memoryEstimation() {
+        Graph graph = get(setup.name);
+        if (graph != null && !(graph instanceof HugeGraph)) {
+            throw new UnsupportedOperationException(String.format(
+                    "Memory estimation is only supported for named huge graphs, but %s is a %s graph",
+                    setup.name,
+                    graph.getType()));
+        }
+        return MemoryRange.empty();
+    }
+
     public static void set(String name, Graph graph) {
         if (name == null || graph == null) {
             throw new IllegalArgumentException("Both name and graph must be not null");
@@ -50,6 +92,61 @@ public final class LoadGraphFactory extends GraphFactory {
         graph.canRelease(false);
     }
 
+    /**
+     * Replaces a named graph with an updated version of it, see {@link HugeGraphSync}.
+     * Algorithms that are running on the replaced graph keep using it, the replaced graph
+     * is released once it is no longer reachable.
+     * <p>
+     * The added relationships of the update are unioned into the stored components of the graph.
+     * If the update removes relationships, which might split a component, the stored components are dropped
+     * and computed again when they are used next, together with the relationships that have been
+     * added by {@link #unionComponents(String, HugeGraph, PagedAtomicDisjointSetStruct, long[])}.
+     *
+     * @param update the changes between both graphs or {@code null} if both graphs have the same relationships
+     * @return false if the name no longer refers to {@code current}
+     */
+    static synchronized boolean replace(String name, HugeGraphImpl current, HugeGraphImpl graph, HugeGraphUpdate update) {
+        releaseUnreachableGraphs();
+        graph.canRelease(false);
+        if (!graphs.replace(name, current, graph)) {
+            graph.canRelease(true);
+            return false;
+        }
+        replacedGraphs.add(new ReplacedGraph(current));
+        PagedAtomicDisjointSetStruct struct = components.get(name);
+        if (struct != null && update != null) {
+            if (update.removesRelationships()) {
+                // not released, it might still be read by a running procedure
+                components.remove(name);
+            } else {
+                update.forEachAddedRelationship((source, target) -> {
+                    long sourceId = graph.toHugeMappedNodeId(source);
+                    long targetId = graph.toHugeMappedNodeId(target);
+                    // nodes that have been added after the components were computed are not part of them
+                    if (sourceId >= 0L && sourceId < struct.capacity() && targetId >= 0L && targetId < struct.capacity()) {
+                        struct.union(sourceId, targetId);
+                    }
+                    return true;
+                });
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Releases the replaced graphs that are no longer used, this happens
+     * whenever a graph is replaced or removed.
+     */
+    private static void releaseUnreachableGraphs() {
+        Reference<? extends Graph> reference;
+        while ((reference = unreachableGraphs.poll()) != null) {
+            ReplacedGraph replaced = (ReplacedGraph) reference;
+            if (replacedGraphs.remove(replaced)) {
+                replaced.release.run();
+            }
+        }
+    }
+
     public static Graph get(String name) {
         return name == null ? null : graphs.get(name);
     }
@@ -60,6 +157,11 @@ public final class LoadGraphFactory extends GraphFactory {
 
     public static boolean remove(String name) {
         if (name == null) return false;
+        HugeGraphSync.unregister(name);
+        releaseUnreachableGraphs();
+        // not released, it might still be read by a running procedure
+        components.remove(name);
+        componentRelationships.remove(name);
         Graph graph = graphs.remove(name);
         if (graph != null) {
             graph.canRelease(true);
@@ -69,9 +171,136 @@ public final class LoadGraphFactory extends GraphFactory {
         return false;
     }
 
+    /**
+     * Keeps the connected components of a named graph, indexed by the mapped node ids, until the graph is removed.
+     * If the components of the graph are already stored, the stored ones are kept. Components of a synced
+     * graph that has been replaced since they were computed are not stored, as they might miss updates.
+     * The relationships that have been unioned into earlier components of the graph are unioned into the stored components.
+     *
+     * @param graph the graph the components have been computed on
+     * @return the components that are stored for the graph or {@code struct} if they have not been stored
+     */
+    public static synchronized PagedAtomicDisjointSetStruct setComponents(
+            String name,
+            Graph graph,
+            PagedAtomicDisjointSetStruct struct) {
+        Graph current = get(name);
+        if (current == null) {
+            throw new IllegalArgumentException("Graph name " + name + " is not loaded");
+        }
+        if (current != graph) {
+            return struct;
+        }
+        PagedAtomicDisjointSetStruct stored = components.putIfAbsent(name, struct);
+        if (stored != null) {
+            return stored;
+        }
+        LongArrayList relationships = componentRelationships.get(name);
+        if (relationships != null && graph instanceof HugeGraph) {
+            union((HugeGraph) graph, struct, relationships.buffer, relationships.size());
+        }
+        return struct;
+    }
+
+    /**
+     * Unions relationships into the components of a named graph that have been returned
+     * by {@link #setComponents(String, Graph, PagedAtomicDisjointSetStruct)}. The relationships are kept
+     * until the graph is removed and unioned again whenever the components are computed again.
+     * Relationships between nodes that are not part of the components are skipped.
+     *
+     * @param relationships pairs of neo4j node ids
+     * @return the number of components that have been merged
+     */
+    public static synchronized long unionComponents(
+            String name,
+            HugeGraph graph,
+            PagedAtomicDisjointSetStruct struct,
+            long[] relationships) {
+        if (!check(name)) {
+            throw new IllegalArgumentException("Graph name " + name + " is not loaded");
+        }
+        componentRelationships.computeIfAbsent(name, ignored -> new LongArrayList()).add(relationships, 0, relationships.length);
+        long merges = union(graph, struct, relationships, relationships.length);
+        // the components might have been computed again since the caller got them
+        PagedAtomicDisjointSetStruct stored = components.get(name);
+        if (stored != null && stored != struct) {
+            union(graph, stored, relationships, relationships.length);
+        }
+        return merges;
+    }
+
+    private static long union(HugeGraph graph, PagedAtomicDisjointSetStruct struct, long[] relationships, int length) {
+        long merges = 0L;
+        for (int i = 0; i < length; i += 2) {
+            long source = componentId(graph, struct, relationships[i]);
+            long target = componentId(graph, struct, relationships[i + 1]);
+            if (source != -1L && target != -1L && struct.union(source, target)) {
+                merges++;
+            }
+        }
+        return merges;
+    }
+
+    /**
+     * @return the mapped id of the node or -1 if the node is not part of the graph
+     * or has been added to the graph after its components were computed
+     */
+    public static long componentId(HugeGraph graph, PagedAtomicDisjointSetStruct struct, long nodeId) {
+        if (nodeId < 0L || !graph.contains(nodeId)) {
+            return -1L;
+        }
+        long mappedId = graph.toHugeMappedNodeId(nodeId);
+        return mappedId >= struct.capacity() ? -1L : mappedId;
+    }
+
+    /**
+     * @return the connected components of the named graph or {@code null} if they have not been stored
+     */
+    public static PagedAtomicDisjointSetStruct getComponents(String name) {
+        return name == null ? null : components.get(name);
+    }
+
+    /**
+     * Writes a graph that has been stored under the given name into the given file, see {@link HugeGraphFile}.
+     *
+     * @param overwrite whether an existing file is replaced
+     * @return the number of bytes that have been written
+     */
+    public static long save(String name, Graph graph, Path file, boolean overwrite) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph name " + name + " is not loaded");
+        }
+        if (!(graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException("Only huge graphs can be saved, but " + name + " is a " + graph.getType() + " graph");
+        }
+        return HugeGraphFile.write((HugeGraph) graph, file, overwrite);
+    }
+
+    /**
+     * Opens a graph file that has been written by {@link #save(String, Graph, Path, boolean)}
+     * and stores it under the given name.
+     */
+    public static Graph open(String name, Path file, AllocationTracker tracker) {
+        if (check(name)) {
+            throw new IllegalStateException("Graph name " + name + " already loaded");
+        }
+        Graph graph = HugeGraphFile.open(file, tracker);
+        set(name, graph);
+        return graph;
+    }
+
     public static String getType(String name) {
         if (name == null) return null;
         Graph graph = graphs.get(name);
         return graph == null ? null : graph.getType();
     }
+
+    private static final class ReplacedGraph extends PhantomReference<Graph> {
+        private final Runnable release;
+
+        private ReplacedGraph(HugeGraphImpl graph) {
+            super(graph, unreachableGraphs);
+            this.release = graph.releaseAction();
+        }
+    }
 }
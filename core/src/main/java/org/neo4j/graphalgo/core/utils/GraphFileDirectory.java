@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+/**
+ * The directory that files read or written by procedures are confined to.
+ * <p>
+ * The directory is configured with {@value #SETTING} and defaults to the import directory
+ * of the database ({@code dbms.directories.import}). File names given to a procedure are resolved
+ * against that directory, names that lead outside of it are rejected.
+ */
+public final class GraphFileDirectory {
+
+    public static final String SETTING = "algo.graph.dir";
+
+    private GraphFileDirectory() {
+        throw new UnsupportedOperationException("No instances");
+    }
+
+    /**
+     * Resolves the file name against the configured directory.
+     *
+     * @throws IllegalStateException    if no directory is configured
+     * @throws IllegalArgumentException if the file is not within the configured directory
+     */
+    public static Path resolve(GraphDatabaseAPI api, String file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("No file name given");
+        }
+        Path directory = directory(api);
+        Path resolved = directory.resolve(file).normalize();
+        if (!resolved.startsWith(directory) || resolved.equals(directory)) {
+            throw outside(file, directory);
+        }
+        // symbolic links must not lead outside of the directory either
+        Path parent = resolved.getParent();
+        try {
+            if (Files.exists(parent) && !parent.toRealPath().startsWith(directory.toRealPath())) {
+                throw outside(file, directory);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return resolved;
+    }
+
+    private static IllegalArgumentException outside(String file, Path directory) {
+        return new IllegalArgumentException("File " + file + " is not within the directory " + directory + " that is configured with " + SETTING);
+    }
+
+    private static Path directory(GraphDatabaseAPI api) {
+        Config config = api.getDependencyResolver().resolveDependency(Config.class);
+        Optional<String> configured = config.getRaw(SETTING);
+        if (configured.isPresent()) {
+            return Paths.get(configured.get()).toAbsolutePath().normalize();
+        }
+        File importDirectory = config.get(GraphDatabaseSettings.load_csv_file_url_root);
+        if (importDirectory != null) {
+            return importDirectory.toPath().toAbsolutePath().normalize();
+        }
+        throw new IllegalStateException("No directory for graph files configured, set " + SETTING + " or " + GraphDatabaseSettings.load_csv_file_url_root.name());
+    }
+}
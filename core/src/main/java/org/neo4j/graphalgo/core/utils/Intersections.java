@@ -111,6 +111,18 @@ public class Intersections {
         return result;
     }
 
+    /**
+     * Like {@link #sumSquareDelta(double[], double[], int)} for vectors that start at an offset of their array.
+     */
+    public static double sumSquareDelta(double[] vector1, int offset1, double[] vector2, int offset2, int len) {
+        double result = 0;
+        for (int i=0;i<len;i++) {
+            double delta = vector1[offset1 + i] - vector2[offset2 + i];
+            result += delta * delta;
+        }
+        return result;
+    }
+
     public static double[] sumSquareDeltas(double[] vector1, double[][] vector2, int len) {
         int vectors = vector2.length;
         double[] result = new double[vectors];
@@ -140,6 +152,25 @@ public class Intersections {
          if (xLength == 0d || yLength == 0d) return 0d;
          return dotProduct * dotProduct / xLength / yLength;
     }
+    /**
+     * Like {@link #cosineSquare(double[], double[], int)} for vectors that start at an offset of their array.
+     */
+    public static double cosineSquare(double[] vector1, int offset1, double[] vector2, int offset2, int len) {
+        double dotProduct = 0d;
+        double xLength = 0d;
+        double yLength = 0d;
+        for (int i = 0; i < len; i++) {
+            double weight1 = vector1[offset1 + i];
+            double weight2 = vector2[offset2 + i];
+
+            dotProduct += weight1 * weight2;
+            xLength += weight1 * weight1;
+            yLength += weight2 * weight2;
+        }
+        if (xLength == 0d || yLength == 0d) return 0d;
+        return dotProduct * dotProduct / xLength / yLength;
+    }
+
      public static double cosine(double[] vector1, double[] vector2, int len) {
          double dotProduct = 0d;
          double xLength = 0d;
@@ -68,6 +68,22 @@ public final class DoubleArray extends PagedDataStructure<double[]> {
         }
     }
 
+    /**
+     * Copies the first {@code length} elements into {@code dest}.
+     * Elements of {@code dest} beyond that are not modified.
+     */
+    public void copyTo(DoubleArray dest, long length) {
+        length = Math.min(length, Math.min(capacity(), dest.capacity()));
+        final int lastPage = pageIndex(length);
+        for (int i = 0; i < lastPage; i++) {
+            System.arraycopy(pages[i], 0, dest.pages[i], 0, pageSize);
+        }
+        final int remaining = indexInPage(length);
+        if (remaining > 0) {
+            System.arraycopy(pages[lastPage], 0, dest.pages[lastPage], 0, remaining);
+        }
+    }
+
     public static class Translator implements PropertyTranslator.OfDouble<DoubleArray> {
 
         public static final PropertyTranslator<DoubleArray> INSTANCE = new Translator();
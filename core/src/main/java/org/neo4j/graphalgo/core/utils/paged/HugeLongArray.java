@@ -168,6 +168,29 @@ public abstract class HugeLongArray {
         return PagedHugeLongArray.of(size, tracker);
     }
 
+    /**
+     * Creates a new array of the given size in the given {@link MemoryBackend}.
+     * Off-heap arrays must be {@link #release() released}, their memory is not reclaimed by the garbage collector.
+     * The {@link Cursor}s of off-heap arrays provide copies of the data, writes to {@link Cursor#array} are not reflected in the array.
+     */
+    public static HugeLongArray newArray(long size, MemoryBackend backend, AllocationTracker tracker) {
+        if (backend == MemoryBackend.OFF_HEAP) {
+            return OffHeapHugeLongArray.of(size, tracker);
+        }
+        return newArray(size, tracker);
+    }
+
+    /**
+     * Estimates the number of bytes that a heap array of the given size occupies,
+     * matching the amount that {@link #newArray(long, AllocationTracker)} adds to the tracker.
+     */
+    public static long estimateMemoryUsage(long size) {
+        long memoryUsed = size <= SingleHugeLongArray.PAGE_SIZE
+                ? MemoryUsage.sizeOfLongArray((int) size)
+                : PagedHugeLongArray.memoryUsageOf(size);
+        return MemoryUsage.shallowSizeOfInstance(HugeLongArray.class) + memoryUsed;
+    }
+
     /* test-only */
     static HugeLongArray newPagedArray(long size, AllocationTracker tracker) {
         return PagedHugeLongArray.of(size, tracker);
@@ -178,6 +201,15 @@ public abstract class HugeLongArray {
         return SingleHugeLongArray.of(size, tracker);
     }
 
+    private static void copyElements(HugeLongArray src, HugeLongArray dest, long length) {
+        for (long i = 0L; i < length; i++) {
+            dest.set(i, src.get(i));
+        }
+        for (long i = length, size = dest.size(); i < size; i++) {
+            dest.set(i, 0L);
+        }
+    }
+
     /**
      * View of the underlying data, accessible as slices of {@code long[]} arrays.
      * The values are from {@code array[offset]} (inclusive) until {@code array[limit]} (exclusive).
@@ -185,6 +217,10 @@ public abstract class HugeLongArray {
      * <p>
      * The {@code limit} parameter does not have the same meaning as the {@code length} parameter that is used in many methods that can operate on array slices.
      * The proper value would be {@code int length = limit - offset}.
+     * <p>
+     * Cursors are meant for reading. Only the cursors of heap arrays expose the pages of the array itself,
+     * the cursors of off-heap arrays expose a copy of the data and writes to {@link #array} are silently lost.
+     * Use {@link HugeLongArray#set(long, long)} to write into an array of an unknown {@link MemoryBackend}.
      */
     public static abstract class Cursor implements AutoCloseable {
 
@@ -193,7 +229,7 @@ public abstract class HugeLongArray {
          */
         public long base;
         /**
-         * a slice of values currently being traversed
+         * a slice of values currently being traversed, must not be written to unless the array is on the heap
          */
         public long[] array;
         /**
@@ -331,6 +367,8 @@ public abstract class HugeLongArray {
                         remaining -= toCopy;
                     }
                 }
+            } else {
+                copyElements(this, dest, length);
             }
         }
 
@@ -401,23 +439,26 @@ public abstract class HugeLongArray {
         private static HugeLongArray of(long size, AllocationTracker tracker) {
             int numPages = PageUtil.numPagesFor(size, PAGE_SHIFT, (int) PAGE_MASK);
             long[][] pages = new long[numPages][];
-
-            long memoryUsed = MemoryUsage.sizeOfObjectArray(numPages);
-            final long pageBytes = MemoryUsage.sizeOfLongArray(PAGE_SIZE);
             for (int i = 0; i < numPages - 1; i++) {
-                memoryUsed += pageBytes;
                 pages[i] = new long[PAGE_SIZE];
             }
-            final int lastPageSize = indexInPage(size);
-            pages[numPages - 1] = new long[lastPageSize];
-            memoryUsed += MemoryUsage.sizeOfLongArray(lastPageSize);
+            pages[numPages - 1] = new long[indexInPage(size)];
 
+            long memoryUsed = memoryUsageOf(size);
             tracker.add(MemoryUsage.shallowSizeOfInstance(HugeLongArray.class));
             tracker.add(memoryUsed);
 
             return new PagedHugeLongArray(size, pages, memoryUsed);
         }
 
+        private static long memoryUsageOf(long size) {
+            int numPages = PageUtil.numPagesFor(size, PAGE_SHIFT, (int) PAGE_MASK);
+            long memoryUsed = MemoryUsage.sizeOfObjectArray(numPages);
+            memoryUsed += (numPages - 1) * MemoryUsage.sizeOfLongArray(PAGE_SIZE);
+            memoryUsed += MemoryUsage.sizeOfLongArray(indexInPage(size));
+            return memoryUsed;
+        }
+
         private final long size;
         private long[][] pages;
         private final long memoryUsed;
@@ -523,6 +564,8 @@ public abstract class HugeLongArray {
                 for (int i = pageLen; i < dst.pages.length; i++) {
                     Arrays.fill(dst.pages[i], 0L);
                 }
+            } else {
+                copyElements(this, dest, length);
             }
         }
 
@@ -611,4 +654,168 @@ public abstract class HugeLongArray {
             }
         }
     }
+
+    private static final class OffHeapHugeLongArray extends HugeLongArray {
+
+        private static final int BUFFER_SHIFT = 14;
+        private static final int BUFFER_SIZE = 1 << BUFFER_SHIFT;
+
+        private static HugeLongArray of(long size, AllocationTracker tracker) {
+            long bytes = size << 3;
+            tracker.add(MemoryUsage.shallowSizeOfInstance(HugeLongArray.class));
+            long address = NativeMemory.allocate(bytes, tracker);
+            return new OffHeapHugeLongArray(size, address, bytes);
+        }
+
+        private final long size;
+        private final long bytes;
+        private long address;
+
+        private OffHeapHugeLongArray(long size, long address, long bytes) {
+            this.size = size;
+            this.address = address;
+            this.bytes = bytes;
+        }
+
+        private long addressOf(long index) {
+            assert address != 0L : "array has been released";
+            return address + (index << 3);
+        }
+
+        @Override
+        public long get(long index) {
+            assert index < size;
+            return NativeMemory.getLong(addressOf(index));
+        }
+
+        @Override
+        public void set(long index, long value) {
+            assert index < size;
+            NativeMemory.putLong(addressOf(index), value);
+        }
+
+        @Override
+        public void or(long index, final long value) {
+            assert index < size;
+            long at = addressOf(index);
+            NativeMemory.putLong(at, NativeMemory.getLong(at) | value);
+        }
+
+        @Override
+        public long and(long index, final long value) {
+            assert index < size;
+            long at = addressOf(index);
+            long result = NativeMemory.getLong(at) & value;
+            NativeMemory.putLong(at, result);
+            return result;
+        }
+
+        @Override
+        public void addTo(long index, long value) {
+            assert index < size;
+            long at = addressOf(index);
+            NativeMemory.putLong(at, NativeMemory.getLong(at) + value);
+        }
+
+        @Override
+        public void setAll(LongUnaryOperator gen) {
+            for (long i = 0L; i < size; i++) {
+                NativeMemory.putLong(addressOf(i), gen.applyAsLong(i));
+            }
+        }
+
+        @Override
+        public void fill(long value) {
+            if (value == 0L) {
+                NativeMemory.setMemory(address, bytes, (byte) 0);
+            } else {
+                for (long i = 0L; i < size; i++) {
+                    NativeMemory.putLong(addressOf(i), value);
+                }
+            }
+        }
+
+        @Override
+        public void copyTo(HugeLongArray dest, long length) {
+            if (length > size) {
+                length = size;
+            }
+            if (length > dest.size()) {
+                length = dest.size();
+            }
+            copyElements(this, dest, length);
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public long release() {
+            if (address != 0L) {
+                long freed = NativeMemory.free(address, bytes);
+                address = 0L;
+                return freed;
+            }
+            return 0L;
+        }
+
+        @Override
+        public Cursor newCursor() {
+            return new OffHeapCursor(this);
+        }
+
+        @Override
+        public Cursor cursor(final Cursor cursor) {
+            assert cursor instanceof OffHeapCursor;
+            ((OffHeapCursor) cursor).init();
+            return cursor;
+        }
+
+        /**
+         * Copies a window of the off-heap memory into {@link #array}, changes to the copy are not written back.
+         */
+        private static final class OffHeapCursor extends Cursor {
+
+            private OffHeapHugeLongArray source;
+            private long next;
+
+            private OffHeapCursor(final OffHeapHugeLongArray source) {
+                super();
+                this.source = source;
+                this.array = new long[(int) Math.min(BUFFER_SIZE, source.size)];
+            }
+
+            private void init() {
+                next = 0L;
+                base = 0L;
+                limit = 0;
+            }
+
+            public final boolean next() {
+                long from = next;
+                if (from >= source.size) {
+                    return false;
+                }
+                int length = (int) Math.min(BUFFER_SIZE, source.size - from);
+                long[] array = this.array;
+                for (int i = 0; i < length; i++) {
+                    array[i] = source.get(from + i);
+                }
+                base = from;
+                limit = length;
+                next = from + length;
+                return true;
+            }
+
+            @Override
+            public void close() {
+                array = null;
+                source = null;
+                base = 0L;
+                limit = 0;
+            }
+        }
+    }
 }
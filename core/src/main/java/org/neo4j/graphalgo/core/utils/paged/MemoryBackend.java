@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.util.Locale;
+
+/**
+ * Where the pages of the huge data structures are stored.
+ * <p>
+ * {@link #OFF_HEAP} keeps the large, long-lived pages of a loaded graph in native memory,
+ * outside of the reach of the garbage collector. Off-heap structures must be released
+ * explicitly, otherwise their memory is not reclaimed until the JVM exits.
+ */
+public enum MemoryBackend {
+    HEAP,
+    OFF_HEAP;
+
+    /**
+     * Parses the {@code memory} configuration value, {@code null} selects {@link #HEAP}.
+     *
+     * @throws IllegalArgumentException if the value is neither {@code heap} nor {@code offheap}
+     */
+    public static MemoryBackend parse(Object value) {
+        if (value == null) {
+            return HEAP;
+        }
+        if (value instanceof MemoryBackend) {
+            return (MemoryBackend) value;
+        }
+        String name = value.toString().trim().toLowerCase(Locale.ENGLISH);
+        switch (name) {
+            case "heap":
+            case "onheap":
+            case "on_heap":
+            case "on-heap":
+                return HEAP;
+            case "offheap":
+            case "off_heap":
+            case "off-heap":
+                return OFF_HEAP;
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "Unknown memory backend '%s', expected one of [heap, offheap]",
+                        value));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.helpers.Exceptions;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Allocation and access of native memory for the {@link MemoryBackend#OFF_HEAP off-heap} backend.
+ * <p>
+ * Allocations are reported to the {@link AllocationTracker} that is passed in and to the
+ * global direct memory tracker of Neo4j. Accessors take a {@code base} object and an {@code offset},
+ * so that the same code can read from a {@code byte[]} (base is the array and offset starts at
+ * {@link #BYTE_ARRAY_BASE_OFFSET}) or from native memory (base is {@code null} and offset is the address).
+ * No bounds are checked.
+ */
+public final class NativeMemory {
+
+    public static final long BYTE_ARRAY_BASE_OFFSET = UnsafeUtil.arrayBaseOffset(byte[].class);
+
+    /**
+     * Allocates zeroed native memory of the given size.
+     *
+     * @return the address of the allocated memory
+     */
+    public static long allocate(long bytes, AllocationTracker tracker) {
+        long size = Math.max(bytes, 1L);
+        long address = UnsafeUtil.allocateMemory(size, GlobalMemoryTracker.INSTANCE);
+        UnsafeUtil.setMemory(address, size, (byte) 0);
+        tracker.add(size);
+        return address;
+    }
+
+    /**
+     * Frees memory that has been allocated with {@link #allocate(long, AllocationTracker)}.
+     * The amount is not removed from the {@link AllocationTracker}.
+     *
+     * @return the amount of memory freed, in bytes.
+     */
+    public static long free(long address, long bytes) {
+        long size = Math.max(bytes, 1L);
+        UnsafeUtil.free(address, size, GlobalMemoryTracker.INSTANCE);
+        return size;
+    }
+
+    /**
+     * Copies the first {@code length} bytes of the given array into newly allocated native memory.
+     *
+     * @return the address of the allocated memory
+     */
+    public static long copyOf(byte[] array, int length, AllocationTracker tracker) {
+        long address = allocate(length, tracker);
+        wrap(address, length).put(array, 0, length);
+        return address;
+    }
+
+    /**
+     * Copies {@code length} bytes from native memory into the given array.
+     */
+    public static void copyTo(long address, byte[] array, int length) {
+        wrap(address, length).get(array, 0, length);
+    }
+
+    /**
+     * Returns a direct buffer over the given native memory, whose bulk accessors copy the whole range at once.
+     * The buffer does not own the memory.
+     */
+    private static ByteBuffer wrap(long address, int length) {
+        try {
+            return UnsafeUtil.newDirectByteBuffer(address, length);
+        } catch (Exception e) {
+            Exceptions.throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the address of the first byte of the given direct or mapped buffer
+     */
+    public static long addressOf(ByteBuffer buffer) {
+        return UnsafeUtil.getDirectByteBufferAddress(buffer);
+    }
+
+    public static byte getByte(Object base, long offset) {
+        return UnsafeUtil.getByte(base, offset);
+    }
+
+    public static long getLong(long address) {
+        return UnsafeUtil.getLong(address);
+    }
+
+    public static void putLong(long address, long value) {
+        UnsafeUtil.putLong(address, value);
+    }
+
+    public static void setMemory(long address, long bytes, byte value) {
+        UnsafeUtil.setMemory(address, bytes, value);
+    }
+
+    private NativeMemory() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
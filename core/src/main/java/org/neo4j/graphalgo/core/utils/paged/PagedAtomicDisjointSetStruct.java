@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * A disjoint set struct that can be used by many threads at the same time.
+ * <p>
+ * All threads share a single paged parent array. A union links the root with the higher id
+ * below the root with the lower id by a compare-and-set, which is retried if one of the roots
+ * has been linked by another thread in the meantime. Linking by id can't create cycles, and the
+ * id of a set is always the lowest id of its elements. {@link #find(long)} never blocks, it shortens
+ * the path by pointing every visited element to its grandparent (path splitting).
+ * <p>
+ * The parent of an element is stored with an offset of one, so that the zeroed
+ * pages of a new array already describe a struct with only singleton sets.
+ */
+public final class PagedAtomicDisjointSetStruct {
+
+    private static final long ROOT = 0L;
+
+    private final PagedAtomicLongArray parent;
+    private final long capacity;
+
+    public PagedAtomicDisjointSetStruct(long capacity, AllocationTracker tracker) {
+        this.parent = PagedAtomicLongArray.newArray(capacity, tracker);
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the memory that a struct of the given capacity occupies, in bytes
+     */
+    public static long estimateMemoryUsage(long capacity) {
+        return MemoryUsage.shallowSizeOfInstance(PagedAtomicDisjointSetStruct.class)
+                + PagedAtomicLongArray.estimateMemoryUsage(capacity);
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public boolean connected(long p, long q) {
+        return find(p) == find(q);
+    }
+
+    public long find(long p) {
+        while (true) {
+            long q = parent.get(p);
+            if (q == ROOT) {
+                return p;
+            }
+            long r = parent.get(q - 1);
+            if (r != ROOT) {
+                // path splitting, a failed update is repaired by the next find
+                parent.cas(p, q, r);
+            }
+            p = q - 1;
+        }
+    }
+
+    /**
+     * @return true if the sets of both elements have been merged by this call
+     */
+    public boolean union(long p, long q) {
+        while (true) {
+            long pSet = find(p);
+            long qSet = find(q);
+            if (pSet == qSet) {
+                return false;
+            }
+            if (pSet < qSet) {
+                long tmp = pSet;
+                pSet = qSet;
+                qSet = tmp;
+            }
+            if (parent.cas(pSet, ROOT, qSet + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Points the element directly to the root of its set. Must not run concurrently with {@link #union(long, long)}.
+     */
+    public void compress(long p) {
+        long root = find(p);
+        if (root != p) {
+            parent.set(p, root + 1);
+        }
+    }
+
+    public int getSetCount() {
+        long count = 0L;
+        for (long i = 0L; i < capacity; ++i) {
+            if (parent.get(i) == ROOT) {
+                ++count;
+            }
+        }
+        return Math.toIntExact(count);
+    }
+
+    public Stream<DisjointSetStruct.Result> resultStream(HugeIdMapping idMapping) {
+
+        return LongStream.range(HugeIdMapping.START_NODE_ID, idMapping.nodeCount())
+                .mapToObj(mappedId ->
+                        new DisjointSetStruct.Result(
+                                idMapping.toOriginalNodeId(mappedId),
+                                find(mappedId)));
+    }
+
+    public long release() {
+        return parent.release();
+    }
+
+    public static final class Translator implements PropertyTranslator.OfLong<PagedAtomicDisjointSetStruct> {
+
+        public static final PropertyTranslator<PagedAtomicDisjointSetStruct> INSTANCE = new Translator();
+
+        @Override
+        public long toLong(final PagedAtomicDisjointSetStruct data, final long nodeId) {
+            return data.find(nodeId);
+        }
+    }
+}
@@ -39,6 +39,14 @@ public final class PagedDisjointSetStruct {
         this.capacity = capacity;
     }
 
+    /**
+     * @return the memory that a struct of the given capacity occupies, in bytes
+     */
+    public static long estimateMemoryUsage(long capacity) {
+        return MemoryUsage.shallowSizeOfInstance(PagedDisjointSetStruct.class)
+                + 2L * HugeLongArray.estimateMemoryUsage(capacity);
+    }
+
     public PagedDisjointSetStruct reset() {
         parent.fill(-1);
         return this;
@@ -44,6 +44,21 @@ public final class SparseLongArray {
         return new SparseLongArray(capacity, pages, tracker);
     }
 
+    /**
+     * Estimates the memory of an array with the given capacity that holds {@code elementCount} values.
+     * Pages are only allocated on demand, the minimum assumes that the values are dense
+     * and the maximum that every value is stored in a page of its own.
+     */
+    public static MemoryRange estimateMemoryUsage(long size, long elementCount) {
+        int numPages = PageUtil.numPagesFor(size, PAGE_SHIFT, (int) PAGE_MASK);
+        long fixed = MemoryUsage.shallowSizeOfInstance(SparseLongArray.class) + MemoryUsage.sizeOfObjectArray(numPages);
+        long minPages = PageUtil.numPagesFor(elementCount, PAGE_SHIFT, (int) PAGE_MASK);
+        long maxPages = Math.min(numPages, elementCount);
+        return MemoryRange.of(
+                fixed + minPages * PAGE_SIZE_IN_BYTES,
+                fixed + Math.max(minPages, maxPages) * PAGE_SIZE_IN_BYTES);
+    }
+
     private SparseLongArray(long capacity, long[][] pages, AllocationTracker tracker) {
         this.capacity = capacity;
         this.pages = pages;
@@ -51,7 +66,10 @@ public final class SparseLongArray {
     }
 
     public long get(long index) {
-        assert index < capacity;
+        if (index >= capacity) {
+            // e.g. nodes that have been created after the graph was loaded
+            return NOT_FOUND;
+        }
         final int pageIndex = pageIndex(index);
         long[] page = pages[pageIndex];
         if (page != null) {
@@ -74,7 +92,9 @@ public final class SparseLongArray {
     }
 
     public boolean contains(long index) {
-        assert index < capacity;
+        if (index >= capacity) {
+            return false;
+        }
         final int pageIndex = pageIndex(index);
         long[] page = pages[pageIndex];
         if (page != null) {
@@ -22,6 +22,7 @@ import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.api.IdMapping;
+import org.neo4j.graphalgo.core.huge.HugeGraphImpl;
 import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
@@ -41,6 +42,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntFunction;
+import java.util.function.LongPredicate;
 import java.util.function.LongUnaryOperator;
 
 public final class Exporter extends StatementApi {
@@ -55,8 +57,16 @@ public final class Exporter extends StatementApi {
     private final int concurrency;
     private final long nodeCount;
     private final LongUnaryOperator toOriginalId;
+    private final LongPredicate nodeFilter;
 
     public static Builder of(GraphDatabaseAPI db, Graph graph) {
+        if (graph instanceof HugeGraphImpl && ((HugeGraphImpl) graph).hasRemovedNodes()) {
+            // nodes that have been removed from a synced graph are not written
+            HugeGraphImpl hugeGraph = (HugeGraphImpl) graph;
+            Builder builder = new Builder(db, (HugeIdMapping) hugeGraph);
+            builder.nodeFilter = node -> !hugeGraph.isRemoved(node);
+            return builder;
+        }
         if (graph instanceof HugeGraph) {
             return new Builder(db, (HugeIdMapping) graph);
         }
@@ -72,6 +82,7 @@ public final class Exporter extends StatementApi {
         private final GraphDatabaseAPI db;
         private final LongUnaryOperator toOriginalId;
         private final long nodeCount;
+        private LongPredicate nodeFilter;
         private TerminationFlag terminationFlag;
         private ExecutorService executorService;
         private ProgressLoggerAdapter loggerAdapter;
@@ -122,7 +133,7 @@ public final class Exporter extends StatementApi {
             TerminationFlag flag = terminationFlag == null
                     ? TerminationFlag.RUNNING_TRUE
                     : terminationFlag;
-            return new Exporter(db, nodeCount, toOriginalId, flag, progressLogger, concurrency, executorService);
+            return new Exporter(db, nodeCount, toOriginalId, nodeFilter, flag, progressLogger, concurrency, executorService);
         }
     }
 
@@ -138,6 +149,7 @@ public final class Exporter extends StatementApi {
             GraphDatabaseAPI db,
             long nodeCount,
             LongUnaryOperator toOriginalId,
+            LongPredicate nodeFilter,
             TerminationFlag terminationFlag,
             ProgressLogger log,
             int concurrency,
@@ -145,6 +157,7 @@ public final class Exporter extends StatementApi {
         super(db);
         this.nodeCount = nodeCount;
         this.toOriginalId = toOriginalId;
+        this.nodeFilter = nodeFilter;
         this.terminationFlag = terminationFlag;
         this.progressLogger = log;
         this.concurrency = concurrency;
@@ -276,7 +289,9 @@ public final class Exporter extends StatementApi {
             long progress = 0L;
             Write ops = stmt.dataWrite();
             for (long i = 0L; i < nodeCount; i++) {
-                writer.accept(ops, i);
+                if (nodeFilter == null || nodeFilter.test(i)) {
+                    writer.accept(ops, i);
+                }
                 progressLogger.logProgress(++progress, nodeCount);
             }
         });
@@ -297,7 +312,9 @@ public final class Exporter extends StatementApi {
                         long end = start + len;
                         Write ops = stmt.dataWrite();
                         for (long j = start; j < end; j++) {
-                            writer.accept(ops, j);
+                            if (nodeFilter == null || nodeFilter.test(j)) {
+                                writer.accept(ops, j);
+                            }
                             progressLogger.logProgress(
                                     progress.incrementAndGet(),
                                     nodeCount);
@@ -304,5 +304,79 @@ public class BetweennessCentralityIntegrationTest {
         verify(consumer, times(1)).consume(eq(centerNodeId), eq(25.0));
     }
 
+    @Test
+    public void testHugeBetweennessStream() throws Exception {
+
+        db.execute("CALL algo.betweenness.stream('Node', 'TYPE', {graph:'huge', concurrency:4}) YIELD nodeId, centrality")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    consumer.consume(
+                            row.getNumber("nodeId").longValue(),
+                            row.getNumber("centrality").doubleValue());
+                    return true;
+                });
+
+        verify(consumer, times(10)).consume(anyLong(), eq(6.0));
+        verify(consumer, times(1)).consume(eq(centerNodeId), eq(25.0));
+    }
+
+    @Test
+    public void testHugeBetweennessWrite() throws Exception {
+
+        db.execute("CALL algo.betweenness('','', {graph:'huge', write:true, stats:true, writeProperty:'centrality'}) YIELD " +
+                "nodes, minCentrality, maxCentrality, sumCentrality, loadMillis, computeMillis, writeMillis")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(85.0, (double) row.getNumber("sumCentrality"), 0.01);
+                    assertEquals(25.0, (double) row.getNumber("maxCentrality"), 0.01);
+                    assertEquals(6.0, (double) row.getNumber("minCentrality"), 0.01);
+                    assertNotEquals(-1L, row.getNumber("writeMillis"));
+                    assertNotEquals(-1L, row.getNumber("computeMillis"));
+                    assertNotEquals(-1L, row.getNumber("nodes"));
+                    return true;
+                });
+    }
+
+    @Test
+    public void testHugeBetweennessWriteWithDirection() throws Exception {
+
+        db.execute("CALL algo.betweenness('','', {graph:'huge', direction:'both', concurrency:4, write:true, stats:true, writeProperty:'centrality'}) " +
+                "YIELD nodes, minCentrality, maxCentrality, sumCentrality, loadMillis, computeMillis, writeMillis")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(35.0, (double) row.getNumber("sumCentrality"), 0.01);
+                    assertEquals(30.0, (double) row.getNumber("maxCentrality"), 0.01);
+                    assertEquals(0.5, (double) row.getNumber("minCentrality"), 0.01);
+                    assertNotEquals(-1L, row.getNumber("writeMillis"));
+                    assertNotEquals(-1L, row.getNumber("computeMillis"));
+                    assertNotEquals(-1L, row.getNumber("nodes"));
+                    return true;
+                });
+    }
+
+    @Test
+    public void testHugeRABrandesStream() throws Exception {
+
+        db.execute("CALL algo.betweenness.sampled.stream('','', {graph:'huge', strategy:'random', probability:1.0}) YIELD nodeId, centrality")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    consumer.consume(
+                            row.getNumber("nodeId").longValue(),
+                            row.getNumber("centrality").doubleValue());
+                    return true;
+                });
 
+        verify(consumer, times(10)).consume(anyLong(), eq(6.0));
+        verify(consumer, times(1)).consume(eq(centerNodeId), eq(25.0));
+    }
+
+    @Test
+    public void testHugeRABrandesWrite() throws Exception {
+
+        db.execute("CALL algo.betweenness.sampled('','', {graph:'huge', strategy:'degree', " +
+                "write:true, stats:true, writeProperty:'centrality'}) YIELD " +
+                "nodes, minCentrality, maxCentrality, sumCentrality, loadMillis, computeMillis, writeMillis")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertNotEquals(-1L, row.getNumber("writeMillis"));
+                    assertNotEquals(-1L, row.getNumber("computeMillis"));
+                    assertNotEquals(-1L, row.getNumber("nodes"));
+                    return true;
+                });
+    }
 }
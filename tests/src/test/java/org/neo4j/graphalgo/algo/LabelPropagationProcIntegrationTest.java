@@ -186,14 +186,24 @@ public class LabelPropagationProcIntegrationTest {
     }
 
     @Test
-    public void shouldNotAllowLightOrHugeOrKernelGraph() throws Throwable {
+    public void shouldAllowHugeGraph() {
+        String query = "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {graph:'huge',batchSize:$batchSize,concurrency:$concurrency})";
+        String check = "MATCH (n) WHERE n.id IN [0,1] RETURN n.partition AS partition";
+
+        runQuery(query, parParams(), row -> assertEquals(12, row.getNumber("nodes").intValue()));
+        runQuery(check, row ->
+                assertEquals(2, row.getNumber("partition").intValue()));
+    }
+
+    @Test
+    public void shouldNotAllowLightOrKernelGraph() throws Throwable {
         String query = "CALL algo.labelPropagation(null, null, null, {graph:$graph})";
         Map<String, Object> params = parParams();
 
         exceptions.expect(IllegalArgumentException.class);
-        exceptions.expectMessage("The graph algorithm only supports these graph types; [heavy, cypher]");
+        exceptions.expectMessage("The graph algorithm only supports these graph types; [heavy, cypher, huge]");
 
-        for (final String graph : Arrays.asList("light", "huge", "kernel")) {
+        for (final String graph : Arrays.asList("light", "kernel")) {
             params.put("graph", graph);
             try {
                 runQuery(query, params);
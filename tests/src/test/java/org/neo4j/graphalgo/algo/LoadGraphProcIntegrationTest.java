@@ -23,6 +23,8 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.RuleChain;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.neo4j.graphalgo.LabelPropagationProc;
@@ -32,14 +34,18 @@ import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
 import org.neo4j.graphalgo.core.neo4jview.GraphView;
+import org.neo4j.graphalgo.core.utils.GraphFileDirectory;
 import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.test.rule.ImpermanentDatabaseRule;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -75,8 +81,17 @@ public class LoadGraphProcIntegrationTest {
         );
     }
 
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule() {
+        @Override
+        protected void configure(GraphDatabaseBuilder builder) {
+            builder.setConfig(GraphFileDirectory.SETTING, folder.getRoot().getPath());
+        }
+    };
+
     @Rule
-    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+    public RuleChain rules = RuleChain.outerRule(folder).around(db);
 
     @Rule
     public ExpectedException exceptions = ExpectedException.none();
@@ -99,6 +114,7 @@ public class LoadGraphProcIntegrationTest {
     @After
     public void tearDown() throws Exception {
         LoadGraphFactory.remove("foo");
+        LoadGraphFactory.remove("bar");
     }
 
     @Test
@@ -142,13 +158,12 @@ public class LoadGraphProcIntegrationTest {
         String query = "CALL algo.labelPropagation(null,null,null,{graph:$name,write:false})";
         try {
             runQuery(query, singletonMap("name", "foo"), row -> {
-                assertEquals(HeavyGraph.TYPE, graph);
+                assertTrue(HeavyGraph.TYPE.equals(graph) || HugeGraph.TYPE.equals(graph));
                 assertEquals(12, row.getNumber("nodes").intValue());
             });
         } catch (QueryExecutionException qee) {
             switch (graph) {
                 case GraphView.TYPE :
-                case HugeGraph.TYPE :
                     assertEquals(true, qee.getMessage().contains("The graph algorithm only supports these graph types"));
                     break;
                 default: fail("Error using wrong graph type:" + qee.getMessage());
@@ -187,6 +202,88 @@ public class LoadGraphProcIntegrationTest {
         });
     }
 
+    @Test
+    public void saveAndOpenGraph() throws Exception {
+        db.execute("CALL algo.graph.load('foo',null,null,{graph:$graph})", singletonMap("graph",graph)).close();
+        File file = new File(folder.getRoot(), "foo.graph");
+        Map<String, Object> params = new HashMap<>();
+        params.put("file", "foo.graph");
+
+        try {
+            runQuery("CALL algo.graph.save('foo', $file)", params, row -> {
+                assertEquals(HugeGraph.TYPE, graph);
+                assertEquals(12, row.getNumber("nodes").intValue());
+                assertEquals(file.length(), row.getNumber("bytes").longValue());
+            });
+        } catch (QueryExecutionException qee) {
+            assertNotEquals(HugeGraph.TYPE, graph);
+            assertTrue(qee.getMessage().contains("Only huge graphs can be saved"));
+            return;
+        }
+
+        try {
+            db.execute("CALL algo.graph.save('foo', $file)", params).close();
+            fail("existing files must not be replaced");
+        } catch (QueryExecutionException qee) {
+            assertTrue(qee.getMessage().contains("already exists"));
+        }
+        runQuery("CALL algo.graph.save('foo', $file, {overwrite:true})", params, row -> {
+            assertEquals(file.getPath(), row.getString("file"));
+            assertEquals(file.length(), row.getNumber("bytes").longValue());
+        });
+
+        runQuery("CALL algo.graph.open('bar', $file)", params, row -> {
+            assertEquals(12, row.getNumber("nodes").intValue());
+            assertEquals(HugeGraph.TYPE, row.getString("type"));
+            assertFalse(row.getBoolean("alreadyLoaded"));
+        });
+        runQuery("CALL algo.graph.open('bar', $file)", params, row -> assertTrue(row.getBoolean("alreadyLoaded")));
+
+        String query = "CALL algo.pageRank.stream(null,null,{graph:$name}) YIELD nodeId, score RETURN nodeId, score ORDER BY nodeId";
+        Map<Long, Double> expected = new HashMap<>();
+        runQuery(query, singletonMap("name", "foo"), row -> expected.put(row.getNumber("nodeId").longValue(), row.getNumber("score").doubleValue()));
+        Map<Long, Double> actual = new HashMap<>();
+        runQuery(query, singletonMap("name", "bar"), row -> actual.put(row.getNumber("nodeId").longValue(), row.getNumber("score").doubleValue()));
+        assertEquals(12, actual.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldRejectFilesOutsideOfTheGraphDirectory() {
+        db.execute("CALL algo.graph.load('foo',null,null,{graph:$graph})", singletonMap("graph", graph)).close();
+        for (String file : Arrays.asList("../foo.graph", new File(folder.getRoot().getParentFile(), "foo.graph").getPath())) {
+            for (String query : Arrays.asList("CALL algo.graph.save('foo', $file)", "CALL algo.graph.open('bar', $file)")) {
+                try {
+                    db.execute(query, singletonMap("file", file)).close();
+                    fail(file + " is outside of the graph directory");
+                } catch (QueryExecutionException qee) {
+                    assertTrue(qee.getMessage(), qee.getMessage().contains("is not within the directory"));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void loadGraphOffHeap() {
+        db.execute("CALL algo.graph.load('foo',null,null,{graph:$graph})", singletonMap("graph", graph)).close();
+        db.execute("CALL algo.graph.load('bar',null,null,{graph:$graph,memory:'offheap'})", singletonMap("graph", graph)).close();
+
+        String query = "CALL algo.pageRank.stream(null,null,{graph:$name}) YIELD nodeId, score RETURN nodeId, score ORDER BY nodeId";
+        Map<Long, Double> expected = new HashMap<>();
+        runQuery(query, singletonMap("name", "foo"), row -> expected.put(row.getNumber("nodeId").longValue(), row.getNumber("score").doubleValue()));
+        Map<Long, Double> actual = new HashMap<>();
+        runQuery(query, singletonMap("name", "bar"), row -> actual.put(row.getNumber("nodeId").longValue(), row.getNumber("score").doubleValue()));
+        assertEquals(12, actual.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldOnlyLoadNamedGraphsOffHeap() {
+        exceptions.expect(QueryExecutionException.class);
+        exceptions.expectMessage("Only named graphs can be stored off-heap");
+        db.execute("CALL algo.pageRank.stream(null,null,{graph:$graph,memory:'offheap'})", singletonMap("graph", graph)).close();
+    }
+
     private void runQuery(String query, Map<String, Object> params, Consumer<Result.ResultRow> check) {
         try (Result result = db.execute(query, params)) {
             result.accept(row -> {
@@ -0,0 +1,352 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphalgo.LoadGraphProc;
+import org.neo4j.graphalgo.UnionFindProc;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphImpl;
+import org.neo4j.graphalgo.core.loading.HugeGraphSync;
+import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.logging.NullLog;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LoadGraphSyncIntegrationTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Node {id: 0}) " +
+            "CREATE (b:Node {id: 1}) " +
+            "CREATE (c:Node {id: 2}) " +
+            "CREATE (:Other {id: 3}) " +
+            "CREATE (a)-[:TYPE {weight: 1.0}]->(b) " +
+            "CREATE (b)-[:TYPE {weight: 2.0}]->(c)";
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Before
+    public void setup() throws KernelException {
+        Procedures procedures = db.resolveDependency(Procedures.class);
+        procedures.registerProcedure(LoadGraphProc.class);
+        procedures.registerProcedure(UnionFindProc.class);
+        db.execute(DB_CYPHER).close();
+    }
+
+    @After
+    public void tearDown() {
+        LoadGraphFactory.remove("foo");
+    }
+
+    @Test
+    public void shouldApplyCommittedChanges() {
+        load(1000);
+        HugeGraph before = graph();
+
+        db.execute("MATCH (a:Node {id: 0}), (c:Node {id: 2}) CREATE (c)-[:TYPE {weight: 3.0}]->(a)").close();
+        db.execute("MATCH (:Node {id: 0})-[r:TYPE]->(:Node {id: 1}) DELETE r").close();
+        db.execute("MATCH (:Node {id: 1})-[r:TYPE]->() SET r.weight = 4.0").close();
+        // ignored, neither label nor type match
+        db.execute("MATCH (a:Node {id: 0}), (o:Other) CREATE (a)-[:TYPE]->(o)").close();
+        db.execute("MATCH (a:Node {id: 0}), (b:Node {id: 1}) CREATE (a)-[:OTHER]->(b)").close();
+
+        HugeGraph graph = graph();
+        assertNotSame(before, graph);
+        assertArrayEquals(new long[0], targets(graph, 0));
+        assertArrayEquals(new long[]{id(graph, 2)}, targets(graph, 1));
+        assertArrayEquals(new long[]{id(graph, 0)}, targets(graph, 2));
+        assertEquals(3.0, graph.weightOf(id(graph, 2), id(graph, 0)), 0.0);
+        assertEquals(4.0, graph.weightOf(id(graph, 1), id(graph, 2)), 0.0);
+        assertEquals(3L, ((HugeGraphImpl) graph).pendingUpdates());
+
+        // graphs that have been used before are not changed
+        assertArrayEquals(new long[]{id(before, 1)}, targets(before, 0));
+
+        Map<String, Object> info = db.execute("CALL algo.graph.info('foo')").next();
+        assertEquals(true, info.get("sync"));
+        assertEquals(3L, info.get("pendingUpdates"));
+    }
+
+    @Test
+    public void shouldAddCreatedNodes() {
+        load(1000);
+        db.execute("MATCH (c:Node {id: 2}) CREATE (c)-[:TYPE]->(:Node {id: 4})").close();
+        db.execute("MATCH (o:Other) SET o:Node").close();
+
+        HugeGraph graph = graph();
+        assertEquals(5L, graph.nodeCount());
+        assertArrayEquals(new long[]{id(graph, 4)}, targets(graph, 2));
+
+        long setCount = (long) db.execute("CALL algo.unionFind(null, null, {graph:'foo', write:false}) YIELD setCount")
+                .next()
+                .get("setCount");
+        assertEquals(2L, setCount);
+    }
+
+    @Test
+    public void shouldRemoveDeletedNodes() {
+        load(1000);
+        long b = originalId(1);
+        db.execute("MATCH (b:Node {id: 1}) DETACH DELETE b").close();
+
+        HugeGraph graph = graph();
+        assertEquals(3L, graph.nodeCount());
+        assertFalse(graph.contains(b));
+        assertArrayEquals(new long[0], targets(graph, 0));
+        assertEquals(2L, nodeCount(graph));
+
+        // removed nodes are skipped when writing back
+        db.execute("CALL algo.unionFind('Node', 'TYPE', {graph:'foo', write:true, partitionProperty:'partition'})").close();
+        long written = (long) db.execute("MATCH (n:Node) WHERE exists(n.partition) RETURN count(n) AS count")
+                .next()
+                .get("count");
+        assertEquals(2L, written);
+    }
+
+    @Test
+    public void shouldRemoveNodesThatLoseTheLabel() {
+        load(1000);
+        long b = originalId(1);
+        db.execute("MATCH (b:Node {id: 1}) REMOVE b:Node").close();
+
+        HugeGraph graph = graph();
+        assertFalse(graph.contains(b));
+        assertArrayEquals(new long[0], targets(graph, 0));
+        assertEquals(2L, nodeCount(graph));
+
+        // the relationships of the node have been removed together with the node
+        db.execute("MATCH (b {id: 1}) SET b:Node").close();
+        graph = graph();
+        assertTrue(graph.contains(b));
+        assertEquals(3L, nodeCount(graph));
+        assertArrayEquals(new long[0], targets(graph, 1));
+    }
+
+    @Test
+    public void shouldUpdateStoredComponents() {
+        load(1000);
+        db.execute("CREATE (:Node {id: 4})").close();
+        db.execute("CALL algo.unionFind.update('foo')").close();
+        assertEquals(2L, setCount());
+
+        db.execute("MATCH (c:Node {id: 2}), (n:Node {id: 4}) CREATE (n)-[:TYPE]->(c)").close();
+        awaitUpdates();
+        assertNotNull(LoadGraphFactory.getComponents("foo"));
+        assertEquals(1L, setCount());
+
+        db.execute("MATCH (:Node {id: 0})-[r:TYPE]->(:Node {id: 1}) DELETE r").close();
+        awaitUpdates();
+        assertNull(LoadGraphFactory.getComponents("foo"));
+    }
+
+    @Test
+    public void shouldKeepUpdatedRelationshipsWhenComponentsAreComputedAgain() {
+        load(1000);
+        db.execute("CREATE (:Node {id: 4})").close();
+        awaitUpdates();
+        long merges = (long) db.execute("MATCH (c:Node {id: 2}), (n:Node {id: 4}) " +
+                "CALL algo.unionFind.update('foo', [[id(c), id(n)]]) YIELD merges RETURN merges")
+                .next()
+                .get("merges");
+        assertEquals(1L, merges);
+        assertEquals(1L, setCount());
+
+        // drops the stored components
+        db.execute("MATCH (:Node {id: 0})-[r:TYPE]->(:Node {id: 1}) DELETE r").close();
+        awaitUpdates();
+        assertNull(LoadGraphFactory.getComponents("foo"));
+
+        db.execute("CALL algo.unionFind.update('foo')").close();
+        assertEquals(2L, setCount());
+    }
+
+    @Test
+    public void shouldKeepParallelRelationships() {
+        load(1000);
+        db.execute("MATCH (a:Node {id: 0}), (b:Node {id: 1}) CREATE (a)-[:TYPE {weight: 5.0}]->(b)").close();
+        db.execute("MATCH (:Node {id: 0})-[r:TYPE {weight: 1.0}]->(:Node {id: 1}) DELETE r").close();
+
+        HugeGraph graph = graph();
+        assertArrayEquals(new long[]{id(graph, 1)}, targets(graph, 0));
+        assertEquals(5.0, graph.weightOf(id(graph, 0), id(graph, 1)), 0.0);
+    }
+
+    @Test
+    public void shouldMergeInBackground() throws InterruptedException {
+        load(2);
+        db.execute("MATCH (a:Node {id: 0}), (c:Node {id: 2}) CREATE (a)-[:TYPE]->(c), (c)-[:TYPE]->(a)").close();
+
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (((HugeGraphImpl) graph()).pendingUpdates() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        HugeGraph graph = graph();
+        assertEquals(0L, ((HugeGraphImpl) graph).pendingUpdates());
+        assertArrayEquals(new long[]{id(graph, 1), id(graph, 2)}, targets(graph, 0));
+        assertArrayEquals(new long[]{id(graph, 0)}, targets(graph, 2));
+    }
+
+    @Test
+    public void shouldApplyChangesCommittedDuringTheLoad() {
+        HugeGraphSync sync = new HugeGraphSync(
+                "foo", db, NullLog.getInstance(), "Node", "TYPE", "weight", 1.0d, false, 1000L);
+        sync.register();
+        // the load does not see the new node, the sync applies it once the load is done
+        LoadGraphFactory.set("foo", new GraphLoader(db)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withRelationshipWeightsFromProperty("weight", 1.0d)
+                .load(HugeGraphFactory.class));
+        db.execute("MATCH (c:Node {id: 2}) CREATE (c)-[:TYPE]->(:Node {id: 4})").close();
+        sync.start();
+
+        HugeGraph graph = graph();
+        assertEquals(4L, graph.nodeCount());
+        assertArrayEquals(new long[]{id(graph, 4)}, targets(graph, 2));
+    }
+
+    @Test
+    public void shouldApplyConcurrentChangesInCommitOrder() throws InterruptedException {
+        load(1000);
+        int writers = 4;
+        int changes = 50;
+        Thread[] threads = new Thread[writers];
+        for (int i = 0; i < writers; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < changes; j++) {
+                    db.execute("MATCH (:Node {id: 1})-[r:TYPE]->() SET r.weight = $weight",
+                            singletonMap("weight", (double) j)).close();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double weight = (double) db.execute("MATCH (:Node {id: 1})-[r:TYPE]->() RETURN r.weight AS weight")
+                .next()
+                .get("weight");
+        HugeGraph graph = graph();
+        assertEquals(weight, graph.weightOf(id(graph, 1), id(graph, 2)), 0.0);
+    }
+
+    @Test
+    public void shouldStopSyncWhenGraphIsRemoved() {
+        load(1000);
+        db.execute("CALL algo.graph.remove('foo')").close();
+        assertNull(HugeGraphSync.get("foo"));
+        db.execute("MATCH (a:Node {id: 0}), (c:Node {id: 2}) CREATE (c)-[:TYPE]->(a)").close();
+        assertFalse(LoadGraphFactory.check("foo"));
+    }
+
+    @Test
+    public void shouldOnlySyncHugeGraphs() {
+        try {
+            db.execute("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'heavy', sync:true})").close();
+            fail("heavy graphs must not be synced");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Only huge graphs can be kept in sync"));
+        }
+    }
+
+    private void load(long mergeThreshold) {
+        Map<String, Object> row = db.execute(
+                "CALL algo.graph.load('foo', 'Node', 'TYPE', " +
+                        "{graph:'huge', relationshipWeight:'weight', sync:true, mergeThreshold:$threshold})",
+                singletonMap("threshold", mergeThreshold)).next();
+        assertEquals(true, row.get("sync"));
+        assertEquals(3L, row.get("nodes"));
+    }
+
+    private long setCount() {
+        awaitUpdates();
+        return (long) db.execute("CALL algo.unionFind.components.stream('foo', null) YIELD setId RETURN count(DISTINCT setId) AS count")
+                .next()
+                .get("count");
+    }
+
+    private long originalId(long id) {
+        return (long) db.execute("MATCH (n {id: $id}) RETURN id(n) AS nodeId", singletonMap("id", id))
+                .next()
+                .get("nodeId");
+    }
+
+    private static long nodeCount(HugeGraph graph) {
+        long[] count = {0L};
+        graph.forEachNode((long node) -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    private static HugeGraph graph() {
+        awaitUpdates();
+        return (HugeGraph) LoadGraphFactory.get("foo");
+    }
+
+    private static void awaitUpdates() {
+        try {
+            assertTrue(HugeGraphSync.get("foo").awaitUpdates(10L, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private long id(HugeGraph graph, long id) {
+        long nodeId = (long) db.execute("MATCH (n {id: $id}) RETURN id(n) AS nodeId", singletonMap("id", id))
+                .next()
+                .get("nodeId");
+        return graph.toHugeMappedNodeId(nodeId);
+    }
+
+    private long[] targets(HugeGraph graph, long id) {
+        LongArrayList targets = new LongArrayList();
+        graph.forEachRelationship(id(graph, id), Direction.OUTGOING, (s, t) -> {
+            targets.add(t);
+            return true;
+        });
+        return targets.toArray();
+    }
+}
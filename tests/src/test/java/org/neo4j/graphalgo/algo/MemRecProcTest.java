@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.MemRecProc;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.UnionFindProc;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MemRecProcTest {
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() throws KernelException {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute("UNWIND range(0, 999) AS i CREATE (:Node)").close();
+            db.execute("MATCH (n:Node) WITH collect(n) AS nodes " +
+                    "UNWIND range(0, 999) AS i " +
+                    "WITH nodes[i] AS a, nodes[(i + 1) % 1000] AS b " +
+                    "CREATE (a)-[:TYPE]->(b)").close();
+            tx.success();
+        }
+
+        Procedures procedures = db.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(MemRecProc.class);
+        procedures.registerProcedure(PageRankProc.class);
+        procedures.registerProcedure(UnionFindProc.class);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldEstimateGraphOnly() {
+        Map<String, Object> row = memrec("");
+        assertEquals(1000L, row.get("nodes"));
+        assertTrue((long) row.get("graphMinBytes") > 0L);
+        assertEquals(0L, row.get("algorithmMinBytes"));
+        assertEquals(0L, row.get("algorithmMaxBytes"));
+        assertEquals(row.get("graphMaxBytes"), row.get("maxBytes"));
+        assertEquals(true, row.get("fitsInHeap"));
+    }
+
+    @Test
+    public void shouldEstimatePageRank() {
+        Map<String, Object> row = memrec("pageRank");
+        assertEquals(1000L, row.get("nodes"));
+        // at least the scores and deltas of every node
+        assertTrue((long) row.get("algorithmMinBytes") > 16_000L);
+        assertTrue((long) row.get("algorithmMinBytes") <= (long) row.get("algorithmMaxBytes"));
+        assertEquals(
+                (long) row.get("graphMinBytes") + (long) row.get("algorithmMinBytes"),
+                row.get("minBytes"));
+    }
+
+    @Test
+    public void shouldEstimateUnionFind() {
+        Map<String, Object> row = memrec("unionFind");
+        assertEquals(1000L, row.get("nodes"));
+        // at least the parent of every node
+        assertTrue((long) row.get("algorithmMinBytes") > 8_000L);
+    }
+
+    @Test
+    public void shouldReportOffHeapMemorySeparately() {
+        Map<String, Object> heap = memrec("");
+        assertEquals(0L, heap.get("offHeapMinBytes"));
+        assertEquals(0L, heap.get("offHeapMaxBytes"));
+
+        Map<String, Object> offHeap = db.execute(
+                "CALL algo.memrec('Node', 'TYPE', '', {concurrency:4, memory:'offheap'})").next();
+        assertTrue((long) offHeap.get("offHeapMinBytes") > 0L);
+        // the adjacency lists are imported into the heap, only their offsets are allocated off-heap
+        assertTrue((long) offHeap.get("graphMinBytes") < (long) heap.get("graphMinBytes"));
+    }
+
+    @Test
+    public void shouldOnlyEstimateHugeGraphs() {
+        try {
+            db.execute("CALL algo.memrec('Node', 'TYPE', 'pageRank', {graph:'heavy'})").close();
+            fail("expected heavy graphs to fail");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("does not support memory estimation"));
+        }
+    }
+
+    @Test
+    public void shouldRejectUnknownAlgorithm() {
+        try {
+            memrec("foo");
+            fail("expected unknown algorithm to fail");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("not supported for algorithm 'foo'"));
+        }
+    }
+
+    @Test
+    public void shouldRunAlgorithmsThatFitIntoHeap() throws Exception {
+        db.execute("CALL algo.pageRank('Node', 'TYPE', {graph:'huge', write:false, checkMemory:true}) YIELD nodes")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(1000L, row.getNumber("nodes"));
+                    return true;
+                });
+        db.execute("CALL algo.unionFind('Node', 'TYPE', {graph:'huge', write:false, checkMemory:true}) YIELD setCount")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(1L, row.getNumber("setCount"));
+                    return true;
+                });
+    }
+
+    private static Map<String, Object> memrec(String algorithm) {
+        try (Result result = db.execute(
+                "CALL algo.memrec('Node', 'TYPE', $algorithm, {concurrency:4})",
+                Collections.singletonMap("algorithm", algorithm))) {
+            return result.next();
+        }
+    }
+}
@@ -149,6 +149,15 @@ public class PageRankProcIntegrationTest {
         assertMapEquals(expected, actual);
     }
 
+    @Test
+    public void testPageRankWithToleranceAndEpsilon() throws Exception {
+        runQuery(
+                "CALL algo.pageRank('Label1', 'TYPE1', {iterations:100, tolerance:0.001, epsilon:0.0001, graph:'"+graphImpl+"'}) YIELD iterations",
+                row -> assertTrue(row.getNumber("iterations").longValue() < 100L)
+        );
+        assertResult("pagerank");
+    }
+
     @Test
     public void testPageRankWriteBack() throws Exception {
         runQuery(
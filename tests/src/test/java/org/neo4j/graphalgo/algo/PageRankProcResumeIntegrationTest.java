@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PageRankProcResumeIntegrationTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Node {name:\"a\"})\n" +
+            "CREATE (b:Node {name:\"b\"})\n" +
+            "CREATE (c:Node {name:\"c\"})\n" +
+            "CREATE (d:Node {name:\"d\"})\n" +
+            "CREATE (e:Node {name:\"e\"})\n" +
+            "CREATE (f:Node {name:\"f\"})\n" +
+            "CREATE\n" +
+            "  (b)-[:TYPE]->(c),\n" +
+            "  (c)-[:TYPE]->(b),\n" +
+            "  (d)-[:TYPE]->(a),\n" +
+            "  (d)-[:TYPE]->(b),\n" +
+            "  (e)-[:TYPE]->(b),\n" +
+            "  (e)-[:TYPE]->(d),\n" +
+            "  (e)-[:TYPE]->(f),\n" +
+            "  (f)-[:TYPE]->(b),\n" +
+            "  (f)-[:TYPE]->(e)\n";
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Before
+    public void setup() throws KernelException {
+        db.resolveDependency(Procedures.class).registerProcedure(PageRankProc.class);
+        db.execute(DB_CYPHER).close();
+    }
+
+    @After
+    public void removeResults() {
+        db.execute("CALL algo.pageRank.removeResult('nightly')").close();
+    }
+
+    @Test
+    public void shouldResumeFromStoredResult() {
+        Map<Long, Double> initial = stream("{graph:'huge', iterations:100, storeResult:'nightly'}");
+
+        long iterations = iterations("{graph:'huge', seedResult:'nightly', tolerance:0.001, write:false}");
+        Map<Long, Double> resumed = stream("{graph:'huge', seedResult:'nightly', tolerance:0.001}");
+
+        assertTrue("iterations: " + iterations, iterations <= 2);
+        assertScores(initial, resumed);
+    }
+
+    @Test
+    public void shouldResumeFromNodeProperty() {
+        Map<Long, Double> initial = stream("{graph:'huge', iterations:100}");
+        db.execute("CALL algo.pageRank('Node', 'TYPE', {graph:'huge', iterations:100, writeProperty:'previous'})").close();
+
+        long iterations = iterations("{graph:'huge', seedProperty:'previous', tolerance:0.001, write:false}");
+        Map<Long, Double> resumed = stream("{graph:'huge', seedProperty:'previous', tolerance:0.001}");
+
+        assertTrue("iterations: " + iterations, iterations <= 2);
+        assertScores(initial, resumed);
+    }
+
+    @Test
+    public void shouldStartFromInitialScoresWithoutStoredResult() {
+        Map<Long, Double> expected = stream("{graph:'huge'}");
+        Map<Long, Double> actual = stream("{graph:'huge', seedResult:'nightly'}");
+        assertScores(expected, actual);
+    }
+
+    @Test
+    public void shouldRemoveStoredResult() {
+        stream("{graph:'huge', iterations:100, storeResult:'nightly'}");
+        Map<String, Object> row = db.execute("CALL algo.pageRank.removeResult('nightly')").next();
+        assertEquals("nightly", row.get("name"));
+        assertEquals(true, row.get("removed"));
+        row = db.execute("CALL algo.pageRank.removeResult('nightly')").next();
+        assertFalse((Boolean) row.get("removed"));
+    }
+
+    @Test
+    public void shouldOnlyResumeOnHugeGraphs() {
+        try {
+            stream("{graph:'heavy', seedResult:'nightly'}");
+            fail("heavy graphs must not resume");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("requires a huge graph"));
+        }
+    }
+
+    private Map<Long, Double> stream(String config) {
+        Map<Long, Double> scores = new HashMap<>();
+        db.execute("CALL algo.pageRank.stream('Node', 'TYPE', " + config + ") YIELD nodeId, score")
+                .accept(row -> {
+                    scores.put(row.getNumber("nodeId").longValue(), row.getNumber("score").doubleValue());
+                    return true;
+                });
+        return scores;
+    }
+
+    private long iterations(String config) {
+        return (long) db
+                .execute("CALL algo.pageRank('Node', 'TYPE', " + config + ") YIELD iterations")
+                .next()
+                .get("iterations");
+    }
+
+    private static void assertScores(Map<Long, Double> expected, Map<Long, Double> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<Long, Double> entry : expected.entrySet()) {
+            assertEquals("Node#" + entry.getKey(), entry.getValue(), actual.get(entry.getKey()), 1e-2);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphalgo.LoadGraphProc;
+import org.neo4j.graphalgo.ShortestPathProc;
+import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
+import org.neo4j.graphalgo.impl.ContractionHierarchy;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ShortestPathIndexProcTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (nA:Node {name:'a'}) " +
+            "CREATE (nB:Node {name:'b'}) " +
+            "CREATE (nC:Node {name:'c'}) " +
+            "CREATE (nD:Node {name:'d'}) " +
+            "CREATE (nX:Node {name:'x'}) " +
+            "CREATE" +
+            "  (nA)-[:TYPE {cost:5.0}]->(nX)," +
+            "  (nA)-[:TYPE {cost:2.0}]->(nB)," +
+            "  (nB)-[:TYPE {cost:2.0}]->(nX)," +
+            "  (nA)-[:TYPE {cost:1.0}]->(nC)," +
+            "  (nC)-[:TYPE {cost:1.0}]->(nD)," +
+            "  (nD)-[:TYPE {cost:1.0}]->(nX)";
+
+    private static final String QUERY = "" +
+            "MATCH (start:Node {name:'a'}), (end:Node {name:'x'}) " +
+            "CALL algo.shortestPath.stream(start, end, 'cost', {graph:'roads', direction:'OUTGOING'}) " +
+            "YIELD nodeId, cost " +
+            "MATCH (n) WHERE id(n) = nodeId " +
+            "RETURN n.name AS name, cost";
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Before
+    public void setup() throws KernelException {
+        Procedures procedures = db.resolveDependency(Procedures.class);
+        procedures.registerProcedure(LoadGraphProc.class);
+        procedures.registerProcedure(ShortestPathProc.class);
+        db.execute(DB_CYPHER).close();
+    }
+
+    @After
+    public void tearDown() {
+        ContractionHierarchy.remove("roads");
+        LoadGraphFactory.remove("roads");
+    }
+
+    @Test
+    public void shouldAnswerQueriesWithTheIndex() {
+        load(false);
+        Map<String, Object> row = db.execute("CALL algo.shortestPath.index('roads', {concurrency:2})").next();
+        assertEquals("roads", row.get("graph"));
+        assertEquals(5L, row.get("nodes"));
+        assertTrue((Long) row.get("shortcuts") >= 0L);
+        assertNotNull(ContractionHierarchy.get("roads", LoadGraphFactory.get("roads")));
+
+        assertEquals(Arrays.asList("a", "c", "d", "x"), names());
+        assertEquals(Arrays.asList(0.0, 1.0, 2.0, 3.0), costs());
+
+        Map<String, Object> result = db.execute(
+                "MATCH (start:Node {name:'a'}), (end:Node {name:'x'}) " +
+                        "CALL algo.shortestPath(start, end, 'cost', {graph:'roads', direction:'OUTGOING', writeProperty:'step'}) " +
+                        "YIELD nodeCount, totalCost RETURN nodeCount, totalCost").next();
+        assertEquals(4L, result.get("nodeCount"));
+        assertEquals(3.0, (Double) result.get("totalCost"), 0.0);
+        assertEquals(4L, db.execute("MATCH (n:Node) WHERE exists(n.step) RETURN count(n) AS count").next().get("count"));
+    }
+
+    @Test
+    public void shouldIgnoreTheIndexOfAnUpdatedGraph() {
+        load(true);
+        db.execute("CALL algo.shortestPath.index('roads')").close();
+        db.execute("MATCH (a:Node {name:'a'}), (x:Node {name:'x'}) CREATE (a)-[:TYPE {cost:0.5}]->(x)").close();
+
+        assertEquals(Arrays.asList("a", "x"), names());
+        assertNull(ContractionHierarchy.get("roads", LoadGraphFactory.get("roads")));
+    }
+
+    @Test
+    public void shouldOnlyIndexNamedHugeGraphs() {
+        try {
+            db.execute("CALL algo.shortestPath.index('roads')").close();
+            fail();
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("Graph name roads is not loaded"));
+        }
+        db.execute("CALL algo.graph.load('roads', 'Node', 'TYPE', {graph:'heavy', relationshipWeight:'cost'})").close();
+        try {
+            db.execute("CALL algo.shortestPath.index('roads')").close();
+            fail();
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("Only huge graphs can be indexed"));
+        }
+    }
+
+    private void load(boolean sync) {
+        db.execute("CALL algo.graph.load('roads', 'Node', 'TYPE', " +
+                "{graph:'huge', relationshipWeight:'cost', sync:" + sync + "})").close();
+    }
+
+    private List<String> names() {
+        List<String> names = new ArrayList<>();
+        db.execute(QUERY).forEachRemaining(row -> names.add((String) row.get("name")));
+        return names;
+    }
+
+    private List<Double> costs() {
+        List<Double> costs = new ArrayList<>();
+        db.execute(QUERY).forEachRemaining(row -> costs.add((Double) row.get("cost")));
+        return costs;
+    }
+}
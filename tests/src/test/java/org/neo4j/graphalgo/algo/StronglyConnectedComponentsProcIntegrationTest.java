@@ -18,6 +18,9 @@
  */
 package org.neo4j.graphalgo.algo;
 
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongLongScatterMap;
+import com.carrotsearch.hppc.cursors.LongLongCursor;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -36,6 +39,7 @@ import java.util.Collection;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author mknblch
@@ -87,7 +91,8 @@ public class StronglyConnectedComponentsProcIntegrationTest {
         return Arrays.asList(
                 new Object[]{"Heavy"},
                 new Object[]{"Light"},
-                new Object[]{"Kernel"}
+                new Object[]{"Kernel"},
+                new Object[]{"Huge"}
         );
     }
 
@@ -97,7 +102,7 @@ public class StronglyConnectedComponentsProcIntegrationTest {
     @Test
     public void testScc() throws Exception {
 
-        db.execute("CALL algo.scc('Node', 'TYPE', {write:true, graph:'"+graphImpl+"'}) YIELD loadMillis, computeMillis, writeMillis, setCount, maxSetSize, minSetSize")
+        db.execute("CALL algo.scc('Node', 'TYPE', {write:true, concurrency:4, graph:'"+graphImpl+"'}) YIELD loadMillis, computeMillis, writeMillis, setCount, maxSetSize, minSetSize")
                 .accept(row -> {
 
                     System.out.println(row.getNumber("loadMillis").longValue());
@@ -116,4 +121,21 @@ public class StronglyConnectedComponentsProcIntegrationTest {
                     return true;
                 });
     }
+
+    @Test
+    public void testSccStream() throws Exception {
+        LongLongScatterMap setSizes = new LongLongScatterMap();
+        db.execute("CALL algo.scc.stream('Node', 'TYPE', {concurrency:4, graph:'" + graphImpl + "'}) YIELD nodeId, partition")
+                .accept(row -> {
+                    setSizes.addTo(row.getNumber("partition").longValue(), 1L);
+                    return true;
+                });
+        assertEquals(2, setSizes.size());
+        LongHashSet sizes = new LongHashSet();
+        for (LongLongCursor cursor : setSizes) {
+            sizes.add(cursor.value);
+        }
+        assertTrue(sizes.contains(2L));
+        assertTrue(sizes.contains(3L));
+    }
 }
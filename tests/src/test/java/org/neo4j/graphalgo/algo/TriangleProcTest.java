@@ -150,6 +150,41 @@ public class TriangleProcTest {
     }
 
 
+    @Test
+    public void testHugeTriangleCountWriteCypher() throws Exception {
+        final String cypher = "CALL algo.triangleCount('Node', '', {graph:'huge', concurrency:4, write:true, clusteringCoefficientProperty:'coefficient'}) " +
+                "YIELD loadMillis, computeMillis, writeMillis, nodeCount, triangleCount, averageClusteringCoefficient";
+        api.execute(cypher).accept(row -> {
+            final long writeMillis = row.getNumber("writeMillis").longValue();
+            final long nodeCount = row.getNumber("nodeCount").longValue();
+            final long triangleCount = row.getNumber("triangleCount").longValue();
+            assertNotEquals(-1, writeMillis);
+            assertEquals(3, triangleCount);
+            assertEquals(9, nodeCount);
+            return true;
+        });
+
+        final String request = "MATCH (n) WHERE exists(n.triangles) RETURN n.triangles as t, n.coefficient as c";
+        api.execute(request).accept(row -> {
+            assertEquals(1L, row.getNumber("t").longValue());
+            assertNotEquals(0.0, row.getNumber("c").doubleValue());
+            return true;
+        });
+    }
+
+    @Test
+    public void testHugeTriangleCountStream() throws Exception {
+        final TriangleCountConsumer mock = mock(TriangleCountConsumer.class);
+        final String cypher = "CALL algo.triangleCount.stream('Node', '', {graph:'huge', concurrency:4}) YIELD nodeId, triangles";
+        api.execute(cypher).accept(row -> {
+            final long nodeId = row.getNumber("nodeId").longValue();
+            final long triangles = row.getNumber("triangles").longValue();
+            mock.consume(nodeId, triangles);
+            return true;
+        });
+        verify(mock, times(9)).consume(anyLong(), eq(1L));
+    }
+
     @Test
     public void testTriangleCountExp1WriteCypher() throws Exception {
         final String cypher = "CALL algo.triangleCount.forkJoin('Node', '', {concurrency:4, write:true}) " +
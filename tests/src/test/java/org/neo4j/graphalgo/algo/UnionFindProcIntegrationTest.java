@@ -148,6 +148,29 @@ public class UnionFindProcIntegrationTest {
         assertMapContains(map, 1, 2, 7);
     }
 
+    @Test
+    public void testParallelUnionFind() throws Exception {
+        final IntIntScatterMap map = new IntIntScatterMap(11);
+        db.execute("CALL algo.unionFind.stream('', 'TYPE', {concurrency:4, graph:'"+graphImpl+"'}) YIELD setId")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    map.addTo(row.getNumber("setId").intValue(), 1);
+                    return true;
+                });
+        assertMapContains(map, 1, 2, 7);
+
+        if (!"Huge".equals(graphImpl)) {
+            // only the shared struct of huge graphs supports a threshold in parallel
+            return;
+        }
+        final IntIntScatterMap thresholdMap = new IntIntScatterMap(11);
+        db.execute("CALL algo.unionFind.stream('', 'TYPE', {weightProperty:'cost', defaultValue:10.0, threshold:5.0, concurrency:4, graph:'"+graphImpl+"'}) YIELD setId")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    thresholdMap.addTo(row.getNumber("setId").intValue(), 1);
+                    return true;
+                });
+        assertMapContains(thresholdMap, 4, 3, 2, 1);
+    }
+
     @Test
     public void testThresholdUnionFindStream() throws Exception {
         final IntIntScatterMap map = new IntIntScatterMap(11);
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphalgo.LoadGraphProc;
+import org.neo4j.graphalgo.UnionFindProc;
+import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Result;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UnionFindUpdateProcTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (nA:Node {name:'a'}) " +
+            "CREATE (nB:Node {name:'b'}) " +
+            "CREATE (nC:Node {name:'c'}) " +
+            "CREATE (nD:Node {name:'d'}) " +
+            "CREATE (nE:Node {name:'e'}) " +
+            "CREATE (nF:Node {name:'f'}) " +
+            "CREATE" +
+            "  (nA)-[:TYPE]->(nB)," +
+            "  (nB)-[:TYPE]->(nC)," +
+            "  (nD)-[:TYPE]->(nE)";
+
+    private static final String UPDATE = "" +
+            "MATCH (s:Node {name:$source}), (t:Node {name:$target}) " +
+            "CALL algo.unionFind.update('components', [[id(s), id(t)]]) " +
+            "YIELD relationships, merges, skipped " +
+            "RETURN relationships, merges, skipped";
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Before
+    public void setup() throws KernelException {
+        Procedures procedures = db.resolveDependency(Procedures.class);
+        procedures.registerProcedure(LoadGraphProc.class);
+        procedures.registerProcedure(UnionFindProc.class);
+        db.execute(DB_CYPHER).close();
+    }
+
+    @After
+    public void tearDown() {
+        LoadGraphFactory.remove("components");
+    }
+
+    @Test
+    public void shouldComputeTheComponentsOnTheFirstUpdate() {
+        load();
+        Map<String, Object> row = db.execute("CALL algo.unionFind.update('components', [], {concurrency:2})").next();
+        assertEquals("components", row.get("graph"));
+        assertEquals(6L, row.get("nodes"));
+        assertEquals(0L, row.get("relationships"));
+        assertEquals(0L, row.get("merges"));
+        assertTrue((Long) row.get("computeMillis") >= 0L);
+        assertNotNull(LoadGraphFactory.getComponents("components"));
+
+        Map<String, Long> setIds = setIds();
+        assertEquals(6, setIds.size());
+        assertEquals(setIds.get("a"), setIds.get("b"));
+        assertEquals(setIds.get("a"), setIds.get("c"));
+        assertEquals(setIds.get("d"), setIds.get("e"));
+        assertNotEquals(setIds.get("a"), setIds.get("d"));
+        assertNotEquals(setIds.get("a"), setIds.get("f"));
+        assertNotEquals(setIds.get("d"), setIds.get("f"));
+    }
+
+    @Test
+    public void shouldMergeComponentsWithNewRelationships() {
+        load();
+        db.execute("CALL algo.unionFind.update('components')").close();
+
+        Map<String, Object> row = update("c", "e");
+        assertEquals(1L, row.get("relationships"));
+        assertEquals(1L, row.get("merges"));
+        assertEquals(0L, row.get("skipped"));
+
+        // the components are not computed again
+        row = db.execute("CALL algo.unionFind.update('components', []) YIELD computeMillis RETURN computeMillis").next();
+        assertEquals(-1L, row.get("computeMillis"));
+
+        row = update("a", "d");
+        assertEquals(1L, row.get("relationships"));
+        assertEquals(0L, row.get("merges"));
+
+        Map<String, Long> setIds = setIds();
+        assertEquals(setIds.get("a"), setIds.get("e"));
+        assertNotEquals(setIds.get("a"), setIds.get("f"));
+
+        update("f", "b");
+        assertEquals(1, new HashSet<>(setIds().values()).size());
+    }
+
+    @Test
+    public void shouldLookUpSingleNodes() {
+        load();
+        db.execute("CALL algo.unionFind.update('components')").close();
+        update("c", "e");
+
+        Map<String, Object> row = db.execute(
+                "MATCH (a:Node {name:'a'}), (e:Node {name:'e'}) " +
+                        "CALL algo.unionFind.components.stream('components', [id(a), id(e), -1]) " +
+                        "YIELD nodeId, setId " +
+                        "RETURN collect(nodeId) AS nodeIds, collect(DISTINCT setId) AS setIds").next();
+        assertEquals(2, ((List<?>) row.get("nodeIds")).size());
+        assertEquals(1, ((List<?>) row.get("setIds")).size());
+    }
+
+    @Test
+    public void shouldSkipUnknownNodes() {
+        load();
+        Map<String, Object> row = db.execute(
+                "MATCH (a:Node {name:'a'}) " +
+                        "CALL algo.unionFind.update('components', [[id(a), 4242]]) " +
+                        "YIELD relationships, merges, skipped " +
+                        "RETURN relationships, merges, skipped").next();
+        assertEquals(0L, row.get("relationships"));
+        assertEquals(0L, row.get("merges"));
+        assertEquals(1L, row.get("skipped"));
+    }
+
+    @Test
+    public void shouldDropTheComponentsWithTheGraph() {
+        load();
+        db.execute("CALL algo.unionFind.update('components')").close();
+        db.execute("CALL algo.graph.remove('components')").close();
+        assertNull(LoadGraphFactory.getComponents("components"));
+    }
+
+    @Test
+    public void shouldStreamComponentsOfRemovedGraphs() {
+        load();
+        db.execute("CALL algo.unionFind.update('components')").close();
+        try (Result result = db.execute("CALL algo.unionFind.components.stream('components')")) {
+            assertTrue(result.hasNext());
+            result.next();
+            db.execute("CALL algo.graph.remove('components')").close();
+            while (result.hasNext()) {
+                assertNotNull(result.next().get("setId"));
+            }
+        }
+    }
+
+    @Test
+    public void shouldOnlyUpdateNamedHugeGraphs() {
+        try {
+            db.execute("CALL algo.unionFind.update('components')").close();
+            fail();
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("Graph name components is not loaded"));
+        }
+        db.execute("CALL algo.graph.load('components', 'Node', 'TYPE', {graph:'heavy'})").close();
+        try {
+            db.execute("CALL algo.unionFind.update('components')").close();
+            fail();
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("Only the components of huge graphs can be updated"));
+        }
+    }
+
+    @Test
+    public void shouldFailToStreamComponentsThatHaveNotBeenComputed() {
+        load();
+        try {
+            db.execute("CALL algo.unionFind.components.stream('components')").close();
+            fail();
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("have not been computed"));
+        }
+    }
+
+    private void load() {
+        db.execute("CALL algo.graph.load('components', 'Node', 'TYPE', {graph:'huge'})").close();
+    }
+
+    private Map<String, Object> update(String source, String target) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("source", source);
+        params.put("target", target);
+        return db.execute(UPDATE, params).next();
+    }
+
+    private Map<String, Long> setIds() {
+        Map<String, Long> setIds = new HashMap<>();
+        db.execute("CALL algo.unionFind.components.stream('components') YIELD nodeId, setId " +
+                "MATCH (n) WHERE id(n) = nodeId RETURN n.name AS name, setId")
+                .forEachRemaining(row -> setIds.put((String) row.get("name"), (Long) row.get("setId")));
+        return setIds;
+    }
+}
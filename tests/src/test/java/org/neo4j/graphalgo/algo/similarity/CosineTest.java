@@ -21,13 +21,22 @@ package org.neo4j.graphalgo.algo.similarity;
 import org.junit.*;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.similarity.CosineProc;
+import org.neo4j.graphalgo.similarity.SimilarityIndexProc;
+import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static java.lang.Math.sqrt;
 import static java.util.Collections.singletonMap;
@@ -69,6 +78,7 @@ public class CosineTest {
     public static void beforeClass() throws KernelException {
         db = TestDatabaseCreator.createTestDatabase();
         db.getDependencyResolver().resolveDependency(Procedures.class).registerProcedure(CosineProc.class);
+        db.getDependencyResolver().resolveDependency(Procedures.class).registerProcedure(SimilarityIndexProc.class);
         db.execute(buildDatabaseQuery()).close();
     }
 
@@ -185,6 +195,150 @@ public class CosineTest {
         assertEquals(people,count);
     }
 
+    @Test
+    public void indexCosineFindsSamePairsAsExactComputation() {
+        int size = 333;
+        buildRandomDB(size);
+        db.execute("MATCH (:Person)-[r:LIKES]->(:Item) SET r.stars = toInteger(rand() * 5) + 1").close();
+
+        // ties of the top-k results depend on the order of the threads, so only the sequential top-k is compared
+        assertSameResults(map("similarityCutoff", 0.0, "concurrency", 1), map("similarityCutoff", 0.0, "concurrency", 1, "candidates", "index"));
+        assertSameResults(map("similarityCutoff", 0.0, "concurrency", 1), map("similarityCutoff", 0.0, "concurrency", 4, "candidates", "index"));
+        assertSameResults(map("similarityCutoff", 0.0, "topK", 3, "concurrency", 1), map("similarityCutoff", 0.0, "topK", 3, "concurrency", 1, "candidates", "index"));
+    }
+
+    private Map<Object, List<Double>> topKScores(Map<String, Object> config) {
+        Map<Object, List<Double>> scores = new HashMap<>();
+        db.execute(STATEMENT_STREAM, map("config", config))
+                .forEachRemaining(row -> scores.computeIfAbsent(row.get("item1"), item -> new ArrayList<>()).add((Double) row.get("similarity")));
+        scores.values().forEach(Collections::sort);
+        return scores;
+    }
+
+    private Set<List<Object>> topKPairs(Map<String, Object> config) {
+        Set<List<Object>> pairs = new HashSet<>();
+        db.execute(STATEMENT_STREAM, map("config", config))
+                .forEachRemaining(row -> pairs.add(Arrays.asList(row.get("item1"), row.get("item2"))));
+        return pairs;
+    }
+
+    private void assertSameResults(Map<String, Object> expectedConfig, Map<String, Object> actualConfig) {
+        List<Map<String, Object>> expected = new ArrayList<>();
+        db.execute(STATEMENT_STREAM, map("config", expectedConfig)).forEachRemaining(expected::add);
+        List<Map<String, Object>> actual = new ArrayList<>();
+        db.execute(STATEMENT_STREAM, map("config", actualConfig)).forEachRemaining(actual::add);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void indexCosineStreamTest() {
+        Result results = db.execute(STATEMENT_STREAM, map("config",map("concurrency",1,"similarityCutoff",0.0,"candidates","index")));
+        assertTrue(results.hasNext());
+        assert01(results.next());
+        assert02(results.next());
+        // pairs without common non-zero weights are not visited
+        assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void nnDescentCosineFindsMostOfTheTopK() {
+        buildRandomDB(1000);
+        db.execute("MATCH (:Person)-[r:LIKES]->(:Item) SET r.stars = toInteger(rand() * 5) + 1").close();
+
+        // ties make the pairs ambiguous, so the scores of the top-k of every item are compared
+        Map<Object, List<Double>> exact = topKScores(map("similarityCutoff", 0.0, "topK", 3, "concurrency", 1));
+        Map<Object, List<Double>> approximate = topKScores(map("similarityCutoff", 0.0, "topK", 3, "concurrency", 4, "candidates", "nndescent", "k", 10));
+
+        assertFalse(exact.isEmpty());
+        int found = 0, total = 0;
+        for (Map.Entry<Object, List<Double>> entry : exact.entrySet()) {
+            List<Double> scores = approximate.getOrDefault(entry.getKey(), Collections.emptyList());
+            for (int i = 0; i < entry.getValue().size(); i++, total++) {
+                if (i < scores.size() && Math.abs(scores.get(i) - entry.getValue().get(i)) < 1e-9) found++;
+            }
+        }
+        assertTrue(found + " of " + total, found >= 0.95 * total);
+    }
+
+    @Test
+    public void nnDescentCosineKeepsIndexByName() {
+        Map<String, Object> config = map("similarityCutoff", 0.0, "concurrency", 1, "candidates", "nndescent", "indexName", "cosineTest");
+        Set<List<Object>> first = topKPairs(config);
+        Set<List<Object>> second = topKPairs(config);
+        assertEquals(first, second);
+        assertEquals(new HashSet<>(Arrays.asList(Arrays.asList(0L, 1L), Arrays.asList(0L, 2L))), first);
+
+        assertEquals(true, db.execute("CALL algo.similarity.removeIndex('cosineTest')").next().get("removed"));
+        assertEquals(false, db.execute("CALL algo.similarity.removeIndex('cosineTest')").next().get("removed"));
+    }
+
+    @Test
+    public void nnDescentCosineRebuildsIndexForChangedInputs() {
+        Map<String, Object> config = map("similarityCutoff", 0.0, "concurrency", 1, "candidates", "nndescent", "k", 1, "indexName", "cosineRebuild");
+        Map<String, Object> unindexed = map("similarityCutoff", 0.0, "concurrency", 1, "candidates", "nndescent", "k", 1);
+        Set<List<Object>> before = topKPairs(config);
+
+        db.execute("MATCH (d:Person {name:'Dana'}), (i1:Item {name:'p1'}), (i2:Item {name:'p2'}) " +
+                "CREATE (d)-[:LIKES {stars:1}]->(i1), (d)-[:LIKES {stars:3}]->(i2)").close();
+        Set<List<Object>> changedWeights = topKPairs(config);
+        assertNotEquals(before, changedWeights);
+        assertEquals(topKPairs(unindexed), changedWeights);
+
+        config.put("k", 3);
+        unindexed.put("k", 3);
+        assertEquals(topKPairs(unindexed), topKPairs(config));
+
+        assertEquals(true, db.execute("CALL algo.similarity.removeIndex('cosineRebuild')").next().get("removed"));
+    }
+
+    @Test
+    public void sourceIdsCosineStreamTest() {
+        Result results = db.execute(STATEMENT_STREAM, map("config", map("concurrency", 1, "sourceIds", Collections.singletonList(0L))));
+        assert01(results.next());
+        assert02(results.next());
+        assert03(results.next());
+        assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void sourceAndTargetIdsCosineStreamTest() {
+        Result results = db.execute(STATEMENT_STREAM, map("config", map("concurrency", 2, "sourceIds", Arrays.asList(2L, 1L, 42L), "targetIds", Collections.singletonList(0L))));
+        assert01(flip(results.next()));
+        assert02(flip(results.next()));
+        assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void sourceIdsCosineTopKMatchesAllPairs() {
+        int size = 333;
+        buildRandomDB(size);
+        db.execute("MATCH (:Person)-[r:LIKES]->(:Item) SET r.stars = toInteger(rand() * 5) + 1").close();
+        List<Long> sourceIds = new ArrayList<>();
+        db.execute("MATCH (p:Person) WHERE id(p) % 3 = 0 RETURN id(p) AS id").forEachRemaining(row -> sourceIds.add((Long) row.get("id")));
+
+        Map<Object, List<Double>> all = topKScores(map("similarityCutoff", 0.0, "topK", 3, "concurrency", 1));
+        all.keySet().retainAll(sourceIds);
+        Map<Object, List<Double>> sources = topKScores(map("similarityCutoff", 0.0, "topK", 3, "concurrency", 4, "sourceIds", sourceIds));
+
+        // the similarity of a pair may differ in the last bits, depending on which input is the source
+        assertFalse(sources.isEmpty());
+        assertEquals(all.keySet(), sources.keySet());
+        for (Map.Entry<Object, List<Double>> entry : all.entrySet()) {
+            List<Double> scores = sources.get(entry.getKey());
+            assertEquals(entry.getValue().size(), scores.size());
+            for (int i = 0; i < scores.size(); i++) {
+                assertEquals(entry.getValue().get(i), scores.get(i), 1e-9);
+            }
+        }
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void sourceIdsRequireAllCandidates() {
+        db.execute(STATEMENT_STREAM, map("config", map("sourceIds", Collections.singletonList(0L), "candidates", "index"))).close();
+    }
+
     @Test
     public void topNcosineStreamTest() {
         Result results = db.execute(STATEMENT_STREAM, map("config",map("top",2)));
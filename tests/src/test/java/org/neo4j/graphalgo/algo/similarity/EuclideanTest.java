@@ -27,6 +27,10 @@ import org.neo4j.internal.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static java.lang.Math.sqrt;
@@ -164,6 +168,26 @@ public class  EuclideanTest {
         assertEquals(people,count);
     }
 
+    @Test
+    public void nnDescentEuclideanFindsMostOfTheTopK() {
+        buildRandomDB(1000);
+        db.execute("MATCH (:Person)-[r:LIKES]->(:Item) SET r.stars = toInteger(rand() * 5) + 1").close();
+
+        // ties make the pairs ambiguous, so the scores of the top-k of every item are compared
+        Map<Object, List<Double>> exact = topKScores(map("topK", 3, "concurrency", 1));
+        Map<Object, List<Double>> approximate = topKScores(map("topK", 3, "concurrency", 4, "candidates", "nndescent", "k", 10));
+
+        assertFalse(exact.isEmpty());
+        int found = 0, total = 0;
+        for (Map.Entry<Object, List<Double>> entry : exact.entrySet()) {
+            List<Double> scores = approximate.getOrDefault(entry.getKey(), Collections.emptyList());
+            for (int i = 0; i < entry.getValue().size(); i++, total++) {
+                if (i < scores.size() && Math.abs(scores.get(i) - entry.getValue().get(i)) < 1e-9) found++;
+            }
+        }
+        assertTrue(found + " of " + total, found >= 0.95 * total);
+    }
+
     @Test
     public void topNeuclideanStreamTest() {
         Result results = db.execute(STATEMENT_STREAM, map("config",map("top",2)));
@@ -217,6 +241,15 @@ public class  EuclideanTest {
                 "item2",row.get("item1"),"count2",row.get("count1"));
     }
 
+    private Map<Object, List<Double>> topKScores(Map<String, Object> config) {
+        Map<Object, List<Double>> scores = new HashMap<>();
+        db.execute(STATEMENT_STREAM, map("config", config))
+                .forEachRemaining(row -> scores.computeIfAbsent(row.get("item1"), item -> new ArrayList<>()).add((Double) row.get("similarity")));
+        scores.values().forEach(Collections::sort);
+        return scores;
+    }
+
+
     private void assertSameSource(Result results, int count, long source) {
         Map<String, Object> row;
         long target = 0;
@@ -21,13 +21,18 @@ package org.neo4j.graphalgo.algo.similarity;
 import org.junit.*;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.similarity.JaccardProc;
+import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static java.lang.Math.sqrt;
 import static java.util.Collections.singletonMap;
@@ -162,6 +167,84 @@ public class JaccardTest {
         assertEquals(people,count);
     }
 
+    @Test
+    public void minHashJaccardStreamTest() {
+        Result results = db.execute(STATEMENT_STREAM, map("config", map(
+                "concurrency", 1, "candidates", "minhash", "signatureLength", 128, "bands", 64)));
+        assertTrue(results.hasNext());
+        assert01(results.next());
+        assert02(results.next());
+        assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void minHashJaccardFindsSameSimilarPairsAsExactComputation() {
+        int size = 333;
+        buildRandomDB(size);
+
+        Set<Map<String, Object>> exact = new HashSet<>();
+        db.execute(STATEMENT_STREAM, map("config", map("similarityCutoff", 0.1, "concurrency", 1)))
+                .forEachRemaining(exact::add);
+        Set<Map<String, Object>> approximate = new HashSet<>();
+        db.execute(STATEMENT_STREAM, map("config", map(
+                "similarityCutoff", 0.1, "concurrency", 4,
+                "candidates", "minhash", "signatureLength", 256, "bands", 256)))
+                .forEachRemaining(approximate::add);
+
+        assertFalse(exact.isEmpty());
+        assertEquals(exact, approximate);
+    }
+
+    @Test
+    public void minHashJaccardKeepsTopK() {
+        Map<String, Object> params = map("config", map(
+                "concurrency", 1, "topK", 1, "candidates", "minhash", "signatureLength", 128, "bands", 64));
+
+        Result results = db.execute(STATEMENT_STREAM, params);
+        assertTrue(results.hasNext());
+        assert01(results.next());
+        assert01(flip(results.next()));
+        assert02(flip(results.next()));
+        assertFalse(results.hasNext());
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void minHashRequiresSignatureLengthDivisibleByBands() {
+        db.execute(STATEMENT_STREAM, map("config", map(
+                "candidates", "minhash", "signatureLength", 100, "bands", 32))).close();
+    }
+
+    @Test
+    public void indexJaccardStreamTest() {
+        Result results = db.execute(STATEMENT_STREAM, map("config",map("concurrency",1,"candidates","index")));
+        assertTrue(results.hasNext());
+        assert01(results.next());
+        assert02(results.next());
+        // pairs without common categories are not visited
+        assertFalse(results.hasNext());
+    }
+
+    @Test
+    public void indexJaccardFindsSamePairsAsExactComputation() {
+        int size = 333;
+        buildRandomDB(size);
+
+        // ties of the top-k results depend on the order of the threads, so only the sequential top-k is compared
+        assertSameResults(map("similarityCutoff", 0.0, "concurrency", 1), map("similarityCutoff", 0.0, "concurrency", 1, "candidates", "index"));
+        assertSameResults(map("similarityCutoff", 0.0, "concurrency", 1), map("similarityCutoff", 0.0, "concurrency", 4, "candidates", "index"));
+        assertSameResults(map("similarityCutoff", 0.0, "topK", 3, "concurrency", 1), map("similarityCutoff", 0.0, "topK", 3, "concurrency", 1, "candidates", "index"));
+    }
+
+    private void assertSameResults(Map<String, Object> expectedConfig, Map<String, Object> actualConfig) {
+        List<Map<String, Object>> expected = new ArrayList<>();
+        db.execute(STATEMENT_STREAM, map("config", expectedConfig)).forEachRemaining(expected::add);
+        List<Map<String, Object>> actual = new ArrayList<>();
+        db.execute(STATEMENT_STREAM, map("config", actualConfig)).forEachRemaining(actual::add);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
     @Test
     public void topNjaccardStreamTest() {
         Result results = db.execute(STATEMENT_STREAM, map("config",map("top",2)));
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.NullLog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public final class MemoryRecommendationTest {
+
+    @Test
+    public void shouldSumGraphAndAlgorithm() {
+        MemoryRecommendation recommendation = new MemoryRecommendation(
+                42L,
+                MemoryRange.of(100L, 200L),
+                MemoryRange.of(10L),
+                1000L);
+        assertEquals(MemoryRange.of(110L, 210L), recommendation.total());
+        assertTrue(recommendation.fitsInHeap());
+    }
+
+    @Test
+    public void shouldRefuseWhenMinimumExceedsHeap() {
+        MemoryRecommendation recommendation = new MemoryRecommendation(
+                42L,
+                MemoryRange.of(800L, 2000L),
+                MemoryRange.of(300L),
+                1000L);
+        assertFalse(recommendation.fitsInHeap());
+        try {
+            recommendation.assertFitsInHeap("PageRank", NullLog.getInstance());
+            fail("expected the task to be refused");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("PageRank requires at least 1100 Bytes"));
+        }
+    }
+
+    @Test
+    public void shouldWarnWhenMaximumExceedsHeap() {
+        Log log = mock(Log.class);
+        MemoryRecommendation recommendation = new MemoryRecommendation(
+                42L,
+                MemoryRange.of(500L, 2000L),
+                MemoryRange.of(300L),
+                1000L);
+        recommendation.assertFitsInHeap("PageRank", log);
+        verify(log).warn(anyString(), eq("PageRank"), eq("2300 Bytes"), eq("1000 Bytes"));
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class HugeGraphBuilderTest {
+
+    @Test
+    public void shouldBuildCompressedGraph() {
+        HugeGraphBuilder builder = new HugeGraphBuilder(4L, true, 1.0, AllocationTracker.EMPTY);
+        HugeGraphBuilder.Importer importer = builder.newImporter();
+        importer.add(0L, new long[]{3L, 1L, 2L}, new double[]{4.0, 2.0, 1.0}, 3);
+        importer.add(2L, new long[]{0L, 2L}, new double[]{1.0, 5.0}, 2);
+        importer.add(3L, new long[0], null, 0);
+        HugeGraph graph = builder.build();
+
+        assertEquals(4L, graph.nodeCount());
+        assertEquals(3, graph.degree(0L, Direction.OUTGOING));
+        assertEquals(0, graph.degree(1L, Direction.OUTGOING));
+        assertEquals(2, graph.degree(2L, Direction.OUTGOING));
+        assertEquals(0, graph.degree(3L, Direction.OUTGOING));
+        assertArrayEquals(new long[]{1L, 2L, 3L}, targets(graph, 0L));
+        assertArrayEquals(new long[]{0L, 2L}, targets(graph, 2L));
+        assertEquals(2.0, graph.weightOf(0L, 1L), 1e-6);
+        assertEquals(1.0, graph.weightOf(0L, 2L), 1e-6);
+        assertEquals(4.0, graph.weightOf(0L, 3L), 1e-6);
+        assertEquals(5.0, graph.weightOf(2L, 2L), 1e-6);
+        assertEquals(3L, graph.toOriginalNodeId(3L));
+    }
+
+    @Test
+    public void shouldSupportMultipleImporters() {
+        int nodeCount = 1000;
+        HugeGraphBuilder builder = new HugeGraphBuilder(nodeCount, false, 1.0, AllocationTracker.EMPTY);
+        HugeGraphBuilder.Importer even = builder.newImporter();
+        HugeGraphBuilder.Importer odd = builder.newImporter();
+        for (long node = 0L; node < nodeCount; node++) {
+            long[] targets = {(node + 1) % nodeCount, (node + 2) % nodeCount};
+            (node % 2 == 0 ? even : odd).add(node, targets, null, 2);
+        }
+        HugeGraph graph = builder.build();
+        for (long node = 0L; node < nodeCount; node++) {
+            assertEquals(2, graph.degree(node, Direction.OUTGOING));
+            assertEquals(1.0, graph.weightOf(node, (node + 1) % nodeCount), 1e-6);
+        }
+        assertArrayEquals(new long[]{0L, 1L}, targets(graph, nodeCount - 1));
+    }
+
+    private static long[] targets(HugeGraph graph, long node) {
+        LongArrayList targets = new LongArrayList();
+        graph.forEachOutgoing(node, (s, t) -> {
+            targets.add(t);
+            return true;
+        });
+        return targets.toArray();
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public final class HugeGraphFileTest {
+
+    private static final String GRAPH =
+            "CREATE (a:Node {value: 1.0})\n" +
+            "CREATE (b:Node {value: 2.0})\n" +
+            "CREATE (c:Node)\n" +
+            "CREATE (d:Node {value: 4.0})\n" +
+            "CREATE (:Other)\n" +
+            "CREATE" +
+            " (a)-[:TYPE {w: 2.5}]->(b),\n" +
+            " (a)-[:TYPE]->(c),\n" +
+            " (b)-[:TYPE {w: 3.5}]->(c),\n" +
+            " (c)-[:TYPE {w: 4.5}]->(a),\n" +
+            " (d)-[:TYPE]->(a),\n" +
+            " (d)-[:TYPE {w: 5.5}]->(d)";
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    @BeforeClass
+    public static void setupGraph() {
+        DB.execute(GRAPH).close();
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException exceptions = ExpectedException.none();
+
+    @Test
+    public void shouldReopenDirectedGraph() throws Exception {
+        HugeGraph graph = load(Direction.BOTH, false);
+        HugeGraph reopened = writeAndOpen(graph);
+        assertSameGraph(graph, reopened, Direction.OUTGOING);
+        assertSameGraph(graph, reopened, Direction.INCOMING);
+        assertSameProperties(graph, reopened);
+    }
+
+    @Test
+    public void shouldReopenIncomingGraph() throws Exception {
+        HugeGraph graph = load(Direction.INCOMING, false);
+        HugeGraph reopened = writeAndOpen(graph);
+        assertSameGraph(graph, reopened, Direction.INCOMING);
+    }
+
+    @Test
+    public void shouldReopenUndirectedGraph() throws Exception {
+        HugeGraph graph = load(Direction.OUTGOING, true);
+        HugeGraph reopened = writeAndOpen(graph);
+        assertSameGraph(graph, reopened, Direction.OUTGOING);
+        assertSameProperties(graph, reopened);
+    }
+
+    @Test
+    public void shouldReopenBuiltGraph() throws Exception {
+        HugeGraphBuilder builder = new HugeGraphBuilder(3L, true, 1.0, AllocationTracker.EMPTY);
+        HugeGraphBuilder.Importer importer = builder.newImporter();
+        importer.add(0L, new long[]{1L, 2L}, new double[]{2.0, 1.0}, 2);
+        importer.add(2L, new long[]{0L}, new double[]{3.0}, 1);
+        HugeGraph graph = builder.build();
+        HugeGraph reopened = writeAndOpen(graph);
+        assertSameGraph(graph, reopened, Direction.OUTGOING);
+        assertEquals(2L, reopened.toOriginalNodeId(2L));
+    }
+
+    @Test
+    public void shouldReopenUnsortedIds() throws Exception {
+        HugeGraphBuilder builder = new HugeGraphBuilder(3L, true, 1.0, AllocationTracker.EMPTY);
+        HugeGraphBuilder.Importer importer = builder.newImporter();
+        importer.add(0L, new long[]{1L, 2L}, new double[]{2.0, 1.0}, 2);
+        HugeGraphUpdate update = new HugeGraphUpdate();
+        update.addNode(10L);
+        update.addNode(5L);
+        update.addRelationship(10L, 5L, 4.0);
+        HugeGraph graph = ((HugeGraphImpl) builder.build()).update(update, true);
+        HugeGraph reopened = writeAndOpen(graph);
+        assertSameGraph(graph, reopened, Direction.OUTGOING);
+        assertEquals(4L, reopened.toHugeMappedNodeId(5L));
+        assertFalse(reopened.contains(4L));
+        assertFalse(reopened.contains(11L));
+    }
+
+    @Test
+    public void shouldFailOnUnknownVersion() throws Exception {
+        Path file = folder.newFile("graph.bin").toPath();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(HugeGraphFile.MAGIC);
+            out.writeInt(HugeGraphFile.VERSION + 1);
+            out.writeLong(0L);
+        }
+        exceptions.expect(IllegalArgumentException.class);
+        exceptions.expectMessage("Unsupported graph file version");
+        HugeGraphFile.open(file, AllocationTracker.EMPTY);
+    }
+
+    @Test
+    public void shouldFailOnOtherFiles() throws Exception {
+        Path file = folder.newFile("graph.bin").toPath();
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        exceptions.expect(IllegalArgumentException.class);
+        exceptions.expectMessage("Not a graph file");
+        HugeGraphFile.open(file, AllocationTracker.EMPTY);
+    }
+
+    @Test
+    public void shouldNotReplaceExistingFiles() throws Exception {
+        Path file = folder.newFile("graph.bin").toPath();
+        exceptions.expect(IllegalArgumentException.class);
+        exceptions.expectMessage("already exists");
+        try {
+            HugeGraphFile.write(load(Direction.OUTGOING, false), file, false);
+        } finally {
+            assertEquals(0L, Files.size(file));
+        }
+    }
+
+    @Test
+    public void shouldReplaceExistingFilesIfRequested() throws Exception {
+        HugeGraph graph = load(Direction.OUTGOING, false);
+        Path file = folder.newFile("graph.bin").toPath();
+        HugeGraphFile.write(graph, file, true);
+        assertSameGraph(graph, HugeGraphFile.open(file, AllocationTracker.EMPTY), Direction.OUTGOING);
+    }
+
+    @Test
+    public void shouldNotWriteGraphsWithRemovedNodes() throws Exception {
+        HugeGraphImpl graph = (HugeGraphImpl) load(Direction.OUTGOING, false);
+        HugeGraphUpdate update = new HugeGraphUpdate();
+        update.removeNode(graph.toOriginalNodeId(1L));
+        Path file = folder.newFolder().toPath().resolve("graph.bin");
+        exceptions.expect(IllegalArgumentException.class);
+        exceptions.expectMessage("removed by a sync");
+        HugeGraphFile.write(graph.update(update, false), file, false);
+    }
+
+    private HugeGraph writeAndOpen(HugeGraph graph) throws Exception {
+        Path file = folder.newFolder().toPath().resolve("graph.bin");
+        long bytes = HugeGraphFile.write(graph, file, false);
+        assertEquals(Files.size(file), bytes);
+        return HugeGraphFile.open(file, AllocationTracker.EMPTY);
+    }
+
+    private HugeGraph load(Direction direction, boolean undirected) {
+        return (HugeGraph) new GraphLoader(DB, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withRelationshipWeightsFromProperty("w", 1.0)
+                .withOptionalNodeProperties(
+                        PropertyMapping.of("value", "value", 0.0),
+                        PropertyMapping.of("missing", "doesNotExist", 42.0))
+                .withDirection(direction)
+                .asUndirected(undirected)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static void assertSameGraph(HugeGraph expected, HugeGraph actual, Direction direction) {
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        for (long node = 0L; node < expected.nodeCount(); node++) {
+            assertEquals(expected.toOriginalNodeId(node), actual.toOriginalNodeId(node));
+            assertEquals(node, actual.toHugeMappedNodeId(expected.toOriginalNodeId(node)));
+            assertEquals(expected.degree(node, direction), actual.degree(node, direction));
+            long[] targets = targets(expected, node, direction);
+            assertArrayEquals(targets, targets(actual, node, direction));
+            for (long target : targets) {
+                long source = direction == Direction.INCOMING ? target : node;
+                long other = direction == Direction.INCOMING ? node : target;
+                assertEquals(expected.weightOf(source, other), actual.weightOf(source, other), 0.0);
+            }
+        }
+    }
+
+    private static void assertSameProperties(HugeGraph expected, HugeGraph actual) {
+        assertEquals(expected.availableNodeProperties(), actual.availableNodeProperties());
+        for (String type : expected.availableNodeProperties()) {
+            WeightMapping expectedValues = expected.nodeProperties(type);
+            WeightMapping actualValues = actual.nodeProperties(type);
+            for (long node = 0L; node < expected.nodeCount(); node++) {
+                assertEquals(expectedValues.get(node), actualValues.get(node), 0.0);
+                assertEquals(expectedValues.get(node, -1.0), actualValues.get(node, -1.0), 0.0);
+            }
+        }
+        assertEquals(42.0, actual.nodeProperties("missing").get(0L), 0.0);
+        assertNull(actual.nodeProperties("unknown"));
+    }
+
+    private static long[] targets(HugeGraph graph, long node, Direction direction) {
+        LongArrayList targets = new LongArrayList();
+        graph.forEachRelationship(node, direction, (s, t) -> {
+            targets.add(t);
+            return true;
+        });
+        return targets.toArray();
+    }
+}
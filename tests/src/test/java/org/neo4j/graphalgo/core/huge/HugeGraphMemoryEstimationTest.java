@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeGraphMemoryEstimationTest {
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Test
+    public void shouldEstimateOutgoingGraph() throws Exception {
+        mkDb();
+        assertEstimationCoversLoad(loader().withDirection(Direction.OUTGOING), 1000L);
+    }
+
+    @Test
+    public void shouldEstimateWeightedGraphInBothDirections() throws Exception {
+        mkDb();
+        assertEstimationCoversLoad(loader()
+                .withDirection(Direction.BOTH)
+                .withRelationshipWeightsFromProperty("weight", 1.0), 1000L);
+    }
+
+    @Test
+    public void shouldEstimateUndirectedGraphWithNodeProperties() throws Exception {
+        mkDb();
+        assertEstimationCoversLoad(loader()
+                .asUndirected(true)
+                .withOptionalNodeProperty("value", 0.0), 1000L);
+    }
+
+    @Test
+    public void shouldEstimateEmptyGraph() throws Exception {
+        assertEstimationCoversLoad(loader(), 0L);
+    }
+
+    private void assertEstimationCoversLoad(GraphLoader loader, long expectedNodeCount) {
+        AllocationTracker tracker = AllocationTracker.create();
+        GraphFactory factory = loader.withAllocationTracker(tracker).build(HugeGraphFactory.class);
+        MemoryRange estimation = factory.memoryEstimation();
+        factory.build();
+
+        assertEquals(expectedNodeCount, factory.nodeCount());
+        assertTrue(
+                "estimation " + estimation + " is below the tracked memory of " + tracker.tracked(),
+                estimation.max() >= tracker.tracked());
+        assertTrue(
+                "estimation " + estimation + " is above the tracked memory of " + tracker.tracked(),
+                estimation.min() <= tracker.tracked());
+    }
+
+    private GraphLoader loader() {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withConcurrency(4);
+    }
+
+    private void mkDb() {
+        db.execute("UNWIND range(0, 999) AS i CREATE (:Node {value: i})");
+        db.execute("MATCH (n:Node) WITH collect(n) AS nodes " +
+                "UNWIND range(0, 999) AS i " +
+                "UNWIND [1, 3, 100] AS k " +
+                "WITH nodes[i] AS a, nodes[(i + k) % 1000] AS b " +
+                "CREATE (a)-[:TYPE {weight: id(a) * 0.5}]->(b)");
+    }
+}
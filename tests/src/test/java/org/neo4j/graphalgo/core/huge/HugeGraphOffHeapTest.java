@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeGraphOffHeapTest {
+
+    private static final int NODES = 1000;
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    @BeforeClass
+    public static void setupGraph() {
+        DB.execute("UNWIND range(0, " + (NODES - 1) + ") AS id CREATE (:Node {id: id})").close();
+        DB.execute("MATCH (a:Node), (b:Node) " +
+                "WHERE (a.id * 31 + b.id * 17) % 97 = 0 " +
+                "CREATE (a)-[:TYPE {w: a.id + b.id}]->(b)").close();
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldLoadSameGraphOffHeap() {
+        HugeGraph heap = load(Direction.BOTH, false, MemoryBackend.HEAP, AllocationTracker.EMPTY);
+        HugeGraph offHeap = load(Direction.BOTH, false, MemoryBackend.OFF_HEAP, AllocationTracker.EMPTY);
+        try {
+            assertSameGraph(heap, offHeap, Direction.OUTGOING);
+            assertSameGraph(heap, offHeap, Direction.INCOMING);
+            for (long node = 0L; node < heap.nodeCount(); node += 7L) {
+                long other = (node * 13L) % heap.nodeCount();
+                assertEquals(heap.exists(node, other, Direction.OUTGOING), offHeap.exists(node, other, Direction.OUTGOING));
+            }
+        } finally {
+            offHeap.release();
+        }
+    }
+
+    @Test
+    public void shouldLoadUndirectedGraphOffHeap() {
+        HugeGraph heap = load(Direction.OUTGOING, true, MemoryBackend.HEAP, AllocationTracker.EMPTY);
+        HugeGraph offHeap = load(Direction.OUTGOING, true, MemoryBackend.OFF_HEAP, AllocationTracker.EMPTY);
+        try {
+            assertSameGraph(heap, offHeap, Direction.OUTGOING);
+        } finally {
+            offHeap.release();
+        }
+    }
+
+    @Test
+    public void shouldSaveOffHeapGraph() {
+        HugeGraph offHeap = load(Direction.BOTH, false, MemoryBackend.OFF_HEAP, AllocationTracker.EMPTY);
+        try {
+            Path file = folder.getRoot().toPath().resolve("graph.bin");
+            HugeGraphFile.write(offHeap, file, false);
+            HugeGraph reopened = HugeGraphFile.open(file, AllocationTracker.EMPTY);
+            assertSameGraph(offHeap, reopened, Direction.OUTGOING);
+            assertSameGraph(offHeap, reopened, Direction.INCOMING);
+        } finally {
+            offHeap.release();
+        }
+    }
+
+    @Test
+    public void shouldTrackOffHeapMemory() {
+        AllocationTracker tracker = AllocationTracker.create();
+        HugeGraph offHeap = load(Direction.BOTH, false, MemoryBackend.OFF_HEAP, tracker);
+        long loaded = tracker.tracked();
+        assertTrue(loaded > 0L);
+        offHeap.release();
+        assertTrue(tracker.tracked() < loaded);
+    }
+
+    @Test
+    public void shouldReleaseSharedAdjacencyWithLastOwner() {
+        AllocationTracker tracker = AllocationTracker.create();
+        HugeGraph heap = load(Direction.BOTH, false, MemoryBackend.HEAP, AllocationTracker.EMPTY);
+        HugeGraphImpl offHeap = (HugeGraphImpl) load(Direction.BOTH, false, MemoryBackend.OFF_HEAP, tracker);
+        long loaded = tracker.tracked();
+
+        // copies are views, releasing them must not free the pages of the graph
+        offHeap.concurrentCopy().release();
+        assertEquals(loaded, tracker.tracked());
+        assertSameGraph(heap, offHeap, Direction.OUTGOING);
+
+        HugeGraphImpl updated = offHeap.update(new HugeGraphUpdate(), false);
+        offHeap.release();
+        assertEquals(loaded, tracker.tracked());
+        assertSameGraph(heap, updated, Direction.OUTGOING);
+        assertSameGraph(heap, updated, Direction.INCOMING);
+
+        updated.release();
+        assertTrue(tracker.tracked() < loaded);
+    }
+
+    private HugeGraph load(Direction direction, boolean undirected, MemoryBackend backend, AllocationTracker tracker) {
+        return (HugeGraph) new GraphLoader(DB, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withRelationshipWeightsFromProperty("w", 1.0)
+                .withDirection(direction)
+                .asUndirected(undirected)
+                .withAllocationTracker(tracker)
+                .withMemoryBackend(backend)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static void assertSameGraph(HugeGraph expected, HugeGraph actual, Direction direction) {
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        for (long node = 0L; node < expected.nodeCount(); node++) {
+            assertEquals(expected.toOriginalNodeId(node), actual.toOriginalNodeId(node));
+            assertEquals(expected.degree(node, direction), actual.degree(node, direction));
+            long[] targets = targets(expected, node, direction);
+            assertArrayEquals(targets, targets(actual, node, direction));
+            for (long target : targets) {
+                long source = direction == Direction.INCOMING ? target : node;
+                long other = direction == Direction.INCOMING ? node : target;
+                assertEquals(expected.weightOf(source, other), actual.weightOf(source, other), 0.0);
+            }
+        }
+    }
+
+    private static long[] targets(HugeGraph graph, long node, Direction direction) {
+        LongArrayList targets = new LongArrayList();
+        graph.forEachRelationship(node, direction, (s, t) -> {
+            targets.add(t);
+            return true;
+        });
+        return targets.toArray();
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeGraphUpdateTest {
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    private long a, b, c, d;
+
+    @Before
+    public void setup() {
+        db.execute("CREATE (a:Node {value: 1.0}), (b:Node {value: 2.0}), (c:Node {value: 3.0}), (d:Node {value: 4.0})\n" +
+                "CREATE" +
+                " (a)-[:TYPE {w: 1.0}]->(b),\n" +
+                " (a)-[:TYPE {w: 2.0}]->(c),\n" +
+                " (b)-[:TYPE {w: 3.0}]->(c),\n" +
+                " (c)-[:TYPE {w: 4.0}]->(d)").close();
+        a = 0L;
+        b = 1L;
+        c = 2L;
+        d = 3L;
+    }
+
+    @Test
+    public void shouldApplyUpdatesOnTopOfTheAdjacency() {
+        HugeGraphImpl graph = load(loader().withDirection(Direction.BOTH));
+        HugeGraphUpdate update = new HugeGraphUpdate();
+        update.addRelationship(a, d, 5.0);
+        update.removeRelationship(a, b);
+        update.addRelationship(b, c, 6.0);
+        HugeGraphImpl updated = graph.update(update, false);
+
+        assertEquals(3L, updated.pendingUpdates());
+        assertArrayEquals(new long[]{c, d}, targets(updated, a, Direction.OUTGOING));
+        assertArrayEquals(new long[]{a, b}, targets(updated, c, Direction.INCOMING));
+        assertArrayEquals(new long[]{a, c}, targets(updated, d, Direction.INCOMING));
+        assertArrayEquals(new long[0], targets(updated, b, Direction.INCOMING));
+        assertEquals(2, updated.degree(a, Direction.OUTGOING));
+        assertEquals(0, updated.degree(b, Direction.INCOMING));
+        assertEquals(2, updated.degree(d, Direction.INCOMING));
+        assertEquals(5.0, updated.weightOf(a, d), 0.0);
+        assertEquals(6.0, updated.weightOf(b, c), 0.0);
+        assertEquals(42.0, updated.weightOf(a, b), 0.0);
+        assertTrue(updated.exists(a, d, Direction.OUTGOING));
+        assertFalse(updated.exists(a, b, Direction.OUTGOING));
+
+        // the original graph is not affected
+        assertEquals(0L, graph.pendingUpdates());
+        assertArrayEquals(new long[]{b, c}, targets(graph, a, Direction.OUTGOING));
+        assertEquals(3.0, graph.weightOf(b, c), 0.0);
+    }
+
+    @Test
+    public void shouldApplyUpdatesInBothDirectionsOfUndirectedGraphs() {
+        HugeGraphImpl graph = load(loader().asUndirected(true));
+        HugeGraphUpdate update = new HugeGraphUpdate();
+        update.addRelationship(d, a, 5.0);
+        update.removeRelationship(b, c);
+        HugeGraphImpl updated = graph.update(update, true);
+
+        assertArrayEquals(new long[]{b, c, d}, targets(updated, a, Direction.OUTGOING));
+        assertArrayEquals(new long[]{a, c}, targets(updated, d, Direction.OUTGOING));
+        assertArrayEquals(new long[]{a}, targets(updated, b, Direction.OUTGOING));
+        assertArrayEquals(new long[]{a, d}, targets(updated, c, Direction.OUTGOING));
+        assertEquals(5.0, updated.weightOf(a, d), 0.0);
+    }
+
+    @Test
+    public void shouldAddNodes() {
+        HugeGraphImpl graph = load(loader().withDirection(Direction.OUTGOING).withOptionalNodeProperties(PropertyMapping.of("value", "value", 0.0)));
+        long e = 1000L;
+        HugeGraphUpdate update = new HugeGraphUpdate();
+        update.addNode(e);
+        update.addNode(e);
+        update.addNode(a);
+        update.addRelationship(e, a, 1.0);
+        update.addRelationship(a, e, 1.0);
+        // not part of the graph
+        update.addRelationship(a, 2000L, 1.0);
+        HugeGraphImpl updated = graph.update(update, false);
+
+        assertEquals(5L, updated.nodeCount());
+        long mappedE = updated.toHugeMappedNodeId(e);
+        assertEquals(4L, mappedE);
+        assertEquals(e, updated.toOriginalNodeId(mappedE));
+        assertFalse(updated.contains(2000L));
+        assertEquals(2L, updated.pendingUpdates());
+        assertArrayEquals(new long[]{a}, targets(updated, mappedE, Direction.OUTGOING));
+        assertArrayEquals(new long[]{b, c, mappedE}, targets(updated, a, Direction.OUTGOING));
+        assertEquals(0.0, updated.nodeProperties("value").get(mappedE), 0.0);
+        assertEquals(4.0, updated.nodeProperties("value").get(d), 0.0);
+    }
+
+    @Test
+    public void shouldMergeUpdatesIntoNewAdjacency() {
+        HugeGraphImpl graph = load(loader().withDirection(Direction.BOTH));
+        HugeGraphUpdate update = new HugeGraphUpdate();
+        update.addNode(1000L);
+        update.addRelationship(1000L, a, 7.0);
+        update.removeRelationship(c, d);
+        update.addRelationship(a, c, 8.0);
+        HugeGraphImpl updated = graph.update(update, false);
+        HugeGraphImpl merged = updated.merge();
+
+        assertEquals(0L, merged.pendingUpdates());
+        assertEquals(5L, merged.nodeCount());
+        for (long node = 0L; node < merged.nodeCount(); node++) {
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                assertArrayEquals(targets(updated, node, direction), targets(merged, node, direction));
+                assertEquals(updated.degree(node, direction), merged.degree(node, direction));
+            }
+        }
+        assertEquals(7.0, merged.weightOf(4L, a), 0.0);
+        assertEquals(8.0, merged.weightOf(a, c), 0.0);
+        assertSame(merged, merged.merge());
+    }
+
+    @Test
+    public void shouldCombineConsecutiveUpdates() {
+        HugeGraphImpl graph = load(loader().withDirection(Direction.OUTGOING));
+        HugeGraphUpdate first = new HugeGraphUpdate();
+        first.removeRelationship(a, b);
+        first.addRelationship(d, a, 1.0);
+        HugeGraphUpdate second = new HugeGraphUpdate();
+        second.addRelationship(a, b, 9.0);
+        second.removeRelationship(d, a);
+        HugeGraphImpl updated = graph.update(first, false).update(second, false);
+
+        assertArrayEquals(new long[]{b, c}, targets(updated, a, Direction.OUTGOING));
+        assertArrayEquals(new long[0], targets(updated, d, Direction.OUTGOING));
+        assertEquals(9.0, updated.weightOf(a, b), 0.0);
+        assertEquals(0, updated.degree(d, Direction.OUTGOING));
+        assertEquals(4L, updated.pendingUpdates());
+    }
+
+    @Test
+    public void shouldRemoveNodes() {
+        HugeGraphImpl graph = load(loader().withDirection(Direction.BOTH));
+        HugeGraphUpdate update = new HugeGraphUpdate();
+        update.removeRelationship(b, c);
+        update.removeRelationship(a, b);
+        update.removeNode(b);
+        // not part of the graph
+        update.removeNode(2000L);
+        HugeGraphImpl updated = graph.update(update, false);
+
+        assertEquals(4L, updated.nodeCount());
+        assertTrue(updated.isRemoved(b));
+        assertFalse(updated.contains(b));
+        assertEquals(-1L, updated.toHugeMappedNodeId(b));
+        assertEquals(b, updated.toOriginalNodeId(b));
+        assertArrayEquals(new long[]{a, c, d}, nodes(updated));
+        assertArrayEquals(new long[]{c}, targets(updated, a, Direction.OUTGOING));
+
+        // relationships to removed nodes are ignored
+        HugeGraphUpdate second = new HugeGraphUpdate();
+        second.addRelationship(a, b, 1.0);
+        HugeGraphImpl ignored = updated.update(second, false);
+        assertArrayEquals(new long[]{c}, targets(ignored, a, Direction.OUTGOING));
+        assertTrue(ignored.merge().isRemoved(b));
+
+        // nodes that are added again get their mapped id back
+        HugeGraphUpdate third = new HugeGraphUpdate();
+        third.addNode(b);
+        third.addRelationship(b, d, 1.0);
+        HugeGraphImpl added = ignored.update(third, false);
+        assertFalse(added.hasRemovedNodes());
+        assertEquals(b, added.toHugeMappedNodeId(b));
+        assertArrayEquals(new long[]{a, b, c, d}, nodes(added));
+        assertArrayEquals(new long[]{d}, targets(added, b, Direction.OUTGOING));
+
+        // the original graph is not affected
+        assertTrue(graph.contains(b));
+        assertArrayEquals(new long[]{b, c}, targets(graph, a, Direction.OUTGOING));
+    }
+
+    @Test
+    public void shouldKeepSharedAdjacencyWhenReplacedGraphIsReleased() {
+        HugeGraphImpl graph = load(loader().withDirection(Direction.OUTGOING));
+        HugeGraphUpdate update = new HugeGraphUpdate();
+        update.addRelationship(d, a, 1.0);
+        HugeGraphImpl updated = graph.update(update, false);
+
+        graph.releaseAction().run();
+        assertArrayEquals(new long[]{b, c}, targets(updated, a, Direction.OUTGOING));
+        assertArrayEquals(new long[]{a}, targets(updated, d, Direction.OUTGOING));
+        assertArrayEquals(new long[]{b, c}, targets(graph, a, Direction.OUTGOING));
+    }
+
+    private GraphLoader loader() {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withRelationshipWeightsFromProperty("w", 42.0);
+    }
+
+    private static HugeGraphImpl load(GraphLoader loader) {
+        return (HugeGraphImpl) loader.load(HugeGraphFactory.class);
+    }
+
+    private static long[] nodes(HugeGraph graph) {
+        LongArrayList nodes = new LongArrayList();
+        graph.forEachNode((long node) -> {
+            nodes.add(node);
+            return true;
+        });
+        PrimitiveLongIterator iterator = graph.hugeNodeIterator();
+        LongArrayList iterated = new LongArrayList();
+        while (iterator.hasNext()) {
+            iterated.add(iterator.next());
+        }
+        assertEquals(nodes, iterated);
+        return nodes.toArray();
+    }
+
+    private static long[] targets(HugeGraph graph, long node, Direction direction) {
+        LongArrayList targets = new LongArrayList();
+        graph.forEachRelationship(node, direction, (s, t) -> {
+            targets.add(t);
+            return true;
+        });
+        return targets.toArray();
+    }
+}
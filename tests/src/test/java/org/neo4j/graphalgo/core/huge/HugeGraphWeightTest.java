@@ -23,6 +23,7 @@ import org.junit.Test;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.MemoryBackend;
 import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
 import org.neo4j.graphdb.Direction;
@@ -36,6 +37,7 @@ import org.neo4j.test.rule.ImpermanentDatabaseRule;
 import org.neo4j.values.storable.Values;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public final class HugeGraphWeightTest {
 
@@ -43,6 +45,16 @@ public final class HugeGraphWeightTest {
     // make sure that multiple threads are loading the same batch
     private static final int BATCH_SIZE = 100;
 
+    private static final String SMALL_GRAPH =
+            "CREATE (a:Node), (b:Node), (c:Node), (d:Node)\n" +
+            "CREATE" +
+            " (a)-[:TYPE {w: 2.5}]->(b),\n" +
+            " (a)-[:TYPE {w: 0.3333333333333333}]->(c),\n" +
+            " (b)-[:TYPE {w: -1.5}]->(c),\n" +
+            " (c)-[:TYPE {w: 0.25}]->(d),\n" +
+            " (c)-[:TYPE {w: 0.75}]->(d),\n" +
+            " (d)-[:TYPE]->(b)";
+
     @Rule
     public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
 
@@ -64,6 +76,97 @@ public final class HugeGraphWeightTest {
         });
     }
 
+    @Test
+    public void shouldReturnWeightsAlongsideTargets() throws Exception {
+        db.execute("UNWIND range(0, 1999) AS i CREATE (:Node)");
+        db.execute("MATCH (n:Node) WITH collect(n) AS nodes " +
+                "UNWIND range(0, 1999) AS i " +
+                "UNWIND [1, 7, 13] AS k " +
+                "WITH nodes[i] AS a, nodes[(i + k) % 2000] AS b " +
+                "CREATE (a)-[:TYPE {weight: id(a) * 10000.0 + id(b)}]->(b)");
+        HugeGraph graph = loadGraph(db);
+
+        long[] count = {0L};
+        graph.forEachNode((long node) -> {
+            graph.forEachRelationship(node, Direction.OUTGOING, (src, tgt, weight) -> {
+                double expected = graph.toOriginalNodeId(src) * 10000.0 + graph.toOriginalNodeId(tgt);
+                assertEquals("Wrong weight for (" + src + ")->(" + tgt + ")", expected, weight, 0.0);
+                assertEquals(expected, graph.weightOf(src, tgt), 0.0);
+                count[0]++;
+                return true;
+            });
+            return true;
+        });
+        assertEquals(6000L, count[0]);
+    }
+
+    @Test
+    public void shouldUseDefaultWeightForMissingRelationships() throws Exception {
+        db.execute(SMALL_GRAPH);
+        HugeGraph graph = loadSmallGraph(Direction.OUTGOING, false, WeightEncoding.DOUBLE, MemoryBackend.HEAP);
+
+        assertEquals(42.0, graph.weightOf(1L, 0L), 0.0);
+        assertEquals(42.0, graph.weightOf(2L, 1L), 0.0);
+        assertEquals(42.0, graph.weightOf(3L, 0L), 0.0);
+    }
+
+    @Test
+    public void shouldLoadWeightsInEveryDirection() throws Exception {
+        db.execute(SMALL_GRAPH);
+        for (Direction direction : Direction.values()) {
+            HugeGraph graph = loadSmallGraph(direction, false, WeightEncoding.DOUBLE, MemoryBackend.HEAP);
+            assertSmallGraphWeights(graph, 0.0);
+            if (direction != Direction.INCOMING) {
+                assertEquals(2.5, weight(graph, 0L, Direction.OUTGOING, 1L), 0.0);
+            }
+            if (direction != Direction.OUTGOING) {
+                assertEquals(2.5, weight(graph, 1L, Direction.INCOMING, 0L), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void shouldLoadUndirectedWeights() throws Exception {
+        db.execute(SMALL_GRAPH);
+        HugeGraph graph = loadSmallGraph(Direction.OUTGOING, true, WeightEncoding.DOUBLE, MemoryBackend.HEAP);
+
+        assertSmallGraphWeights(graph, 0.0);
+        assertEquals(2.5, graph.weightOf(1L, 0L), 0.0);
+        assertEquals(-1.5, weight(graph, 2L, Direction.OUTGOING, 1L), 0.0);
+    }
+
+    @Test
+    public void shouldLoadFloatWeights() throws Exception {
+        db.execute(SMALL_GRAPH);
+        HugeGraph graph = loadSmallGraph(Direction.BOTH, false, WeightEncoding.FLOAT, MemoryBackend.HEAP);
+
+        assertSmallGraphWeights(graph, 1e-6);
+        assertEquals(1.0 / 3.0, graph.weightOf(0L, 2L), 1e-6);
+    }
+
+    @Test
+    public void shouldLoadOffHeapWeights() throws Exception {
+        db.execute(SMALL_GRAPH);
+        HugeGraph graph = loadSmallGraph(Direction.BOTH, false, WeightEncoding.DOUBLE, MemoryBackend.OFF_HEAP);
+        try {
+            assertSmallGraphWeights(graph, 0.0);
+            assertEquals(2.5, weight(graph, 1L, Direction.INCOMING, 0L), 0.0);
+        } finally {
+            graph.release();
+        }
+    }
+
+    @Test
+    public void shouldKeepOneWeightOfParallelRelationships() throws Exception {
+        db.execute(SMALL_GRAPH);
+        HugeGraph graph = loadSmallGraph(Direction.OUTGOING, false, WeightEncoding.DOUBLE, MemoryBackend.HEAP);
+
+        assertEquals(1, graph.degree(2L, Direction.OUTGOING));
+        double weight = graph.weightOf(2L, 3L);
+        assertTrue(weight == 0.25 || weight == 0.75);
+        assertEquals(weight, weight(graph, 2L, Direction.OUTGOING, 3L), 0.0);
+    }
+
     @Test(timeout = 10000)
     public void shouldLoadMoreWeights() throws Exception {
         mkDb(WEIGHT_BATCH_SIZE, 4);
@@ -105,6 +208,41 @@ public final class HugeGraphWeightTest {
         });
     }
 
+    private static void assertSmallGraphWeights(HugeGraph graph, double delta) {
+        assertEquals(2.5, graph.weightOf(0L, 1L), delta);
+        assertEquals(1.0 / 3.0, graph.weightOf(0L, 2L), delta);
+        assertEquals(-1.5, graph.weightOf(1L, 2L), delta);
+        assertEquals(42.0, graph.weightOf(3L, 1L), delta);
+    }
+
+    private static double weight(HugeGraph graph, long node, Direction direction, long target) {
+        double[] weight = {Double.NaN};
+        graph.forEachRelationship(node, direction, (s, t, w) -> {
+            if (t == target) {
+                weight[0] = w;
+                return false;
+            }
+            return true;
+        });
+        return weight[0];
+    }
+
+    private HugeGraph loadSmallGraph(
+            Direction direction,
+            boolean undirected,
+            WeightEncoding encoding,
+            MemoryBackend backend) {
+        return (HugeGraph) new GraphLoader(db)
+                .withAnyLabel()
+                .withAnyRelationshipType()
+                .withOptionalRelationshipWeightsFromProperty("w", 42.0)
+                .withDirection(direction)
+                .asUndirected(undirected)
+                .withWeightEncoding(encoding)
+                .withMemoryBackend(backend)
+                .load(HugeGraphFactory.class);
+    }
+
     private HugeGraph loadGraph(final GraphDatabaseAPI db) {
         return (HugeGraph) new GraphLoader(db)
                 .withRelationshipWeightsFromProperty("weight", 0)
@@ -37,6 +37,15 @@ public final class HugeLongArrayTest extends RandomizedTest {
 
     private static final int PS = 16384;
 
+    @Test
+    public void shouldEstimateTrackedMemory() {
+        for (long size : new long[]{0L, 42L, PS + 1L, 10L * PS + 7L}) {
+            AllocationTracker tracker = AllocationTracker.create();
+            HugeLongArray.newArray(size, tracker);
+            assertEquals(tracker.tracked(), HugeLongArray.estimateMemoryUsage(size));
+        }
+    }
+
     @Test
     public void shouldSetAndGet() {
         testArray(10, array -> {
@@ -208,7 +217,7 @@ public final class HugeLongArrayTest extends RandomizedTest {
     public void shouldFreeMemoryUsed() {
         int size = between(10, 20);
         final long expected = MemoryUsage.sizeOfLongArray(size);
-        testArray(size, array -> {
+        testHeapArray(size, array -> {
             final long freed = array.release();
             assertThat(freed, anyOf(is(expected), is(expected + 24)));
         });
@@ -286,6 +295,40 @@ public final class HugeLongArrayTest extends RandomizedTest {
         assertFalse(cursor.next());
     }
 
+    @Test
+    public void shouldTrackAndFreeOffHeapMemory() {
+        int size = between(100_000, 200_000);
+        AllocationTracker tracker = AllocationTracker.create();
+        HugeLongArray array = HugeLongArray.newArray(size, MemoryBackend.OFF_HEAP, tracker);
+        assertTrue(tracker.tracked() >= size * 8L);
+        assertEquals(0L, array.get(size - 1));
+        array.set(size - 1, 42L);
+        assertEquals(42L, array.get(size - 1));
+        assertEquals(size * 8L, array.release());
+        assertEquals(0L, array.release());
+    }
+
+    @Test
+    public void shouldHaveCursorForOffHeapArray() {
+        int size = between(100_000, 200_000);
+        HugeLongArray array = HugeLongArray.newArray(size, MemoryBackend.OFF_HEAP, AllocationTracker.EMPTY);
+        try {
+            array.setAll(i -> i);
+            HugeLongArray.Cursor cursor = array.cursor(array.newCursor());
+            long expected = 0L;
+            while (cursor.next()) {
+                assertEquals(expected, cursor.base);
+                assertTrue(cursor.limit <= PS);
+                for (int i = cursor.offset; i < cursor.limit; i++) {
+                    assertEquals(expected++, cursor.array[i]);
+                }
+            }
+            assertEquals(size, expected);
+        } finally {
+            array.release();
+        }
+    }
+
     @Test
     public void shouldHaveCursor() {
         int size = between(100_000, 200_000);
@@ -309,6 +352,16 @@ public final class HugeLongArrayTest extends RandomizedTest {
     }
 
     private void testArray(int size, Consumer<HugeLongArray> block) {
+        testHeapArray(size, block);
+        HugeLongArray offHeap = HugeLongArray.newArray(size, MemoryBackend.OFF_HEAP, AllocationTracker.EMPTY);
+        try {
+            block.accept(offHeap);
+        } finally {
+            offHeap.release();
+        }
+    }
+
+    private void testHeapArray(int size, Consumer<HugeLongArray> block) {
         if (randomBoolean()) {
             block.accept(HugeLongArray.newSingleArray(size, AllocationTracker.EMPTY));
             block.accept(HugeLongArray.newPagedArray(size, AllocationTracker.EMPTY));
@@ -331,5 +384,12 @@ public final class HugeLongArrayTest extends RandomizedTest {
             size = between(sizeMin, sizeMax);
             block.accept(HugeLongArray.newSingleArray(size, AllocationTracker.EMPTY), size);
         }
+        size = between(sizeMin, sizeMax);
+        HugeLongArray offHeap = HugeLongArray.newArray(size, MemoryBackend.OFF_HEAP, AllocationTracker.EMPTY);
+        try {
+            block.accept(offHeap, size);
+        } finally {
+            offHeap.release();
+        }
     }
 }
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PagedAtomicDisjointSetStructTest {
+
+    @Test
+    public void shouldStartWithSingletonSets() {
+        PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(5, AllocationTracker.EMPTY);
+        assertEquals(5, struct.getSetCount());
+        for (long i = 0; i < 5; i++) {
+            assertEquals(i, struct.find(i));
+        }
+    }
+
+    @Test
+    public void shouldUseTheLowestElementAsSetId() {
+        PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(6, AllocationTracker.EMPTY);
+        assertTrue(struct.union(4, 5));
+        assertTrue(struct.union(5, 2));
+        assertFalse(struct.union(2, 4));
+        assertTrue(struct.union(3, 0));
+
+        assertEquals(3, struct.getSetCount());
+        assertEquals(2, struct.find(4));
+        assertEquals(2, struct.find(5));
+        assertEquals(0, struct.find(3));
+        assertEquals(1, struct.find(1));
+        assertTrue(struct.connected(2, 5));
+        assertFalse(struct.connected(1, 5));
+
+        struct.compress(5);
+        assertEquals(2, struct.find(5));
+    }
+
+    @Test
+    public void shouldMergeConcurrently() throws InterruptedException {
+        int capacity = 10_000;
+        long[][] edges = new long[4][capacity / 2];
+        Random random = new Random(42L);
+        PagedDisjointSetStruct expected = new PagedDisjointSetStruct(capacity, AllocationTracker.EMPTY).reset();
+        for (long[] threadEdges : edges) {
+            for (int i = 0; i < threadEdges.length; i++) {
+                long source = random.nextInt(capacity);
+                long target = random.nextInt(capacity);
+                threadEdges[i] = source << 32 | target;
+                expected.union(source, target);
+            }
+        }
+
+        PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(capacity, AllocationTracker.EMPTY);
+        List<Thread> threads = new ArrayList<>();
+        for (long[] threadEdges : edges) {
+            Thread thread = new Thread(() -> {
+                for (long edge : threadEdges) {
+                    struct.union(edge >>> 32, edge & 0xFFFFFFFFL);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(expected.getSetCount(), struct.getSetCount());
+        for (long i = 0; i < capacity; i++) {
+            long set = struct.find(i);
+            assertTrue(set <= i);
+            assertTrue(expected.connected(i, set));
+        }
+    }
+}
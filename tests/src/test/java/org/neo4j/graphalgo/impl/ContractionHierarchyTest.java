@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.DoubleArrayDeque;
+import com.carrotsearch.hppc.IntArrayDeque;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphBuilder;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ContractionHierarchyTest {
+
+    @Test
+    public void shouldFindTheSamePathsAsDijkstraOnDirectedGraphs() {
+        HugeGraph graph = randomGraph(80, 3, 42L);
+        assertSameCosts(graph, build(graph, ContractionHierarchyBuilder.DEFAULT_WITNESS_LIMIT, 1));
+        assertSameCosts(graph, build(graph, ContractionHierarchyBuilder.DEFAULT_WITNESS_LIMIT, 4));
+    }
+
+    @Test
+    public void shouldFindTheSamePathsAsDijkstraOnGrids() {
+        HugeGraph graph = grid(10, 7L);
+        ContractionHierarchy hierarchy = build(graph, ContractionHierarchyBuilder.DEFAULT_WITNESS_LIMIT, 4);
+        assertEquals(100, hierarchy.nodeCount());
+        assertTrue(hierarchy.shortcutCount() > 0);
+        assertSameCosts(graph, hierarchy);
+    }
+
+    @Test
+    public void shouldBeCorrectWithLimitedWitnessSearches() {
+        HugeGraph graph = randomGraph(60, 4, 1337L);
+        ContractionHierarchy limited = build(graph, 1, 2);
+        ContractionHierarchy exhaustive = build(graph, Integer.MAX_VALUE, 2);
+        assertSameCosts(graph, limited);
+        assertSameCosts(graph, exhaustive);
+    }
+
+    @Test
+    public void shouldDropIndexesOfOtherGraphs() {
+        HugeGraph graph = grid(3, 1L);
+        ContractionHierarchy hierarchy = build(graph, ContractionHierarchyBuilder.DEFAULT_WITNESS_LIMIT, 1);
+        ContractionHierarchy.set("grid", hierarchy);
+        assertEquals(hierarchy, ContractionHierarchy.get("grid", graph));
+        assertNull(ContractionHierarchy.get("other", graph));
+        // the name refers to another graph instance, e.g. after it has been updated
+        assertNull(ContractionHierarchy.get("grid", grid(3, 1L)));
+        assertNull(ContractionHierarchy.get("grid", graph));
+
+        ContractionHierarchy.set("grid", hierarchy);
+        assertNotNull(ContractionHierarchy.get("grid", graph));
+        assertTrue(ContractionHierarchy.remove("grid"));
+        assertNull(ContractionHierarchy.get("grid", graph));
+    }
+
+    private static ContractionHierarchy build(HugeGraph graph, int witnessLimit, int concurrency) {
+        return new ContractionHierarchyBuilder(graph, witnessLimit, concurrency, AllocationTracker.EMPTY).compute();
+    }
+
+    private static void assertSameCosts(HugeGraph graph, ContractionHierarchy hierarchy) {
+        ShortestPathDijkstra dijkstra = new ShortestPathDijkstra(graph);
+        int nodeCount = (int) graph.nodeCount();
+        for (int start = 0; start < nodeCount; start++) {
+            for (int goal = 0; goal < nodeCount; goal++) {
+                double expected = dijkstra.compute(start, goal, Direction.OUTGOING).getTotalCost();
+                IntArrayDeque path = new IntArrayDeque();
+                DoubleArrayDeque costs = new DoubleArrayDeque();
+                double actual = hierarchy.shortestPath(start, goal, path, costs);
+                assertEquals(start + " -> " + goal, expected, actual, 1e-9);
+                if (actual == ShortestPathDijkstra.NO_PATH_FOUND) {
+                    assertTrue(path.isEmpty());
+                    continue;
+                }
+                // the unpacked path consists of relationships of the graph
+                assertEquals(start, path.getFirst());
+                assertEquals(goal, path.getLast());
+                assertEquals(actual, costs.getLast(), 1e-9);
+                int previous = -1;
+                double previousCost = 0.0;
+                int index = 0;
+                double[] pathCosts = costs.toArray();
+                for (IntCursor cursor : path) {
+                    if (previous != -1) {
+                        assertTrue(graph.exists(previous, cursor.value, Direction.OUTGOING));
+                        assertEquals(graph.weightOf(previous, cursor.value), pathCosts[index] - previousCost, 1e-9);
+                    }
+                    previous = cursor.value;
+                    previousCost = pathCosts[index++];
+                }
+            }
+        }
+    }
+
+    private static HugeGraph randomGraph(int nodeCount, int maxDegree, long seed) {
+        Random random = new Random(seed);
+        HugeGraphBuilder builder = new HugeGraphBuilder(nodeCount, true, 1.0, AllocationTracker.EMPTY);
+        HugeGraphBuilder.Importer importer = builder.newImporter();
+        for (int node = 0; node < nodeCount; node++) {
+            int degree = random.nextInt(maxDegree + 1);
+            long[] targets = new long[degree];
+            double[] weights = new double[degree];
+            for (int i = 0; i < degree; i++) {
+                targets[i] = random.nextInt(nodeCount);
+                weights[i] = 1 + random.nextInt(10);
+            }
+            importer.add(node, targets, weights, degree);
+        }
+        return builder.build();
+    }
+
+    /**
+     * An undirected grid with random weights, every relationship is stored in both directions.
+     */
+    private static HugeGraph grid(int size, long seed) {
+        Random random = new Random(seed);
+        double[][] right = new double[size][size];
+        double[][] down = new double[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                right[row][column] = 1 + random.nextInt(5);
+                down[row][column] = 1 + random.nextInt(5);
+            }
+        }
+        HugeGraphBuilder builder = new HugeGraphBuilder(size * size, true, 1.0, AllocationTracker.EMPTY);
+        HugeGraphBuilder.Importer importer = builder.newImporter();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                long[] targets = new long[4];
+                double[] weights = new double[4];
+                int degree = 0;
+                if (column + 1 < size) {
+                    targets[degree] = row * size + column + 1;
+                    weights[degree++] = right[row][column];
+                }
+                if (column > 0) {
+                    targets[degree] = row * size + column - 1;
+                    weights[degree++] = right[row][column - 1];
+                }
+                if (row + 1 < size) {
+                    targets[degree] = (row + 1) * size + column;
+                    weights[degree++] = down[row][column];
+                }
+                if (row > 0) {
+                    targets[degree] = (row - 1) * size + column;
+                    weights[degree++] = down[row - 1][column];
+                }
+                importer.add(row * size + column, targets, weights, degree);
+            }
+        }
+        return builder.build();
+    }
+}
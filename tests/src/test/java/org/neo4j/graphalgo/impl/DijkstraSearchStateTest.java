@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DijkstraSearchStateTest {
+
+    @Test
+    public void shouldPopInCostOrder() {
+        DijkstraSearchState state = new DijkstraSearchState(6);
+        state.start(0);
+        assertEquals(0, state.pop());
+        state.relax(1, 0, 5d, 2);
+        state.relax(2, 0, 3d, 2);
+        state.relax(3, 0, 4d, 2);
+        state.relax(4, 0, 1d, 2);
+        // decrease key
+        assertTrue(state.relax(1, 4, 2d, 3));
+        assertFalse(state.relax(3, 4, 7d, 3));
+
+        assertEquals(1d, state.minCost(), 0d);
+        assertEquals(4, state.pop());
+        assertEquals(1, state.pop());
+        assertEquals(2, state.pop());
+        assertEquals(3, state.pop());
+        assertTrue(state.isEmpty());
+        assertEquals(-1, state.pop());
+
+        assertEquals(4, state.predecessor(1));
+        assertEquals(3, state.depth(1));
+        assertTrue(state.visited(1));
+        assertFalse(state.touched(5));
+        assertEquals(Double.MAX_VALUE, state.cost(5), 0d);
+    }
+
+    @Test
+    public void shouldNotRelaxVisitedNodes() {
+        DijkstraSearchState state = new DijkstraSearchState(3);
+        state.start(0);
+        state.relax(1, 0, 1d, 2);
+        assertEquals(0, state.pop());
+        assertFalse(state.relax(0, 1, 0d, 3));
+        assertEquals(DijkstraSearchState.NO_PREDECESSOR, state.predecessor(0));
+    }
+
+    @Test
+    public void shouldForgetAllNodesOnReset() {
+        DijkstraSearchState state = new DijkstraSearchState(3);
+        state.start(0);
+        state.relax(1, 0, 1d, 2);
+        state.pop();
+        state.reset();
+
+        assertTrue(state.isEmpty());
+        for (int node = 0; node < 3; node++) {
+            assertFalse(state.touched(node));
+            assertFalse(state.visited(node));
+            assertEquals(DijkstraSearchState.NO_PREDECESSOR, state.predecessor(node));
+        }
+        state.start(2);
+        assertEquals(2, state.pop());
+        assertTrue(state.isEmpty());
+    }
+
+    @Test
+    public void shouldDropStatesBeyondThePoolSize() {
+        Graph graph = mock(Graph.class);
+        when(graph.nodeCount()).thenReturn(3L);
+        int count = DijkstraSearchState.MAX_POOLED_STATES + 2;
+        List<DijkstraSearchState> states = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            states.add(DijkstraSearchState.acquire(graph));
+        }
+        states.forEach(state -> DijkstraSearchState.release(graph, state));
+
+        Set<DijkstraSearchState> released = Collections.newSetFromMap(new IdentityHashMap<>());
+        released.addAll(states);
+        int reused = 0;
+        for (int i = 0; i < count; i++) {
+            if (released.contains(DijkstraSearchState.acquire(graph))) {
+                reused++;
+            }
+        }
+        assertEquals(DijkstraSearchState.MAX_POOLED_STATES, reused);
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.AtomicDoubleArray;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.impl.betweenness.BetweennessCentrality;
+import org.neo4j.graphalgo.impl.betweenness.HugeBetweennessCentrality;
+import org.neo4j.graphalgo.impl.betweenness.RABrandesBetweennessCentrality;
+import org.neo4j.graphalgo.impl.betweenness.RandomSelectionStrategy;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HugeBetweennessCentralityTest {
+
+    // more than two batches of 64 sources
+    private static final int NODE_COUNT = 300;
+    private static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+
+    private static GraphDatabaseAPI api;
+    private static HugeGraph graph;
+
+    @BeforeClass
+    public static void setup() {
+        api = TestDatabaseCreator.createTestDatabase();
+        Random random = new Random(42L);
+        try (Transaction tx = api.beginTx()) {
+            Node[] nodes = new Node[NODE_COUNT];
+            for (int i = 0; i < NODE_COUNT; i++) {
+                nodes[i] = api.createNode();
+            }
+            for (int i = 0; i < NODE_COUNT; i++) {
+                int degree = random.nextInt(4);
+                for (int j = 0; j < degree; j++) {
+                    nodes[i].createRelationshipTo(nodes[random.nextInt(NODE_COUNT)], TYPE);
+                }
+            }
+            tx.success();
+        }
+
+        graph = (HugeGraph) new GraphLoader(api)
+                .withAnyLabel()
+                .withAnyRelationshipType()
+                .withDirection(Direction.BOTH)
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (api != null) api.shutdown();
+        graph = null;
+    }
+
+    @Test
+    public void shouldEqualBrandesOutgoing() {
+        assertSameAsBrandes(Direction.OUTGOING);
+    }
+
+    @Test
+    public void shouldEqualBrandesIncoming() {
+        assertSameAsBrandes(Direction.INCOMING);
+    }
+
+    @Test
+    public void shouldEqualBrandesBoth() {
+        assertSameAsBrandes(Direction.BOTH);
+    }
+
+    @Test
+    public void shouldEqualSampledBrandesForTheSameSelection() {
+        RandomSelectionStrategy strategy = new RandomSelectionStrategy(graph, 0.3);
+        AtomicDoubleArray expected = new RABrandesBetweennessCentrality(graph, Pools.DEFAULT, 1, strategy)
+                .compute()
+                .getCentrality();
+        for (int concurrency : new int[]{1, 4}) {
+            DoubleArray actual = new HugeBetweennessCentrality(graph, Pools.DEFAULT, concurrency, strategy, AllocationTracker.EMPTY)
+                    .compute()
+                    .getCentrality();
+            for (int node = 0; node < NODE_COUNT; node++) {
+                assertEquals("node " + node, expected.get(node), actual.get(node), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void shouldOnlyCountPathsUpToMaxDepth() {
+        DoubleArray unbounded = new HugeBetweennessCentrality(graph, Pools.DEFAULT, 1, null, AllocationTracker.EMPTY)
+                .compute()
+                .getCentrality();
+        DoubleArray bounded = new HugeBetweennessCentrality(graph, Pools.DEFAULT, 1, null, AllocationTracker.EMPTY)
+                .withMaxDepth(2)
+                .compute()
+                .getCentrality();
+        double unboundedSum = 0.0;
+        double boundedSum = 0.0;
+        for (int node = 0; node < NODE_COUNT; node++) {
+            assertTrue(bounded.get(node) <= unbounded.get(node) + 1e-9);
+            unboundedSum += unbounded.get(node);
+            boundedSum += bounded.get(node);
+        }
+        assertTrue(boundedSum < unboundedSum);
+    }
+
+    @Test
+    public void shouldEqualBrandesForAllBatchSizes() {
+        double[] expected = new BetweennessCentrality(graph)
+                .compute()
+                .getCentrality();
+        for (int batchSize : new int[]{1, 7, 64}) {
+            DoubleArray actual = new HugeBetweennessCentrality(graph, Pools.DEFAULT, 4, null, AllocationTracker.EMPTY)
+                    .withBatchSize(batchSize)
+                    .compute()
+                    .getCentrality();
+            for (int node = 0; node < NODE_COUNT; node++) {
+                assertEquals("node " + node, expected[node], actual.get(node), 1e-6);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBatchesWiderThan64() {
+        new HugeBetweennessCentrality(graph, Pools.DEFAULT, 1, null, AllocationTracker.EMPTY).withBatchSize(65);
+    }
+
+    @Test
+    public void shouldOnlyAllocateTasksThatGetSources() {
+        // 3 sources fit into a single batch, so only one of the 4 threads allocates its buffers
+        RABrandesBetweennessCentrality.SelectionStrategy firstThree = new RABrandesBetweennessCentrality.SelectionStrategy() {
+            @Override
+            public boolean select(int nodeId) {
+                return nodeId < 3;
+            }
+
+            @Override
+            public int size() {
+                return 3;
+            }
+        };
+        AllocationTracker tracker = AllocationTracker.create();
+        new HugeBetweennessCentrality(graph, Pools.DEFAULT, 4, firstThree, tracker).compute();
+        assertTrue(tracker.tracked() <= HugeBetweennessCentrality.memoryEstimation(NODE_COUNT, 3, 4, 64).max());
+        assertTrue(tracker.tracked() < HugeBetweennessCentrality.memoryEstimation(NODE_COUNT, NODE_COUNT, 4, 64).min());
+    }
+
+    private static void assertSameAsBrandes(Direction direction) {
+        double[] expected = new BetweennessCentrality(graph)
+                .withDirection(direction)
+                .compute()
+                .getCentrality();
+        for (int concurrency : new int[]{1, 4}) {
+            DoubleArray actual = new HugeBetweennessCentrality(graph, Pools.DEFAULT, concurrency, null, AllocationTracker.EMPTY)
+                    .withDirection(direction)
+                    .compute()
+                    .getCentrality();
+            for (int node = 0; node < NODE_COUNT; node++) {
+                assertEquals("node " + node, expected[node], actual.get(node), 1e-6);
+            }
+        }
+    }
+}
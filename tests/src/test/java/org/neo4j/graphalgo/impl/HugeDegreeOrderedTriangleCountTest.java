@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongHashSet;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicLongArray;
+import org.neo4j.graphalgo.impl.triangle.HugeDegreeOrderedTriangleCount;
+import org.neo4j.graphalgo.impl.triangle.TriangleCountAlgorithm;
+import org.neo4j.graphalgo.impl.triangle.TriangleCountQueue;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HugeDegreeOrderedTriangleCountTest {
+
+    private static final int NODE_COUNT = 2_000;
+    private static final int HUB_COUNT = 5;
+    private static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+
+    private static GraphDatabaseAPI api;
+
+    /**
+     * Nodes are connected randomly, preferring nodes with a lower id, and
+     * a few hubs are connected to a large share of all nodes.
+     */
+    @BeforeClass
+    public static void setup() {
+        api = TestDatabaseCreator.createTestDatabase();
+        Random random = new Random(42L);
+        LongHashSet pairs = new LongHashSet();
+        try (Transaction tx = api.beginTx()) {
+            Node[] nodes = new Node[NODE_COUNT];
+            for (int i = 0; i < NODE_COUNT; i++) {
+                nodes[i] = api.createNode();
+            }
+            for (int i = 1; i < NODE_COUNT; i++) {
+                int degree = 1 + random.nextInt(5);
+                for (int j = 0; j < degree; j++) {
+                    int other = (int) (i * Math.pow(random.nextDouble(), 2));
+                    connect(nodes, pairs, i, other);
+                }
+                for (int hub = 0; hub < HUB_COUNT; hub++) {
+                    if (random.nextInt(3) == 0) {
+                        connect(nodes, pairs, i, hub);
+                    }
+                }
+            }
+            tx.success();
+        }
+    }
+
+    private static void connect(Node[] nodes, LongHashSet pairs, int node, int other) {
+        if (node != other && pairs.add((long) Math.min(node, other) * NODE_COUNT + Math.max(node, other))) {
+            nodes[node].createRelationshipTo(nodes[other], TYPE);
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (api != null) api.shutdown();
+    }
+
+    @Test
+    public void shouldCountTheSameTrianglesAsQueue() {
+        Graph heavy = load(HeavyGraphFactory.class);
+        TriangleCountQueue expected = new TriangleCountQueue(heavy, Pools.DEFAULT, 1).compute();
+        AtomicIntegerArray expectedTriangles = expected.getTriangles();
+        double[] expectedCoefficients = expected.getCoefficients();
+        assertTrue(expected.getTriangleCount() > 0L);
+
+        HugeGraph huge = (HugeGraph) load(HugeGraphFactory.class);
+        for (int concurrency : new int[]{1, 4}) {
+            HugeDegreeOrderedTriangleCount actual = new HugeDegreeOrderedTriangleCount(
+                    huge,
+                    Pools.DEFAULT,
+                    concurrency,
+                    AllocationTracker.EMPTY).compute();
+            PagedAtomicLongArray triangles = actual.getTriangles();
+            DoubleArray coefficients = actual.getCoefficients();
+            assertEquals(expected.getTriangleCount(), actual.getTriangleCount());
+            assertEquals(expected.getAverageCoefficient(), actual.getAverageCoefficient(), 1e-9);
+            for (int node = 0; node < NODE_COUNT; node++) {
+                long neoId = huge.toOriginalNodeId(node);
+                int heavyId = heavy.toMappedNodeId(neoId);
+                assertEquals("node " + neoId, expectedTriangles.get(heavyId), triangles.get(node));
+                assertEquals("node " + neoId, expectedCoefficients[heavyId], coefficients.get(node), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void shouldBeUsedForHugeGraphs() {
+        assertTrue(TriangleCountAlgorithm.instance(load(HugeGraphFactory.class), Pools.DEFAULT, 1) instanceof HugeDegreeOrderedTriangleCount);
+    }
+
+    private static Graph load(Class<? extends GraphFactory> factory) {
+        return new GraphLoader(api)
+                .withAnyLabel()
+                .withAnyRelationshipType()
+                .withoutRelationshipWeights()
+                .withoutNodeWeights()
+                .withSort(true)
+                .asUndirected(true)
+                .load(factory);
+    }
+}
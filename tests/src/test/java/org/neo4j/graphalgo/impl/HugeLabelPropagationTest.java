@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+//@formatter:off
+/**
+ *
+ *                                       +-----+
+ *                                 +---->+  B  |
+ *                                 |     +-+---+
+ *                                 v       | ^
+ *  +----+    +---+    +---+     +-+-+     | |
+ *  | Ma +<-->+ D |<---+ C |<----+ A |     | |
+ *  +----+    +---+    +---+     +-+-+     | |
+ *                                 ^       v |
+ *                                 |     +---+-+
+ *                                 +---->| Mic |
+ *                                       +-----+
+ *
+ * Ideally, the iterations would go like this.
+ *
+ * 1st iteration:
+ *   A   -> Mic
+ *   B   -> Mic
+ *   C   -> D/Ma
+ *   D   -> Ma
+ *   Ma  -> Ma/D
+ *   Mic -> B
+ *
+ * 2nd iteration:
+ *   A   -> Mic
+ *   B   -> Mic
+ *   C   -> Ma
+ *   D   -> Ma
+ *   Ma  -> Ma
+ *   Mic -> Mic
+ *
+ * 3rd iteration:
+ *  nothing to do, finished
+ */
+//@formatter:on
+public final class HugeLabelPropagationTest {
+
+    private static final String GRAPH =
+            "CREATE (nAlice:User {id:'Alice',label:2})\n" +
+                    ",(nBridget:User {id:'Bridget',label:3})\n" +
+                    ",(nCharles:User {id:'Charles',label:4})\n" +
+                    ",(nDoug:User {id:'Doug',label:3})\n" +
+                    ",(nMark:User {id:'Mark',label: 4})\n" +
+                    ",(nMichael:User {id:'Michael',label:2})\n" +
+                    "CREATE (nAlice)-[:FOLLOW]->(nBridget)\n" +
+                    ",(nAlice)-[:FOLLOW]->(nCharles)\n" +
+                    ",(nMark)-[:FOLLOW]->(nDoug)\n" +
+                    ",(nBridget)-[:FOLLOW]->(nMichael)\n" +
+                    ",(nDoug)-[:FOLLOW]->(nMark)\n" +
+                    ",(nMichael)-[:FOLLOW]->(nAlice)\n" +
+                    ",(nAlice)-[:FOLLOW]->(nMichael)\n" +
+                    ",(nBridget)-[:FOLLOW]->(nAlice)\n" +
+                    ",(nMichael)-[:FOLLOW]->(nBridget)\n" +
+                    ",(nCharles)-[:FOLLOW]->(nDoug)";
+
+    @ClassRule
+    public static final ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    @BeforeClass
+    public static void setupGraph() throws KernelException {
+        DB.execute(GRAPH).close();
+    }
+
+    private HugeGraph graph;
+
+    @Before
+    public void setup() {
+        graph = (HugeGraph) new GraphLoader(DB, Pools.DEFAULT)
+                .withLabel("User")
+                .withRelationshipType("FOLLOW")
+                .withRelationshipWeightsFromProperty("weight", 1.0)
+                .withOptionalNodeProperties(
+                        PropertyMapping.of(LabelPropagation.PARTITION_TYPE, "partition", 0.0),
+                        PropertyMapping.of(LabelPropagation.WEIGHT_TYPE, "weight", 1.0)
+                )
+                .withDirection(Direction.OUTGOING)
+                .withConcurrency(Pools.DEFAULT_CONCURRENCY)
+                .load(HugeGraphFactory.class);
+    }
+
+    @Test
+    public void testOfReturnsHugeLabelPropagationForHugeGraph() throws Exception {
+        LabelPropagationAlgorithm lp = LabelPropagationAlgorithm.of(
+                graph,
+                100,
+                Pools.DEFAULT_CONCURRENCY,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY);
+        assertTrue(lp instanceof HugeLabelPropagation);
+    }
+
+    @Test
+    public void testSingleThreadClustering() throws Exception {
+        testClustering(100);
+    }
+
+    @Test
+    public void testMultiThreadClustering() throws Exception {
+        testClustering(2);
+    }
+
+    @Test
+    public void testInitialLabelsFromNodeProperties() throws Exception {
+        DB.execute("MATCH (n:User) SET n.seed = CASE WHEN n.id IN ['Alice', 'Bridget', 'Michael'] THEN 42 ELSE 1337 END").close();
+        try {
+            HugeGraph seeded = (HugeGraph) new GraphLoader(DB, Pools.DEFAULT)
+                    .withLabel("User")
+                    .withRelationshipType("FOLLOW")
+                    .withOptionalNodeProperties(
+                            PropertyMapping.of(LabelPropagation.PARTITION_TYPE, "seed", 0.0),
+                            PropertyMapping.of(LabelPropagation.WEIGHT_TYPE, "weight", 1.0)
+                    )
+                    .withDirection(Direction.OUTGOING)
+                    .load(HugeGraphFactory.class);
+            HugeLabelPropagation lp = new HugeLabelPropagation(
+                    seeded,
+                    100,
+                    1,
+                    Pools.DEFAULT,
+                    AllocationTracker.EMPTY);
+            lp.compute(Direction.OUTGOING, 10, false);
+
+            assertTrue(lp.didConverge());
+            HugeLongArray labels = lp.labels();
+            for (long node : new long[]{0L, 1L, 5L}) {
+                assertEquals(42L, labels.get(node));
+            }
+            for (long node : new long[]{2L, 3L, 4L}) {
+                assertEquals(1337L, labels.get(node));
+            }
+        } finally {
+            DB.execute("MATCH (n:User) REMOVE n.seed").close();
+        }
+    }
+
+    private void testClustering(int batchSize) throws Exception {
+        HugeLabelPropagation lp = new HugeLabelPropagation(
+                graph,
+                batchSize,
+                Pools.DEFAULT_CONCURRENCY,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY);
+
+        lp.compute(Direction.OUTGOING, 10);
+
+        HugeLongArray labels = lp.labels();
+        assertEquals(6L, labels.size());
+
+        // see LabelPropagation420Test for why the labels might oscillate
+        assertEquals(labels.get(0L), labels.get(1L));
+        assertEquals(labels.get(0L), labels.get(5L));
+        if (lp.didConverge()) {
+            assertTrue("expected at least 2 iterations, got " + lp.ranIterations(), 2 <= lp.ranIterations());
+            assertEquals(labels.get(2L), labels.get(3L));
+            assertEquals(labels.get(2L), labels.get(4L));
+            assertNotEquals(labels.get(0L), labels.get(2L));
+        } else {
+            assertEquals(10L, lp.ranIterations());
+        }
+    }
+}
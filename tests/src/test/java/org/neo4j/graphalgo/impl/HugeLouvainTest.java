@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestProgressLogger;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.impl.louvain.HugeLouvain;
+import org.neo4j.graphalgo.impl.louvain.Louvain;
+import org.neo4j.graphalgo.impl.louvain.LouvainAlgorithm;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * (a)-(b)--(g)-(h)
+ *  \  /     \ /
+ *  (c)     (i)           (ABC)-(GHI)
+ *   \      /         =>    \   /
+ *   (d)-(e)                (DEF)
+ *    \  /
+ *    (f)
+ */
+public class HugeLouvainTest {
+
+    private static final String COMPLEX_CYPHER =
+            "CREATE (a:Node {name:'a'})\n" +
+                    "CREATE (b:Node {name:'b'})\n" +
+                    "CREATE (c:Node {name:'c'})\n" +
+                    "CREATE (d:Node {name:'d'})\n" +
+                    "CREATE (e:Node {name:'e'})\n" +
+                    "CREATE (f:Node {name:'f'})\n" +
+                    "CREATE (g:Node {name:'g'})\n" +
+                    "CREATE (h:Node {name:'h'})\n" +
+                    "CREATE (i:Node {name:'i'})\n" +
+                    "CREATE" +
+
+                    " (a)-[:TYPE]->(b),\n" +
+                    " (a)-[:TYPE]->(c),\n" +
+                    " (b)-[:TYPE]->(c),\n" +
+
+                    " (g)-[:TYPE]->(h),\n" +
+                    " (g)-[:TYPE]->(i),\n" +
+                    " (h)-[:TYPE]->(i),\n" +
+
+                    " (e)-[:TYPE]->(d),\n" +
+                    " (e)-[:TYPE]->(f),\n" +
+                    " (d)-[:TYPE]->(f),\n" +
+
+                    " (a)-[:TYPE]->(g),\n" +
+                    " (c)-[:TYPE]->(e),\n" +
+                    " (f)-[:TYPE]->(i)";
+
+    @Rule
+    public ImpermanentDatabaseRule DB = new ImpermanentDatabaseRule();
+
+    private HugeGraph setup() {
+        DB.execute(COMPLEX_CYPHER);
+        return (HugeGraph) new GraphLoader(DB)
+                .withAnyRelationshipType()
+                .withAnyLabel()
+                .withoutNodeProperties()
+                .withOptionalRelationshipWeightsFromProperty("w", 1.0)
+                .asUndirected(true)
+                .load(HugeGraphFactory.class);
+    }
+
+    @Test
+    public void testOfReturnsHugeLouvainForHugeGraph() throws Exception {
+        final HugeGraph graph = setup();
+        final LouvainAlgorithm algorithm = LouvainAlgorithm.of(graph, Pools.DEFAULT, 1, AllocationTracker.EMPTY);
+        assertTrue(algorithm instanceof HugeLouvain);
+    }
+
+    @Test
+    public void testComplex() throws Exception {
+        final HugeGraph graph = setup();
+        final HugeLouvain algorithm = new HugeLouvain(graph, Pools.DEFAULT, 1, AllocationTracker.EMPTY)
+                .withProgressLogger(TestProgressLogger.INSTANCE)
+                .compute(10, 10);
+        assertTrue(algorithm.getLevel() >= 1);
+        assertArrayEquals(new long[]{0, 0, 0, 1, 1, 1, 2, 2, 2}, toArray(algorithm.getCommunityIds(0)));
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        final HugeGraph graph = setup();
+        final HugeLouvain algorithm = new HugeLouvain(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .withProgressLogger(TestProgressLogger.INSTANCE)
+                .compute(10, 10);
+        final long[] communities = toArray(algorithm.getCommunityIds(0));
+        for (int i = 0; i < communities.length; i += 3) {
+            assertEquals(communities[i], communities[i + 1]);
+            assertEquals(communities[i], communities[i + 2]);
+        }
+        assertNotEquals(communities[0], communities[3]);
+        assertNotEquals(communities[0], communities[6]);
+        assertNotEquals(communities[3], communities[6]);
+    }
+
+    @Test
+    public void testDendrogramIsConsistentWithLevels() throws Exception {
+        final HugeGraph graph = setup();
+        final HugeLouvain algorithm = new HugeLouvain(graph, Pools.DEFAULT, 1, AllocationTracker.EMPTY)
+                .withProgressLogger(TestProgressLogger.INSTANCE)
+                .compute(10, 10);
+        final List<Louvain.StreamingResult> results = algorithm.dendrogramStream().collect(Collectors.toList());
+        assertEquals(9, results.size());
+        for (int level = 0; level < algorithm.getLevel(); level++) {
+            final HugeLongArray communities = algorithm.getCommunityIds(level);
+            for (int node = 0; node < 9; node++) {
+                final Louvain.StreamingResult result = results.get(node);
+                assertEquals(graph.toOriginalNodeId(node), result.nodeId);
+                assertEquals(algorithm.getLevel(), result.communities.size());
+                assertEquals(communities.get(node), (long) result.communities.get(level));
+            }
+        }
+        final long[] lastLevel = toArray(algorithm.getCommunityIds());
+        algorithm.resultStream().forEach(r -> assertEquals(lastLevel[(int) r.nodeId], r.community));
+    }
+
+    private static long[] toArray(HugeLongArray array) {
+        final long[] values = new long[(int) array.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.get(i);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongLongHashMap;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.impl.multistepscc.HugeMultistepSCC;
+import org.neo4j.graphalgo.impl.scc.HugeSCCIterativeTarjan;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class HugeMultistepSCCTest {
+
+    private static final int NODE_COUNT = 2_000;
+    private static final int BLOCK_SIZE = 20;
+    private static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+
+    private static GraphDatabaseAPI api;
+    private static HugeGraph graph;
+
+    /**
+     * Nodes are connected randomly within blocks, which results in SCCs of many different sizes,
+     * and by a few relationships to later blocks, which results in a DAG of the SCCs.
+     * A few relationships back to earlier blocks merge some of the blocks into a bigger SCC.
+     */
+    @BeforeClass
+    public static void setup() {
+        api = TestDatabaseCreator.createTestDatabase();
+        Random random = new Random(42L);
+        try (Transaction tx = api.beginTx()) {
+            Node[] nodes = new Node[NODE_COUNT];
+            for (int i = 0; i < NODE_COUNT; i++) {
+                nodes[i] = api.createNode();
+            }
+            for (int i = 0; i < NODE_COUNT; i++) {
+                int block = i / BLOCK_SIZE * BLOCK_SIZE;
+                int degree = random.nextInt(3);
+                for (int j = 0; j < degree; j++) {
+                    nodes[i].createRelationshipTo(nodes[block + random.nextInt(BLOCK_SIZE)], TYPE);
+                }
+                if (random.nextInt(10) == 0) {
+                    nodes[i].createRelationshipTo(nodes[i + random.nextInt(NODE_COUNT - i)], TYPE);
+                }
+                if (random.nextInt(50) == 0) {
+                    nodes[i].createRelationshipTo(nodes[random.nextInt(i + 1)], TYPE);
+                }
+            }
+            tx.success();
+        }
+
+        graph = (HugeGraph) new GraphLoader(api)
+                .withAnyLabel()
+                .withAnyRelationshipType()
+                .withDirection(Direction.BOTH)
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (api != null) api.shutdown();
+        graph = null;
+    }
+
+    @Test
+    public void shouldFindTheSameComponentsAsTarjan() {
+        HugeSCCIterativeTarjan tarjan = new HugeSCCIterativeTarjan(graph, AllocationTracker.EMPTY).compute();
+        // cutoff 0 colors all nodes, a cutoff above the node count leaves all nodes after ForwardBackward to Tarjan
+        for (long cutOff : new long[]{0L, 100L, NODE_COUNT}) {
+            for (int concurrency : new int[]{1, 4}) {
+                HugeMultistepSCC multistep = new HugeMultistepSCC(
+                        graph,
+                        Pools.DEFAULT,
+                        concurrency,
+                        cutOff,
+                        AllocationTracker.EMPTY).compute();
+                assertSameComponents(tarjan.getConnectedComponents(), multistep.getConnectedComponents());
+                assertEquals(tarjan.getSetCount(), multistep.getSetCount());
+                assertEquals(tarjan.getMinSetSize(), multistep.getMinSetSize());
+                assertEquals(tarjan.getMaxSetSize(), multistep.getMaxSetSize());
+            }
+        }
+    }
+
+    private static void assertSameComponents(HugeLongArray expected, HugeLongArray actual) {
+        LongLongHashMap expectedToActual = new LongLongHashMap();
+        LongLongHashMap actualToExpected = new LongLongHashMap();
+        for (long node = 0L; node < NODE_COUNT; node++) {
+            long expectedSet = expected.get(node);
+            long actualSet = actual.get(node);
+            assertEquals(actualSet, expectedToActual.getOrDefault(expectedSet, actualSet));
+            assertEquals(expectedSet, actualToExpected.getOrDefault(actualSet, expectedSet));
+            expectedToActual.put(expectedSet, actualSet);
+            actualToExpected.put(actualSet, expectedSet);
+        }
+    }
+}
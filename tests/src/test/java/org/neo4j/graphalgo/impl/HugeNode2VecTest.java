@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.impl.walking.HugeNode2Vec;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Weighted:   (x)-[1]->(y), (x)-[3]->(z)
+ * <p>
+ * Triangle:   (a)--(b)--(c), (a)--(c), (b)--(d)
+ */
+public class HugeNode2VecTest {
+
+    private static final int SAMPLES = 100_000;
+
+    private static GraphDatabaseAPI api;
+
+    @BeforeClass
+    public static void setup() {
+        final String cypher =
+                "CREATE (x:Weighted {name:'x'})\n" +
+                        "CREATE (y:Weighted {name:'y'})\n" +
+                        "CREATE (z:Weighted {name:'z'})\n" +
+                        "CREATE (a:Triangle {name:'a'})\n" +
+                        "CREATE (b:Triangle {name:'b'})\n" +
+                        "CREATE (c:Triangle {name:'c'})\n" +
+                        "CREATE (d:Triangle {name:'d'})\n" +
+                        "CREATE" +
+                        " (x)-[:W {cost:1}]->(y),\n" +
+                        " (x)-[:W {cost:3}]->(z),\n" +
+                        " (a)-[:T]->(b),\n" +
+                        " (b)-[:T]->(c),\n" +
+                        " (c)-[:T]->(a),\n" +
+                        " (d)-[:T]->(b)";
+
+        api = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (api != null) api.shutdown();
+    }
+
+    @Test
+    public void testFirstOrderTransitionsFollowWeights() {
+        HugeGraph graph = load("Weighted", "W", Direction.OUTGOING);
+        HugeNode2Vec node2Vec = HugeNode2Vec.of(graph, Direction.OUTGOING, true, 1d, 1d, 1, TerminationFlag.RUNNING_TRUE, AllocationTracker.EMPTY);
+        long x = id(graph, "x"), z = id(graph, "z");
+
+        Random random = new Random(42L);
+        int hits = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            if (node2Vec.nextNode(x, x, random) == z) hits++;
+        }
+
+        assertEquals(0.75, (double) hits / SAMPLES, 0.01);
+    }
+
+    @Test
+    public void testSecondOrderBias() {
+        HugeGraph graph = load("Triangle", "T", Direction.BOTH);
+        // return bias 1/p = 2, common neighbour 1, in-out bias 1/q = 0.5
+        HugeNode2Vec node2Vec = HugeNode2Vec.of(graph, Direction.BOTH, false, 0.5, 2d, 2, TerminationFlag.RUNNING_TRUE, AllocationTracker.EMPTY);
+        long a = id(graph, "a"), b = id(graph, "b"), c = id(graph, "c"), d = id(graph, "d");
+
+        Random random = new Random(42L);
+        int[] hits = new int[4];
+        for (int i = 0; i < SAMPLES; i++) {
+            long next = node2Vec.nextNode(b, a, random);
+            hits[next == a ? 0 : next == c ? 1 : next == d ? 2 : 3]++;
+        }
+
+        assertEquals(2d / 3.5, (double) hits[0] / SAMPLES, 0.01);
+        assertEquals(1d / 3.5, (double) hits[1] / SAMPLES, 0.01);
+        assertEquals(0.5 / 3.5, (double) hits[2] / SAMPLES, 0.01);
+        assertEquals(0, hits[3]);
+    }
+
+    @Test
+    public void testWalkEndsAtNodeWithoutNeighbours() {
+        HugeGraph graph = load("Weighted", "W", Direction.OUTGOING);
+        HugeNode2Vec node2Vec = HugeNode2Vec.of(graph, Direction.OUTGOING, true, 1d, 1d, 1, TerminationFlag.RUNNING_TRUE, AllocationTracker.EMPTY);
+        long x = id(graph, "x"), y = id(graph, "y"), z = id(graph, "z");
+
+        assertEquals(-1L, node2Vec.nextNode(y, x, new Random(42L)));
+
+        long[] nodes = new long[11];
+        int length = node2Vec.walk(x, 10, nodes, new Random(42L));
+        assertEquals(2, length);
+        assertEquals(x, nodes[0]);
+        assertEquals(true, nodes[1] == y || nodes[1] == z);
+    }
+
+    private static HugeGraph load(String label, String relationshipType, Direction direction) {
+        return (HugeGraph) new GraphLoader(api)
+                .withLabel(label)
+                .withRelationshipType(relationshipType)
+                .withDirection(direction)
+                .withRelationshipWeightsFromProperty("cost", 1.0)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static long id(HugeGraph graph, String name) {
+        final Node[] node = new Node[1];
+        api.execute("MATCH (n) WHERE n.name = '" + name + "' RETURN n").accept(row -> {
+            node[0] = row.getNode("n");
+            return false;
+        });
+        return graph.toHugeMappedNodeId(node[0].getId());
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugePageRankResumeTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Label1 {name:\"a\"})\n" +
+            "CREATE (b:Label1 {name:\"b\"})\n" +
+            "CREATE (c:Label1 {name:\"c\"})\n" +
+            "CREATE (d:Label1 {name:\"d\"})\n" +
+            "CREATE (e:Label1 {name:\"e\"})\n" +
+            "CREATE (f:Label1 {name:\"f\"})\n" +
+            "CREATE (g:Label1 {name:\"g\"})\n" +
+            "CREATE (h:Label1 {name:\"h\"})\n" +
+            "CREATE\n" +
+            "  (b)-[:TYPE]->(c),\n" +
+            "  (c)-[:TYPE]->(b),\n" +
+            "  (d)-[:TYPE]->(a),\n" +
+            "  (d)-[:TYPE]->(b),\n" +
+            "  (e)-[:TYPE]->(b),\n" +
+            "  (e)-[:TYPE]->(d),\n" +
+            "  (e)-[:TYPE]->(f),\n" +
+            "  (f)-[:TYPE]->(b),\n" +
+            "  (f)-[:TYPE]->(e),\n" +
+            "  (g)-[:TYPE]->(b),\n" +
+            "  (h)-[:TYPE]->(e)\n";
+
+    private GraphDatabaseAPI db;
+
+    @Before
+    public void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute(DB_CYPHER).close();
+    }
+
+    @After
+    public void shutdown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldStopWhenConverged() {
+        HugeGraph graph = load();
+        HugePageRank fixed = pageRank(graph).compute(100);
+        HugePageRank converged = pageRank(graph).withTolerance(1e-3).compute(100);
+
+        assertEquals(100, fixed.iterations());
+        assertTrue(converged.iterations() < 100);
+        assertScores(graph, fixed.result(), converged.result());
+    }
+
+    @Test
+    public void shouldResumeFromConvergedScores() {
+        HugeGraph graph = load();
+        PageRankResult previous = pageRank(graph).compute(100).result();
+
+        HugePageRank resumed = pageRank(graph)
+                .withPriorScores(previous::score)
+                .withTolerance(1e-3)
+                .compute(100);
+
+        assertTrue(resumed.iterations() <= 2);
+        assertScores(graph, previous, resumed.result());
+    }
+
+    @Test
+    public void shouldResumeFromScoresOfChangedGraph() {
+        HugeGraph before = load();
+        PageRankScores previous = PageRankScores.store(
+                "previous",
+                before,
+                pageRank(before).compute(100).result(),
+                AllocationTracker.EMPTY);
+
+        db.execute("MATCH (a {name:'a'}), (c {name:'c'}) CREATE (a)-[:TYPE]->(c)").close();
+        db.execute("MATCH (g {name:'g'})-[r]->() DELETE r").close();
+        HugeGraph after = load();
+
+        PageRankResult expected = pageRank(after).compute(100).result();
+        HugePageRank resumed = pageRank(after)
+                .withPriorScores(previous.priorScores(after))
+                .withTolerance(1e-3)
+                .compute(100);
+
+        assertTrue(resumed.iterations() < 100);
+        assertScores(after, expected, resumed.result());
+        assertTrue(PageRankScores.remove("previous"));
+    }
+
+    @Test
+    public void shouldRemoveStoredScoresFromTracker() {
+        HugeGraph graph = load();
+        AllocationTracker tracker = AllocationTracker.create();
+        PageRankResult result = pageRank(graph).compute(10).result();
+        PageRankScores.store("tracked", graph, result, tracker);
+        PageRankScores.store("tracked", graph, result, tracker);
+        assertTrue(tracker.tracked() > 0L);
+
+        assertTrue(PageRankScores.remove("tracked"));
+        assertEquals(0L, tracker.tracked());
+    }
+
+    @Test
+    public void shouldStartNodesWithoutPriorScoreFromInitialScore() {
+        HugeGraph graph = load();
+        PageRankResult expected = pageRank(graph).compute(100).result();
+
+        HugePageRank resumed = pageRank(graph)
+                .withPriorScores(node -> node % 2 == 0 ? expected.score(node) : Double.NaN)
+                .compute(100);
+
+        assertScores(graph, expected, resumed.result());
+    }
+
+    private HugeGraph load() {
+        return (HugeGraph) new GraphLoader(db)
+                .withLabel("Label1")
+                .withRelationshipType("TYPE")
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static HugePageRank pageRank(HugeGraph graph) {
+        return new HugePageRank(AllocationTracker.EMPTY, graph, 0.85, LongStream.empty());
+    }
+
+    private static void assertScores(HugeGraph graph, PageRankResult expected, PageRankResult actual) {
+        for (long node = 0L; node < graph.nodeCount(); node++) {
+            assertEquals("Node#" + graph.toOriginalNodeId(node), expected.score(node), actual.score(node), 1e-2);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphBuilder;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class HugeParallelUnionFindAfforestTest {
+
+    private static final int NODE_COUNT = 5_000;
+
+    @Test
+    public void shouldFindTheSameComponentsAsSequentialUnionFind() {
+        HugeGraph graph = randomGraph(42L);
+        for (int concurrency : new int[]{1, 4}) {
+            PagedAtomicDisjointSetStruct actual = new HugeParallelUnionFindAfforest(
+                    graph, Pools.DEFAULT, AllocationTracker.EMPTY, 100, concurrency).compute();
+            PagedDisjointSetStruct expected = new HugeGraphUnionFind(graph, AllocationTracker.EMPTY).compute();
+            assertSameComponents(expected, actual);
+        }
+    }
+
+    @Test
+    public void shouldOnlyFollowRelationshipsAboveTheThreshold() {
+        HugeGraph graph = randomGraph(1337L);
+        PagedAtomicDisjointSetStruct actual = new HugeParallelUnionFindAfforest(
+                graph, Pools.DEFAULT, AllocationTracker.EMPTY, 100, 4).compute(0.5);
+        PagedDisjointSetStruct expected = new HugeGraphUnionFind(graph, AllocationTracker.EMPTY).compute(0.5);
+        assertSameComponents(expected, actual);
+    }
+
+    private static void assertSameComponents(PagedDisjointSetStruct expected, PagedAtomicDisjointSetStruct actual) {
+        assertEquals(expected.getSetCount(), actual.getSetCount());
+        for (long node = 0; node < NODE_COUNT; node++) {
+            long set = actual.find(node);
+            assertEquals(expected.find(node), expected.find(set));
+        }
+    }
+
+    /**
+     * A giant component of most nodes and many small ones.
+     */
+    private static HugeGraph randomGraph(long seed) {
+        Random random = new Random(seed);
+        HugeGraphBuilder builder = new HugeGraphBuilder(NODE_COUNT, true, 1.0, AllocationTracker.EMPTY);
+        HugeGraphBuilder.Importer importer = builder.newImporter();
+        int giant = NODE_COUNT * 4 / 5;
+        for (int node = 0; node < NODE_COUNT; node++) {
+            int degree = node < giant ? 3 : random.nextInt(2);
+            long[] targets = new long[degree];
+            double[] weights = new double[degree];
+            for (int i = 0; i < degree; i++) {
+                targets[i] = node < giant ? random.nextInt(giant) : giant + random.nextInt(NODE_COUNT - giant);
+                weights[i] = random.nextDouble();
+            }
+            importer.add(node, targets, weights, degree);
+        }
+        return builder.build();
+    }
+}
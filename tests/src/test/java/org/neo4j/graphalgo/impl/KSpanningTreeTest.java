@@ -111,7 +111,7 @@ public class KSpanningTreeTest {
 
     @Test
     public void testMaximumKSpanningTree() throws Exception {
-        final SpanningTree spanningTree = new KSpanningTree(graph, graph, graph)
+        final SpanningTree spanningTree = new KSpanningTree(graph, graph)
                 .compute(a, 2, true)
                 .getSpanningTree();
 
@@ -124,7 +124,7 @@ public class KSpanningTreeTest {
 
     @Test
     public void testMinimumKSpanningTree() throws Exception {
-        final SpanningTree spanningTree = new KSpanningTree(graph, graph, graph)
+        final SpanningTree spanningTree = new KSpanningTree(graph, graph)
                 .compute(a, 2, false)
                 .getSpanningTree();
 
@@ -42,9 +42,9 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
-import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(Parameterized.class)
 public final class PageRankTest {
@@ -126,6 +126,56 @@ public final class PageRankTest {
 
     @Test
     public void test() throws Exception {
+        final Graph graph = loadGraph();
+        final PageRankResult rankResult = PageRankAlgorithm
+                .of(graph, 0.85, LongStream.empty())
+                .compute(40)
+                .result();
+
+        assertScores(graph, rankResult);
+    }
+
+    @Test
+    public void testTolerance() throws Exception {
+        final Graph graph = loadGraph();
+        final PageRankAlgorithm pageRank = PageRankAlgorithm
+                .of(graph, 0.85, LongStream.empty())
+                .withTolerance(1e-3)
+                .compute(100);
+
+        assertTrue(pageRank.iterations() < 100);
+        assertScores(graph, pageRank.result());
+    }
+
+    @Test
+    public void testEpsilon() throws Exception {
+        final Graph graph = loadGraph();
+        final PageRankAlgorithm pageRank = PageRankAlgorithm
+                .of(graph, 0.85, LongStream.empty())
+                .withEpsilon(1e-4)
+                .withTolerance(1e-3)
+                .compute(100);
+
+        assertTrue(pageRank.iterations() < 100);
+        assertScores(graph, pageRank.result());
+    }
+
+    private Graph loadGraph() {
+        if (graphImpl.isAssignableFrom(HeavyCypherGraphFactory.class)) {
+            return new GraphLoader(db)
+                    .withLabel("MATCH (n:Label1) RETURN id(n) as id")
+                    .withRelationshipType("MATCH (n:Label1)-[:TYPE1]->(m:Label1) RETURN id(n) as source,id(m) as target")
+                    .load(graphImpl);
+
+        }
+        return new GraphLoader(db)
+                .withLabel(Label.label("Label1"))
+                .withRelationshipType("TYPE1")
+                .withDirection(Direction.OUTGOING)
+                .load(graphImpl);
+    }
+
+    private void assertScores(Graph graph, PageRankResult rankResult) {
         final Label label = Label.label("Label1");
         final Map<Long, Double> expected = new HashMap<>();
 
@@ -143,26 +193,6 @@ public final class PageRankTest {
             tx.close();
         }
 
-        final Graph graph;
-        if (graphImpl.isAssignableFrom(HeavyCypherGraphFactory.class)) {
-            graph = new GraphLoader(db)
-                    .withLabel("MATCH (n:Label1) RETURN id(n) as id")
-                    .withRelationshipType("MATCH (n:Label1)-[:TYPE1]->(m:Label1) RETURN id(n) as source,id(m) as target")
-                    .load(graphImpl);
-
-        } else {
-            graph = new GraphLoader(db)
-                    .withLabel(label)
-                    .withRelationshipType("TYPE1")
-                    .withDirection(Direction.OUTGOING)
-                    .load(graphImpl);
-        }
-
-        final PageRankResult rankResult = PageRankAlgorithm
-                .of(graph, 0.85, LongStream.empty())
-                .compute(40)
-                .result();
-
         IntStream.range(0, expected.size()).forEach(i -> {
             final long nodeId = graph.toOriginalNodeId(i);
             assertEquals(
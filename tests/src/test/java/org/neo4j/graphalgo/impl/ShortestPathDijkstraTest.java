@@ -250,6 +250,59 @@ public final class ShortestPathDijkstraTest {
         assertEquals(expected.nodeIds.length, resultStream.count());
     }
 
+    @Test
+    public void testBidirectional() {
+        final Label label = Label.label("Label2");
+        RelationshipType type = RelationshipType.withName("TYPE2");
+        ShortestPath expected = expected(label, type,
+                "name", "1",
+                "name", "3",
+                "name", "6",
+                "name", "7");
+        long[] nodeIds = expected.nodeIds;
+
+        final Graph graph = new GraphLoader(DB)
+                .withLabel(label)
+                .withRelationshipType(type)
+                .withRelationshipWeightsFromProperty("cost", Double.MAX_VALUE)
+                .withDirection(Direction.BOTH)
+                .load(graphImpl);
+
+        final ShortestPathDijkstra shortestPathDijkstra = new ShortestPathDijkstra(graph);
+        shortestPathDijkstra.compute(nodeIds[0], nodeIds[nodeIds.length - 1], Direction.OUTGOING, Direction.INCOMING);
+        final long[] path = Arrays.stream(shortestPathDijkstra.getFinalPath().toArray()).mapToLong(graph::toOriginalNodeId).toArray();
+
+        assertEquals(expected.weight, shortestPathDijkstra.getTotalCost(), 0.1);
+        assertArrayEquals(nodeIds, path);
+        assertEquals(expected.weight, shortestPathDijkstra.resultStream().reduce((a, b) -> b).get().cost, 0.1);
+    }
+
+    @Test
+    public void testBidirectionalMatchesForwardSearch() {
+        final Label label = Label.label("Label599");
+        final Graph graph = new GraphLoader(DB)
+                .withLabel(label)
+                .withRelationshipType("TYPE599")
+                .withRelationshipWeightsFromProperty("cost", Double.MAX_VALUE)
+                .withDirection(Direction.BOTH)
+                .load(graphImpl);
+
+        // one instance for all queries, so that the search states are reused
+        final ShortestPathDijkstra forward = new ShortestPathDijkstra(graph);
+        final ShortestPathDijkstra bidirectional = new ShortestPathDijkstra(graph);
+        final int nodeCount = Math.toIntExact(graph.nodeCount());
+        for (int source = 0; source < nodeCount; source++) {
+            for (int target = 0; target < nodeCount; target++) {
+                long start = graph.toOriginalNodeId(source);
+                long goal = graph.toOriginalNodeId(target);
+                forward.compute(start, goal, Direction.OUTGOING);
+                bidirectional.compute(start, goal, Direction.OUTGOING, Direction.INCOMING);
+                assertEquals(forward.getTotalCost(), bidirectional.getTotalCost(), 1e-9);
+                assertEquals(forward.getPathLength(), bidirectional.getPathLength());
+            }
+        }
+    }
+
     private static ShortestPath expected(
             Label label,
             RelationshipType type,
@@ -124,6 +124,11 @@ public class UnionFindsTest {
         test(UnionFindAlgo.FJ_MERGE);
     }
 
+    @Test
+    public void testAfforest() {
+        test(UnionFindAlgo.AFFOREST);
+    }
+
 
     private void test(UnionFindAlgo uf) {
         DSSResult result = run(uf);
@@ -87,4 +87,24 @@ public class WeightedPathTest {
         assertEquals(2, p.size());
     }
 
+    @Test
+    public void testCostsFollowReverseAndJoin() throws Exception {
+        final WeightedPath a = new WeightedPath(3);
+        a.append(2);
+        a.append(1, 1.5);
+        a.append(0, 2.5);
+        a.reverse();
+        assertArrayEquals(new int[]{0, 1, 2}, a.toArray());
+        assertEquals(2.5, a.cost(1), 0.0);
+        assertEquals(1.5, a.cost(2), 0.0);
+
+        final WeightedPath b = new WeightedPath(2);
+        b.append(2);
+        b.append(42, 3.0);
+        b.withWeight(3.0);
+        final WeightedPath joined = a.evaluateAndSetCost().join(b);
+        assertArrayEquals(new int[]{0, 1, 2, 42}, joined.toArray());
+        assertEquals(3.0, joined.cost(3), 0.0);
+        assertEquals(7.0, joined.getCost(), 0.0);
+    }
 }
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.junit.Assert.assertEquals;
+
+public class TopKConsumerTest {
+
+    private static final Comparator<Integer> DESCENDING = Comparator.reverseOrder();
+
+    @Test
+    public void testMergeTakesOverBetterItems() {
+        TopKConsumer<Integer> consumer = new TopKConsumer<>(3, DESCENDING);
+        Arrays.asList(9, 5, 1).forEach(consumer);
+        // the worst item of the other consumer is worse than the worst item of this consumer
+        TopKConsumer<Integer> other = new TopKConsumer<>(3, DESCENDING);
+        Arrays.asList(8, 0, -1).forEach(other);
+
+        consumer.accept(other);
+
+        assertEquals(Arrays.asList(9, 8, 5), consumer.list());
+    }
+
+    @Test
+    public void testMergeIntoEmptyConsumer() {
+        TopKConsumer<Integer> consumer = new TopKConsumer<>(2, DESCENDING);
+        TopKConsumer<Integer> other = new TopKConsumer<>(2, DESCENDING);
+        Arrays.asList(3, 4, 1).forEach(other);
+
+        consumer.accept(other);
+
+        assertEquals(Arrays.asList(4, 3), consumer.list());
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.similarity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class TopKSimilaritiesTest {
+
+    private static final SimilarityProc.SimilarityResults RESULTS = (s, t, similarity) -> new SimilarityResult(s, t, 0, 0, 0, similarity);
+
+    @Test
+    public void testKeepsBestSimilaritiesInOrder() {
+        TopKSimilarities topKs = new TopKSimilarities(1, 3);
+        double[] similarities = {0.5, 0.1, 0.9, 0.7, 0.3};
+        for (int target = 0; target < similarities.length; target++) {
+            topKs.accept(0, target, similarities[target]);
+        }
+
+        assertEquals(Arrays.asList(2L, 3L, 0L), targets(topKs, new int[]{0}));
+    }
+
+    @Test
+    public void testKeepsLowestSimilaritiesForNegativeTopK() {
+        TopKSimilarities topKs = new TopKSimilarities(1, -2);
+        double[] similarities = {0.5, 0.1, 0.9, 0.7, 0.3};
+        for (int target = 0; target < similarities.length; target++) {
+            topKs.accept(0, target, similarities[target]);
+        }
+
+        assertEquals(Arrays.asList(1L, 4L), targets(topKs, new int[]{0}));
+    }
+
+    @Test
+    public void testTiesPreferLowerTargets() {
+        TopKSimilarities topKs = new TopKSimilarities(1, 2);
+        topKs.accept(0, 7, 1.0);
+        topKs.accept(0, 3, 1.0);
+        topKs.accept(0, 5, 1.0);
+        topKs.accept(0, 1, 1.0);
+
+        assertEquals(Arrays.asList(1L, 3L), targets(topKs, new int[]{0}));
+    }
+
+    @Test
+    public void testMergeEqualsSingleHeap() {
+        Random random = new Random(42L);
+        int length = 20, topK = 5;
+        TopKSimilarities single = new TopKSimilarities(length, topK);
+        TopKSimilarities first = new TopKSimilarities(length, topK);
+        TopKSimilarities second = new TopKSimilarities(length, topK);
+        for (int position = 0; position < length; position++) {
+            for (int target = 0; target < 50; target++) {
+                // few distinct values, so that there are many ties
+                double similarity = random.nextInt(10) / 10.0;
+                single.accept(position, target, similarity);
+                (random.nextBoolean() ? first : second).accept(position, target, similarity);
+            }
+        }
+        first.merge(second);
+
+        int[] sources = new int[length];
+        Arrays.setAll(sources, i -> i);
+        assertEquals(results(single, sources), results(first, sources));
+    }
+
+    @Test
+    public void testStreamsSourceOfEveryPosition() {
+        TopKSimilarities topKs = new TopKSimilarities(2, 1);
+        topKs.accept(0, 3, 0.5);
+        topKs.accept(1, 4, 0.5);
+
+        List<SimilarityResult> results = results(topKs, new int[]{7, 9});
+
+        assertEquals(2, results.size());
+        assertEquals(7L, results.get(0).item1);
+        assertEquals(3L, results.get(0).item2);
+        assertEquals(9L, results.get(1).item1);
+        assertEquals(4L, results.get(1).item2);
+    }
+
+    @Test
+    public void testMatchesSortedSimilarities() {
+        Random random = new Random(23L);
+        TopKSimilarities topKs = new TopKSimilarities(1, 10);
+        List<Double> similarities = new ArrayList<>();
+        for (int target = 0; target < 1000; target++) {
+            double similarity = random.nextDouble();
+            similarities.add(similarity);
+            topKs.accept(0, target, similarity);
+        }
+
+        List<Double> expected = similarities.stream().sorted(Comparator.reverseOrder()).limit(10).collect(Collectors.toList());
+        List<Double> actual = results(topKs, new int[]{0}).stream().map(result -> result.similarity).collect(Collectors.toList());
+        assertEquals(expected, actual);
+    }
+
+    private static List<Long> targets(TopKSimilarities topKs, int[] sources) {
+        return results(topKs, sources).stream().map(result -> result.item2).collect(Collectors.toList());
+    }
+
+    private static List<SimilarityResult> results(TopKSimilarities topKs, int[] sources) {
+        return topKs.stream(sources, RESULTS).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.walking;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.helpers.collection.MapUtil.map;
+
+public class Node2VecEmbeddingProcTest {
+
+    private static final int COMMUNITY_SIZE = 8;
+    private static final int DIMENSIONS = 16;
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void beforeClass() throws KernelException {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.getDependencyResolver().resolveDependency(Procedures.class).registerProcedure(Node2VecEmbeddingProc.class);
+
+        // two cliques that are connected by a single relationship
+        db.execute("UNWIND range(0,1) as community UNWIND range(0,$size-1) as id CREATE (:Node {community:community, id:id})",
+                map("size", COMMUNITY_SIZE)).close();
+        db.execute("MATCH (n:Node),(m:Node) WHERE n.community = m.community AND n.id < m.id CREATE (n)-[:REL]->(m)").close();
+        db.execute("MATCH (n:Node {community:0, id:0}),(m:Node {community:1, id:0}) CREATE (n)-[:REL]->(m)").close();
+    }
+
+    @AfterClass
+    public static void AfterClass() {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldEmbedCommunitiesOfHeavyGraph() {
+        assertCommunitiesSeparated("heavy");
+    }
+
+    @Test
+    public void shouldEmbedCommunitiesOfHugeGraph() {
+        assertCommunitiesSeparated("huge");
+    }
+
+    @Test
+    public void shouldWriteEmbeddings() {
+        Map<String, Object> row = db.execute("CALL algo.embedding.node2vec('Node', 'REL', $config)",
+                map("config", config("huge", "writeProperty", "vector"))).next();
+
+        assertEquals(2L * COMMUNITY_SIZE, row.get("nodes"));
+        assertEquals(2L * COMMUNITY_SIZE * 10, row.get("walks"));
+        assertEquals((long) DIMENSIONS, row.get("dimensions"));
+        assertEquals(true, row.get("write"));
+        assertEquals("vector", row.get("writeProperty"));
+
+        try (Transaction tx = db.beginTx()) {
+            db.getAllNodes().forEach(node -> {
+                Object vector = node.getProperty("vector");
+                assertTrue(vector instanceof float[]);
+                assertEquals(DIMENSIONS, ((float[]) vector).length);
+            });
+            tx.success();
+        }
+    }
+
+    private void assertCommunitiesSeparated(String graph) {
+        Map<Long, double[]> embeddings = new HashMap<>();
+        Map<Long, Long> communities = new HashMap<>();
+        try (Transaction tx = db.beginTx()) {
+            Result result = db.execute("CALL algo.embedding.node2vec.stream('Node', 'REL', $config)",
+                    map("config", config(graph)));
+            result.forEachRemaining(row -> {
+                long nodeId = (Long) row.get("nodeId");
+                @SuppressWarnings("unchecked")
+                List<Double> embedding = (List<Double>) row.get("embedding");
+                assertEquals(DIMENSIONS, embedding.size());
+                embeddings.put(nodeId, embedding.stream().mapToDouble(Double::doubleValue).toArray());
+                Node node = db.getNodeById(nodeId);
+                communities.put(nodeId, (Long) node.getProperty("community"));
+            });
+            tx.success();
+        }
+        assertEquals(2 * COMMUNITY_SIZE, embeddings.size());
+
+        double intra = 0, inter = 0;
+        int intraCount = 0, interCount = 0;
+        for (long node : embeddings.keySet()) {
+            for (long other : embeddings.keySet()) {
+                if (node >= other) continue;
+                double cosine = cosine(embeddings.get(node), embeddings.get(other));
+                if (communities.get(node).equals(communities.get(other))) {
+                    intra += cosine;
+                    intraCount++;
+                } else {
+                    inter += cosine;
+                    interCount++;
+                }
+            }
+        }
+        intra /= intraCount;
+        inter /= interCount;
+        assertTrue("intra " + intra + " inter " + inter, intra > inter + 0.2);
+    }
+
+    private static Map<String, Object> config(String graph, Object... extra) {
+        Map<String, Object> config = map(
+                "graph", graph,
+                "dimensions", DIMENSIONS,
+                "walkLength", 20,
+                "walksPerNode", 10,
+                "windowSize", 5,
+                "concurrency", 2);
+        config.putAll(map(extra));
+        return config;
+    }
+
+    private static double cosine(double[] x, double[] y) {
+        double dot = 0, xx = 0, yy = 0;
+        for (int i = 0; i < x.length; i++) {
+            dot += x[i] * y[i];
+            xx += x[i] * x[i];
+            yy += y[i] * y[i];
+        }
+        return dot / Math.sqrt(xx * yy);
+    }
+}
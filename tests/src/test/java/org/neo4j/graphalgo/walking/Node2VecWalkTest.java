@@ -181,4 +181,18 @@ public class Node2VecWalkTest {
         results.next();
         assertTrue("There should be only two results.", !results.hasNext());
     }
+
+    @Test
+    public void shouldWalkOnHugeGraphN2V() {
+        ResourceIterator<List<Long>> results = db.execute("CALL algo.randomWalk.stream(null, 7, 100, {mode:'node2vec', return: 0.5, inOut:2, graph:'huge', weightProperty:'cost'})").columnAs("nodeIds");
+
+        Set<Long> nodeIds = new HashSet<>();
+        while (results.hasNext()) {
+            List<Long> record = results.next();
+            // walks from the isolated node d end immediately
+            assertTrue(record.size() == 8 || record.size() == 1);
+            nodeIds.add(record.get(0));
+        }
+        assertEquals("Should have visited all nodes.",  NODE_COUNT, nodeIds.size());
+    }
 }
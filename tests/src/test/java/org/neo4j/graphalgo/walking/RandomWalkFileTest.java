@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.walking;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.core.utils.GraphFileDirectory;
+import org.neo4j.graphalgo.impl.walking.WalkCorpus;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.helpers.collection.MapUtil.map;
+
+public class RandomWalkFileTest {
+
+    private static final int NODE_COUNT = 100;
+
+    private static GraphDatabaseAPI db;
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void beforeClass() throws KernelException {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder()
+                .setConfig(GraphFileDirectory.SETTING, folder.getRoot().getPath())
+                .newGraphDatabase();
+        db.getDependencyResolver().resolveDependency(Procedures.class).registerProcedure(NodeWalkerProc.class);
+
+        // a ring, so that no walk ends early
+        db.execute("UNWIND range(0,$count-1) as id CREATE (n:Node {id:id}) " +
+                "WITH collect(n) as nodes " +
+                "UNWIND range(0,$count-1) as id WITH nodes[id] as n, nodes[(id + 1) % $count] as m " +
+                "CREATE (n)-[:NEXT]->(m)", map("count", NODE_COUNT)).close();
+    }
+
+    @AfterClass
+    public static void AfterClass() {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldWriteVarintWalks() throws IOException {
+        assertWalksWritten("varint");
+    }
+
+    @Test
+    public void shouldWriteFixedWalks() throws IOException {
+        assertWalksWritten("fixed");
+    }
+
+    @Test
+    public void shouldWriteNode2VecWalksOfHugeGraph() throws IOException {
+        File file = new File(folder.getRoot(), "node2vec.bin");
+        Map<String, Object> row = db.execute("CALL algo.randomWalk(null, 5, 50, $config)",
+                map("config", map("file", file.getName(), "mode", "node2vec", "graph", "huge", "concurrency", 2))).next();
+
+        assertEquals(50L, row.get("walks"));
+        assertEquals(50L * 6, readWalks(file.toPath()).stream().mapToLong(walk -> walk.length).sum());
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void shouldRequireFile() {
+        db.execute("CALL algo.randomWalk(null, 5, 50, {})").next();
+    }
+
+    @Test
+    public void shouldNotReplaceExistingFiles() throws IOException {
+        File file = folder.newFile("existing.bin");
+        Map<String, Object> config = map("file", file.getName(), "concurrency", 1);
+        try {
+            db.execute("CALL algo.randomWalk(null, 5, 50, $config)", map("config", config)).next();
+            fail("existing files must not be replaced");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("already exists"));
+        }
+        assertEquals(0L, file.length());
+
+        config.put("overwrite", true);
+        Map<String, Object> row = db.execute("CALL algo.randomWalk(null, 5, 50, $config)", map("config", config)).next();
+        assertEquals(file.getPath(), row.get("file"));
+        assertEquals(50, readWalks(file.toPath()).size());
+    }
+
+    @Test
+    public void shouldRejectFilesOutsideOfTheDirectory() {
+        for (String file : Arrays.asList("../walks.bin", new File(folder.getRoot().getParentFile(), "walks.bin").getPath())) {
+            try {
+                db.execute("CALL algo.randomWalk(null, 5, 50, $config)", map("config", map("file", file))).next();
+                fail(file + " is outside of the directory");
+            } catch (QueryExecutionException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("is not within the directory"));
+            }
+        }
+    }
+
+    @Test
+    public void shouldRoundTripWalks() throws IOException {
+        long[][] walks = {
+                {0L},
+                {42L, 7L, Long.MAX_VALUE, 0L, 1L << 40, 3L},
+                {},
+                {5L, 5L, 4L}
+        };
+        for (WalkCorpus.Format format : WalkCorpus.Format.values()) {
+            Path file = folder.newFile().toPath();
+            try (WalkCorpus corpus = WalkCorpus.create(file, format, true)) {
+                try (WalkCorpus.Writer writer = corpus.newWriter()) {
+                    for (long[] walk : walks) {
+                        writer.write(walk, walk.length);
+                    }
+                }
+                assertEquals(walks.length, corpus.walks());
+                assertEquals(10L, corpus.nodes());
+            }
+            List<long[]> read = readWalks(file);
+            assertEquals(walks.length, read.size());
+            for (int i = 0; i < walks.length; i++) {
+                assertArrayEquals(walks[i], read.get(i));
+            }
+        }
+    }
+
+    private void assertWalksWritten(String format) throws IOException {
+        File file = new File(folder.getRoot(), format + ".bin");
+        Map<String, Object> row = db.execute("CALL algo.randomWalk(null, 10, 1000, $config)",
+                map("config", map("file", file.getName(), "format", format, "concurrency", 4))).next();
+
+        assertEquals(format, row.get("format"));
+        assertEquals(1000L, row.get("walks"));
+        assertEquals(11000L, row.get("nodes"));
+        assertEquals(file.length(), row.get("bytes"));
+
+        Map<Long, Long> positions = new HashMap<>();
+        db.execute("MATCH (n:Node) RETURN id(n) AS nodeId, n.id AS position").forEachRemaining(r -> positions.put((Long) r.get("nodeId"), (Long) r.get("position")));
+        List<long[]> walks = readWalks(file.toPath());
+        assertEquals(1000, walks.size());
+        for (long[] walk : walks) {
+            assertEquals(11, walk.length);
+            for (int i = 1; i < walk.length; i++) {
+                // every step moves to a neighbour on the ring
+                long distance = (positions.get(walk[i]) - positions.get(walk[i - 1]) + NODE_COUNT) % NODE_COUNT;
+                assertTrue(Arrays.toString(walk), distance == 1 || distance == NODE_COUNT - 1);
+            }
+        }
+    }
+
+    private static List<long[]> readWalks(Path file) throws IOException {
+        List<long[]> walks = new ArrayList<>();
+        WalkCorpus.readWalks(file, walks::add);
+        return walks;
+    }
+}